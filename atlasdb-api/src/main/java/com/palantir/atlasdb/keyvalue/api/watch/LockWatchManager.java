@@ -32,6 +32,13 @@ public abstract class LockWatchManager {
     @Idempotent
     public abstract void registerPreciselyWatches(Set<LockWatchReferences.LockWatchReference> lockWatchReferences);
 
+    /**
+     * Returns a view of the client-side value cache for the transaction with the given start timestamp. If the
+     * transaction is not known to the lock watch event cache, or no lock watches are registered, the returned cache
+     * serves no values.
+     */
+    public abstract TransactionScopedCache getTransactionScopedCache(long startTs);
+
     // These methods are hidden on purpose as they should not be generally available, only for brave souls!
 
     abstract boolean isEnabled();
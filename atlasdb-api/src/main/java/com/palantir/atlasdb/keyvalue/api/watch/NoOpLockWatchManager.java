@@ -40,6 +40,11 @@ public final class NoOpLockWatchManager extends LockWatchManager {
         // Ignored
     }
 
+    @Override
+    public TransactionScopedCache getTransactionScopedCache(long startTs) {
+        return NoOpTransactionScopedCache.create();
+    }
+
     @Override
     boolean isEnabled() {
         return eventCache.isEnabled();
@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.util.Map;
+import java.util.Set;
+
+public final class NoOpTransactionScopedCache implements TransactionScopedCache {
+    private static final TransactionScopedCache INSTANCE = new NoOpTransactionScopedCache();
+
+    private NoOpTransactionScopedCache() {
+        // singleton
+    }
+
+    public static TransactionScopedCache create() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean isCacheable(TableReference tableRef) {
+        return false;
+    }
+
+    @Override
+    public Map<Cell, byte[]> get(TableReference tableRef, Set<Cell> cells) {
+        return ImmutableMap.of();
+    }
+
+    @Override
+    public void cacheRemoteReads(TableReference tableRef, Set<Cell> cells, Map<Cell, byte[]> values) {
+        // Ignored
+    }
+
+    @Override
+    public void onCommit(Map<TableReference, Set<Cell>> writtenCells) {
+        // Ignored
+    }
+}
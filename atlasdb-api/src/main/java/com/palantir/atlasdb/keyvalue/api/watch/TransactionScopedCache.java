@@ -0,0 +1,52 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A view of the client-side value cache as of the start of a single transaction. Values are only served for tables
+ * that are watched in their entirety, and only if no lock event for the relevant cell or row has occurred between the
+ * version at which the value was cached and the lock watch version of the transaction.
+ */
+public interface TransactionScopedCache {
+    /**
+     * Returns true if values of the given table may be served from, and used to populate, the cache.
+     */
+    boolean isCacheable(TableReference tableRef);
+
+    /**
+     * Returns the values of the given cells that can be served from the cache. Cells that are absent from the returned
+     * map must be read from the key value service. An empty value denotes a cell that is known to have no live value.
+     */
+    Map<Cell, byte[]> get(TableReference tableRef, Set<Cell> cells);
+
+    /**
+     * Records the result of reading the given cells from the key value service. Cells not present in {@code values}
+     * are treated as having no live value.
+     */
+    void cacheRemoteReads(TableReference tableRef, Set<Cell> cells, Map<Cell, byte[]> values);
+
+    /**
+     * Publishes the remote reads recorded by this transaction to the shared cache, excluding cells that the
+     * transaction wrote itself. Must only be called after the transaction has successfully committed.
+     */
+    void onCommit(Map<TableReference, Set<Cell>> writtenCells);
+}
@@ -27,6 +27,7 @@ import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.common.base.BatchingVisitable;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -151,6 +152,33 @@ public interface Transaction {
     @Idempotent
     ListenableFuture<Map<Cell, byte[]>> getAsync(TableReference tableRef, Set<Cell> cells);
 
+    /**
+     * Returns the same rows as {@link #getRows(TableReference, Iterable, ColumnSelection)}, without blocking the
+     * calling thread. It is not guaranteed that the actual implementations are in fact asynchronous.
+     *
+     * @param tableRef table to load rows from
+     * @param rows rows to be loaded
+     * @param columnSelection columns to load from the given rows
+     * @return a mapping of rows to the columns matching the provided column selection
+     */
+    @Idempotent
+    ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection);
+
+    /**
+     * Returns the first page of the given range, of at most the batch hint of the range request, without blocking
+     * the calling thread. If there are more rows in the range, the token of the page is the first row of the next
+     * page, so the range can be paged through by starting the range request at the token of each page. It is not
+     * guaranteed that the actual implementations are in fact asynchronous.
+     *
+     * @param tableRef the table to scan
+     * @param rangeRequest the range of rows and columns to scan
+     * @return the first page of the range
+     */
+    @Idempotent
+    ListenableFuture<TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]>> getRangePageAsync(
+            TableReference tableRef, RangeRequest rangeRequest);
+
     /**
      * Creates a visitable that scans the provided range.
      *
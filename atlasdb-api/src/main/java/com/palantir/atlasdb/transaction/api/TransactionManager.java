@@ -15,7 +15,10 @@
  */
 package com.palantir.atlasdb.transaction.api;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.cleaner.api.Cleaner;
+import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.watch.LockWatchManager;
 import com.palantir.atlasdb.metrics.Timed;
@@ -128,6 +131,49 @@ public interface TransactionManager extends AutoCloseable {
     @Timed
     <T, E extends Exception> T runTaskReadOnly(TransactionTask<T, E> task) throws E;
 
+    /**
+     * Runs the given {@link AsyncTransactionTask} as {@link #runTaskWithRetry(TransactionTask)} runs a
+     * {@link TransactionTask}, returning a future of its result rather than blocking the calling thread. The
+     * transaction is committed once the future returned by the task completes, and is retried, after backing off,
+     * if it fails with a retriable exception.
+     * <p>
+     * The default implementation blocks the calling thread on {@link #runTaskWithRetry(TransactionTask)}.
+     *
+     * @param task task to run
+     *
+     * @return a future of the value returned by the task, which fails if the task or the commit fails
+     */
+    @DoDelegate
+    default <T> ListenableFuture<T> runTaskWithRetryAsync(AsyncTransactionTask<T> task) {
+        try {
+            return Futures.immediateFuture(
+                    runTaskWithRetry(transaction -> AtlasFutures.getUnchecked(task.execute(transaction))));
+        } catch (RuntimeException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    /**
+     * Runs the given {@link AsyncTransactionTask} in a read-only transaction, as
+     * {@link #runTaskReadOnly(TransactionTask)} runs a {@link TransactionTask}, returning a future of its result
+     * rather than blocking the calling thread.
+     * <p>
+     * The default implementation blocks the calling thread on {@link #runTaskReadOnly(TransactionTask)}.
+     *
+     * @param task task to run
+     *
+     * @return a future of the value returned by the task
+     */
+    @DoDelegate
+    default <T> ListenableFuture<T> runTaskReadOnlyAsync(AsyncTransactionTask<T> task) {
+        try {
+            return Futures.immediateFuture(
+                    runTaskReadOnly(transaction -> AtlasFutures.getUnchecked(task.execute(transaction))));
+        } catch (RuntimeException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
     /**
      * This method is basically the same as {@link #runTaskWithRetry(TransactionTask)} but it will
      * acquire locks right before the transaction is created and release them after the task is complete.
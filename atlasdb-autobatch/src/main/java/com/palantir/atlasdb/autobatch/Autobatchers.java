@@ -19,13 +19,18 @@ package com.palantir.atlasdb.autobatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.CompileTimeConstant;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
 import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.tracing.Observability;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -93,6 +98,7 @@ public final class Autobatchers {
         private Observability observability = Observability.UNDECIDED;
         private OptionalInt bufferSize = OptionalInt.empty();
         private Optional<WaitStrategy> waitStrategy = Optional.empty();
+        private BatchingPolicy batchingPolicy = BatchingPolicy.defaultPolicy();
 
         @Nullable
         private String purpose;
@@ -126,9 +132,55 @@ public final class Autobatchers {
             return this;
         }
 
+        /**
+         * Lingering requires the autobatcher to be woken up periodically, and so cannot be combined with a custom
+         * {@link #waitStrategy}.
+         */
+        public AutobatcherBuilder<I, O> batchingPolicy(BatchingPolicy batchingPolicyParam) {
+            this.batchingPolicy = batchingPolicyParam;
+            return this;
+        }
+
         public DisruptorAutobatcher<I, O> build() {
             Preconditions.checkArgument(purpose != null, "purpose must be provided");
 
+            return buildDisruptorAutobatcher(safeTags.build());
+        }
+
+        /**
+         * Builds an autobatcher that spreads elements across the given number of partitions in turn. Each partition
+         * has its own buffer of the configured size, and its own thread running the batch function.
+         */
+        public PartitionedAutobatcher<I, O> buildPartitioned(int partitions) {
+            return buildPartitioned(partitions, Optional.empty());
+        }
+
+        /**
+         * Builds an autobatcher that routes elements across the given number of partitions by the given key. Elements
+         * with equal keys are processed by the same partition, in the order in which they were submitted.
+         */
+        public PartitionedAutobatcher<I, O> buildPartitioned(int partitions, Function<? super I, ?> partitionKey) {
+            return buildPartitioned(partitions, Optional.of(partitionKey));
+        }
+
+        private PartitionedAutobatcher<I, O> buildPartitioned(
+                int partitions, Optional<Function<? super I, ?>> partitionKey) {
+            Preconditions.checkArgument(purpose != null, "purpose must be provided");
+            Preconditions.checkArgument(
+                    partitions > 0, "number of partitions must be positive", SafeArg.of("partitions", partitions));
+
+            Map<String, String> tags = safeTags.build();
+            List<DisruptorAutobatcher<I, O>> autobatchers = new ArrayList<>(partitions);
+            for (int index = 0; index < partitions; index++) {
+                autobatchers.add(buildDisruptorAutobatcher(ImmutableMap.<String, String>builder()
+                        .putAll(tags)
+                        .put("partition", Integer.toString(index))
+                        .build()));
+            }
+            return PartitionedAutobatcher.create(autobatchers, partitionKey, purpose, tags);
+        }
+
+        private DisruptorAutobatcher<I, O> buildDisruptorAutobatcher(Map<String, String> tags) {
             int bufferSizeValue = bufferSize.orElse(DEFAULT_BUFFER_SIZE);
 
             EventHandler<BatchElement<I, O>> handler = this.handlerFactory.apply(bufferSizeValue);
@@ -136,9 +188,26 @@ public final class Autobatchers {
             EventHandler<BatchElement<I, O>> tracingHandler = new TracingEventHandler<>(handler, bufferSizeValue);
 
             EventHandler<BatchElement<I, O>> profiledHandler =
-                    new ProfilingEventHandler<>(tracingHandler, purpose, safeTags.build());
+                    new ProfilingEventHandler<>(tracingHandler, purpose, tags);
+
+            if (batchingPolicy.equals(BatchingPolicy.defaultPolicy())) {
+                return DisruptorAutobatcher.create(profiledHandler, bufferSizeValue, purpose, waitStrategy);
+            }
+
+            EventHandler<BatchElement<I, O>> policyHandler =
+                    BatchingPolicyEventHandler.create(profiledHandler, batchingPolicy);
+
+            return DisruptorAutobatcher.create(policyHandler, bufferSizeValue, purpose, policyWaitStrategy());
+        }
 
-            return DisruptorAutobatcher.create(profiledHandler, bufferSizeValue, purpose, waitStrategy);
+        private Optional<WaitStrategy> policyWaitStrategy() {
+            if (!batchingPolicy.maxLingerTime().isPresent()) {
+                return waitStrategy;
+            }
+            Preconditions.checkArgument(
+                    !waitStrategy.isPresent(), "a custom wait strategy cannot be used with a maxLingerTime");
+            Duration pollInterval = BatchingPolicyEventHandler.pollInterval(batchingPolicy);
+            return Optional.of(new TimeoutBlockingWaitStrategy(pollInterval.toNanos(), TimeUnit.NANOSECONDS));
         }
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
+import org.immutables.value.Value;
+
+/**
+ * Controls when an autobatcher hands the elements it has collected to its batch function. By default, a batch is
+ * whatever happened to be in the buffer when the batch function was last free.
+ */
+@Value.Immutable
+public interface BatchingPolicy {
+
+    /**
+     * If present, batches are split so that no more than this many elements are passed to the batch function at once.
+     */
+    OptionalInt maxBatchSize();
+
+    /**
+     * If present, the autobatcher waits for up to this long after the first element of a batch arrives for more
+     * elements to join it, rather than processing the batch as soon as the buffer is drained. A batch is processed
+     * early if it reaches {@link #maxBatchSize()}.
+     */
+    Optional<Duration> maxLingerTime();
+
+    /**
+     * If true, the autobatcher lingers for a fraction of the recently observed latency of the batch function, capped at
+     * {@link #maxLingerTime()}. Batches are then large when the batch function is slow, and so gains the most from
+     * amortising its cost, and small when it is fast.
+     */
+    @Value.Default
+    default boolean adaptive() {
+        return false;
+    }
+
+    @Value.Check
+    default void check() {
+        maxBatchSize()
+                .ifPresent(size -> Preconditions.checkArgument(
+                        size > 0, "maxBatchSize must be positive", SafeArg.of("maxBatchSize", size)));
+        maxLingerTime()
+                .ifPresent(linger -> Preconditions.checkArgument(
+                        !linger.isNegative() && !linger.isZero(),
+                        "maxLingerTime must be positive",
+                        SafeArg.of("maxLingerTime", linger)));
+        Preconditions.checkArgument(
+                !adaptive() || maxLingerTime().isPresent(), "adaptive batching requires a maxLingerTime");
+    }
+
+    static ImmutableBatchingPolicy.Builder builder() {
+        return ImmutableBatchingPolicy.builder();
+    }
+
+    static BatchingPolicy defaultPolicy() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.TimeoutHandler;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Applies a {@link BatchingPolicy} by rewriting the {@code endOfBatch} flag that the disruptor passes to the delegate.
+ *
+ * To linger, the last element seen when the disruptor reaches the end of its batch is held back, rather than passed
+ * on with {@code endOfBatch} set. It is passed on when the next element arrives, or, once the linger time has
+ * elapsed, either on the next element or when the disruptor's wait for one times out. The delegate therefore always
+ * sees each batch end on an element, and needs no notion of time.
+ */
+@NotThreadSafe // Disruptor runs the batching function on just one thread.
+final class BatchingPolicyEventHandler<T, R> implements EventHandler<BatchElement<T, R>>, TimeoutHandler,
+        LifecycleAware {
+    private static final double ADAPTIVE_LINGER_FRACTION = 0.25;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final int POLLS_PER_LINGER = 4;
+
+    private final EventHandler<BatchElement<T, R>> delegate;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final boolean adaptive;
+    private final LongSupplier clock;
+
+    private int batchSize = 0;
+    private long batchStartNanos;
+    private double smoothedLatencyNanos = 0;
+
+    @Nullable
+    private BatchElement<T, R> held = null;
+
+    private long heldSequence;
+
+    @VisibleForTesting
+    BatchingPolicyEventHandler(EventHandler<BatchElement<T, R>> delegate, BatchingPolicy policy, LongSupplier clock) {
+        this.delegate = delegate;
+        this.maxBatchSize = policy.maxBatchSize().orElse(Integer.MAX_VALUE);
+        this.maxLingerNanos = policy.maxLingerTime().map(Duration::toNanos).orElse(0L);
+        this.adaptive = policy.adaptive();
+        this.clock = clock;
+    }
+
+    static <T, R> EventHandler<BatchElement<T, R>> create(
+            EventHandler<BatchElement<T, R>> delegate, BatchingPolicy policy) {
+        return new BatchingPolicyEventHandler<>(delegate, policy, System::nanoTime);
+    }
+
+    /**
+     * How often the disruptor should wake the handler up while it is lingering on an otherwise idle buffer.
+     */
+    static Duration pollInterval(BatchingPolicy policy) {
+        Duration linger = policy.maxLingerTime().orElseThrow(IllegalStateException::new);
+        return Duration.ofNanos(Math.max(1, linger.toNanos() / POLLS_PER_LINGER));
+    }
+
+    @Override
+    public void onEvent(BatchElement<T, R> event, long sequence, boolean endOfBatch) throws Exception {
+        releaseHeld(false);
+        if (batchSize == 0) {
+            batchStartNanos = clock.getAsLong();
+        }
+        batchSize++;
+
+        if (batchSize >= maxBatchSize || (endOfBatch && lingerElapsed())) {
+            flush(event, sequence);
+        } else if (endOfBatch) {
+            held = event;
+            heldSequence = sequence;
+        } else {
+            delegate.onEvent(event, sequence, false);
+        }
+    }
+
+    @Override
+    public void onTimeout(long sequence) throws Exception {
+        if (held != null && lingerElapsed()) {
+            releaseHeld(true);
+        }
+    }
+
+    @Override
+    public void onStart() {}
+
+    @Override
+    public void onShutdown() {
+        try {
+            releaseHeld(true);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @VisibleForTesting
+    long currentLingerNanos() {
+        if (!adaptive) {
+            return maxLingerNanos;
+        }
+        return Math.min(maxLingerNanos, (long) (smoothedLatencyNanos * ADAPTIVE_LINGER_FRACTION));
+    }
+
+    private boolean lingerElapsed() {
+        return clock.getAsLong() - batchStartNanos >= currentLingerNanos();
+    }
+
+    private void releaseHeld(boolean endOfBatch) throws Exception {
+        if (held == null) {
+            return;
+        }
+        BatchElement<T, R> element = held;
+        held = null;
+        if (endOfBatch) {
+            flush(element, heldSequence);
+        } else {
+            delegate.onEvent(element, heldSequence, false);
+        }
+    }
+
+    private void flush(BatchElement<T, R> event, long sequence) throws Exception {
+        long start = clock.getAsLong();
+        try {
+            delegate.onEvent(event, sequence, true);
+        } finally {
+            batchSize = 0;
+            recordLatency(clock.getAsLong() - start);
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        smoothedLatencyNanos = smoothedLatencyNanos == 0
+                ? latencyNanos
+                : LATENCY_SMOOTHING * latencyNanos + (1 - LATENCY_SMOOTHING) * smoothedLatencyNanos;
+    }
+}
@@ -22,8 +22,10 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.TimeoutHandler;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
@@ -89,6 +91,30 @@ public final class DisruptorAutobatcher<T, R>
         return result;
     }
 
+    /**
+     * Like {@link #apply}, but rather than blocking until there is space in the buffer, returns a future that has
+     * already failed with an {@link AutobatcherSaturatedException} if the buffer is full.
+     */
+    public ListenableFuture<R> tryApply(T argument) {
+        Preconditions.checkState(!closed, "Autobatcher is already shut down");
+        DisruptorFuture<R> result = new DisruptorFuture<R>(safeLoggablePurpose);
+        boolean published = buffer.tryPublishEvent((refresh, sequence) -> {
+            refresh.result = result;
+            refresh.argument = argument;
+        });
+        if (!published) {
+            result.setException(new AutobatcherSaturatedException(safeLoggablePurpose, buffer.getBufferSize()));
+        }
+        return result;
+    }
+
+    /**
+     * The number of elements that have been submitted but not yet consumed by the handler.
+     */
+    long queueDepth() {
+        return buffer.getBufferSize() - buffer.remainingCapacity();
+    }
+
     @Override
     public void close() {
         closed = true;
@@ -102,6 +128,44 @@ public final class DisruptorAutobatcher<T, R>
         }
     }
 
+    /**
+     * Unwraps elements from the ring buffer, and passes on timeouts and shutdown to handlers that want them.
+     */
+    private static final class ConsumingEventHandler<T, R>
+            implements EventHandler<DisruptorBatchElement<T, R>>, TimeoutHandler, LifecycleAware {
+        private final EventHandler<BatchElement<T, R>> delegate;
+
+        private ConsumingEventHandler(EventHandler<BatchElement<T, R>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onEvent(DisruptorBatchElement<T, R> event, long sequence, boolean endOfBatch) throws Exception {
+            delegate.onEvent(event.consume(), sequence, endOfBatch);
+        }
+
+        @Override
+        public void onTimeout(long sequence) throws Exception {
+            if (delegate instanceof TimeoutHandler) {
+                ((TimeoutHandler) delegate).onTimeout(sequence);
+            }
+        }
+
+        @Override
+        public void onStart() {
+            if (delegate instanceof LifecycleAware) {
+                ((LifecycleAware) delegate).onStart();
+            }
+        }
+
+        @Override
+        public void onShutdown() {
+            if (delegate instanceof LifecycleAware) {
+                ((LifecycleAware) delegate).onShutdown();
+            }
+        }
+    }
+
     private static final class DisruptorBatchElement<T, R> {
         private T argument;
         private DisruptorFuture<R> result;
@@ -172,8 +236,7 @@ public final class DisruptorAutobatcher<T, R>
                 threadFactory(safeLoggablePurpose),
                 ProducerType.MULTI,
                 waitStrategy.orElseGet(BlockingWaitStrategy::new));
-        disruptor.handleEventsWith(
-                (event, sequence, endOfBatch) -> eventHandler.onEvent(event.consume(), sequence, endOfBatch));
+        disruptor.handleEventsWith(new ConsumingEventHandler<>(eventHandler));
         disruptor.start();
         return new DisruptorAutobatcher<>(disruptor, disruptor.getRingBuffer(), safeLoggablePurpose);
     }
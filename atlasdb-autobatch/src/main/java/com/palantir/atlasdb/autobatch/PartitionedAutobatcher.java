@@ -0,0 +1,124 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * An autobatcher made up of several independent {@link DisruptorAutobatcher}s, each with its own ring buffer and
+ * consumer thread, so that a hot batching function is not limited to a single consumer.
+ *
+ * If a partition key is supplied, all elements with equal keys are routed to the same partition, and so are
+ * processed in the order they were submitted. Otherwise, elements are spread across partitions in turn, and no
+ * ordering is guaranteed between them.
+ *
+ * While this class is public, it shouldn't be used as API outside of AtlasDB because we
+ * don't guarantee we won't break it.
+ */
+public final class PartitionedAutobatcher<T, R>
+        implements AsyncFunction<T, R>, Function<T, ListenableFuture<R>>, Closeable {
+    static final String QUEUE_DEPTH_GAUGE_NAME = PartitionedAutobatcher.class.getName() + ".queueDepth";
+
+    private final List<DisruptorAutobatcher<T, R>> partitions;
+    private final Optional<Function<? super T, ?>> partitionKey;
+    private final List<MetricName> queueDepthGauges;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+
+    private PartitionedAutobatcher(
+            List<DisruptorAutobatcher<T, R>> partitions,
+            Optional<Function<? super T, ?>> partitionKey,
+            List<MetricName> queueDepthGauges) {
+        this.partitions = partitions;
+        this.partitionKey = partitionKey;
+        this.queueDepthGauges = queueDepthGauges;
+    }
+
+    static <T, R> PartitionedAutobatcher<T, R> create(
+            List<DisruptorAutobatcher<T, R>> partitions,
+            Optional<Function<? super T, ?>> partitionKey,
+            String safeLoggablePurpose,
+            Map<String, String> tags) {
+        TaggedMetricRegistry registry = SharedTaggedMetricRegistries.getSingleton();
+        ImmutableList.Builder<MetricName> queueDepthGauges = ImmutableList.builder();
+        for (int index = 0; index < partitions.size(); index++) {
+            DisruptorAutobatcher<T, R> partition = partitions.get(index);
+            MetricName gaugeName = MetricName.builder()
+                    .safeName(QUEUE_DEPTH_GAUGE_NAME)
+                    .putSafeTags("identifier", safeLoggablePurpose)
+                    .putSafeTags("partition", Integer.toString(index))
+                    .putAllSafeTags(tags)
+                    .build();
+            Gauge<Long> queueDepth = partition::queueDepth;
+            registry.registerWithReplacement(gaugeName, queueDepth);
+            queueDepthGauges.add(gaugeName);
+        }
+        return new PartitionedAutobatcher<>(ImmutableList.copyOf(partitions), partitionKey, queueDepthGauges.build());
+    }
+
+    @Override
+    public ListenableFuture<R> apply(T argument) {
+        return partitions.get(partitionFor(argument)).apply(argument);
+    }
+
+    /**
+     * Fails fast if the buffer of the partition the element is routed to is full; see
+     * {@link DisruptorAutobatcher#tryApply}.
+     */
+    public ListenableFuture<R> tryApply(T argument) {
+        return partitions.get(partitionFor(argument)).tryApply(argument);
+    }
+
+    @Override
+    public void close() {
+        queueDepthGauges.forEach(SharedTaggedMetricRegistries.getSingleton()::remove);
+        partitions.forEach(DisruptorAutobatcher::close);
+    }
+
+    @VisibleForTesting
+    int partitionFor(T argument) {
+        if (partitionKey.isPresent()) {
+            return Math.floorMod(spread(partitionKey.get().apply(argument).hashCode()), partitions.size());
+        }
+        return Math.floorMod(nextPartition.getAndIncrement(), partitions.size());
+    }
+
+    @VisibleForTesting
+    int numberOfPartitions() {
+        return partitions.size();
+    }
+
+    /**
+     * Mixes the high bits of the hash into the low bits, as keys such as small integers or timestamps otherwise tend
+     * to cluster on a few partitions when the number of partitions is a power of two.
+     */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
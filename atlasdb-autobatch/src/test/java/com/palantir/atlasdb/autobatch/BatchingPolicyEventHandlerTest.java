@@ -0,0 +1,169 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.lmax.disruptor.EventHandler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class BatchingPolicyEventHandlerTest {
+    private static final Duration LINGER = Duration.ofMillis(10);
+
+    private final AtomicLong time = new AtomicLong();
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private final RecordingHandler recordingHandler = new RecordingHandler();
+
+    @Test
+    public void splitsBatchesAtMaxBatchSize() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler =
+                handler(BatchingPolicy.builder().maxBatchSize(2).build());
+
+        publish(handler, 1, 2, 3, 4, 5);
+
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2), ImmutableList.of(3, 4), ImmutableList.of(5));
+    }
+
+    @Test
+    public void lingersUntilLingerTimeHasElapsed() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler =
+                handler(BatchingPolicy.builder().maxLingerTime(LINGER).build());
+
+        publish(handler, 1, 2);
+        publish(handler, 3);
+        assertThat(batches).isEmpty();
+
+        time.addAndGet(LINGER.toNanos());
+        publish(handler, 4);
+
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2, 3, 4));
+    }
+
+    @Test
+    public void flushesLingeringBatchOnTimeoutOnceLingerTimeHasElapsed() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler =
+                handler(BatchingPolicy.builder().maxLingerTime(LINGER).build());
+
+        publish(handler, 1, 2);
+        handler.onTimeout(0);
+        assertThat(batches).isEmpty();
+
+        time.addAndGet(LINGER.toNanos());
+        handler.onTimeout(0);
+
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2));
+    }
+
+    @Test
+    public void maxBatchSizeCutsLingerShort() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler = handler(BatchingPolicy.builder()
+                .maxBatchSize(3)
+                .maxLingerTime(LINGER)
+                .build());
+
+        publish(handler, 1, 2);
+        publish(handler, 3);
+
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2, 3));
+    }
+
+    @Test
+    public void flushesLingeringBatchOnShutdown() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler =
+                handler(BatchingPolicy.builder().maxLingerTime(LINGER).build());
+
+        publish(handler, 1, 2);
+        handler.onShutdown();
+
+        assertThat(batches).containsExactly(ImmutableList.of(1, 2));
+    }
+
+    @Test
+    public void adaptiveLingerFollowsBatchFunctionLatency() throws Exception {
+        BatchingPolicyEventHandler<Integer, Integer> handler = handler(BatchingPolicy.builder()
+                .maxLingerTime(LINGER)
+                .adaptive(true)
+                .build());
+
+        assertThat(handler.currentLingerNanos()).isZero();
+        publish(handler, 1);
+        assertThat(batches).containsExactly(ImmutableList.of(1));
+
+        recordingHandler.latencyNanos = Duration.ofMillis(4).toNanos();
+        publish(handler, 2);
+        assertThat(handler.currentLingerNanos()).isEqualTo(Duration.ofMillis(1).toNanos());
+
+        recordingHandler.latencyNanos = Duration.ofSeconds(1).toNanos();
+        for (int i = 0; i < 50; i++) {
+            time.addAndGet(LINGER.toNanos());
+            publish(handler, i);
+        }
+        assertThat(handler.currentLingerNanos()).isEqualTo(LINGER.toNanos());
+    }
+
+    @Test
+    public void adaptiveRequiresLingerTime() {
+        assertThatThrownBy(() -> BatchingPolicy.builder().adaptive(true).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void lingeringAutobatcherCompletesLoneElement() throws Exception {
+        try (DisruptorAutobatcher<Integer, Integer> autobatcher = Autobatchers.<Integer, Integer>independent(
+                        batch -> batch.forEach(element -> element.result().set(element.argument())))
+                .safeLoggablePurpose("lingering-test")
+                .batchingPolicy(BatchingPolicy.builder().maxLingerTime(LINGER).build())
+                .build()) {
+            assertThat(autobatcher.apply(5).get(1, TimeUnit.MINUTES)).isEqualTo(5);
+        }
+    }
+
+    private BatchingPolicyEventHandler<Integer, Integer> handler(BatchingPolicy policy) {
+        return new BatchingPolicyEventHandler<>(recordingHandler, policy, time::get);
+    }
+
+    private static void publish(BatchingPolicyEventHandler<Integer, Integer> handler, int... values)
+            throws Exception {
+        for (int index = 0; index < values.length; index++) {
+            handler.onEvent(
+                    BatchElement.of(values[index], new DisruptorAutobatcher.DisruptorFuture<>("test")),
+                    index,
+                    index == values.length - 1);
+        }
+    }
+
+    private final class RecordingHandler implements EventHandler<BatchElement<Integer, Integer>> {
+        private final List<Integer> pending = new ArrayList<>();
+        private long latencyNanos = 0;
+
+        @Override
+        public void onEvent(BatchElement<Integer, Integer> event, long sequence, boolean endOfBatch) {
+            pending.add(event.argument());
+            if (endOfBatch) {
+                time.addAndGet(latencyNanos);
+                batches.add(ImmutableList.copyOf(pending));
+                pending.clear();
+            }
+        }
+    }
+}
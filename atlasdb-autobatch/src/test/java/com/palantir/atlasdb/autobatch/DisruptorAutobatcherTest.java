@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class DisruptorAutobatcherTest {
+
+    @Test
+    public void tryApplyFailsFastWhenBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (DisruptorAutobatcher<Integer, Integer> autobatcher = Autobatchers.<Integer, Integer>independent(
+                        batch -> {
+                            awaitUninterruptibly(release);
+                            batch.forEach(element -> element.result().set(element.argument()));
+                        })
+                .safeLoggablePurpose("saturation-test")
+                .bufferSize(OptionalInt.of(4))
+                .build()) {
+            List<ListenableFuture<Integer>> accepted = new ArrayList<>();
+            ListenableFuture<Integer> rejected = null;
+            for (int i = 0; i < 16 && rejected == null; i++) {
+                ListenableFuture<Integer> result = autobatcher.tryApply(i);
+                if (result.isDone()) {
+                    rejected = result;
+                } else {
+                    accepted.add(result);
+                }
+            }
+
+            assertThat(rejected).isNotNull();
+            assertThatThrownBy(rejected::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(AutobatcherSaturatedException.class);
+
+            release.countDown();
+            for (ListenableFuture<Integer> result : accepted) {
+                assertThat(result.get(1, TimeUnit.MINUTES)).isNotNull();
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class PartitionedAutobatcherTest {
+    private static final int PARTITIONS = 4;
+    private static final int KEYS = 8;
+    private static final int ELEMENTS_PER_KEY = 1_000;
+
+    private final Map<Integer, List<Integer>> processedByKey = new ConcurrentHashMap<>();
+    private final Set<String> processingThreads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void processesAllElements() throws Exception {
+        try (PartitionedAutobatcher<Element, Integer> autobatcher = Autobatchers.independent(this::process)
+                .safeLoggablePurpose("partitioned-test")
+                .buildPartitioned(PARTITIONS)) {
+            List<ListenableFuture<Integer>> futures = IntStream.range(0, ELEMENTS_PER_KEY)
+                    .mapToObj(index -> autobatcher.apply(new Element(index % KEYS, index)))
+                    .collect(Collectors.toList());
+
+            assertThat(Futures.allAsList(futures).get())
+                    .containsExactlyElementsOf(
+                            IntStream.range(0, ELEMENTS_PER_KEY).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void roundRobinUsesAllPartitions() {
+        try (PartitionedAutobatcher<Element, Integer> autobatcher = Autobatchers.independent(this::process)
+                .safeLoggablePurpose("partitioned-test")
+                .buildPartitioned(PARTITIONS)) {
+            Set<Integer> partitions = IntStream.range(0, PARTITIONS)
+                    .mapToObj(index -> autobatcher.partitionFor(new Element(0, index)))
+                    .collect(Collectors.toSet());
+
+            assertThat(partitions).hasSize(PARTITIONS);
+        }
+    }
+
+    @Test
+    public void elementsWithTheSameKeyAreProcessedInSubmissionOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(KEYS);
+        try (PartitionedAutobatcher<Element, Integer> autobatcher = Autobatchers.independent(this::process)
+                .safeLoggablePurpose("partitioned-test")
+                .buildPartitioned(PARTITIONS, Element::key)) {
+            List<Future<List<Integer>>> submissions = new ArrayList<>();
+            for (int key = 0; key < KEYS; key++) {
+                int submittingKey = key;
+                submissions.add(executor.submit(() -> submitInOrder(autobatcher, submittingKey)));
+            }
+            for (Future<List<Integer>> submission : submissions) {
+                submission.get();
+            }
+
+            for (int key = 0; key < KEYS; key++) {
+                assertThat(processedByKey.get(key))
+                        .containsExactlyElementsOf(
+                                IntStream.range(0, ELEMENTS_PER_KEY).boxed().collect(Collectors.toList()));
+            }
+            assertThat(processingThreads).hasSizeGreaterThan(1).hasSizeLessThanOrEqualTo(PARTITIONS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sameKeyAlwaysMapsToSamePartition() {
+        try (PartitionedAutobatcher<Element, Integer> autobatcher = Autobatchers.independent(this::process)
+                .safeLoggablePurpose("partitioned-test")
+                .buildPartitioned(PARTITIONS, Element::key)) {
+            for (int key = 0; key < KEYS; key++) {
+                int partition = autobatcher.partitionFor(new Element(key, 0));
+                for (int value = 1; value < 10; value++) {
+                    assertThat(autobatcher.partitionFor(new Element(key, value))).isEqualTo(partition);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void registersAndRemovesQueueDepthGaugePerPartition() {
+        PartitionedAutobatcher<Element, Integer> autobatcher = Autobatchers.independent(this::process)
+                .safeLoggablePurpose("partitioned-gauges")
+                .buildPartitioned(PARTITIONS);
+
+        assertThat(queueDepthGauges()).hasSize(PARTITIONS);
+
+        autobatcher.close();
+
+        assertThat(queueDepthGauges()).isEmpty();
+    }
+
+    @Test
+    public void requiresPositiveNumberOfPartitions() {
+        assertThatThrownBy(() -> Autobatchers.independent(this::process)
+                        .safeLoggablePurpose("partitioned-test")
+                        .buildPartitioned(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Integer> submitInOrder(PartitionedAutobatcher<Element, Integer> autobatcher, int key)
+            throws Exception {
+        List<ListenableFuture<Integer>> futures = new ArrayList<>();
+        for (int value = 0; value < ELEMENTS_PER_KEY; value++) {
+            futures.add(autobatcher.apply(new Element(key, value)));
+        }
+        return Futures.allAsList(futures).get();
+    }
+
+    private void process(List<BatchElement<Element, Integer>> batch) {
+        processingThreads.add(Thread.currentThread().getName());
+        for (BatchElement<Element, Integer> element : batch) {
+            processedByKey
+                    .computeIfAbsent(
+                            element.argument().key(), unused -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(element.argument().value());
+            element.result().set(element.argument().value());
+        }
+    }
+
+    private static Set<MetricName> queueDepthGauges() {
+        return SharedTaggedMetricRegistries.getSingleton().getMetrics().keySet().stream()
+                .filter(name -> name.safeName().equals(PartitionedAutobatcher.QUEUE_DEPTH_GAUGE_NAME))
+                .filter(name -> "partitioned-gauges".equals(name.safeTags().get("identifier")))
+                .collect(Collectors.toSet());
+    }
+
+    private static final class Element {
+        private final int key;
+        private final int value;
+
+        private Element(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        int key() {
+            return key;
+        }
+
+        int value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.cassandra;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Preconditions;
+import org.immutables.value.Value;
+
+/**
+ * Configures speculative (hedged) reads. If enabled, an idempotent read that has not completed after the configured
+ * percentile of recent read latencies is also sent to a second replica, and the first response to arrive is used.
+ *
+ * Hedging trades a small amount of additional load for protection against a single slow node, for example one that
+ * is in a long garbage collection pause, dominating tail latencies.
+ */
+@JsonSerialize(as = ImmutableCassandraHedgedReadsConfig.class)
+@JsonDeserialize(as = ImmutableCassandraHedgedReadsConfig.class)
+@Value.Immutable
+public abstract class CassandraHedgedReadsConfig {
+    @Value.Default
+    public boolean enabled() {
+        return false;
+    }
+
+    /**
+     * The percentile, between 0 and 1, of the latencies of reads over the last minute, after which a read is hedged.
+     * Roughly this proportion of reads is therefore never hedged.
+     */
+    @Value.Default
+    public double latencyPercentile() {
+        return 0.95;
+    }
+
+    /**
+     * Reads are never hedged before this delay, however fast recent reads have been.
+     */
+    @Value.Default
+    public int minimumDelayMillis() {
+        return 5;
+    }
+
+    @Value.Check
+    public void check() {
+        Preconditions.checkState(
+                latencyPercentile() > 0.0 && latencyPercentile() <= 1.0,
+                "latencyPercentile should be between 0 (exclusive) and 1 (inclusive), but found %s",
+                latencyPercentile());
+        Preconditions.checkState(
+                minimumDelayMillis() >= 0,
+                "minimumDelayMillis should not be negative, but found %s",
+                minimumDelayMillis());
+    }
+
+    static CassandraHedgedReadsConfig defaultConfig() {
+        return ImmutableCassandraHedgedReadsConfig.builder().build();
+    }
+}
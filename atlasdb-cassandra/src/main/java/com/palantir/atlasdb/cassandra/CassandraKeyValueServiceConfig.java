@@ -145,6 +145,24 @@ public interface CassandraKeyValueServiceConfig extends KeyValueServiceConfig {
         return 1.0;
     }
 
+    /**
+     * If true, reads and writes are sent to the less loaded of two randomly chosen candidate hosts, where the load of
+     * a host is the exponentially weighted moving average of its recent request latencies, scaled by its number of
+     * open requests. Otherwise, hosts are chosen at random, weighted inversely by their number of open requests.
+     */
+    @Value.Default
+    default boolean latencyAwareHostSelection() {
+        return false;
+    }
+
+    /**
+     * Speculative hedging of idempotent reads against a second replica.
+     */
+    @Value.Default
+    default CassandraHedgedReadsConfig hedgedReads() {
+        return CassandraHedgedReadsConfig.defaultConfig();
+    }
+
     /**
      * Overrides the behaviour of the host location supplier.
      */
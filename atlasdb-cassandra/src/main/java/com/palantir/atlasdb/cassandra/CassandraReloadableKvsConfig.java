@@ -210,6 +210,16 @@ public class CassandraReloadableKvsConfig implements CassandraKeyValueServiceCon
         return config.schemaMutationTimeoutMillis();
     }
 
+    @Override
+    public boolean latencyAwareHostSelection() {
+        return config.latencyAwareHostSelection();
+    }
+
+    @Override
+    public CassandraHedgedReadsConfig hedgedReads() {
+        return config.hedgedReads();
+    }
+
     @Override
     public int rangesConcurrency() {
         return config.rangesConcurrency();
@@ -66,6 +66,30 @@ public final class CassandraServersConfigs {
         public int preparedStatementCacheSize() {
             return 100;
         }
+
+        /**
+         * Cells of the same row read by one async get are fetched with a single statement, reading at most this many
+         * cells. Setting this to 1 issues one statement per cell.
+         */
+        @Value.Default
+        public int maxCellsPerMultiGet() {
+            return 100;
+        }
+
+        /**
+         * Maximum number of requests in flight on each connection to a host; requests beyond this wait for a
+         * connection to become available, up to the CQL pool timeout.
+         */
+        @Value.Default
+        public int maxRequestsPerConnection() {
+            return 1024;
+        }
+
+        @Value.Check
+        protected final void check() {
+            Preconditions.checkArgument(maxCellsPerMultiGet() > 0, "maxCellsPerMultiGet must be positive");
+            Preconditions.checkArgument(maxRequestsPerConnection() > 0, "maxRequestsPerConnection must be positive");
+        }
     }
 
     @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = ImmutableDefaultConfig.class)
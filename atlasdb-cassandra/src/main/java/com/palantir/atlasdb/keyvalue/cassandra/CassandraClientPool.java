@@ -15,9 +15,11 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import com.google.common.collect.RangeMap;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.processors.AutoDelegate;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
 
 @AutoDelegate
@@ -34,8 +36,23 @@ public interface CassandraClientPool {
 
     <V, K extends Exception> V runWithRetry(FunctionCheckedException<CassandraClient, V, K> fn) throws K;
 
+    /**
+     * Runs an idempotent read as {@link #runWithRetryOnHost(InetSocketAddress, FunctionCheckedException)}. If hedged
+     * reads are enabled and the host is slow to respond, the read is also sent to another live replica of the given
+     * row, and the first successful response is returned. The function must therefore be safe to run concurrently
+     * against two hosts, and must not have side effects.
+     */
+    <V, K extends Exception> V runHedgedReadWithRetryOnHost(
+            InetSocketAddress specifiedHost, byte[] row, FunctionCheckedException<CassandraClient, V, K> fn)
+            throws K;
+
     InetSocketAddress getRandomHostForKey(byte[] key);
 
+    /**
+     * Returns the latest known view of the token ring, mapping each token range to the hosts that own it.
+     */
+    RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap();
+
     Map<InetSocketAddress, CassandraClientPoolingContainer> getCurrentPools();
 
     void shutdown();
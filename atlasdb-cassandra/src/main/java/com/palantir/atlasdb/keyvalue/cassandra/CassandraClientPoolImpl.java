@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -113,6 +114,8 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
     private final ScheduledExecutorService refreshDaemon;
     private final CassandraClientPoolMetrics metrics;
     private final InitializingWrapper wrapper = new InitializingWrapper();
+    private final Optional<ExecutorService> hedgedReadExecutor;
+    private final Optional<HedgedReads> hedgedReads;
 
     private ScheduledFuture<?> refreshPoolFuture;
 
@@ -209,6 +212,19 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         this.exceptionHandler = exceptionHandler;
         this.cassandra = cassandra;
         this.metrics = metrics;
+        this.hedgedReadExecutor =
+                config.hedgedReads().enabled() ? Optional.of(createHedgedReadExecutor(config)) : Optional.empty();
+        this.hedgedReads = hedgedReadExecutor.map(
+                executor -> new HedgedReads(config.hedgedReads(), metrics, executor));
+    }
+
+    /**
+     * A read holds a connection to its host while it runs, so there is no use in running more reads at once than the
+     * pools of all hosts have connections for.
+     */
+    private static ExecutorService createHedgedReadExecutor(CassandraKeyValueServiceConfig config) {
+        int maxThreads = Math.max(1, config.maxConnectionBurstSize() * config.servers().numberOfThriftHosts());
+        return PTExecutors.newCachedThreadPoolWithMaxThreads(maxThreads, "cassandra-hedged-reads");
     }
 
     private void tryInitialize() {
@@ -256,6 +272,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
     public void shutdown() {
         cassandra.close();
         refreshPoolFuture.cancel(false);
+        hedgedReadExecutor.ifPresent(ExecutorService::shutdown);
         cassandra
                 .getPools()
                 .forEach((address, cassandraClientPoolingContainer) ->
@@ -281,8 +298,8 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         return cassandra.getPools();
     }
 
-    @VisibleForTesting
-    RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap() {
+    @Override
+    public RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap() {
         return cassandra.getTokenMap();
     }
 
@@ -434,6 +451,21 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         }
     }
 
+    @Override
+    public <V, K extends Exception> V runHedgedReadWithRetryOnHost(
+            InetSocketAddress specifiedHost, byte[] row, FunctionCheckedException<CassandraClient, V, K> fn)
+            throws K {
+        if (!hedgedReads.isPresent()) {
+            return runWithRetryOnHost(specifiedHost, fn);
+        }
+        return hedgedReads
+                .get()
+                .run(
+                        specifiedHost,
+                        () -> cassandra.getRandomHostForKeyExcluding(row, specifiedHost),
+                        host -> runWithRetryOnHost(host, fn));
+    }
+
     private <V, K extends Exception> CassandraClientPoolingContainer getPreferredHostOrFallBack(
             RetryableCassandraRequest<V, K> req) {
         CassandraClientPoolingContainer hostPool = cassandra.getPools().get(req.getPreferredHost());
@@ -22,6 +22,7 @@ import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolHostLevelMetric;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolMetrics;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.ExponentiallyWeightedLatency;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.pooling.PoolingContainer;
@@ -60,6 +61,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
     private final MetricsManager metricsManager;
     private final AtomicLong count = new AtomicLong();
     private final AtomicInteger openRequests = new AtomicInteger();
+    private final ExponentiallyWeightedLatency latency = ExponentiallyWeightedLatency.create();
     private final GenericObjectPool<CassandraClient> clientPool;
     private final int poolNumber;
     private final CassandraClientPoolMetrics poolMetrics;
@@ -92,6 +94,14 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         return openRequests.get();
     }
 
+    /**
+     * Moving average of the latencies of recent calls to {@link #runWithPooledResource(FunctionCheckedException)},
+     * in microseconds, including calls that fail. See {@link ExponentiallyWeightedLatency}.
+     */
+    public long getLatencyEwmaMicros() {
+        return latency.getAverageMicros();
+    }
+
     // returns negative if not available; only expected use is debugging
     public int getActiveCheckouts() {
         return clientPool.getNumActive();
@@ -111,6 +121,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                         + " calling cassandra host " + host
                         + " started at " + DateTimeFormatter.ISO_INSTANT.format(Instant.now())
                         + " - " + count.getAndIncrement());
+        long startNanos = System.nanoTime();
         try {
             openRequests.getAndIncrement();
             return runWithGoodResource(fn);
@@ -131,6 +142,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
             throw t;
         } finally {
             openRequests.getAndDecrement();
+            latency.update(System.nanoTime() - startNanos);
             Thread.currentThread().setName(origName);
         }
     }
@@ -323,6 +335,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         registerPoolMetric(CassandraClientPoolHostLevelMetric.NUM_ACTIVE, () -> (long) pool.getNumActive());
         registerPoolMetric(CassandraClientPoolHostLevelMetric.CREATED, pool::getCreatedCount);
         registerPoolMetric(CassandraClientPoolHostLevelMetric.DESTROYED_BY_EVICTOR, pool::getDestroyedByEvictorCount);
+        registerPoolMetric(CassandraClientPoolHostLevelMetric.LATENCY_EWMA_MICROS, this::getLatencyEwmaMicros);
     }
 
     private void registerPoolMetric(CassandraClientPoolHostLevelMetric metric, Gauge<Long> gauge) {
@@ -16,7 +16,11 @@
 package com.palantir.atlasdb.keyvalue.cassandra;
 
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
 import com.palantir.processors.AutoDelegate;
 import java.util.List;
 
@@ -39,4 +43,26 @@ public interface CassandraKeyValueService extends KeyValueService {
      * @param maxResults the request only returns the first maxResults rows in range.
      */
     List<byte[]> getRowKeysInRange(TableReference tableRef, byte[] startRow, byte[] endRow, int maxResults);
+
+    /**
+     * Returns the same rows as {@link #getRange(TableReference, RangeRequest, long)}, in the same order, but reads
+     * the range in splits along the token ring, scanning several splits from their owning replicas concurrently.
+     * This is intended for large scans, such as copying or validating a whole table. Reverse ranges are not supported.
+     *
+     * Remember to close any {@link ClosableIterator}s you get in a finally block.
+     *
+     * @throws IllegalArgumentException if the range request is reversed
+     */
+    ClosableIterator<RowResult<Value>> getRangeInSplits(
+            TableReference tableRef, RangeRequest rangeRequest, long timestamp);
+
+    /**
+     * As {@link #getRangeInSplits(TableReference, RangeRequest, long)}, but rows are returned in the order in which
+     * they are read, rather than in row order. Use this when the order of rows does not matter, as the scan is then
+     * never held up waiting for a slow split. Reverse ranges are not supported.
+     *
+     * @throws IllegalArgumentException if the range request is reversed
+     */
+    ClosableIterator<RowResult<Value>> getRangeInSplitsUnordered(
+            TableReference tableRef, RangeRequest rangeRequest, long timestamp);
 }
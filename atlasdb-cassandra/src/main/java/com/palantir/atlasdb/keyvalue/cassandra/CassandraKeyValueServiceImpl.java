@@ -676,8 +676,9 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     private Map<ByteBuffer, List<ColumnOrSuperColumn>> getForKeyPredicates(
             final InetSocketAddress host, final TableReference tableRef, List<KeyPredicate> query, final long startTs)
             throws Exception {
-        return clientPool.runWithRetryOnHost(
+        return clientPool.runHedgedReadWithRetryOnHost(
                 host,
+                CassandraKeyValueServices.getBytesFromByteBuffer(query.get(0).bufferForKey()),
                 new FunctionCheckedException<CassandraClient, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
                     @Override
                     public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(CassandraClient client) throws Exception {
@@ -907,8 +908,9 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             BatchColumnRangeSelection batchColumnRangeSelection,
             long startTs) {
         try {
-            return clientPool.runWithRetryOnHost(
+            return clientPool.runHedgedReadWithRetryOnHost(
                     host,
+                    rows.get(0),
                     new FunctionCheckedException<
                             CassandraClient, RowColumnRangeExtractor.RowColumnRangeResult, Exception>() {
                         @Override
@@ -1292,6 +1294,22 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         return rangeLoader.getRange(tableRef, rangeRequest, timestamp);
     }
 
+    @Override
+    @Idempotent
+    public ClosableIterator<RowResult<Value>> getRangeInSplits(
+            TableReference tableRef, RangeRequest rangeRequest, long timestamp) {
+        return rangeLoader.getRangeInSplits(
+                tableRef, rangeRequest, timestamp, executor, config.rangesConcurrency(), true);
+    }
+
+    @Override
+    @Idempotent
+    public ClosableIterator<RowResult<Value>> getRangeInSplitsUnordered(
+            TableReference tableRef, RangeRequest rangeRequest, long timestamp) {
+        return rangeLoader.getRangeInSplits(
+                tableRef, rangeRequest, timestamp, executor, config.rangesConcurrency(), false);
+    }
+
     /**
      * Gets timestamp values from the key-value store. For each row, this returns all associated
      * timestamps &lt; given_ts.
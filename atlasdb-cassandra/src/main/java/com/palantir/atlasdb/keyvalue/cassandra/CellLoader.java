@@ -145,36 +145,44 @@ final class CellLoader {
         final ColumnParent colFam = new ColumnParent(CassandraKeyValueServiceImpl.internalTableName(tableRef));
         List<Callable<Void>> tasks = new ArrayList<>();
         for (final List<Cell> partition : batcher.partitionIntoBatches(cells, host, tableRef)) {
-            Callable<Void> multiGetCallable = () -> clientPool.runWithRetryOnHost(
-                    host, new FunctionCheckedException<CassandraClient, Void, Exception>() {
-                        @Override
-                        public Void apply(CassandraClient client) throws Exception {
-                            List<KeyPredicate> query = translatePartitionToKeyPredicates(partition, startTs, loadAllTs);
-
-                            if (log.isTraceEnabled()) {
-                                log.trace(
-                                        "Requesting {} cells from {} {}starting at timestamp {} on {}",
-                                        SafeArg.of("cells", partition.size()),
-                                        LoggingArgs.tableRef(tableRef),
-                                        SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
-                                        SafeArg.of("startTs", startTs),
-                                        SafeArg.of("host", CassandraLogHelper.host(host)));
+            // The visitor is called outside the read, so that a hedged read does not visit its results twice
+            Callable<Void> multiGetCallable = () -> {
+                visitor.visit(clientPool.runHedgedReadWithRetryOnHost(
+                        host,
+                        partition.get(0).getRowName(),
+                        new FunctionCheckedException<
+                                CassandraClient, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
+                            @Override
+                            public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(CassandraClient client)
+                                    throws Exception {
+                                List<KeyPredicate> query =
+                                        translatePartitionToKeyPredicates(partition, startTs, loadAllTs);
+
+                                if (log.isTraceEnabled()) {
+                                    log.trace(
+                                            "Requesting {} cells from {} {}starting at timestamp {} on {}",
+                                            SafeArg.of("cells", partition.size()),
+                                            LoggingArgs.tableRef(tableRef),
+                                            SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
+                                            SafeArg.of("startTs", startTs),
+                                            SafeArg.of("host", CassandraLogHelper.host(host)));
+                                }
+
+                                Map<ByteBuffer, List<List<ColumnOrSuperColumn>>> results =
+                                        queryRunner.multiget_multislice(
+                                                kvsMethodName, client, tableRef, query, consistency);
+                                return Maps.transformValues(
+                                        results, lists -> Lists.newArrayList(Iterables.concat(lists)));
                             }
 
-                            Map<ByteBuffer, List<List<ColumnOrSuperColumn>>> results = queryRunner.multiget_multislice(
-                                    kvsMethodName, client, tableRef, query, consistency);
-                            Map<ByteBuffer, List<ColumnOrSuperColumn>> aggregatedResults =
-                                    Maps.transformValues(results, lists -> Lists.newArrayList(Iterables.concat(lists)));
-                            visitor.visit(aggregatedResults);
-                            return null;
-                        }
-
-                        @Override
-                        public String toString() {
-                            return "multiget_multislice(" + host + ", " + colFam + ", " + partition.size() + " cells"
-                                    + ")";
-                        }
-                    });
+                            @Override
+                            public String toString() {
+                                return "multiget_multislice(" + host + ", " + colFam + ", " + partition.size()
+                                        + " cells)";
+                            }
+                        }));
+                return null;
+            };
             tasks.add(AnnotatedCallable.wrapWithThreadName(
                     AnnotationType.PREPEND,
                     "Atlas loadWithTs " + partition.size() + " cells from " + tableRef + " on " + host,
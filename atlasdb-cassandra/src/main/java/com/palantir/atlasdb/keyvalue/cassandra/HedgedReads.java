@@ -0,0 +1,191 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.cassandra.CassandraHedgedReadsConfig;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolMetrics;
+import com.palantir.common.base.FunctionCheckedException;
+import com.palantir.common.base.Throwables;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs idempotent reads with speculative hedging. A read is sent to its preferred host, and if it has not completed
+ * after the configured percentile of the latencies of reads over the last minute, it is also sent to a second host.
+ * The first successful response is used; a read only fails if both hosts fail, in which case the failure of the
+ * preferred host is thrown. A read that fails before it is hedged is not hedged, as the retries of the client pool
+ * already cover failures.
+ *
+ * Reads are run on a dedicated executor, so that the calling thread can return as soon as either host responds. The
+ * executor has a bounded number of threads; if all of them are busy, a read is run on the calling thread instead, and
+ * a second read is not sent.
+ */
+final class HedgedReads {
+    private static final long DELAY_REFRESH_MILLIS = 1000;
+
+    private final CassandraHedgedReadsConfig config;
+    private final CassandraClientPoolMetrics metrics;
+    private final Executor executor;
+    private final Histogram readLatencies = new Histogram(new SlidingTimeWindowArrayReservoir(1, TimeUnit.MINUTES));
+    private final Supplier<Long> hedgingDelayNanos;
+
+    HedgedReads(CassandraHedgedReadsConfig config, CassandraClientPoolMetrics metrics, Executor executor) {
+        this.config = config;
+        this.metrics = metrics;
+        this.executor = executor;
+        this.hedgingDelayNanos = Suppliers.memoizeWithExpiration(
+                this::computeHedgingDelayNanos, DELAY_REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    <V, K extends Exception> V run(
+            InetSocketAddress preferredHost,
+            Supplier<Optional<InetSocketAddress>> hedgeHost,
+            FunctionCheckedException<InetSocketAddress, V, K> readOnHost)
+            throws K {
+        ListenableFuture<V> preferredRead;
+        try {
+            preferredRead = submitRead(preferredHost, readOnHost);
+        } catch (RejectedExecutionException e) {
+            return timedRead(preferredHost, readOnHost);
+        }
+        try {
+            return preferredRead.get(hedgingDelayNanos.get(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Hedge below
+        } catch (ExecutionException e) {
+            throw this.<K>unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            preferredRead.cancel(false);
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+
+        Optional<InetSocketAddress> secondHost = hedgeHost.get();
+        if (!secondHost.isPresent()) {
+            return this.<V, K>getUninterruptibly(preferredRead);
+        }
+
+        ListenableFuture<V> hedgedRead;
+        try {
+            hedgedRead = submitRead(secondHost.get(), readOnHost);
+        } catch (RejectedExecutionException e) {
+            return this.<V, K>getUninterruptibly(preferredRead);
+        }
+        metrics.recordHedgedRead();
+        SettableFuture<V> firstSuccess = SettableFuture.create();
+        AtomicInteger failedReads = new AtomicInteger();
+        Futures.addCallback(
+                preferredRead,
+                new FutureCallback<V>() {
+                    @Override
+                    public void onSuccess(V result) {
+                        firstSuccess.set(result);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        if (failedReads.incrementAndGet() == 2) {
+                            firstSuccess.setFuture(preferredRead);
+                        }
+                    }
+                },
+                MoreExecutors.directExecutor());
+        Futures.addCallback(
+                hedgedRead,
+                new FutureCallback<V>() {
+                    @Override
+                    public void onSuccess(V result) {
+                        if (firstSuccess.set(result)) {
+                            metrics.recordHedgedReadWin();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        if (failedReads.incrementAndGet() == 2) {
+                            firstSuccess.setFuture(preferredRead);
+                        }
+                    }
+                },
+                MoreExecutors.directExecutor());
+
+        try {
+            return this.<V, K>getUninterruptibly(firstSuccess);
+        } finally {
+            preferredRead.cancel(false);
+            hedgedRead.cancel(false);
+        }
+    }
+
+    @VisibleForTesting
+    long computeHedgingDelayNanos() {
+        long percentileNanos = Math.round(readLatencies.getSnapshot().getValue(config.latencyPercentile()));
+        return Math.max(percentileNanos, TimeUnit.MILLISECONDS.toNanos(config.minimumDelayMillis()));
+    }
+
+    private <V, K extends Exception> ListenableFuture<V> submitRead(
+            InetSocketAddress host, FunctionCheckedException<InetSocketAddress, V, K> readOnHost) {
+        return Futures.submit(() -> timedRead(host, readOnHost), executor);
+    }
+
+    private <V, K extends Exception> V timedRead(
+            InetSocketAddress host, FunctionCheckedException<InetSocketAddress, V, K> readOnHost) throws K {
+        long startNanos = System.nanoTime();
+        try {
+            return readOnHost.apply(host);
+        } finally {
+            readLatencies.update(System.nanoTime() - startNanos);
+        }
+    }
+
+    private <V, K extends Exception> V getUninterruptibly(ListenableFuture<V> future) throws K {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            throw this.<K>unwrap(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked") // Reads only throw the checked exceptions of the read function
+    private <K extends Exception> K unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return (K) cause;
+    }
+}
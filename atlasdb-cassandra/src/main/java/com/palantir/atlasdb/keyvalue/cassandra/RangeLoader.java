@@ -16,12 +16,18 @@
 
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.CassandraRangePagingIterable;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.CassandraRangeSplitScanner;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.ColumnGetter;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.ThriftColumnGetter;
@@ -29,7 +35,15 @@ import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import com.palantir.logsafe.Preconditions;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.SlicePredicate;
 
@@ -55,6 +69,82 @@ public class RangeLoader {
                 tableRef, rangeRequest, ts, consistencyLevel, () -> ValueExtractor.create(metricsManager));
     }
 
+    /**
+     * Returns the same rows as {@link #getRange}, but reads the range in splits along the token ring, so that each
+     * split is read from its owning replicas, up to {@code parallelism} splits at a time.
+     *
+     * @param ordered whether the rows should be returned in row order. If not, rows are returned as soon as they are
+     * read, and a slow split does not hold up the others.
+     * @throws IllegalArgumentException if the range request is reversed
+     */
+    public ClosableIterator<RowResult<Value>> getRangeInSplits(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long ts,
+            Executor executor,
+            int parallelism,
+            boolean ordered) {
+        Preconditions.checkArgument(!rangeRequest.isReverse(), "Reverse ranges cannot be read in splits");
+        if (rangeRequest.isEmptyRange()) {
+            return ClosableIterators.wrap(ImmutableList.<RowResult<Value>>of().iterator());
+        }
+
+        SlicePredicate predicate = getSlicePredicate(rangeRequest, ts);
+        RowGetter rowGetter = new RowGetter(clientPool, queryRunner, consistencyLevel, tableRef);
+        ColumnGetter columnGetter = new ThriftColumnGetter();
+        List<CassandraRangePagingIterable<Value>> splits =
+                splitAlongTokenRing(rangeRequest, clientPool.getTokenMap()).stream()
+                        .map(split -> new CassandraRangePagingIterable<Value>(
+                                rowGetter,
+                                predicate,
+                                columnGetter,
+                                split,
+                                () -> ValueExtractor.create(metricsManager),
+                                ts))
+                        .collect(Collectors.toList());
+
+        return ordered
+                ? CassandraRangeSplitScanner.ordered(splits, executor, parallelism)
+                : CassandraRangeSplitScanner.unordered(splits, executor, parallelism);
+    }
+
+    /**
+     * Splits the given range at the boundaries of the token ranges it spans, in order. As Cassandra is used with the
+     * byte ordered partitioner, the token of a row is its name, and a token range (a, b] holds the rows after a, up
+     * to and including b.
+     */
+    @VisibleForTesting
+    static List<RangeRequest> splitAlongTokenRing(
+            RangeRequest rangeRequest, RangeMap<LightweightOppToken, List<InetSocketAddress>> tokenMap) {
+        byte[] start = rangeRequest.getStartInclusive();
+        byte[] end = rangeRequest.getEndExclusive();
+        List<RangeRequest> splits = new ArrayList<>();
+        for (Range<LightweightOppToken> tokenRange : tokenMap.asMapOfRanges().keySet()) {
+            if (!tokenRange.hasUpperBound()) {
+                continue;
+            }
+            byte[] upperBound = tokenRange.upperEndpoint().bytes;
+            byte[] boundary = tokenRange.upperBoundType() == BoundType.CLOSED
+                    ? Arrays.copyOf(upperBound, upperBound.length + 1)
+                    : upperBound;
+            if (isStrictlyBetween(boundary, start, end)) {
+                splits.add(rangeRequest
+                        .getBuilder()
+                        .startRowInclusive(start)
+                        .endRowExclusive(boundary)
+                        .build());
+                start = boundary;
+            }
+        }
+        splits.add(rangeRequest.getBuilder().startRowInclusive(start).build());
+        return splits;
+    }
+
+    private static boolean isStrictlyBetween(byte[] boundary, byte[] start, byte[] end) {
+        Comparator<byte[]> comparator = UnsignedBytes.lexicographicalComparator();
+        return comparator.compare(start, boundary) < 0 && (end.length == 0 || comparator.compare(boundary, end) < 0);
+    }
+
     public void setConsistencyLevel(ConsistencyLevel consistencyLevel) {
         this.consistencyLevel = consistencyLevel;
     }
@@ -65,21 +155,23 @@ public class RangeLoader {
             long startTs,
             ConsistencyLevel consistency,
             Supplier<ResultsExtractor<T>> resultsExtractor) {
-        SlicePredicate predicate;
-        if (rangeRequest.getColumnNames().size() == 1) {
-            byte[] colName = rangeRequest.getColumnNames().iterator().next();
-            predicate = SlicePredicates.latestVersionForColumn(colName, startTs);
-        } else {
-            // TODO(nziebart): optimize fetching multiple columns by performing a parallel range request for
-            // each column. note that if no columns are specified, it's a special case that means all columns
-            predicate = SlicePredicates.create(SlicePredicates.Range.ALL, SlicePredicates.Limit.NO_LIMIT);
-        }
+        SlicePredicate predicate = getSlicePredicate(rangeRequest, startTs);
         RowGetter rowGetter = new RowGetter(clientPool, queryRunner, consistency, tableRef);
         ColumnGetter columnGetter = new ThriftColumnGetter();
 
         return getRangeWithPageCreator(rowGetter, predicate, columnGetter, rangeRequest, resultsExtractor, startTs);
     }
 
+    private static SlicePredicate getSlicePredicate(RangeRequest rangeRequest, long startTs) {
+        if (rangeRequest.getColumnNames().size() == 1) {
+            byte[] colName = rangeRequest.getColumnNames().iterator().next();
+            return SlicePredicates.latestVersionForColumn(colName, startTs);
+        }
+        // TODO(nziebart): optimize fetching multiple columns by performing a parallel range request for
+        // each column. note that if no columns are specified, it's a special case that means all columns
+        return SlicePredicates.create(SlicePredicates.Range.ALL, SlicePredicates.Limit.NO_LIMIT);
+    }
+
     private <T> ClosableIterator<RowResult<T>> getRangeWithPageCreator(
             RowGetter rowGetter,
             SlicePredicate slicePredicate,
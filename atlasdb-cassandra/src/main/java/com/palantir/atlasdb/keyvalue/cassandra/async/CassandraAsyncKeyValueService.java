@@ -16,7 +16,13 @@
 
 package com.palantir.atlasdb.keyvalue.cassandra.async;
 
+import com.codahale.metrics.Histogram;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.futures.FuturesCombiner;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -27,29 +33,69 @@ import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec.GetQueryParameters;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableCqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableMultiGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.MultiGetQuerySpec;
 import com.palantir.atlasdb.logging.LoggingArgs;
-import com.palantir.common.streams.KeyedStream;
+import com.palantir.atlasdb.util.MetricsManager;
+import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Cells of the same row that are read at the same timestamp are fetched together, with one statement per row (up to
+ * {@code maxCellsPerMultiGet} cells each). Each statement reads a single partition, and so is routed by the driver
+ * to a coordinator that owns the row, rather than fanning out from an arbitrary coordinator.
+ */
 public final class CassandraAsyncKeyValueService implements AsyncKeyValueService {
     private static final Logger log = LoggerFactory.getLogger(CassandraAsyncKeyValueService.class);
 
     private final String keyspace;
     private final CqlClient cqlClient;
     private final FuturesCombiner futuresCombiner;
+    private final int maxCellsPerMultiGet;
+    private final Histogram cellsPerGetAsync;
+    private final Histogram statementsPerGetAsync;
 
-    public static AsyncKeyValueService create(String keyspace, CqlClient cqlClient, FuturesCombiner futuresCombiner) {
-        return new CassandraAsyncKeyValueService(keyspace, cqlClient, futuresCombiner);
+    public static AsyncKeyValueService create(
+            String keyspace,
+            CqlClient cqlClient,
+            FuturesCombiner futuresCombiner,
+            int maxCellsPerMultiGet,
+            MetricsManager metricsManager) {
+        return new CassandraAsyncKeyValueService(
+                keyspace,
+                cqlClient,
+                futuresCombiner,
+                maxCellsPerMultiGet,
+                metricsManager.registerOrGetHistogram(CassandraAsyncKeyValueService.class, "cellsPerGetAsync"),
+                metricsManager.registerOrGetHistogram(CassandraAsyncKeyValueService.class, "statementsPerGetAsync"));
     }
 
-    private CassandraAsyncKeyValueService(String keyspace, CqlClient cqlClient, FuturesCombiner futuresCombiner) {
+    private CassandraAsyncKeyValueService(
+            String keyspace,
+            CqlClient cqlClient,
+            FuturesCombiner futuresCombiner,
+            int maxCellsPerMultiGet,
+            Histogram cellsPerGetAsync,
+            Histogram statementsPerGetAsync) {
+        Preconditions.checkArgument(
+                maxCellsPerMultiGet > 0,
+                "maxCellsPerMultiGet must be positive",
+                SafeArg.of("maxCellsPerMultiGet", maxCellsPerMultiGet));
         this.keyspace = keyspace;
         this.cqlClient = cqlClient;
         this.futuresCombiner = futuresCombiner;
+        this.maxCellsPerMultiGet = maxCellsPerMultiGet;
+        this.cellsPerGetAsync = cellsPerGetAsync;
+        this.statementsPerGetAsync = statementsPerGetAsync;
     }
 
     @Override
@@ -61,18 +107,61 @@ public final class CassandraAsyncKeyValueService implements AsyncKeyValueService
                     LoggingArgs.tableRef(tableReference));
         }
 
-        Map<Cell, ListenableFuture<Optional<Value>>> cellListenableFutureMap = KeyedStream.stream(timestampByCell)
-                .map((cell, timestamp) -> getCellAsync(tableReference, cell, timestamp))
-                .collectToMap();
-
-        return futuresCombiner.allAsMap(cellListenableFutureMap);
-    }
-
-    private ListenableFuture<Optional<Value>> getCellAsync(TableReference tableReference, Cell cell, long timestamp) {
         CqlQueryContext queryContext = ImmutableCqlQueryContext.builder()
                 .tableReference(tableReference)
                 .keyspace(keyspace)
                 .build();
+        List<ListenableFuture<Optional<Map<Cell, Value>>>> statementResults = new ArrayList<>();
+        groupByRowAndTimestamp(timestampByCell).forEach((rowAndTimestamp, cells) -> {
+            for (List<Cell> batch : Lists.partition(cells, maxCellsPerMultiGet)) {
+                statementResults.add(getCellsAsync(queryContext, batch, rowAndTimestamp.getValue()));
+            }
+        });
+        cellsPerGetAsync.update(timestampByCell.size());
+        statementsPerGetAsync.update(statementResults.size());
+
+        Map<Integer, ListenableFuture<Optional<Map<Cell, Value>>>> statementResultsByIndex = new HashMap<>();
+        for (int index = 0; index < statementResults.size(); index++) {
+            statementResultsByIndex.put(index, statementResults.get(index));
+        }
+        return Futures.transform(
+                futuresCombiner.allAsMap(statementResultsByIndex),
+                CassandraAsyncKeyValueService::mergeResults,
+                MoreExecutors.directExecutor());
+    }
+
+    private static Map<Map.Entry<ByteBuffer, Long>, List<Cell>> groupByRowAndTimestamp(
+            Map<Cell, Long> timestampByCell) {
+        Map<Map.Entry<ByteBuffer, Long>, List<Cell>> cellsByRowAndTimestamp = new LinkedHashMap<>();
+        timestampByCell.forEach((cell, timestamp) -> cellsByRowAndTimestamp
+                .computeIfAbsent(
+                        Maps.immutableEntry(ByteBuffer.wrap(cell.getRowName()), timestamp), unused -> new ArrayList<>())
+                .add(cell));
+        return cellsByRowAndTimestamp;
+    }
+
+    private ListenableFuture<Optional<Map<Cell, Value>>> getCellsAsync(
+            CqlQueryContext queryContext, List<Cell> cells, long timestamp) {
+        if (cells.size() == 1) {
+            // A single cell is cheaper to read with LIMIT 1, which skips older versions.
+            Cell cell = cells.get(0);
+            return Futures.transform(
+                    getCellAsync(queryContext, cell, timestamp),
+                    value -> Optional.of(value.<Map<Cell, Value>>map(present -> ImmutableMap.of(cell, present))
+                            .orElseGet(ImmutableMap::of)),
+                    MoreExecutors.directExecutor());
+        }
+        MultiGetQuerySpec.MultiGetQueryParameters multiGetQueryParameters = ImmutableMultiGetQueryParameters.builder()
+                .cells(cells)
+                .humanReadableTimestamp(timestamp)
+                .build();
+        return Futures.transform(
+                cqlClient.executeQuery(new MultiGetQuerySpec(queryContext, multiGetQueryParameters)),
+                Optional::of,
+                MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<Optional<Value>> getCellAsync(CqlQueryContext queryContext, Cell cell, long timestamp) {
         GetQueryParameters getQueryParameters = ImmutableGetQueryParameters.builder()
                 .cell(cell)
                 .humanReadableTimestamp(timestamp)
@@ -81,6 +170,12 @@ public final class CassandraAsyncKeyValueService implements AsyncKeyValueService
         return cqlClient.executeQuery(new GetQuerySpec(queryContext, getQueryParameters));
     }
 
+    private static Map<Cell, Value> mergeResults(Map<Integer, Map<Cell, Value>> resultsByStatement) {
+        Map<Cell, Value> result = new HashMap<>();
+        resultsByStatement.values().forEach(result::putAll);
+        return result;
+    }
+
     @Override
     public void close() {
         cqlClient.close();
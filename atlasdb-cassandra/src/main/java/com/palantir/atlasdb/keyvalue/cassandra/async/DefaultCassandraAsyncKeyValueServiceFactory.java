@@ -21,8 +21,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.cassandra.CassandraServersConfigs.CqlCapableConfig;
+import com.palantir.atlasdb.cassandra.CassandraServersConfigs.CqlCapableConfigTuning;
 import com.palantir.atlasdb.cassandra.CassandraServersConfigs.DefaultConfig;
 import com.palantir.atlasdb.cassandra.CassandraServersConfigs.Visitor;
+import com.palantir.atlasdb.cassandra.ImmutableCqlCapableConfigTuning;
 import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.cassandra.async.client.creation.CqlClientFactory;
@@ -65,8 +67,24 @@ public final class DefaultCassandraAsyncKeyValueServiceFactory implements Cassan
             }
         });
 
+        CqlCapableConfigTuning tuning = config.servers().accept(new Visitor<CqlCapableConfigTuning>() {
+            @Override
+            public CqlCapableConfigTuning visit(DefaultConfig defaultConfig) {
+                return ImmutableCqlCapableConfigTuning.builder().build();
+            }
+
+            @Override
+            public CqlCapableConfigTuning visit(CqlCapableConfig cqlCapableConfig) {
+                return cqlCapableConfig.tuning();
+            }
+        });
+
         return cqlClient.map(client -> CassandraAsyncKeyValueService.create(
-                config.getKeyspaceOrThrow(), client, AtlasFutures.futuresCombiner(executorService)));
+                config.getKeyspaceOrThrow(),
+                client,
+                AtlasFutures.futuresCombiner(executorService),
+                tuning.maxCellsPerMultiGet(),
+                metricsManager));
     }
 
     /**
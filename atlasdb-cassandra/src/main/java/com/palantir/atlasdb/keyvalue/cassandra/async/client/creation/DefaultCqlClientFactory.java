@@ -92,7 +92,7 @@ public class DefaultCqlClientFactory implements CqlClientFactory {
                         .withThreadingOptions(new ThreadingOptions());
 
                 clusterBuilder = withSslOptions(clusterBuilder, config);
-                clusterBuilder = withPoolingOptions(clusterBuilder, config);
+                clusterBuilder = withPoolingOptions(clusterBuilder, config, cqlCapableConfig.tuning());
                 clusterBuilder = withQueryOptions(clusterBuilder, config);
                 clusterBuilder = withLoadBalancingPolicy(clusterBuilder, config, servers);
                 clusterBuilder = withSocketOptions(clusterBuilder, config);
@@ -122,10 +122,16 @@ public class DefaultCqlClientFactory implements CqlClientFactory {
         return builder.withSSL(RemoteEndpointAwareJdkSSLOptions.builder().build());
     }
 
-    private static Cluster.Builder withPoolingOptions(Cluster.Builder builder, CassandraKeyValueServiceConfig config) {
+    private static Cluster.Builder withPoolingOptions(
+            Cluster.Builder builder,
+            CassandraKeyValueServiceConfig config,
+            CassandraServersConfigs.CqlCapableConfigTuning tuning) {
+        // Caps the requests in flight to each host at poolSize * maxRequestsPerConnection.
         return builder.withPoolingOptions(new PoolingOptions()
                 .setMaxConnectionsPerHost(HostDistance.LOCAL, config.poolSize())
                 .setMaxConnectionsPerHost(HostDistance.REMOTE, config.poolSize())
+                .setMaxRequestsPerConnection(HostDistance.LOCAL, tuning.maxRequestsPerConnection())
+                .setMaxRequestsPerConnection(HostDistance.REMOTE, tuning.maxRequestsPerConnection())
                 .setPoolTimeoutMillis(config.cqlPoolTimeoutMillis()));
     }
 
@@ -0,0 +1,175 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
+import com.palantir.logsafe.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the latest visible value of several cells of the same row in one statement. The statement only touches one
+ * partition, so the driver routes it to a replica that owns the row.
+ */
+public final class MultiGetQuerySpec implements CqlQuerySpec<Map<Cell, Value>> {
+
+    /**
+     * Unlike {@link GetQuerySpec}, there is no way to limit the result to one version per column, so all versions
+     * below the timestamp are returned. They are clustered by {@code column1/column}, and then by the complemented
+     * {@code column2/timestamp} in ascending order, so the first row of each column is its latest visible version.
+     */
+    private static final String QUERY_FORMAT = "SELECT column1, column2, value FROM \"%s\".\"%s\" "
+            + "WHERE key = :row AND column1 IN :columns AND column2 > :timestamp;";
+
+    private final CqlQueryContext cqlQueryContext;
+    private final MultiGetQueryParameters multiGetQueryParameters;
+    private final MultiGetQueryAccumulator multiGetQueryAccumulator;
+
+    public MultiGetQuerySpec(CqlQueryContext cqlQueryContext, MultiGetQueryParameters multiGetQueryParameters) {
+        this.cqlQueryContext = cqlQueryContext;
+        this.multiGetQueryParameters = multiGetQueryParameters;
+        this.multiGetQueryAccumulator = new MultiGetQueryAccumulator(multiGetQueryParameters.row());
+    }
+
+    @Override
+    public CqlQueryContext cqlQueryContext() {
+        return cqlQueryContext;
+    }
+
+    @Override
+    public String formatQueryString() {
+        return String.format(
+                QUERY_FORMAT,
+                cqlQueryContext().keyspace(),
+                AbstractKeyValueService.internalTableName(cqlQueryContext().tableReference()));
+    }
+
+    @Override
+    public QueryType queryType() {
+        return QueryType.MULTI_GET;
+    }
+
+    @Override
+    public Statement makeExecutableStatement(PreparedStatement preparedStatement) {
+        List<ByteBuffer> columns = multiGetQueryParameters.cells().stream()
+                .map(cell -> toReadOnlyByteBuffer(cell.getColumnName()))
+                .collect(Collectors.toList());
+        return preparedStatement
+                .bind()
+                .setBytes("row", toReadOnlyByteBuffer(multiGetQueryParameters.row()))
+                .setList("columns", columns, ByteBuffer.class)
+                .setLong("timestamp", multiGetQueryParameters.queryTimestamp());
+    }
+
+    private static ByteBuffer toReadOnlyByteBuffer(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    @Override
+    public ConsistencyLevel queryConsistency() {
+        return ConsistencyLevel.LOCAL_QUORUM;
+    }
+
+    @Override
+    public RowStreamAccumulator<Map<Cell, Value>> rowStreamAccumulator() {
+        return multiGetQueryAccumulator;
+    }
+
+    @org.immutables.value.Value.Immutable
+    public interface MultiGetQueryParameters {
+        /**
+         * Cells to read, all of which must be in the same row.
+         */
+        List<Cell> cells();
+
+        long humanReadableTimestamp();
+
+        default long queryTimestamp() {
+            return ~humanReadableTimestamp();
+        }
+
+        default byte[] row() {
+            return cells().get(0).getRowName();
+        }
+
+        @org.immutables.value.Value.Check
+        default void check() {
+            Preconditions.checkArgument(!cells().isEmpty(), "Must read at least one cell");
+            Preconditions.checkArgument(
+                    cells().stream().allMatch(cell -> Arrays.equals(cell.getRowName(), row())),
+                    "All cells read by a multi-get must be in the same row");
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        MultiGetQuerySpec that = (MultiGetQuerySpec) other;
+        return cqlQueryContext.equals(that.cqlQueryContext)
+                && multiGetQueryParameters.equals(that.multiGetQueryParameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cqlQueryContext, multiGetQueryParameters);
+    }
+
+    private static final class MultiGetQueryAccumulator implements RowStreamAccumulator<Map<Cell, Value>> {
+        private final byte[] row;
+        private final Map<Cell, Value> resultValues = new HashMap<>();
+
+        private MultiGetQueryAccumulator(byte[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public void accumulateRowStream(Stream<Row> rowStream) {
+            // Results may span several pages, so keep the first, that is the latest, version seen of each cell.
+            rowStream.forEach(cqlRow -> resultValues.putIfAbsent(
+                    Cell.create(row, getBytes(cqlRow, 0)), Value.create(getBytes(cqlRow, 2), ~cqlRow.getLong(1))));
+        }
+
+        @Override
+        public Map<Cell, Value> result() {
+            return resultValues;
+        }
+
+        private static byte[] getBytes(Row cqlRow, int index) {
+            ByteBuffer buffer = cqlRow.getBytes(index);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -17,5 +17,6 @@
 package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
 
 public enum QueryType {
-    GET
+    GET,
+    MULTI_GET
 }
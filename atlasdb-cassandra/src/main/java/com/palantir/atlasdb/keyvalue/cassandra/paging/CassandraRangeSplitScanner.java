@@ -0,0 +1,216 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.paging;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Reads a range that has been divided into contiguous splits, scanning up to a bounded number of splits concurrently.
+ * While a page of a split is being consumed, the next page of that split is already being read, so the time taken to
+ * scan a range is bounded by the throughput of the cluster, rather than the latency of each page.
+ *
+ * Each split that is being scanned has at most one page in flight or buffered, so at most {@code parallelism} pages
+ * are held in memory in addition to the one being consumed.
+ */
+public final class CassandraRangeSplitScanner {
+    private CassandraRangeSplitScanner() {
+        // Utility class
+    }
+
+    /**
+     * Returns the rows of the given splits in the order of the splits, and so in row order if the splits are ordered.
+     * Splits after the one being consumed are read ahead, and each buffers its first page until it is reached.
+     */
+    public static <T> ClosableIterator<RowResult<T>> ordered(
+            List<CassandraRangePagingIterable<T>> splits, Executor executor, int parallelism) {
+        checkParallelism(parallelism);
+        return new OrderedSplitIterator<>(splits, executor, parallelism);
+    }
+
+    /**
+     * Returns the rows of the given splits in the order in which their pages are read. Rows within a page are in
+     * order, but rows are otherwise not ordered, and a slow split does not hold up the others.
+     */
+    public static <T> ClosableIterator<RowResult<T>> unordered(
+            List<CassandraRangePagingIterable<T>> splits, Executor executor, int parallelism) {
+        checkParallelism(parallelism);
+        return new UnorderedSplitIterator<>(splits, executor, parallelism);
+    }
+
+    private static void checkParallelism(int parallelism) {
+        Preconditions.checkArgument(
+                parallelism > 0, "Parallelism must be positive", SafeArg.of("parallelism", parallelism));
+    }
+
+    private static final class OrderedSplitIterator<T> extends AbstractIterator<RowResult<T>>
+            implements ClosableIterator<RowResult<T>> {
+        private final Iterator<CassandraRangePagingIterable<T>> pendingSplits;
+        private final Executor executor;
+        private final int parallelism;
+        private final Deque<SplitScan<T>> activeSplits = new ArrayDeque<>();
+
+        private Iterator<RowResult<T>> currentPage = Collections.emptyIterator();
+
+        private OrderedSplitIterator(
+                List<CassandraRangePagingIterable<T>> splits, Executor executor, int parallelism) {
+            this.pendingSplits = splits.iterator();
+            this.executor = executor;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected RowResult<T> computeNext() {
+            while (!currentPage.hasNext()) {
+                while (activeSplits.size() < parallelism && pendingSplits.hasNext()) {
+                    activeSplits.addLast(SplitScan.start(pendingSplits.next(), executor, ignored -> {}));
+                }
+                SplitScan<T> split = activeSplits.peekFirst();
+                if (split == null) {
+                    return endOfData();
+                }
+                currentPage = split.takePage().getResults().iterator();
+                if (!split.hasMorePages()) {
+                    activeSplits.removeFirst();
+                }
+            }
+            return currentPage.next();
+        }
+
+        @Override
+        public void close() {
+            activeSplits.forEach(SplitScan::cancel);
+            activeSplits.clear();
+        }
+    }
+
+    private static final class UnorderedSplitIterator<T> extends AbstractIterator<RowResult<T>>
+            implements ClosableIterator<RowResult<T>> {
+        private final Iterator<CassandraRangePagingIterable<T>> pendingSplits;
+        private final Executor executor;
+        private final int parallelism;
+        private final List<SplitScan<T>> startedSplits = new ArrayList<>();
+        private final BlockingQueue<SplitScan<T>> splitsWithPageRead = new LinkedBlockingQueue<>();
+
+        private int activeSplits = 0;
+        private Iterator<RowResult<T>> currentPage = Collections.emptyIterator();
+
+        private UnorderedSplitIterator(
+                List<CassandraRangePagingIterable<T>> splits, Executor executor, int parallelism) {
+            this.pendingSplits = splits.iterator();
+            this.executor = executor;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected RowResult<T> computeNext() {
+            while (!currentPage.hasNext()) {
+                while (activeSplits < parallelism && pendingSplits.hasNext()) {
+                    startedSplits.add(SplitScan.start(pendingSplits.next(), executor, splitsWithPageRead::add));
+                    activeSplits++;
+                }
+                if (activeSplits == 0) {
+                    return endOfData();
+                }
+                SplitScan<T> split = Uninterruptibles.takeUninterruptibly(splitsWithPageRead);
+                currentPage = split.takePage().getResults().iterator();
+                if (!split.hasMorePages()) {
+                    activeSplits--;
+                }
+            }
+            return currentPage.next();
+        }
+
+        @Override
+        public void close() {
+            startedSplits.forEach(SplitScan::cancel);
+            startedSplits.clear();
+        }
+    }
+
+    /**
+     * A split whose next page is always being read, until it has no more pages. Only used by the consuming thread.
+     */
+    private static final class SplitScan<T> {
+        private final CassandraRangePagingIterable<T> split;
+        private final Executor executor;
+        private final Consumer<SplitScan<T>> onPageRead;
+
+        private ListenableFuture<TokenBackedBasicResultsPage<RowResult<T>, byte[]>> nextPage;
+
+        private SplitScan(
+                CassandraRangePagingIterable<T> split, Executor executor, Consumer<SplitScan<T>> onPageRead) {
+            this.split = split;
+            this.executor = executor;
+            this.onPageRead = onPageRead;
+        }
+
+        static <T> SplitScan<T> start(
+                CassandraRangePagingIterable<T> split, Executor executor, Consumer<SplitScan<T>> onPageRead) {
+            SplitScan<T> scan = new SplitScan<>(split, executor, onPageRead);
+            scan.readNextPage(Futures.submit(split::getFirstPage, executor));
+            return scan;
+        }
+
+        /**
+         * Waits for the next page of the split, and starts reading the page after it, if there is one.
+         */
+        TokenBackedBasicResultsPage<RowResult<T>, byte[]> takePage() {
+            TokenBackedBasicResultsPage<RowResult<T>, byte[]> page = AtlasFutures.getUnchecked(nextPage);
+            if (page.moreResultsAvailable()) {
+                readNextPage(Futures.submit(() -> split.getNextPage(page), executor));
+            } else {
+                nextPage = null;
+            }
+            return page;
+        }
+
+        boolean hasMorePages() {
+            return nextPage != null;
+        }
+
+        void cancel() {
+            if (nextPage != null) {
+                nextPage.cancel(false);
+            }
+        }
+
+        private void readNextPage(ListenableFuture<TokenBackedBasicResultsPage<RowResult<T>, byte[]>> page) {
+            nextPage = page;
+            page.addListener(() -> onPageRead.accept(this), MoreExecutors.directExecutor());
+        }
+    }
+}
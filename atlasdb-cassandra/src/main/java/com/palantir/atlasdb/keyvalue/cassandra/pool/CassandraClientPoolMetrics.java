@@ -40,12 +40,18 @@ public class CassandraClientPoolMetrics {
     // Not bundled in with request metrics, as we seek to not produce host-level metrics for economic reasons.
     private final Counter poolExhaustionCounter;
 
+    // Tracks reads that were hedged against a second host, and those in which the second host responded first.
+    private final Meter hedgedReads;
+    private final Meter hedgedReadWins;
+
     public CassandraClientPoolMetrics(MetricsManager metricsManager) {
         this.metricsManager = metricsManager;
         this.aggregateRequestMetrics = new RequestMetrics(metricsManager, null);
         this.poolExhaustionCounter =
                 metricsManager.registerOrGetCounter(CassandraClientPoolMetrics.class, "pool-exhaustion");
         this.outlierControllers = createOutlierControllers(metricsManager);
+        this.hedgedReads = metricsManager.registerOrGetMeter(CassandraClientPool.class, "hedgedReads");
+        this.hedgedReadWins = metricsManager.registerOrGetMeter(CassandraClientPool.class, "hedgedReadWins");
     }
 
     private static Map<CassandraClientPoolHostLevelMetric, DistributionOutlierController> createOutlierControllers(
@@ -94,6 +100,14 @@ public class CassandraClientPoolMetrics {
         poolExhaustionCounter.inc();
     }
 
+    public void recordHedgedRead() {
+        hedgedReads.mark();
+    }
+
+    public void recordHedgedReadWin() {
+        hedgedReadWins.mark();
+    }
+
     @SuppressWarnings("unchecked") // Guaranteed to have the correct type
     public void registerPoolMetric(CassandraClientPoolHostLevelMetric metric, Gauge<Long> gauge, int poolNumber) {
         MetricPublicationFilter filter = outlierControllers.get(metric).registerAndCreateFilter(gauge);
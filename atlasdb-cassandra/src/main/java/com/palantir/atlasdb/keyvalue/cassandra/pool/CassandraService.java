@@ -319,6 +319,9 @@ public class CassandraService implements AutoCloseable {
             return Optional.empty();
         }
 
+        if (config.latencyAwareHostSelection()) {
+            return Optional.of(LatencyAwareHosts.create(matchingPools).getRandomHost());
+        }
         return Optional.of(WeightedHosts.create(matchingPools).getRandomHost());
     }
 
@@ -374,6 +377,25 @@ public class CassandraService implements AutoCloseable {
         return getRandomGoodHost().getHost();
     }
 
+    /**
+     * Returns a live host other than the given one that owns the given key, if there is one. Used to choose a second
+     * replica to send a read to.
+     */
+    public Optional<InetSocketAddress> getRandomHostForKeyExcluding(byte[] key, InetSocketAddress excludedHost) {
+        List<InetSocketAddress> hostsForKey = getHostsFor(key);
+        if (hostsForKey == null) {
+            return Optional.empty();
+        }
+
+        Set<InetSocketAddress> liveOwnerHosts = blacklist.filterBlacklistedHostsFrom(hostsForKey).stream()
+                .filter(host -> !host.equals(excludedHost))
+                .collect(Collectors.toSet());
+        if (liveOwnerHosts.isEmpty()) {
+            return Optional.empty();
+        }
+        return getRandomHostByActiveConnections(liveOwnerHosts);
+    }
+
     public void addPool(InetSocketAddress server) {
         int currentPoolNumber = cassandraHosts.indexOf(server) + 1;
         currentPools.put(
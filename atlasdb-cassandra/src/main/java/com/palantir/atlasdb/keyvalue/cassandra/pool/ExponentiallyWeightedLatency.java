@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An exponentially weighted moving average of the latencies of requests to a host, where the weight of a sample
+ * decays with the time since it was taken, rather than with the number of samples taken since.
+ *
+ * The average also decays towards zero while no requests to the host complete. A host that was slow in the past, and
+ * that is therefore no longer chosen, is thus eventually chosen again, and its average brought up to date.
+ */
+public final class ExponentiallyWeightedLatency {
+    private static final Duration DECAY_TIME = Duration.ofSeconds(10);
+
+    private final LongSupplier nanoClock;
+    private final double decayNanos;
+
+    private double averageNanos = 0.0;
+    private long lastUpdateNanos;
+
+    @VisibleForTesting
+    ExponentiallyWeightedLatency(LongSupplier nanoClock, Duration decayTime) {
+        this.nanoClock = nanoClock;
+        this.decayNanos = decayTime.toNanos();
+        this.lastUpdateNanos = nanoClock.getAsLong();
+    }
+
+    public static ExponentiallyWeightedLatency create() {
+        return new ExponentiallyWeightedLatency(System::nanoTime, DECAY_TIME);
+    }
+
+    public synchronized void update(long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        double weightOfAverage = weightSince(now);
+        averageNanos = averageNanos * weightOfAverage + latencyNanos * (1.0 - weightOfAverage);
+        lastUpdateNanos = now;
+    }
+
+    public synchronized long getAverageMicros() {
+        double decayedAverageNanos = averageNanos * weightSince(nanoClock.getAsLong());
+        return TimeUnit.NANOSECONDS.toMicros(Math.round(decayedAverageNanos));
+    }
+
+    private double weightSince(long now) {
+        return Math.exp(-Math.max(now - lastUpdateNanos, 0) / decayNanos);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+import com.palantir.logsafe.Preconditions;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses hosts by the power of two choices: two distinct candidates are chosen uniformly at random, and the one
+ * with the lower load is used. The load of a host is the moving average of its request latencies, scaled by the
+ * number of requests that are open against it, so a host that is slow or busy is avoided without all requests herding
+ * onto whichever host is currently fastest.
+ */
+public final class LatencyAwareHosts {
+    private final List<Map.Entry<InetSocketAddress, CassandraClientPoolingContainer>> pools;
+
+    private LatencyAwareHosts(List<Map.Entry<InetSocketAddress, CassandraClientPoolingContainer>> pools) {
+        this.pools = pools;
+    }
+
+    public static LatencyAwareHosts create(Map<InetSocketAddress, CassandraClientPoolingContainer> pools) {
+        Preconditions.checkArgument(!pools.isEmpty(), "pools should be non-empty");
+        return new LatencyAwareHosts(ImmutableList.copyOf(pools.entrySet()));
+    }
+
+    public InetSocketAddress getRandomHost() {
+        if (pools.size() == 1) {
+            return pools.get(0).getKey();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(pools.size());
+        int second = random.nextInt(pools.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        return getLessLoadedHost(first, second);
+    }
+
+    // This basically exists for testing
+    InetSocketAddress getLessLoadedHost(int first, int second) {
+        Map.Entry<InetSocketAddress, CassandraClientPoolingContainer> firstPool = pools.get(first);
+        Map.Entry<InetSocketAddress, CassandraClientPoolingContainer> secondPool = pools.get(second);
+        return load(firstPool.getValue()) <= load(secondPool.getValue()) ? firstPool.getKey() : secondPool.getKey();
+    }
+
+    private static double load(CassandraClientPoolingContainer pool) {
+        // Adding one to both terms makes idle and fresh hosts comparable, rather than all having zero load.
+        return (pool.getLatencyEwmaMicros() + 1.0) * (Math.max(pool.getOpenRequests(), 0) + 1);
+    }
+}
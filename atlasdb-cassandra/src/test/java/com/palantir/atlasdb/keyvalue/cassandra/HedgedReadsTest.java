@@ -0,0 +1,247 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.cassandra.CassandraHedgedReadsConfig;
+import com.palantir.atlasdb.cassandra.ImmutableCassandraHedgedReadsConfig;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolMetrics;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class HedgedReadsTest {
+    private static final InetSocketAddress PREFERRED_HOST = InetSocketAddress.createUnresolved("preferred", 9160);
+    private static final InetSocketAddress HEDGE_HOST = InetSocketAddress.createUnresolved("hedge", 9160);
+    private static final int NO_DELAY = 0;
+    private static final int LONG_DELAY = (int) TimeUnit.HOURS.toMillis(1);
+
+    private final CassandraClientPoolMetrics metrics = mock(CassandraClientPoolMetrics.class);
+    private final ExecutorService caller = Executors.newSingleThreadExecutor();
+    private final List<InetSocketAddress> hostsRead = new CopyOnWriteArrayList<>();
+
+    @After
+    public void after() {
+        caller.shutdownNow();
+    }
+
+    @Test
+    public void doesNotHedgeReadBeforeDelayHasPassed() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        Future<String> result = runInBackground(hedgedReads(LONG_DELAY, executor), ImmutableMap.of());
+
+        Runnable preferredRead = executor.awaitTask();
+        assertThat(executor.pollTask(100, TimeUnit.MILLISECONDS)).isNull();
+
+        preferredRead.run();
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(PREFERRED_HOST));
+        assertThat(hostsRead).containsExactly(PREFERRED_HOST);
+        verify(metrics, never()).recordHedgedRead();
+    }
+
+    @Test
+    public void hedgesReadOnceDelayHasPassedAndUsesFirstSuccess() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        Future<String> result = runInBackground(hedgedReads(NO_DELAY, executor), ImmutableMap.of());
+
+        executor.awaitTask();
+        executor.awaitTask().run();
+
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(HEDGE_HOST));
+        verify(metrics).recordHedgedRead();
+        verify(metrics).recordHedgedReadWin();
+    }
+
+    @Test
+    public void cancelsPreferredReadOnceHedgedReadSucceeds() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        Future<String> result = runInBackground(hedgedReads(NO_DELAY, executor), ImmutableMap.of());
+
+        Runnable preferredRead = executor.awaitTask();
+        executor.awaitTask().run();
+        result.get(10, TimeUnit.SECONDS);
+
+        preferredRead.run();
+        assertThat(hostsRead).containsExactly(HEDGE_HOST);
+    }
+
+    @Test
+    public void cancelsHedgedReadOncePreferredReadSucceeds() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        Future<String> result = runInBackground(hedgedReads(NO_DELAY, executor), ImmutableMap.of());
+
+        Runnable preferredRead = executor.awaitTask();
+        Runnable hedgedRead = executor.awaitTask();
+        preferredRead.run();
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(PREFERRED_HOST));
+
+        hedgedRead.run();
+        assertThat(hostsRead).containsExactly(PREFERRED_HOST);
+        verify(metrics).recordHedgedRead();
+        verify(metrics, never()).recordHedgedReadWin();
+    }
+
+    @Test
+    public void usesHedgedReadIfPreferredReadFails() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        RuntimeException preferredFailure = new RuntimeException("preferred host failed");
+        Future<String> result = runInBackground(
+                hedgedReads(NO_DELAY, executor), ImmutableMap.of(PREFERRED_HOST, preferredFailure));
+
+        Runnable preferredRead = executor.awaitTask();
+        Runnable hedgedRead = executor.awaitTask();
+        preferredRead.run();
+        hedgedRead.run();
+
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(HEDGE_HOST));
+    }
+
+    @Test
+    public void throwsFailureOfPreferredHostIfBothReadsFail() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        RuntimeException preferredFailure = new RuntimeException("preferred host failed");
+        RuntimeException hedgeFailure = new RuntimeException("hedge host failed");
+        Future<String> result = runInBackground(
+                hedgedReads(NO_DELAY, executor),
+                ImmutableMap.of(PREFERRED_HOST, preferredFailure, HEDGE_HOST, hedgeFailure));
+
+        Runnable preferredRead = executor.awaitTask();
+        Runnable hedgedRead = executor.awaitTask();
+        hedgedRead.run();
+        preferredRead.run();
+
+        assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(preferredFailure);
+    }
+
+    @Test
+    public void doesNotHedgeReadIfThereIsNoSecondHost() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(Integer.MAX_VALUE);
+        HedgedReads hedgedReads = hedgedReads(NO_DELAY, executor);
+        Future<String> result = caller.submit(() -> hedgedReads.run(PREFERRED_HOST, Optional::empty, this::read));
+
+        executor.awaitTask().run();
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(PREFERRED_HOST));
+        assertThat(executor.pollTask(0, TimeUnit.MILLISECONDS)).isNull();
+        verify(metrics, never()).recordHedgedRead();
+    }
+
+    @Test
+    public void readsOnCallingThreadIfExecutorIsBusy() {
+        ControllableExecutor executor = new ControllableExecutor(0);
+
+        String result = hedgedReads(NO_DELAY, executor).run(PREFERRED_HOST, () -> Optional.of(HEDGE_HOST), this::read);
+
+        assertThat(result).isEqualTo(readValue(PREFERRED_HOST));
+        assertThat(hostsRead).containsExactly(PREFERRED_HOST);
+        verify(metrics, never()).recordHedgedRead();
+    }
+
+    @Test
+    public void waitsForPreferredReadIfHedgedReadCannotBeSubmitted() throws Exception {
+        ControllableExecutor executor = new ControllableExecutor(1);
+        Future<String> result = runInBackground(hedgedReads(NO_DELAY, executor), ImmutableMap.of());
+
+        Runnable preferredRead = executor.awaitTask();
+        assertThat(executor.pollTask(100, TimeUnit.MILLISECONDS)).isNull();
+        preferredRead.run();
+
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(readValue(PREFERRED_HOST));
+        assertThat(hostsRead).containsExactly(PREFERRED_HOST);
+        verify(metrics, never()).recordHedgedRead();
+    }
+
+    private HedgedReads hedgedReads(int minimumDelayMillis, Executor executor) {
+        CassandraHedgedReadsConfig config = ImmutableCassandraHedgedReadsConfig.builder()
+                .enabled(true)
+                .minimumDelayMillis(minimumDelayMillis)
+                .build();
+        return new HedgedReads(config, metrics, executor);
+    }
+
+    private Future<String> runInBackground(HedgedReads hedgedReads, Map<InetSocketAddress, RuntimeException> failures) {
+        return caller.submit(() -> hedgedReads.run(PREFERRED_HOST, () -> Optional.of(HEDGE_HOST), host -> {
+            RuntimeException failure = failures.get(host);
+            if (failure != null) {
+                throw failure;
+            }
+            return read(host);
+        }));
+    }
+
+    private String read(InetSocketAddress host) {
+        hostsRead.add(host);
+        return readValue(host);
+    }
+
+    private static String readValue(InetSocketAddress host) {
+        return "value from " + host.getHostString();
+    }
+
+    /**
+     * Holds the reads submitted to it until the test runs them, and rejects reads once it has been given a fixed
+     * number of them.
+     */
+    private static final class ControllableExecutor implements Executor {
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        private final AtomicInteger submittedTasks = new AtomicInteger();
+        private final int maxTasks;
+
+        private ControllableExecutor(int maxTasks) {
+            this.maxTasks = maxTasks;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (submittedTasks.incrementAndGet() > maxTasks) {
+                throw new RejectedExecutionException("No threads available");
+            }
+            tasks.add(task);
+        }
+
+        Runnable awaitTask() throws InterruptedException {
+            Runnable task = pollTask(10, TimeUnit.SECONDS);
+            assertThat(task).as("submitted read").isNotNull();
+            return task;
+        }
+
+        Runnable pollTask(long timeout, TimeUnit unit) throws InterruptedException {
+            return tasks.poll(timeout, unit);
+        }
+    }
+}
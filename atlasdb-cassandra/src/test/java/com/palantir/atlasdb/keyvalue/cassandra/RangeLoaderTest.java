@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableRangeMap;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.util.MetricsManagers;
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.junit.Test;
+
+public class RangeLoaderTest {
+    private static final List<InetSocketAddress> HOSTS = ImmutableList.of(new InetSocketAddress(42));
+    private static final RangeMap<LightweightOppToken, List<InetSocketAddress>> TOKEN_MAP =
+            ImmutableRangeMap.<LightweightOppToken, List<InetSocketAddress>>builder()
+                    .put(Range.atMost(token(0x10)), HOSTS)
+                    .put(Range.openClosed(token(0x10), token(0x20)), HOSTS)
+                    .put(Range.openClosed(token(0x20), token(0x30)), HOSTS)
+                    .put(Range.greaterThan(token(0x30)), HOSTS)
+                    .build();
+
+    @Test
+    public void splitsUnboundedRangeAfterEveryTokenRange() {
+        RangeRequest range = RangeRequest.builder().batchHint(7).build();
+
+        assertThat(RangeLoader.splitAlongTokenRing(range, TOKEN_MAP))
+                .containsExactly(
+                        range(new byte[0], new byte[] {0x10, 0}),
+                        range(new byte[] {0x10, 0}, new byte[] {0x20, 0}),
+                        range(new byte[] {0x20, 0}, new byte[] {0x30, 0}),
+                        range(new byte[] {0x30, 0}, new byte[0]));
+    }
+
+    @Test
+    public void onlySplitsAtBoundariesWithinTheRange() {
+        RangeRequest range = range(new byte[] {0x15}, new byte[] {0x25});
+
+        assertThat(RangeLoader.splitAlongTokenRing(range, TOKEN_MAP))
+                .containsExactly(
+                        range(new byte[] {0x15}, new byte[] {0x20, 0}),
+                        range(new byte[] {0x20, 0}, new byte[] {0x25}));
+    }
+
+    @Test
+    public void doesNotSplitRangeWithinOneTokenRange() {
+        RangeRequest range = range(new byte[] {0x11}, new byte[] {0x20, 0});
+
+        assertThat(RangeLoader.splitAlongTokenRing(range, TOKEN_MAP)).containsExactly(range);
+    }
+
+    @Test
+    public void doesNotSplitRangeIfTokenRingIsUnknown() {
+        RangeRequest range = RangeRequest.all();
+
+        assertThat(RangeLoader.splitAlongTokenRing(range, ImmutableRangeMap.of()))
+                .containsExactly(range);
+    }
+
+    @Test
+    public void cannotReadReverseRangeInSplits() {
+        RangeLoader rangeLoader = new RangeLoader(
+                mock(CassandraClientPool.class),
+                mock(TracingQueryRunner.class),
+                MetricsManagers.createForTests(),
+                ConsistencyLevel.LOCAL_QUORUM);
+        RangeRequest reverseRange = RangeRequest.reverseBuilder().build();
+
+        assertThatThrownBy(() -> rangeLoader.getRangeInSplits(
+                        TableReference.createFromFullyQualifiedName("a.b"),
+                        reverseRange,
+                        1L,
+                        MoreExecutors.directExecutor(),
+                        1,
+                        true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Reverse ranges cannot be read in splits");
+    }
+
+    @Test
+    public void cannotReadReverseRange() {
+        RangeLoader rangeLoader = new RangeLoader(
+                mock(CassandraClientPool.class),
+                mock(TracingQueryRunner.class),
+                MetricsManagers.createForTests(),
+                ConsistencyLevel.LOCAL_QUORUM);
+        RangeRequest reverseRange = RangeRequest.reverseBuilder().build();
+
+        assertThatThrownBy(() ->
+                        rangeLoader.getRange(TableReference.createFromFullyQualifiedName("a.b"), reverseRange, 1L))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static RangeRequest range(byte[] start, byte[] end) {
+        return RangeRequest.builder()
+                .startRowInclusive(start)
+                .endRowExclusive(end)
+                .batchHint(7)
+                .build();
+    }
+
+    private static LightweightOppToken token(int value) {
+        return new LightweightOppToken(new byte[] {(byte) value});
+    }
+}
@@ -17,11 +17,15 @@
 package com.palantir.atlasdb.keyvalue.cassandra.async;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.cassandra.ImmutableCqlCapableConfigTuning;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
@@ -33,6 +37,10 @@ import com.palantir.atlasdb.keyvalue.cassandra.async.queries.CqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableCqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableMultiGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.MultiGetQuerySpec;
+import com.palantir.atlasdb.util.MetricsManager;
+import com.palantir.atlasdb.util.MetricsManagers;
 import com.palantir.common.random.RandomBytes;
 import java.util.Map;
 import java.util.Optional;
@@ -58,6 +66,10 @@ public class CassandraAsyncKeyValueServiceTests {
             .tableReference(TABLE)
             .build();
 
+    private static final int DEFAULT_MAX_CELLS_PER_MULTI_GET =
+            ImmutableCqlCapableConfigTuning.builder().build().maxCellsPerMultiGet();
+
+    private final MetricsManager metricsManager = MetricsManagers.createForTests();
     private AsyncKeyValueService asyncKeyValueService;
 
     @Mock
@@ -65,8 +77,7 @@ public class CassandraAsyncKeyValueServiceTests {
 
     @Before
     public void setUp() {
-        asyncKeyValueService = CassandraAsyncKeyValueService.create(
-                KEYSPACE, cqlClient, AtlasFutures.futuresCombiner(MoreExecutors.newDirectExecutorService()));
+        asyncKeyValueService = createAsyncKeyValueService(DEFAULT_MAX_CELLS_PER_MULTI_GET);
     }
 
     @After
@@ -86,8 +97,9 @@ public class CassandraAsyncKeyValueServiceTests {
 
     @Test
     public void testFilteringNonVisible() throws Exception {
-        setUpVisibleCells(VISIBLE_CELL_1);
-        setUpNonVisibleCells(NON_VISIBLE_CELL);
+        Value value = Value.create(RandomBytes.ofLength(10), 5L);
+        when(cqlClient.executeQuery(buildMultiGetQuerySpec(NON_VISIBLE_CELL, VISIBLE_CELL_1)))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(VISIBLE_CELL_1, value)));
 
         Map<Cell, Long> request = ImmutableMap.of(
                 NON_VISIBLE_CELL, TIMESTAMP,
@@ -99,7 +111,10 @@ public class CassandraAsyncKeyValueServiceTests {
 
     @Test
     public void testAllVisible() throws Exception {
-        setUpVisibleCells(VISIBLE_CELL_1, VISIBLE_CELL_2);
+        Value value1 = Value.create(RandomBytes.ofLength(10), 5L);
+        Value value2 = Value.create(RandomBytes.ofLength(10), 6L);
+        when(cqlClient.executeQuery(buildMultiGetQuerySpec(VISIBLE_CELL_1, VISIBLE_CELL_2)))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(VISIBLE_CELL_1, value1, VISIBLE_CELL_2, value2)));
 
         Map<Cell, Long> request = ImmutableMap.of(
                 VISIBLE_CELL_1, TIMESTAMP,
@@ -109,6 +124,76 @@ public class CassandraAsyncKeyValueServiceTests {
         assertThat(result).containsOnlyKeys(VISIBLE_CELL_1, VISIBLE_CELL_2);
     }
 
+    @Test
+    public void readsCellsOfTheSameRowWithOneStatement() throws Exception {
+        Value value1 = Value.create(RandomBytes.ofLength(10), 5L);
+        Value value2 = Value.create(RandomBytes.ofLength(10), 6L);
+        when(cqlClient.executeQuery(buildMultiGetQuerySpec(VISIBLE_CELL_1, VISIBLE_CELL_2, NON_VISIBLE_CELL)))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(VISIBLE_CELL_1, value1, VISIBLE_CELL_2, value2)));
+
+        Map<Cell, Long> request = ImmutableMap.of(
+                VISIBLE_CELL_1, TIMESTAMP,
+                VISIBLE_CELL_2, TIMESTAMP,
+                NON_VISIBLE_CELL, TIMESTAMP);
+        Map<Cell, Value> result = asyncKeyValueService.getAsync(TABLE, request).get();
+
+        assertThat(result).isEqualTo(ImmutableMap.of(VISIBLE_CELL_1, value1, VISIBLE_CELL_2, value2));
+        verify(cqlClient).executeQuery(any());
+        assertThat(metricsManager
+                        .registerOrGetHistogram(CassandraAsyncKeyValueService.class, "statementsPerGetAsync")
+                        .getSnapshot()
+                        .getValues())
+                .containsExactly(1L);
+    }
+
+    @Test
+    public void readsEachCellWithItsOwnStatementIfMaxCellsPerMultiGetIsOne() throws Exception {
+        setUpVisibleCells(VISIBLE_CELL_1, VISIBLE_CELL_2);
+        setUpNonVisibleCells(NON_VISIBLE_CELL);
+
+        try (AsyncKeyValueService singleCellKeyValueService = createAsyncKeyValueService(1)) {
+            Map<Cell, Long> request = ImmutableMap.of(
+                    VISIBLE_CELL_1, TIMESTAMP,
+                    VISIBLE_CELL_2, TIMESTAMP,
+                    NON_VISIBLE_CELL, TIMESTAMP);
+            Map<Cell, Value> result = singleCellKeyValueService.getAsync(TABLE, request).get();
+
+            assertThat(result).containsOnlyKeys(VISIBLE_CELL_1, VISIBLE_CELL_2);
+        }
+        verify(cqlClient, times(3)).executeQuery(any());
+    }
+
+    @Test
+    public void splitsRowsIntoStatementsOfAtMostMaxCells() throws Exception {
+        Value value = Value.create(RandomBytes.ofLength(10), 5L);
+        when(cqlClient.executeQuery(buildMultiGetQuerySpec(VISIBLE_CELL_1, VISIBLE_CELL_2)))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(VISIBLE_CELL_1, value)));
+        setUpNonVisibleCells(NON_VISIBLE_CELL);
+        Cell otherRowCell = Cell.create(PtBytes.toBytes(200), PtBytes.toBytes(100));
+        setUpVisibleCells(otherRowCell);
+
+        try (AsyncKeyValueService batchingKeyValueService = createAsyncKeyValueService(2)) {
+            Map<Cell, Long> request = ImmutableMap.of(
+                    VISIBLE_CELL_1, TIMESTAMP,
+                    VISIBLE_CELL_2, TIMESTAMP,
+                    NON_VISIBLE_CELL, TIMESTAMP,
+                    otherRowCell, TIMESTAMP);
+            Map<Cell, Value> result = batchingKeyValueService.getAsync(TABLE, request).get();
+
+            assertThat(result).containsOnlyKeys(VISIBLE_CELL_1, otherRowCell);
+        }
+        verify(cqlClient, times(3)).executeQuery(any());
+    }
+
+    private AsyncKeyValueService createAsyncKeyValueService(int maxCellsPerMultiGet) {
+        return CassandraAsyncKeyValueService.create(
+                KEYSPACE,
+                cqlClient,
+                AtlasFutures.futuresCombiner(MoreExecutors.newDirectExecutorService()),
+                maxCellsPerMultiGet,
+                metricsManager);
+    }
+
     private void setUpVisibleCells(Cell... cells) {
         for (Cell cell : cells) {
             when(cqlClient.executeQuery(buildGetQuerySpec(buildGetQueryParameter(cell))))
@@ -124,6 +209,15 @@ public class CassandraAsyncKeyValueServiceTests {
         }
     }
 
+    private static MultiGetQuerySpec buildMultiGetQuerySpec(Cell... cells) {
+        return new MultiGetQuerySpec(
+                CQL_QUERY_CONTEXT,
+                ImmutableMultiGetQueryParameters.builder()
+                        .addCells(cells)
+                        .humanReadableTimestamp(TIMESTAMP)
+                        .build());
+    }
+
     private static GetQuerySpec buildGetQuerySpec(GetQuerySpec.GetQueryParameters getQueryParameters) {
         return new GetQuerySpec(CQL_QUERY_CONTEXT, getQueryParameters);
     }
@@ -0,0 +1,137 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.paging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.util.paging.SimpleTokenBackedResultsPage;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Test;
+
+@SuppressWarnings("unchecked") // Mocks of generic types
+public class CassandraRangeSplitScannerTest {
+    private final ExecutorService executor = MoreExecutors.newDirectExecutorService();
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void orderedScanReturnsRowsOfAllPagesInSplitOrder() throws Exception {
+        List<CassandraRangePagingIterable<Integer>> splits =
+                ImmutableList.of(split(page(1, 2), page(3)), split(page(4)), split(page(), page(5, 6)));
+
+        assertThat(rowValues(CassandraRangeSplitScanner.ordered(splits, executor, 2)))
+                .containsExactly(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void unorderedScanReturnsRowsOfAllPages() throws Exception {
+        List<CassandraRangePagingIterable<Integer>> splits =
+                ImmutableList.of(split(page(1, 2), page(3)), split(page(4)), split(page(), page(5, 6)));
+
+        assertThat(rowValues(CassandraRangeSplitScanner.unordered(splits, executor, 2)))
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void doesNotStartMoreSplitsThanTheParallelism() throws Exception {
+        CassandraRangePagingIterable<Integer> first = split(page(1));
+        CassandraRangePagingIterable<Integer> second = split(page(2));
+        CassandraRangePagingIterable<Integer> third = split(page(3));
+
+        ClosableIterator<RowResult<Integer>> rows =
+                CassandraRangeSplitScanner.ordered(ImmutableList.of(first, second, third), executor, 2);
+        assertThat(rows.next().getOnlyColumnValue()).isEqualTo(1);
+
+        verify(first).getFirstPage();
+        verify(second).getFirstPage();
+        verify(third, never()).getFirstPage();
+    }
+
+    @Test
+    public void prefetchesNextPageOfSplitBeingConsumed() throws Exception {
+        CassandraRangePagingIterable<Integer> split = split(page(1, 2), page(3));
+
+        ClosableIterator<RowResult<Integer>> rows =
+                CassandraRangeSplitScanner.ordered(ImmutableList.of(split), executor, 1);
+        assertThat(rows.next().getOnlyColumnValue()).isEqualTo(1);
+
+        verify(split).getNextPage(any());
+    }
+
+    @Test
+    public void propagatesFailuresToReadSplits() throws Exception {
+        CassandraRangePagingIterable<Integer> split = mock(CassandraRangePagingIterable.class);
+        when(split.getFirstPage()).thenThrow(new IllegalStateException("boom"));
+
+        ClosableIterator<RowResult<Integer>> rows =
+                CassandraRangeSplitScanner.unordered(ImmutableList.of(split), executor, 1);
+
+        assertThatThrownBy(rows::hasNext).hasStackTraceContaining("boom");
+    }
+
+    @Test
+    public void throwsIfParallelismIsNotPositive() {
+        assertThatThrownBy(() -> CassandraRangeSplitScanner.ordered(ImmutableList.of(), executor, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SafeVarargs
+    private static CassandraRangePagingIterable<Integer> split(
+            TokenBackedBasicResultsPage<RowResult<Integer>, byte[]>... pages) throws Exception {
+        CassandraRangePagingIterable<Integer> split = mock(CassandraRangePagingIterable.class);
+        List<TokenBackedBasicResultsPage<RowResult<Integer>, byte[]>> withMoreResults = Arrays.stream(pages)
+                .map(page -> SimpleTokenBackedResultsPage.create(page.getTokenForNextPage(), page.getResults(), true))
+                .collect(Collectors.toList());
+        when(split.getFirstPage()).thenReturn(pages.length == 1 ? pages[0] : withMoreResults.get(0));
+        for (int index = 1; index < pages.length; index++) {
+            TokenBackedBasicResultsPage<RowResult<Integer>, byte[]> page =
+                    index == pages.length - 1 ? pages[index] : withMoreResults.get(index);
+            when(split.getNextPage(withMoreResults.get(index - 1))).thenReturn(page);
+        }
+        return split;
+    }
+
+    private static TokenBackedBasicResultsPage<RowResult<Integer>, byte[]> page(int... values) {
+        List<RowResult<Integer>> rows = Arrays.stream(values)
+                .mapToObj(value -> RowResult.of(Cell.create(new byte[] {(byte) value}, new byte[] {0}), value))
+                .collect(Collectors.toList());
+        return SimpleTokenBackedResultsPage.create(new byte[0], rows, false);
+    }
+
+    private static List<Integer> rowValues(ClosableIterator<RowResult<Integer>> rows) {
+        return rows.stream().map(RowResult::getOnlyColumnValue).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class ExponentiallyWeightedLatencyTest {
+    private static final Duration DECAY_TIME = Duration.ofSeconds(10);
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ExponentiallyWeightedLatency latency = new ExponentiallyWeightedLatency(clock::get, DECAY_TIME);
+
+    @Test
+    public void averageIsZeroWithoutSamples() {
+        assertThat(latency.getAverageMicros()).isZero();
+    }
+
+    @Test
+    public void averageConvergesToSteadyLatency() {
+        for (int i = 0; i < 1_000; i++) {
+            advance(Duration.ofMillis(100));
+            latency.update(LATENCY_NANOS);
+        }
+
+        assertThat(latency.getAverageMicros()).isCloseTo(TimeUnit.NANOSECONDS.toMicros(LATENCY_NANOS), within(1L));
+    }
+
+    @Test
+    public void recentSamplesOutweighOldSamples() {
+        for (int i = 0; i < 1_000; i++) {
+            advance(Duration.ofMillis(100));
+            latency.update(LATENCY_NANOS);
+        }
+        advance(DECAY_TIME);
+        latency.update(10 * LATENCY_NANOS);
+
+        assertThat(latency.getAverageMicros())
+                .isGreaterThan(TimeUnit.NANOSECONDS.toMicros(5 * LATENCY_NANOS))
+                .isLessThan(TimeUnit.NANOSECONDS.toMicros(10 * LATENCY_NANOS));
+    }
+
+    @Test
+    public void averageDecaysWhileIdle() {
+        for (int i = 0; i < 1_000; i++) {
+            advance(Duration.ofMillis(100));
+            latency.update(LATENCY_NANOS);
+        }
+        long averageMicros = latency.getAverageMicros();
+
+        advance(DECAY_TIME);
+        assertThat(latency.getAverageMicros()).isCloseTo(Math.round(averageMicros / Math.E), within(1L));
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+import java.net.InetSocketAddress;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LatencyAwareHostsTest {
+    private static final InetSocketAddress FIRST_HOST = new InetSocketAddress(0);
+    private static final InetSocketAddress SECOND_HOST = new InetSocketAddress(1);
+
+    @Test
+    public void prefersHostWithLowerLatency() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                FIRST_HOST, createMockClientPoolingContainer(5_000, 2),
+                SECOND_HOST, createMockClientPoolingContainer(1_000, 2)));
+
+        assertThat(hosts.getLessLoadedHost(0, 1)).isEqualTo(SECOND_HOST);
+        assertThat(hosts.getLessLoadedHost(1, 0)).isEqualTo(SECOND_HOST);
+    }
+
+    @Test
+    public void prefersHostWithFewerOpenRequests() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                FIRST_HOST, createMockClientPoolingContainer(1_000, 1),
+                SECOND_HOST, createMockClientPoolingContainer(1_000, 10)));
+
+        assertThat(hosts.getLessLoadedHost(0, 1)).isEqualTo(FIRST_HOST);
+        assertThat(hosts.getLessLoadedHost(1, 0)).isEqualTo(FIRST_HOST);
+    }
+
+    @Test
+    public void slowIdleHostIsPreferredToFastBusyHost() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                FIRST_HOST, createMockClientPoolingContainer(2_000, 0),
+                SECOND_HOST, createMockClientPoolingContainer(1_000, 5)));
+
+        assertThat(hosts.getLessLoadedHost(0, 1)).isEqualTo(FIRST_HOST);
+    }
+
+    @Test
+    public void hostsWithNoLatencyDataAreComparedByOpenRequests() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                FIRST_HOST, createMockClientPoolingContainer(0, 3),
+                SECOND_HOST, createMockClientPoolingContainer(0, 1)));
+
+        assertThat(hosts.getLessLoadedHost(0, 1)).isEqualTo(SECOND_HOST);
+    }
+
+    @Test
+    public void randomHostIsAlwaysOneOfThePools() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                FIRST_HOST, createMockClientPoolingContainer(1_000, 1),
+                SECOND_HOST, createMockClientPoolingContainer(1_000, 1),
+                new InetSocketAddress(2), createMockClientPoolingContainer(1_000, 1)));
+
+        IntStream.range(0, 100)
+                .forEach(ignored -> assertThat(hosts.getRandomHost().getPort()).isBetween(0, 2));
+    }
+
+    @Test
+    public void singleHostIsAlwaysChosen() {
+        LatencyAwareHosts hosts =
+                LatencyAwareHosts.create(ImmutableMap.of(FIRST_HOST, createMockClientPoolingContainer(1_000, 10)));
+
+        assertThat(hosts.getRandomHost()).isEqualTo(FIRST_HOST);
+    }
+
+    @Test
+    public void cannotBeCreatedWithoutPools() {
+        assertThatThrownBy(() -> LatencyAwareHosts.create(ImmutableMap.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CassandraClientPoolingContainer createMockClientPoolingContainer(
+            long latencyEwmaMicros, int openRequests) {
+        CassandraClientPoolingContainer mock = Mockito.mock(CassandraClientPoolingContainer.class);
+        Mockito.when(mock.getLatencyEwmaMicros()).thenReturn(latencyEwmaMicros);
+        Mockito.when(mock.getOpenRequests()).thenReturn(openRequests);
+        return mock;
+    }
+}
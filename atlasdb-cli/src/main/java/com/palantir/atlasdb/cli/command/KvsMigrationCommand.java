@@ -92,6 +92,12 @@ public class KvsMigrationCommand implements Callable<Integer> {
             description = "Validate migration.")
     private boolean validate = false;
 
+    @Option(
+            name = {"--validate-by-digest"},
+            description = "When validating, only compare row ranges in full if their digests differ, and resume from"
+                    + " the ranges validated by a previous run.")
+    private boolean validateByDigest = false;
+
     @Option(
             name = {"--offline"},
             title = "OFFLINE",
@@ -146,7 +152,11 @@ public class KvsMigrationCommand implements Callable<Integer> {
                     (String message, KeyValueServiceMigrator.KvsMigrationMessageLevel level) ->
                             printer.info(level.toString() + ": " + message),
                     ImmutableSet.of());
-            validator.validate(true);
+            if (validateByDigest) {
+                validator.validateByPartitionDigests(true, KeyValueServiceMigrators.CHECKPOINT_NAMESPACE);
+            } else {
+                validator.validate(true);
+            }
         }
         return 0;
     }
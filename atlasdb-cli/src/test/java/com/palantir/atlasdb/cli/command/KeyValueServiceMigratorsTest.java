@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.cli.command;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -36,11 +37,13 @@ import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.TableSplittingKeyValueService;
 import com.palantir.atlasdb.schema.KeyValueServiceMigrator;
 import com.palantir.atlasdb.schema.KeyValueServiceMigratorUtils;
+import com.palantir.atlasdb.schema.KeyValueServiceValidator;
 import com.palantir.atlasdb.services.AtlasDbServices;
 import com.palantir.atlasdb.sweep.queue.TargetedSweeper;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
@@ -73,6 +76,9 @@ public class KeyValueServiceMigratorsTest {
             TEST_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA,
             CHECKPOINT_TABLE_NO_NAMESPACE, AtlasDbConstants.GENERIC_TABLE_METADATA,
             CHECKPOINT_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+    private static final Namespace VALIDATION_CHECKPOINT_NAMESPACE = KeyValueServiceMigrators.CHECKPOINT_NAMESPACE;
+    private static final TableReference VALIDATION_CHECKPOINT_TABLE = TableReference.create(
+            VALIDATION_CHECKPOINT_NAMESPACE, KeyValueServiceMigratorUtils.VALIDATION_CHECKPOINT_TABLE_NAME);
     private static final TableReference FAKE_ATOMIC_TABLE = TableReference.createFromFullyQualifiedName("fake.atomic");
     private static final Cell TEST_CELL = Cell.create(new byte[] {1}, new byte[] {1});
     private static final Cell TEST_CELL2 = Cell.create(new byte[] {2}, new byte[] {2});
@@ -279,6 +285,44 @@ public class KeyValueServiceMigratorsTest {
         verify(toKvs, times(1)).dropTable(CHECKPOINT_TABLE);
     }
 
+    @Test
+    public void validationByPartitionDigestsPassesAndDropsCheckpointsAfterMigration() {
+        fromKvs.createTable(TEST_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        fromTxManager.runTaskWithRetry(tx -> {
+            tx.put(TEST_TABLE, ImmutableMap.of(TEST_CELL, TEST_VALUE1, TEST_CELL2, TEST_VALUE2));
+            return tx.getTimestamp();
+        });
+
+        KeyValueServiceMigrator migrator = KeyValueServiceMigrators.setupMigrator(migratorSpec);
+        migrator.setup();
+        migrator.migrate();
+
+        assertThatCode(() -> createValidator().validateByPartitionDigests(false, VALIDATION_CHECKPOINT_NAMESPACE))
+                .doesNotThrowAnyException();
+        verify(toKvs, times(1)).dropTable(VALIDATION_CHECKPOINT_TABLE);
+    }
+
+    @Test
+    public void validationByPartitionDigestsFailsAndKeepsCheckpointsIfTablesDiffer() {
+        fromKvs.createTable(TEST_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        fromTxManager.runTaskWithRetry(tx -> {
+            tx.put(TEST_TABLE, ImmutableMap.of(TEST_CELL, TEST_VALUE1, TEST_CELL2, TEST_VALUE2));
+            return tx.getTimestamp();
+        });
+
+        KeyValueServiceMigrator migrator = KeyValueServiceMigrators.setupMigrator(migratorSpec);
+        migrator.setup();
+        migrator.migrate();
+        toTxManager.runTaskWithRetry(tx -> {
+            tx.put(TEST_TABLE, ImmutableMap.of(TEST_CELL2, TEST_VALUE1));
+            return tx.getTimestamp();
+        });
+
+        assertThatThrownBy(() -> createValidator().validateByPartitionDigests(false, VALIDATION_CHECKPOINT_NAMESPACE))
+                .hasStackTraceContaining("Values not equal for cell");
+        verify(toKvs, never()).dropTable(VALIDATION_CHECKPOINT_TABLE);
+    }
+
     @Test
     public void tablesDelegatedToSourceKvsGetDroppedFromSourceKvsIfMigratable() {
         fromKvs.createTable(FAKE_ATOMIC_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
@@ -327,6 +371,18 @@ public class KeyValueServiceMigratorsTest {
         assertThat(toSplittingServices.getTransactionService().get(100_000)).isEqualTo(100_001L);
     }
 
+    private KeyValueServiceValidator createValidator() {
+        return new KeyValueServiceValidator(
+                fromTxManager,
+                toTxManager,
+                fromKvs,
+                4,
+                1,
+                ImmutableMap.of(),
+                (message, level) -> {},
+                ImmutableSet.of());
+    }
+
     private static AtlasDbServices createMock(KeyValueService kvs) {
         ManagedTimestampService timestampService = new InMemoryTimestampService();
 
@@ -157,6 +157,7 @@ public final class AtlasDbConstants {
     public static final int DEFAULT_STREAM_IN_MEMORY_THRESHOLD = 4 * 1024 * 1024;
 
     public static final long DEFAULT_TIMESTAMP_CACHE_SIZE = 1_000_000;
+    public static final long DEFAULT_LOCK_WATCH_VALUE_CACHE_SIZE = 100_000;
 
     public static final int MAX_TABLE_PREFIX_LENGTH = 7;
     public static final int MAX_OVERFLOW_TABLE_PREFIX_LENGTH = 6;
@@ -42,6 +42,9 @@ public final class AtlasDbMetricNames {
     public static final String SNAPSHOT_TRANSACTION_CELLS_RETURNED = "numCellsReturnedAfterFiltering";
     public static final String SNAPSHOT_TRANSACTION_TOO_MANY_BYTES_READ = "tooManyBytesRead";
     public static final String SNAPSHOT_TRANSACTION_BYTES_WRITTEN = "bytesWritten";
+    public static final String SERIALIZABLE_TRANSACTION_READ_SET_BYTES = "readSetBytes";
+    public static final String SERIALIZABLE_TRANSACTION_VERIFICATION = "readWriteConflictVerification";
+    public static final String SNAPSHOT_TRANSACTION_PREFETCH_STALL = "rangeScanPrefetchStall";
 
     public static final String CELLS_EXAMINED = "cellTimestampPairsExamined";
     public static final String CELLS_SWEPT = "staleValuesDeleted";
@@ -20,6 +20,8 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -29,9 +31,11 @@ import com.palantir.atlasdb.autobatch.CoalescingRequestFunction;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.atlasdb.persistent.api.PersistentStore;
 import com.palantir.common.streams.KeyedStream;
+import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -45,22 +49,34 @@ import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * An off-heap cache that stores its entries in a fixed number of generations, each backed by its own space of the
+ * {@link PersistentStore}. New entries are written to the youngest generation; once it is full, a new generation is
+ * created and, if there are too many generations, the oldest one is dropped in its entirety. This bounds the size of
+ * the cache without ever evicting all entries at once. Reads check the generations from youngest to oldest.
+ */
 public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
     private static final Logger log = LoggerFactory.getLogger(DefaultOffHeapCache.class);
     private static final String BATCHER_PURPOSE = "off-heap-cache";
+    private static final int DEFAULT_NUMBER_OF_GENERATIONS = 4;
     private static final MetricName CACHE_HIT = constructCacheMetricName("cacheHit");
     private static final MetricName CACHE_MISS = constructCacheMetricName("cacheMiss");
+    // Counts dropped generations, which is what clearing the whole cache used to be before it had generations.
     private static final MetricName CACHE_NUKE = constructCacheMetricName("cacheNuke");
+    private static final MetricName CACHE_EVICTED_ENTRIES = constructCacheMetricName("cacheEvictedEntries");
     private static final MetricName CACHE_SIZE = constructCacheMetricName("cacheSize");
 
     private final PersistentStore persistentStore;
     private final EntryMapper<K, V> entryMapper;
     private final LongSupplier maxSize;
-    private final AtomicReference<CacheDescriptor> cacheDescriptor = new AtomicReference<>();
+    private final int maxGenerations;
+    private final AtomicReference<List<CacheDescriptor>> generations = new AtomicReference<>();
     private final DisruptorAutobatcher<Map.Entry<K, V>, Void> valuePutter;
     private final Meter cacheHit;
     private final Meter cacheMiss;
     private final Counter cacheNuke;
+    private final Counter cacheEvictedEntries;
+    private final List<Meter> generationHits;
 
     public interface EntryMapper<K, V> {
         ByteString serializeKey(K key);
@@ -77,14 +93,23 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
             EntryMapper<K, V> entryMapper,
             TaggedMetricRegistry taggedMetricRegistry,
             LongSupplier maxSize) {
-        PersistentStore.Handle handle = persistentStore.createSpace();
-
-        CacheDescriptor cacheDescriptor = ImmutableCacheDescriptor.builder()
-                .currentSize(new AtomicInteger())
-                .handle(handle)
-                .build();
+        return create(persistentStore, entryMapper, taggedMetricRegistry, maxSize, DEFAULT_NUMBER_OF_GENERATIONS);
+    }
 
-        return new DefaultOffHeapCache(persistentStore, entryMapper, cacheDescriptor, maxSize, taggedMetricRegistry);
+    public static <K, V> OffHeapCache<K, V> create(
+            PersistentStore persistentStore,
+            EntryMapper<K, V> entryMapper,
+            TaggedMetricRegistry taggedMetricRegistry,
+            LongSupplier maxSize,
+            int maxGenerations) {
+        Preconditions.checkArgument(maxGenerations > 0, "There must be at least one generation");
+        return new DefaultOffHeapCache<>(
+                persistentStore,
+                entryMapper,
+                createNamespaceAndConstructCacheProposal(persistentStore),
+                maxSize,
+                maxGenerations,
+                taggedMetricRegistry);
     }
 
     private DefaultOffHeapCache(
@@ -92,19 +117,27 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
             EntryMapper<K, V> entryMapper,
             CacheDescriptor cacheDescriptor,
             LongSupplier maxSize,
+            int maxGenerations,
             TaggedMetricRegistry taggedMetricRegistry) {
         this.persistentStore = persistentStore;
         this.entryMapper = entryMapper;
-        this.cacheDescriptor.set(cacheDescriptor);
+        this.generations.set(ImmutableList.of(cacheDescriptor));
         this.maxSize = maxSize;
+        this.maxGenerations = maxGenerations;
         this.cacheHit = taggedMetricRegistry.meter(CACHE_HIT);
         this.cacheMiss = taggedMetricRegistry.meter(CACHE_MISS);
         this.cacheNuke = taggedMetricRegistry.counter(CACHE_NUKE);
+        this.cacheEvictedEntries = taggedMetricRegistry.counter(CACHE_EVICTED_ENTRIES);
+        this.generationHits = new ArrayList<>(maxGenerations);
+        for (int age = 0; age < maxGenerations; age++) {
+            generationHits.add(taggedMetricRegistry.meter(constructGenerationMetricName("cacheGenerationHit", age)));
+        }
         this.valuePutter = Autobatchers.coalescing(new WriteBatcher<>(this))
                 .safeLoggablePurpose(BATCHER_PURPOSE)
                 .build();
-        Gauge<Integer> cacheSizeGauge =
-                () -> this.cacheDescriptor.get().currentSize().intValue();
+        Gauge<Integer> cacheSizeGauge = () -> this.generations.get().stream()
+                .mapToInt(generation -> generation.currentSize().get())
+                .sum();
         taggedMetricRegistry.registerWithReplacement(CACHE_SIZE, cacheSizeGauge);
     }
 
@@ -112,9 +145,9 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
     public void clear() {
         CacheDescriptor proposedCacheDescriptor = createNamespaceAndConstructCacheProposal(persistentStore);
 
-        CacheDescriptor previous = cacheDescriptor.getAndUpdate(prev -> proposedCacheDescriptor);
+        List<CacheDescriptor> previous = generations.getAndSet(ImmutableList.of(proposedCacheDescriptor));
         if (previous != null) {
-            persistentStore.dropStoreSpace(previous.handle());
+            previous.forEach(generation -> persistentStore.dropStoreSpace(generation.handle()));
         }
     }
 
@@ -126,13 +159,71 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
     @Override
     public Optional<V> get(K key) {
         ByteString serializedKey = entryMapper.serializeKey(key);
-        Optional<ByteString> value = persistentStore.get(cacheDescriptor.get().handle(), serializedKey);
-        getCacheMeter(value.isPresent()).mark();
-        return value.map(v -> entryMapper.deserializeValue(serializedKey, v));
+        List<CacheDescriptor> currentGenerations = generations.get();
+        for (int age = 0; age < currentGenerations.size(); age++) {
+            Optional<ByteString> value = getFromGeneration(currentGenerations.get(age), serializedKey);
+            if (value.isPresent()) {
+                cacheHit.mark();
+                generationHits.get(age).mark();
+                return value.map(v -> entryMapper.deserializeValue(serializedKey, v));
+            }
+        }
+        cacheMiss.mark();
+        return Optional.empty();
     }
 
-    private Meter getCacheMeter(boolean cacheOutcome) {
-        return cacheOutcome ? cacheHit : cacheMiss;
+    @VisibleForTesting
+    int numberOfGenerations() {
+        return generations.get().size();
+    }
+
+    private Optional<ByteString> getFromGeneration(CacheDescriptor generation, ByteString serializedKey) {
+        try {
+            return persistentStore.get(generation.handle(), serializedKey);
+        } catch (SafeIllegalArgumentException exception) {
+            // happens when the generation is dropped by a concurrent eviction or call to clear
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Makes room in the cache for new entries if the youngest generation is full, by starting a new generation and
+     * dropping the oldest generation if there are now too many. Must only be called from the write batcher.
+     */
+    private CacheDescriptor rotateGenerationsIfNecessary() {
+        List<CacheDescriptor> currentGenerations = generations.get();
+        CacheDescriptor youngest = currentGenerations.get(0);
+        if (youngest.currentSize().get() < getGenerationCapacity()) {
+            return youngest;
+        }
+
+        CacheDescriptor newGeneration = createNamespaceAndConstructCacheProposal(persistentStore);
+        int generationsToKeep = Math.min(currentGenerations.size(), getRetainedGenerations() - 1);
+        List<CacheDescriptor> newGenerations = ImmutableList.<CacheDescriptor>builder()
+                .add(newGeneration)
+                .addAll(currentGenerations.subList(0, generationsToKeep))
+                .build();
+        if (!generations.compareAndSet(currentGenerations, newGenerations)) {
+            // clear was called concurrently, so there is a fresh generation already.
+            persistentStore.dropStoreSpace(newGeneration.handle());
+            return generations.get().get(0);
+        }
+
+        currentGenerations.subList(generationsToKeep, currentGenerations.size()).forEach(evicted -> {
+            cacheNuke.inc();
+            cacheEvictedEntries.inc(evicted.currentSize().get());
+            persistentStore.dropStoreSpace(evicted.handle());
+        });
+        return newGeneration;
+    }
+
+    private long getGenerationCapacity() {
+        long totalSize = maxSize.getAsLong();
+        return Math.max(1, (totalSize + getRetainedGenerations() - 1) / getRetainedGenerations());
+    }
+
+    private int getRetainedGenerations() {
+        return (int) Math.max(1, Math.min(maxGenerations, maxSize.getAsLong()));
     }
 
     private static CacheDescriptor createNamespaceAndConstructCacheProposal(PersistentStore persistentStore) {
@@ -149,6 +240,13 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
                 .build();
     }
 
+    private static MetricName constructGenerationMetricName(String metricSuffix, int generationAge) {
+        return MetricName.builder()
+                .safeName(MetricRegistry.name(DefaultOffHeapCache.class, metricSuffix))
+                .putSafeTags("generation", Integer.toString(generationAge))
+                .build();
+    }
+
     private static class WriteBatcher<K, V> implements CoalescingRequestFunction<Map.Entry<K, V>, Void> {
         DefaultOffHeapCache<K, V> offHeapCache;
 
@@ -158,21 +256,16 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
 
         @Override
         public Map<Map.Entry<K, V>, Void> apply(Set<Map.Entry<K, V>> request) {
-            CacheDescriptor cacheDescriptor = offHeapCache.cacheDescriptor.get();
-            if (cacheDescriptor.currentSize().get() >= offHeapCache.maxSize.getAsLong()) {
-                offHeapCache.cacheNuke.inc();
-                offHeapCache.clear();
-            }
-            cacheDescriptor = offHeapCache.cacheDescriptor.get();
             Set<Map.Entry<ByteString, ByteString>> serializedRequest =
                     request.stream().map(this::serializeEntry).collect(Collectors.toSet());
             try {
+                CacheDescriptor cacheDescriptor = offHeapCache.rotateGenerationsIfNecessary();
                 List<ByteString> toWrite =
                         serializedRequest.stream().map(Map.Entry::getKey).collect(Collectors.toList());
                 Map<ByteString, ByteString> response =
                         offHeapCache.persistentStore.get(cacheDescriptor.handle(), toWrite);
 
-                int sizeIncrease = Sets.difference(request, response.entrySet()).size();
+                int sizeIncrease = Sets.difference(serializedRequest, response.entrySet()).size();
                 cacheDescriptor.currentSize().addAndGet(sizeIncrease);
                 offHeapCache.persistentStore.put(cacheDescriptor.handle(), ImmutableMap.copyOf(serializedRequest));
             } catch (SafeIllegalArgumentException exception) {
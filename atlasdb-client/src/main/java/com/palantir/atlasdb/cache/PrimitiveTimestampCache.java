@@ -0,0 +1,375 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link TimestampCache} that stores start to commit timestamp mappings in primitive {@code long[]} open
+ * addressing tables, avoiding the boxed keys, boxed values and per entry nodes of {@link DefaultTimestampCache}.
+ *
+ * The cache is split into a fixed number of segments, each guarded by its own {@link StampedLock}. Reads are
+ * optimistic and only fall back to taking the read lock if they race with a write to the same segment. Once a
+ * segment is full, entries are evicted using the CLOCK (second chance) approximation of LRU. New entries start
+ * without their reference bit set, so timestamps that are looked up once are evicted before those read repeatedly.
+ *
+ * {@link Long#MIN_VALUE} is used to mark empty slots, and so is never cached as a start timestamp.
+ */
+public final class PrimitiveTimestampCache implements TimestampCache {
+    private static final String METRICS_PREFIX = MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp");
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+    private final LongSupplier size;
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long currentMaximumSize;
+
+    public PrimitiveTimestampCache(MetricRegistry metricRegistry, LongSupplier size) {
+        this(metricRegistry, size, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    @VisibleForTesting
+    PrimitiveTimestampCache(MetricRegistry metricRegistry, LongSupplier size, int concurrencyLevel) {
+        Preconditions.checkArgument(
+                concurrencyLevel > 0 && Integer.bitCount(concurrencyLevel) == 1,
+                "Concurrency level must be a positive power of two",
+                SafeArg.of("concurrencyLevel", concurrencyLevel));
+        this.size = size;
+        this.segments = new Segment[concurrencyLevel];
+        this.segmentShift = Long.SIZE - Integer.numberOfTrailingZeros(concurrencyLevel);
+        this.currentMaximumSize = size.getAsLong();
+        for (int i = 0; i < concurrencyLevel; i++) {
+            segments[i] = new Segment(segmentCapacity(currentMaximumSize, i), evictions);
+        }
+        registerMetrics(metricRegistry);
+    }
+
+    @Override
+    @Nullable
+    public Long getCommitTimestampIfPresent(Long startTimestamp) {
+        if (startTimestamp == EMPTY) {
+            misses.increment();
+            return null;
+        }
+        resizeIfNecessary();
+        long hash = hash(startTimestamp);
+        long commitTimestamp = segmentFor(hash).get(startTimestamp, hash);
+        if (commitTimestamp == EMPTY) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return commitTimestamp;
+    }
+
+    @Override
+    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
+        if (startTimestamp == EMPTY) {
+            return;
+        }
+        resizeIfNecessary();
+        long hash = hash(startTimestamp);
+        segmentFor(hash).put(startTimestamp, commitTimestamp, hash);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @VisibleForTesting
+    long estimatedSize() {
+        long estimatedSize = 0;
+        for (Segment segment : segments) {
+            estimatedSize += segment.size;
+        }
+        return estimatedSize;
+    }
+
+    public static TimestampCache createForTests() {
+        return new PrimitiveTimestampCache(new MetricRegistry(), () -> 1000L);
+    }
+
+    private void resizeIfNecessary() {
+        if (currentMaximumSize != size.getAsLong()) {
+            resize();
+        }
+    }
+
+    private synchronized void resize() {
+        long newMaximumSize = size.getAsLong();
+        if (currentMaximumSize == newMaximumSize) {
+            return;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segments[i].resize(segmentCapacity(newMaximumSize, i));
+        }
+        currentMaximumSize = newMaximumSize;
+    }
+
+    /**
+     * Splits the maximum size across the segments so that their capacities sum to exactly the maximum size.
+     */
+    private int segmentCapacity(long maximumSize, int segmentIndex) {
+        long clampedSize = Math.max(0, maximumSize);
+        long capacity = clampedSize / segments.length + (segmentIndex < clampedSize % segments.length ? 1 : 0);
+        return Math.toIntExact(capacity);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> segmentShift) & (segments.length - 1)];
+    }
+
+    private void registerMetrics(MetricRegistry metricRegistry) {
+        if (metricRegistry.getMetrics().keySet().stream().anyMatch(name -> name.startsWith(METRICS_PREFIX))) {
+            return;
+        }
+        metricRegistry.register(MetricRegistry.name(METRICS_PREFIX, "hit", "count"), (Gauge<Long>) hits::sum);
+        metricRegistry.register(MetricRegistry.name(METRICS_PREFIX, "miss", "count"), (Gauge<Long>) misses::sum);
+        metricRegistry.register(
+                MetricRegistry.name(METRICS_PREFIX, "eviction", "count"), (Gauge<Long>) evictions::sum);
+        metricRegistry.register(
+                MetricRegistry.name(METRICS_PREFIX, "estimated", "size"), (Gauge<Long>) this::estimatedSize);
+        metricRegistry.register(MetricRegistry.name(METRICS_PREFIX, "hit", "ratio"), (Gauge<Double>) () -> {
+            long hitCount = hits.sum();
+            long requestCount = hitCount + misses.sum();
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        });
+    }
+
+    /**
+     * The finalisation step of MurmurHash3; start timestamps are close to sequential, so the low bits need mixing
+     * into the high bits (used to pick a segment) and vice versa (used to pick a slot).
+     */
+    private static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final LongAdder evictions;
+
+        private volatile Table table;
+        private int size;
+        private int capacity;
+        private int hand;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.evictions = evictions;
+            this.table = new Table(capacity);
+        }
+
+        /**
+         * Returns the commit timestamp for the given start timestamp, or {@link #EMPTY} if it is not present.
+         */
+        private long get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            Table current = table;
+            int slot = current.find(key, hash);
+            long value = slot < 0 ? EMPTY : current.values[slot];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    current = table;
+                    slot = current.find(key, hash);
+                    value = slot < 0 ? EMPTY : current.values[slot];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (slot >= 0) {
+                // Racy, but a lost or misplaced reference bit only makes the eviction order slightly less accurate.
+                current.referenced[slot] = true;
+            }
+            return value;
+        }
+
+        private void put(long key, long value, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                if (capacity == 0) {
+                    return;
+                }
+                Table current = table;
+                int slot = current.find(key, hash);
+                if (slot >= 0) {
+                    current.values[slot] = value;
+                    current.referenced[slot] = true;
+                    return;
+                }
+                if (size >= capacity) {
+                    evictOne(current);
+                }
+                current.insert(key, value, hash, false);
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(capacity);
+                size = 0;
+                hand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize(int newCapacity) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                while (size > newCapacity) {
+                    evictOne(current);
+                }
+                Table resized = new Table(newCapacity);
+                for (int i = 0; i < current.keys.length; i++) {
+                    long key = current.keys[i];
+                    if (key != EMPTY) {
+                        resized.insert(key, current.values[i], hash(key), current.referenced[i]);
+                    }
+                }
+                table = resized;
+                capacity = newCapacity;
+                hand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Advances the clock hand, clearing reference bits, until it finds an unreferenced entry to evict. This
+         * terminates within two sweeps of the table, as the first sweep clears every reference bit it passes.
+         */
+        private void evictOne(Table current) {
+            int mask = current.keys.length - 1;
+            while (true) {
+                int slot = hand;
+                if (current.keys[slot] != EMPTY) {
+                    if (!current.referenced[slot]) {
+                        // The hand stays put, as removal may shift a later entry back into this slot.
+                        current.remove(slot);
+                        size--;
+                        evictions.increment();
+                        return;
+                    }
+                    current.referenced[slot] = false;
+                }
+                hand = (slot + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * A linear probing table, kept at most half full so that probe sequences stay short.
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final boolean[] referenced;
+
+        private Table(int capacity) {
+            int length = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+            this.keys = new long[length];
+            this.values = new long[length];
+            this.referenced = new boolean[length];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Returns the slot holding the given key, or -1 if absent. Probing is bounded by the table length, as
+         * optimistic readers may observe the table mid-update.
+         */
+        private int find(long key, long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                long candidate = keys[slot];
+                if (candidate == key) {
+                    return slot;
+                }
+                if (candidate == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long key, long value, long hash, boolean isReferenced) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+            referenced[slot] = isReferenced;
+            keys[slot] = key;
+        }
+
+        /**
+         * Removes the entry at the given slot using backward shift deletion, so that no tombstones are needed.
+         */
+        private void remove(int slot) {
+            int mask = keys.length - 1;
+            int gap = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                long key = keys[next];
+                if (key == EMPTY) {
+                    break;
+                }
+                int home = (int) hash(key) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = key;
+                    values[gap] = values[next];
+                    referenced[gap] = referenced[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            referenced[gap] = false;
+        }
+    }
+}
@@ -0,0 +1,854 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.rocksdb;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Striped;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.TimestampRangeDelete;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
+import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.exception.AtlasDbDependencyException;
+import com.palantir.common.exception.TableMappingNotFoundException;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+/**
+ * Durable, embedded key-value store for single-node deployments, backed by RocksDB.
+ * <p>
+ * Each table is a RocksDB column family, and table metadata is stored in the default column family. Keys are encoded
+ * by {@link RocksDbKeys}, so that the versions of a cell are adjacent and ordered newest first: reading the latest
+ * version of a cell below a timestamp is a single seek.
+ * <p>
+ * Writes that commit transactions ({@link #putUnlessExists} and {@link #checkAndSet}) are synced to the write-ahead
+ * log before they return. Other writes are not, but because the log is sequential, syncing a commit also persists
+ * every write that preceded it.
+ */
+@ThreadSafe
+public final class RocksDbKeyValueService extends AbstractKeyValueService {
+    private static final Comparator<byte[]> COMPARATOR = UnsignedBytes.lexicographicalComparator();
+    private static final int CELL_LOCK_STRIPES = 1024;
+    private static final ColumnRangeSelection ALL_COLUMNS =
+            new ColumnRangeSelection(PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+    private static final VersionReader<Value> LATEST_VALUE =
+            (iterator, cellPrefix, timestamp) -> currentValue(iterator);
+    private static final VersionReader<Set<Long>> ALL_TIMESTAMPS = RocksDbKeyValueService::readAllTimestamps;
+
+    private final RocksDB db;
+    private final DBOptions dbOptions;
+    private final ColumnFamilyOptions columnFamilyOptions;
+    private final ColumnFamilyHandle metadataColumnFamily;
+    private final ConcurrentMap<TableReference, ColumnFamilyHandle> tables;
+    private final WriteOptions writeOptions = new WriteOptions();
+    private final WriteOptions syncedWriteOptions = new WriteOptions().setSync(true);
+    private final Striped<Lock> cellLocks = Striped.lock(CELL_LOCK_STRIPES);
+
+    private RocksDbKeyValueService(
+            RocksDB db,
+            DBOptions dbOptions,
+            ColumnFamilyOptions columnFamilyOptions,
+            ColumnFamilyHandle metadataColumnFamily,
+            Map<TableReference, ColumnFamilyHandle> tables) {
+        super(MoreExecutors.newDirectExecutorService());
+        this.db = db;
+        this.dbOptions = dbOptions;
+        this.columnFamilyOptions = columnFamilyOptions;
+        this.metadataColumnFamily = metadataColumnFamily;
+        this.tables = new ConcurrentHashMap<>(tables);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not already exist.
+     */
+    public static RocksDbKeyValueService create(File dataDirectory) {
+        RocksDB.loadLibrary();
+        Preconditions.checkArgument(
+                dataDirectory.isDirectory() || dataDirectory.mkdirs(),
+                "Could not create RocksDB data directory",
+                UnsafeArg.of("dataDirectory", dataDirectory));
+        String path = dataDirectory.getAbsolutePath();
+
+        DBOptions dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions();
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+        for (byte[] name : existingColumnFamilies(dataDirectory)) {
+            descriptors.add(new ColumnFamilyDescriptor(name, columnFamilyOptions));
+        }
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        RocksDB db = callWithExceptionHandling(() -> RocksDB.open(dbOptions, path, descriptors, handles));
+
+        ColumnFamilyHandle metadataColumnFamily = null;
+        Map<TableReference, ColumnFamilyHandle> tables = new HashMap<>();
+        for (int index = 0; index < descriptors.size(); index++) {
+            byte[] name = descriptors.get(index).getName();
+            if (Arrays.equals(name, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+                metadataColumnFamily = handles.get(index);
+            } else {
+                tables.put(TableReference.fromString(new String(name, StandardCharsets.UTF_8)), handles.get(index));
+            }
+        }
+        return new RocksDbKeyValueService(db, dbOptions, columnFamilyOptions, metadataColumnFamily, tables);
+    }
+
+    private static List<byte[]> existingColumnFamilies(File dataDirectory) {
+        if (!new File(dataDirectory, "CURRENT").exists()) {
+            return ImmutableList.of(RocksDB.DEFAULT_COLUMN_FAMILY);
+        }
+        try (Options options = new Options()) {
+            return callWithExceptionHandling(
+                    () -> RocksDB.listColumnFamilies(options, dataDirectory.getAbsolutePath()));
+        }
+    }
+
+    @Override
+    public Map<Cell, Value> getRows(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection, long timestamp) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Map<Cell, Value> result = new HashMap<>();
+        try (RocksIterator iterator = db.newIterator(table)) {
+            for (byte[] row : rows) {
+                if (columnSelection.allColumnsSelected()) {
+                    scanRow(iterator, row, ALL_COLUMNS, column -> true, timestamp, LATEST_VALUE, (column, value) ->
+                            result.put(Cell.create(row, column), value));
+                } else {
+                    for (byte[] column : columnSelection.getSelectedColumns()) {
+                        byte[] cellPrefix = RocksDbKeys.cellPrefix(row, column);
+                        if (seekLatestVersionBefore(iterator, cellPrefix, timestamp)) {
+                            result.put(Cell.create(row, column), currentValue(iterator));
+                        }
+                    }
+                }
+            }
+            checkStatus(iterator);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Map<Cell, Value> result = Maps.newHashMapWithExpectedSize(timestampByCell.size());
+        try (RocksIterator iterator = db.newIterator(table)) {
+            for (Map.Entry<Cell, Long> entry : timestampByCell.entrySet()) {
+                Cell cell = entry.getKey();
+                byte[] cellPrefix = RocksDbKeys.cellPrefix(cell.getRowName(), cell.getColumnName());
+                if (seekLatestVersionBefore(iterator, cellPrefix, entry.getValue())) {
+                    result.put(cell, currentValue(iterator));
+                }
+            }
+            checkStatus(iterator);
+        }
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return Futures.immediateFuture(get(tableRef, timestampByCell));
+    }
+
+    @Override
+    public Map<Cell, Long> getLatestTimestamps(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Map<Cell, Long> result = Maps.newHashMapWithExpectedSize(timestampByCell.size());
+        try (RocksIterator iterator = db.newIterator(table)) {
+            for (Map.Entry<Cell, Long> entry : timestampByCell.entrySet()) {
+                Cell cell = entry.getKey();
+                byte[] cellPrefix = RocksDbKeys.cellPrefix(cell.getRowName(), cell.getColumnName());
+                if (seekLatestVersionBefore(iterator, cellPrefix, entry.getValue())) {
+                    result.put(cell, RocksDbKeys.timestamp(iterator.key()));
+                }
+            }
+            checkStatus(iterator);
+        }
+        return result;
+    }
+
+    @Override
+    public Multimap<Cell, Long> getAllTimestamps(TableReference tableRef, Set<Cell> cells, long timestamp) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Multimap<Cell, Long> result = HashMultimap.create();
+        try (RocksIterator iterator = db.newIterator(table)) {
+            for (Cell cell : cells) {
+                byte[] cellPrefix = RocksDbKeys.cellPrefix(cell.getRowName(), cell.getColumnName());
+                if (seekLatestVersionBefore(iterator, cellPrefix, timestamp)) {
+                    result.putAll(cell, ALL_TIMESTAMPS.read(iterator, cellPrefix, timestamp));
+                }
+            }
+            checkStatus(iterator);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+            TableReference tableRef, Iterable<RangeRequest> rangeRequests, long timestamp) {
+        return KeyValueServices.getFirstBatchForRangesUsingGetRange(this, tableRef, rangeRequests, timestamp);
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest range, long timestamp) {
+        return new RangeIterator<>(db.newIterator(getTable(tableRef)), range, timestamp, LATEST_VALUE);
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Set<Long>>> getRangeOfTimestamps(
+            TableReference tableRef, RangeRequest range, long timestamp) {
+        return new RangeIterator<>(db.newIterator(getTable(tableRef)), range, timestamp, ALL_TIMESTAMPS);
+    }
+
+    @Override
+    public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(
+            TableReference tableRef, CandidateCellForSweepingRequest request) {
+        return new CandidateCellIterator(db.newIterator(getTable(tableRef)), request);
+    }
+
+    @Override
+    public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        ColumnRangeSelection columnRangeSelection = new ColumnRangeSelection(
+                batchColumnRangeSelection.getStartCol(), batchColumnRangeSelection.getEndCol());
+        Map<byte[], RowColumnRangeIterator> result = new HashMap<>();
+        try (RocksIterator iterator = db.newIterator(table)) {
+            for (byte[] row : rows) {
+                result.put(row, getColumnRangeForSingleRow(iterator, row, columnRangeSelection, timestamp));
+            }
+            checkStatus(iterator);
+        }
+        return result;
+    }
+
+    @Override
+    public RowColumnRangeIterator getRowsColumnRange(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnRangeSelection columnRangeSelection,
+            int cellBatchHint,
+            long timestamp) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Iterator<RowColumnRangeIterator> rowColumnRanges = Iterators.transform(rows.iterator(), row -> {
+            try (RocksIterator iterator = db.newIterator(table)) {
+                RowColumnRangeIterator rowResults =
+                        getColumnRangeForSingleRow(iterator, row, columnRangeSelection, timestamp);
+                checkStatus(iterator);
+                return rowResults;
+            }
+        });
+        return new LocalRowColumnRangeIterator(Iterators.concat(rowColumnRanges));
+    }
+
+    private static RowColumnRangeIterator getColumnRangeForSingleRow(
+            RocksIterator iterator, byte[] row, ColumnRangeSelection columnRangeSelection, long timestamp) {
+        Map<Cell, Value> rowResults = new LinkedHashMap<>();
+        scanRow(iterator, row, columnRangeSelection, column -> true, timestamp, LATEST_VALUE, (column, value) ->
+                rowResults.put(Cell.create(row, column), value));
+        return new LocalRowColumnRangeIterator(rowResults.entrySet().iterator());
+    }
+
+    @Override
+    public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        write(writeOptions, batch -> {
+            for (Map.Entry<Cell, byte[]> entry : values.entrySet()) {
+                batch.put(table, RocksDbKeys.key(entry.getKey(), timestamp), entry.getValue());
+            }
+        });
+    }
+
+    @Override
+    public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+        // All tables are written in one batch, so either all or none of the values are written.
+        write(writeOptions, batch -> {
+            for (Map.Entry<TableReference, ? extends Map<Cell, byte[]>> tableValues : valuesByTable.entrySet()) {
+                ColumnFamilyHandle table = getTable(tableValues.getKey());
+                for (Map.Entry<Cell, byte[]> entry : tableValues.getValue().entrySet()) {
+                    batch.put(table, RocksDbKeys.key(entry.getKey(), timestamp), entry.getValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> cellValues) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        write(writeOptions, batch -> {
+            for (Map.Entry<Cell, Value> entry : cellValues.entries()) {
+                Value value = entry.getValue();
+                batch.put(table, RocksDbKeys.key(entry.getKey(), value.getTimestamp()), value.getContents());
+            }
+        });
+    }
+
+    /**
+     * Either every value is written, or, if any of the cells already has a value, none are. The exception thrown in
+     * the latter case lists every cell that already had a value.
+     */
+    @Override
+    public void putUnlessExists(TableReference tableRef, Map<Cell, byte[]> values) throws KeyAlreadyExistsException {
+        ColumnFamilyHandle table = getTable(tableRef);
+        List<Cell> cells = ImmutableList.copyOf(values.keySet());
+        List<byte[]> keys = cells.stream()
+                .map(cell -> RocksDbKeys.key(cell, AtlasDbConstants.TRANSACTION_TS))
+                .collect(ImmutableList.toImmutableList());
+        runWithCellLocks(tableRef, cells, () -> {
+            List<byte[]> existingValues = callWithExceptionHandling(
+                    () -> db.multiGetAsList(Collections.nCopies(keys.size(), table), keys));
+            List<Cell> existingCells = new ArrayList<>();
+            for (int index = 0; index < cells.size(); index++) {
+                if (existingValues.get(index) != null) {
+                    existingCells.add(cells.get(index));
+                }
+            }
+            if (!existingCells.isEmpty()) {
+                throw new KeyAlreadyExistsException("Values already exist for some of the given cells", existingCells);
+            }
+            write(syncedWriteOptions, batch -> {
+                for (int index = 0; index < cells.size(); index++) {
+                    batch.put(table, keys.get(index), values.get(cells.get(index)));
+                }
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public CheckAndSetCompatibility getCheckAndSetCompatibility() {
+        return CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE;
+    }
+
+    @Override
+    public void checkAndSet(CheckAndSetRequest request) throws CheckAndSetException {
+        TableReference tableRef = request.table();
+        ColumnFamilyHandle table = getTable(tableRef);
+        Cell cell = request.cell();
+        byte[] key = RocksDbKeys.key(cell, AtlasDbConstants.TRANSACTION_TS);
+        runWithCellLocks(tableRef, ImmutableList.of(cell), () -> {
+            byte[] storedValue = callWithExceptionHandling(() -> db.get(table, key));
+            Optional<byte[]> expectedValue = request.oldValue();
+            boolean matches = expectedValue
+                    .map(expected -> Arrays.equals(expected, storedValue))
+                    .orElse(storedValue == null);
+            if (!matches) {
+                throw new CheckAndSetException(
+                        cell,
+                        tableRef,
+                        expectedValue.orElse(null),
+                        storedValue == null ? ImmutableList.of() : ImmutableList.of(storedValue));
+            }
+            write(syncedWriteOptions, batch -> batch.put(table, key, request.newValue()));
+            return null;
+        });
+    }
+
+    @Override
+    public void addGarbageCollectionSentinelValues(TableReference tableRef, Iterable<Cell> cells) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        write(writeOptions, batch -> {
+            for (Cell cell : cells) {
+                batch.put(table, RocksDbKeys.key(cell, Value.INVALID_VALUE_TIMESTAMP), PtBytes.EMPTY_BYTE_ARRAY);
+            }
+        });
+    }
+
+    @Override
+    public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        write(writeOptions, batch -> {
+            for (Map.Entry<Cell, Long> entry : keys.entries()) {
+                batch.delete(table, RocksDbKeys.key(entry.getKey(), entry.getValue()));
+            }
+        });
+    }
+
+    @Override
+    public void deleteAllTimestamps(TableReference tableRef, Map<Cell, TimestampRangeDelete> deletes) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        write(writeOptions, batch -> {
+            for (Map.Entry<Cell, TimestampRangeDelete> entry : deletes.entrySet()) {
+                TimestampRangeDelete delete = entry.getValue();
+                if (delete.minTimestampToDelete() <= delete.maxTimestampToDelete()) {
+                    // Newer versions sort first, so the range runs from the maximum timestamp to the minimum.
+                    batch.deleteRange(
+                            table,
+                            RocksDbKeys.key(entry.getKey(), delete.maxTimestampToDelete()),
+                            RocksDbKeys.successor(RocksDbKeys.key(entry.getKey(), delete.minTimestampToDelete())));
+                }
+            }
+        });
+    }
+
+    /**
+     * Forward ranges that select all columns are deleted with a single range tombstone, rather than by reading and
+     * deleting every version.
+     */
+    @Override
+    public void deleteRange(TableReference tableRef, RangeRequest range) {
+        if (range.isReverse() || !range.getColumnNames().isEmpty()) {
+            super.deleteRange(tableRef, range);
+            return;
+        }
+        ColumnFamilyHandle table = getTable(tableRef);
+        byte[] begin = range.getStartInclusive().length == 0
+                ? PtBytes.EMPTY_BYTE_ARRAY
+                : RocksDbKeys.rowPrefix(range.getStartInclusive());
+        Optional<byte[]> end = range.getEndExclusive().length == 0
+                ? upperBoundOfAllKeys(table)
+                : Optional.of(RocksDbKeys.rowPrefix(range.getEndExclusive()));
+        if (end.isPresent() && COMPARATOR.compare(begin, end.get()) < 0) {
+            write(writeOptions, batch -> batch.deleteRange(table, begin, end.get()));
+        }
+    }
+
+    @Override
+    public void truncateTable(TableReference tableRef) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        Optional<byte[]> end = upperBoundOfAllKeys(table);
+        if (end.isPresent()) {
+            write(writeOptions, batch -> batch.deleteRange(table, PtBytes.EMPTY_BYTE_ARRAY, end.get()));
+        }
+    }
+
+    private Optional<byte[]> upperBoundOfAllKeys(ColumnFamilyHandle table) {
+        try (RocksIterator iterator = db.newIterator(table)) {
+            iterator.seekToLast();
+            Optional<byte[]> upperBound =
+                    iterator.isValid() ? Optional.of(RocksDbKeys.successor(iterator.key())) : Optional.empty();
+            checkStatus(iterator);
+            return upperBound;
+        }
+    }
+
+    @Override
+    public synchronized void createTable(TableReference tableRef, byte[] tableMetadata) {
+        if (!tables.containsKey(tableRef)) {
+            ColumnFamilyHandle table = callWithExceptionHandling(() -> db.createColumnFamily(
+                    new ColumnFamilyDescriptor(tableName(tableRef), columnFamilyOptions)));
+            tables.put(tableRef, table);
+        }
+        putMetadataForTable(tableRef, tableMetadata);
+    }
+
+    @Override
+    public synchronized void dropTable(TableReference tableRef) {
+        ColumnFamilyHandle table = tables.remove(tableRef);
+        if (table == null) {
+            return;
+        }
+        callWithExceptionHandling(() -> {
+            db.dropColumnFamily(table);
+            db.delete(metadataColumnFamily, syncedWriteOptions, tableName(tableRef));
+            return null;
+        });
+        table.close();
+    }
+
+    @Override
+    public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
+        getTable(tableRef);
+        callWithExceptionHandling(() -> {
+            db.put(metadataColumnFamily, syncedWriteOptions, tableName(tableRef), metadata);
+            return null;
+        });
+    }
+
+    @Override
+    public byte[] getMetadataForTable(TableReference tableRef) {
+        if (!tables.containsKey(tableRef)) {
+            return AtlasDbConstants.EMPTY_TABLE_METADATA;
+        }
+        byte[] metadata = callWithExceptionHandling(() -> db.get(metadataColumnFamily, tableName(tableRef)));
+        return metadata == null ? PtBytes.EMPTY_BYTE_ARRAY : metadata;
+    }
+
+    @Override
+    public Set<TableReference> getAllTableNames() {
+        return ImmutableSet.copyOf(tables.keySet());
+    }
+
+    @Override
+    public void compactInternally(TableReference tableRef) {
+        ColumnFamilyHandle table = getTable(tableRef);
+        callWithExceptionHandling(() -> {
+            db.compactRange(table);
+            return null;
+        });
+    }
+
+    @Override
+    public ClusterAvailabilityStatus getClusterAvailabilityStatus() {
+        return ClusterAvailabilityStatus.ALL_AVAILABLE;
+    }
+
+    @Override
+    public synchronized void close() {
+        super.close();
+        tables.values().forEach(ColumnFamilyHandle::close);
+        tables.clear();
+        metadataColumnFamily.close();
+        db.close();
+        writeOptions.close();
+        syncedWriteOptions.close();
+        columnFamilyOptions.close();
+        dbOptions.close();
+    }
+
+    private ColumnFamilyHandle getTable(TableReference tableRef) {
+        ColumnFamilyHandle table = tables.get(tableRef);
+        if (table == null) {
+            throw new IllegalArgumentException(new TableMappingNotFoundException(
+                    "Table " + tableRef.getQualifiedName() + " does not exist"));
+        }
+        return table;
+    }
+
+    private static byte[] tableName(TableReference tableRef) {
+        return tableRef.getQualifiedName().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private <T> T runWithCellLocks(TableReference tableRef, Collection<Cell> cells, Supplier<T> task) {
+        // Striped returns the locks in a consistent order, so concurrent callers cannot deadlock.
+        List<Lock> locks = ImmutableList.copyOf(
+                cellLocks.bulkGet(Collections2.transform(cells, cell -> Maps.immutableEntry(tableRef, cell))));
+        locks.forEach(Lock::lock);
+        try {
+            return task.get();
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
+    }
+
+    private void write(WriteOptions options, BatchWriter writer) {
+        try (WriteBatch batch = new WriteBatch()) {
+            writer.write(batch);
+            db.write(options, batch);
+        } catch (RocksDBException e) {
+            throw new AtlasDbDependencyException(e);
+        }
+    }
+
+    /**
+     * Positions the iterator at the latest version of the cell with the given prefix that is strictly below the given
+     * timestamp, returning false if there is no such version.
+     */
+    private static boolean seekLatestVersionBefore(RocksIterator iterator, byte[] cellPrefix, long timestamp) {
+        if (timestamp == Long.MIN_VALUE) {
+            return false;
+        }
+        iterator.seek(RocksDbKeys.key(cellPrefix, timestamp - 1));
+        return iterator.isValid() && RocksDbKeys.hasPrefix(iterator.key(), cellPrefix);
+    }
+
+    private static Value currentValue(RocksIterator iterator) {
+        return Value.create(iterator.value(), RocksDbKeys.timestamp(iterator.key()));
+    }
+
+    /**
+     * Reads the cells of the given row whose columns are in the given range and pass the filter, in column order.
+     */
+    private static <T> void scanRow(
+            RocksIterator iterator,
+            byte[] row,
+            ColumnRangeSelection columnRange,
+            Predicate<byte[]> columnFilter,
+            long timestamp,
+            VersionReader<T> reader,
+            BiConsumer<byte[], T> consumer) {
+        byte[] rowPrefix = RocksDbKeys.rowPrefix(row);
+        byte[] startColumn = columnRange.getStartCol();
+        byte[] endColumn = columnRange.getEndCol();
+        iterator.seek(startColumn.length == 0 ? rowPrefix : RocksDbKeys.cellPrefix(row, startColumn));
+        while (iterator.isValid()) {
+            byte[] key = iterator.key();
+            if (!RocksDbKeys.hasPrefix(key, rowPrefix)) {
+                return;
+            }
+            byte[] column = RocksDbKeys.column(key, rowPrefix.length);
+            if (endColumn.length != 0 && COMPARATOR.compare(column, endColumn) >= 0) {
+                return;
+            }
+            byte[] cellPrefix = RocksDbKeys.cellPrefixOf(key);
+            if (columnFilter.test(column)) {
+                // The iterator is at the newest version, so only seek if that is too new.
+                boolean found = RocksDbKeys.timestamp(key) < timestamp
+                        || seekLatestVersionBefore(iterator, cellPrefix, timestamp);
+                if (found) {
+                    consumer.accept(column, reader.read(iterator, cellPrefix, timestamp));
+                }
+            }
+            iterator.seek(RocksDbKeys.prefixUpperBound(cellPrefix));
+        }
+    }
+
+    private static Set<Long> readAllTimestamps(RocksIterator iterator, byte[] cellPrefix, long timestamp) {
+        Set<Long> timestamps = new TreeSet<>();
+        while (iterator.isValid()) {
+            byte[] key = iterator.key();
+            if (!RocksDbKeys.hasPrefix(key, cellPrefix)) {
+                break;
+            }
+            timestamps.add(RocksDbKeys.timestamp(key));
+            iterator.next();
+        }
+        return timestamps;
+    }
+
+    private static void checkStatus(RocksIterator iterator) {
+        callWithExceptionHandling(() -> {
+            iterator.status();
+            return null;
+        });
+    }
+
+    private static <T> T callWithExceptionHandling(RocksDbCallable<T> callable) {
+        try {
+            return callable.call();
+        } catch (RocksDBException e) {
+            throw new AtlasDbDependencyException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RocksDbCallable<T> {
+        T call() throws RocksDBException;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(WriteBatch batch) throws RocksDBException;
+    }
+
+    /**
+     * Reads the versions of a cell, given an iterator positioned at the latest version below the read timestamp.
+     */
+    @FunctionalInterface
+    private interface VersionReader<T> {
+        T read(RocksIterator iterator, byte[] cellPrefix, long timestamp);
+    }
+
+    /**
+     * Iterates over the rows of a range, one row at a time. Reverse ranges step back to the previous row with a
+     * single seek, and then read that row forwards.
+     */
+    private static final class RangeIterator<T> extends AbstractIterator<RowResult<T>>
+            implements ClosableIterator<RowResult<T>> {
+        private final RocksIterator iterator;
+        private final RangeRequest range;
+        private final long timestamp;
+        private final VersionReader<T> reader;
+
+        private RangeIterator(RocksIterator iterator, RangeRequest range, long timestamp, VersionReader<T> reader) {
+            this.iterator = iterator;
+            this.range = range;
+            this.timestamp = timestamp;
+            this.reader = reader;
+
+            byte[] startRow = range.getStartInclusive();
+            if (startRow.length == 0) {
+                if (range.isReverse()) {
+                    iterator.seekToLast();
+                } else {
+                    iterator.seekToFirst();
+                }
+            } else if (range.isReverse()) {
+                iterator.seekForPrev(RocksDbKeys.prefixUpperBound(RocksDbKeys.rowPrefix(startRow)));
+            } else {
+                iterator.seek(RocksDbKeys.rowPrefix(startRow));
+            }
+        }
+
+        @Override
+        protected RowResult<T> computeNext() {
+            while (iterator.isValid()) {
+                byte[] row = RocksDbKeys.row(iterator.key());
+                if (isPastEnd(row)) {
+                    return endOfData();
+                }
+                ImmutableSortedMap.Builder<byte[], T> columns = ImmutableSortedMap.orderedBy(COMPARATOR);
+                scanRow(iterator, row, ALL_COLUMNS, range::containsColumn, timestamp, reader, columns::put);
+                if (range.isReverse()) {
+                    iterator.seekForPrev(RocksDbKeys.rowPrefix(row));
+                }
+                SortedMap<byte[], T> builtColumns = columns.build();
+                if (!builtColumns.isEmpty()) {
+                    return RowResult.create(row, builtColumns);
+                }
+            }
+            checkStatus(iterator);
+            return endOfData();
+        }
+
+        private boolean isPastEnd(byte[] row) {
+            byte[] endRow = range.getEndExclusive();
+            if (endRow.length == 0) {
+                return false;
+            }
+            int comparison = COMPARATOR.compare(row, endRow);
+            return range.isReverse() ? comparison <= 0 : comparison >= 0;
+        }
+
+        @Override
+        public void close() {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Walks every version of every cell from the start row, which is how the store lays them out, so each cell's
+     * candidate is built without any further seeks.
+     */
+    private static final class CandidateCellIterator extends AbstractIterator<List<CandidateCellForSweeping>>
+            implements ClosableIterator<List<CandidateCellForSweeping>> {
+        private final RocksIterator iterator;
+        private final CandidateCellForSweepingRequest request;
+        private final int batchSize;
+
+        private CandidateCellIterator(RocksIterator iterator, CandidateCellForSweepingRequest request) {
+            this.iterator = iterator;
+            this.request = request;
+            this.batchSize = request.batchSizeHint().orElse(AtlasDbConstants.DEFAULT_SWEEP_CANDIDATE_BATCH_HINT);
+
+            if (request.startRowInclusive().length == 0) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(RocksDbKeys.rowPrefix(request.startRowInclusive()));
+            }
+        }
+
+        @Override
+        protected List<CandidateCellForSweeping> computeNext() {
+            List<CandidateCellForSweeping> batch = new ArrayList<>();
+            while (batch.size() < batchSize && iterator.isValid()) {
+                CandidateCellForSweeping candidate = readCandidate(iterator.key());
+                if (candidate != null) {
+                    batch.add(candidate);
+                }
+            }
+            checkStatus(iterator);
+            return batch.isEmpty() ? endOfData() : batch;
+        }
+
+        /**
+         * Reads the versions of the cell the iterator is at, leaving it at the first key of the next cell.
+         */
+        @Nullable
+        private CandidateCellForSweeping readCandidate(byte[] firstKey) {
+            byte[] cellPrefix = RocksDbKeys.cellPrefixOf(firstKey);
+            long maxTimestampExclusive = request.maxTimestampExclusive();
+            if (RocksDbKeys.timestamp(firstKey) >= maxTimestampExclusive
+                    && !seekLatestVersionBefore(iterator, cellPrefix, maxTimestampExclusive)) {
+                iterator.seek(RocksDbKeys.prefixUpperBound(cellPrefix));
+                return null;
+            }
+
+            boolean isLatestValueEmpty =
+                    request.shouldCheckIfLatestValueIsEmpty() && iterator.value().length == 0;
+            List<Long> timestamps = new ArrayList<>();
+            while (iterator.isValid()) {
+                byte[] key = iterator.key();
+                if (!RocksDbKeys.hasPrefix(key, cellPrefix)) {
+                    break;
+                }
+                long timestamp = RocksDbKeys.timestamp(key);
+                if (request.shouldSweep(timestamp)) {
+                    timestamps.add(timestamp);
+                }
+                iterator.next();
+            }
+            return ImmutableCandidateCellForSweeping.builder()
+                    .cell(RocksDbKeys.cell(firstKey))
+                    .sortedTimestamps(Lists.reverse(timestamps))
+                    .isLatestValueEmpty(isLatestValueEmpty)
+                    .build();
+        }
+
+        @Override
+        public void close() {
+            iterator.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.rocksdb;
+
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes (row, column, timestamp) triples as RocksDB keys, such that the bytewise ordering of keys is by row, then
+ * by column, then by timestamp <em>descending</em>.
+ *
+ * Rows and columns are escaped so that they sort correctly when concatenated: each {@code 0x00} byte is written as
+ * {@code 0x00 0xFF}, and the component is terminated with {@code 0x00 0x01}. The timestamp is written as eight
+ * big-endian bytes of {@code timestamp ^ Long.MAX_VALUE}, which maps larger (signed) timestamps to smaller unsigned
+ * values. The latest version of a cell below a timestamp is therefore the first key at or after
+ * {@code key(row, column, timestamp - 1)}, which is a single seek.
+ */
+final class RocksDbKeys {
+    private static final byte ESCAPE = 0x00;
+    private static final byte ESCAPED_ZERO = (byte) 0xFF;
+    private static final byte TERMINATOR = 0x01;
+    private static final int TIMESTAMP_SIZE = Long.BYTES;
+
+    private RocksDbKeys() {
+        // Utility class
+    }
+
+    /**
+     * The prefix shared by all keys in the given row. No key of another row starts with it.
+     */
+    static byte[] rowPrefix(byte[] row) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(row.length + 2);
+        writeEscaped(out, row);
+        return out.toByteArray();
+    }
+
+    /**
+     * The prefix shared by all versions of the given cell. No key of another cell starts with it.
+     */
+    static byte[] cellPrefix(byte[] row, byte[] column) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(row.length + column.length + 4 + TIMESTAMP_SIZE);
+        writeEscaped(out, row);
+        writeEscaped(out, column);
+        return out.toByteArray();
+    }
+
+    static byte[] key(Cell cell, long timestamp) {
+        return key(cellPrefix(cell.getRowName(), cell.getColumnName()), timestamp);
+    }
+
+    static byte[] key(byte[] cellPrefix, long timestamp) {
+        byte[] key = Arrays.copyOf(cellPrefix, cellPrefix.length + TIMESTAMP_SIZE);
+        long encoded = timestamp ^ Long.MAX_VALUE;
+        for (int index = key.length - 1; index >= cellPrefix.length; index--) {
+            key[index] = (byte) encoded;
+            encoded >>>= Byte.SIZE;
+        }
+        return key;
+    }
+
+    /**
+     * The smallest key that sorts after every key starting with the given row or cell prefix. Prefixes end with the
+     * terminator, and the byte after it can never start a longer escaped component, so incrementing it suffices.
+     */
+    static byte[] prefixUpperBound(byte[] prefix) {
+        byte[] bound = Arrays.copyOf(prefix, prefix.length);
+        bound[bound.length - 1]++;
+        return bound;
+    }
+
+    /**
+     * The smallest key that sorts after the given key.
+     */
+    static byte[] successor(byte[] key) {
+        return Arrays.copyOf(key, key.length + 1);
+    }
+
+    static boolean hasPrefix(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int index = 0; index < prefix.length; index++) {
+            if (key[index] != prefix[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long timestamp(byte[] key) {
+        return Longs.fromByteArray(Arrays.copyOfRange(key, key.length - TIMESTAMP_SIZE, key.length)) ^ Long.MAX_VALUE;
+    }
+
+    static byte[] row(byte[] key) {
+        return readEscaped(key, 0).value;
+    }
+
+    /**
+     * The cell prefix of the given key, that is, everything but the timestamp.
+     */
+    static byte[] cellPrefixOf(byte[] key) {
+        return Arrays.copyOf(key, key.length - TIMESTAMP_SIZE);
+    }
+
+    static Cell cell(byte[] key) {
+        Component row = readEscaped(key, 0);
+        Component column = readEscaped(key, row.end);
+        return Cell.create(row.value, column.value);
+    }
+
+    static byte[] column(byte[] key, int rowPrefixLength) {
+        return readEscaped(key, rowPrefixLength).value;
+    }
+
+    private static void writeEscaped(ByteArrayOutputStream out, byte[] component) {
+        for (byte value : component) {
+            out.write(value);
+            if (value == ESCAPE) {
+                out.write(ESCAPED_ZERO);
+            }
+        }
+        out.write(ESCAPE);
+        out.write(TERMINATOR);
+    }
+
+    private static Component readEscaped(byte[] key, int start) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int index = start;
+        while (index + 1 < key.length) {
+            byte value = key[index];
+            if (value != ESCAPE) {
+                out.write(value);
+                index++;
+            } else if (key[index + 1] == ESCAPED_ZERO) {
+                out.write(ESCAPE);
+                index += 2;
+            } else {
+                Preconditions.checkState(key[index + 1] == TERMINATOR, "Malformed RocksDB key");
+                return new Component(out.toByteArray(), index + 2);
+            }
+        }
+        throw new SafeIllegalStateException("Malformed RocksDB key: component is not terminated");
+    }
+
+    private static final class Component {
+        private final byte[] value;
+        private final int end;
+
+        private Component(byte[] value, int end) {
+            this.value = value;
+            this.end = end;
+        }
+    }
+}
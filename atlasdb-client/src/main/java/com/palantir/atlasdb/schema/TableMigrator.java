@@ -145,13 +145,17 @@ public class TableMigrator {
         progress.subTaskComplete();
     }
 
+    private List<byte[]> getRangeBoundaries() {
+        return getRangeBoundaries(partitioners, partitions);
+    }
+
     /**
      * Returns all the range boundaries for the given partitioners.
      * The range boundaries will be sorted and will include the empty byte array at the start and
      * end to ensure that all entries are covered by the ranges.
      * If a table doesn't support partitioning, we'll make fake partitions and hope it helps.
      */
-    private List<byte[]> getRangeBoundaries() {
+    public static List<byte[]> getRangeBoundaries(List<RowNamePartitioner> partitioners, int partitions) {
         Set<byte[]> rangeBoundaries = new HashSet<>();
         // Must use PtBytes.EMPTY_BYTE_ARRAY to avoid duplicate when adding from UniformRowNamePartitioner
         rangeBoundaries.add(PtBytes.EMPTY_BYTE_ARRAY);
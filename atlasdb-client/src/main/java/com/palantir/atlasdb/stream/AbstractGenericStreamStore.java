@@ -27,6 +27,7 @@ import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.util.ByteArrayIOStream;
 import java.io.ByteArrayInputStream;
@@ -39,6 +40,7 @@ import java.io.OutputStream;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
@@ -46,6 +48,7 @@ import org.slf4j.LoggerFactory;
 
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
+    private static final ExecutorService PREFETCH_EXECUTOR = PTExecutors.newCachedThreadPool("stream-store-prefetch");
 
     @CheckForNull
     protected final TransactionManager txnMgr;
@@ -143,6 +146,19 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
             }
         };
 
+        int readAheadBatches = getReadAheadBatches();
+        if (readAheadBatches > 0) {
+            // Streams are usually loaded in the transaction that read their metadata, and read after it has committed.
+            // Blocks are then loaded in their own transactions, so can be loaded on other threads.
+            return PrefetchingBlockInputStream.create(
+                    pageRefresher,
+                    totalBlocks,
+                    blocksInMemory,
+                    readAheadBatches,
+                    PREFETCH_EXECUTOR,
+                    () -> !parent.isUncommitted());
+        }
+
         try {
             return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
         } catch (IOException e) {
@@ -156,6 +172,14 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         return Math.max(1, blocksInMemory);
     }
 
+    /**
+     * The number of batches of blocks that streams loaded outside of an open transaction load ahead of the reader.
+     * If zero, batches are only loaded when the reader reaches them.
+     */
+    protected int getReadAheadBatches() {
+        return 0;
+    }
+
     @Override
     public final File loadStreamAsFile(Transaction transaction, T id) {
         StreamMetadata metadata = getMetadata(transaction, id);
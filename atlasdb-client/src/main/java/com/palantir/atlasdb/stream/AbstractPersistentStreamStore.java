@@ -23,6 +23,7 @@ import com.google.common.io.ByteStreams;
 import com.google.common.io.CountingInputStream;
 import com.google.protobuf.ByteString;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.transaction.api.Transaction;
@@ -31,6 +32,7 @@ import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.streams.KeyedStream;
 import com.palantir.util.Pair;
 import com.palantir.util.crypto.Sha256Hash;
@@ -38,14 +40,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long>
         implements PersistentStreamStore {
+    private static final ExecutorService WRITE_EXECUTOR = PTExecutors.newCachedThreadPool("stream-store-writes");
+
+    private final Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration;
     private final StreamStoreBackoffStrategy backoffStrategy;
     private final StreamCompression compression;
+    private final StreamStoreMetrics metrics = StreamStoreMetrics.shared();
 
     protected AbstractPersistentStreamStore(TransactionManager txManager, StreamCompression compression) {
         this(txManager, compression, () -> StreamStorePersistenceConfigurations.DEFAULT_CONFIG);
@@ -57,9 +67,15 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration) {
         super(txManager, compression);
         this.compression = compression;
+        this.persistenceConfiguration = persistenceConfiguration;
         this.backoffStrategy = StandardPeriodicBackoffStrategy.create(persistenceConfiguration);
     }
 
+    @Override
+    protected int getReadAheadBatches() {
+        return persistenceConfiguration.get().readAheadBatches();
+    }
+
     protected final void storeMetadataAndIndex(final long streamId, final StreamMetadata metadata) {
         com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
         txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
@@ -197,6 +213,14 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     }
 
     private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream) throws IOException {
+        if (!streamOperationIsTransactional(tx)) {
+            int writeParallelism = persistenceConfiguration.get().writeParallelism();
+            if (writeParallelism > 1) {
+                storeBlocksFromStreamInParallel(id, stream, writeParallelism);
+                return;
+            }
+        }
+
         long blockNumber = 0;
 
         while (true) {
@@ -209,10 +233,12 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             if (length < BLOCK_SIZE_IN_BYTES) {
                 // This is the last block.
                 storeBlockWithNonNullTransaction(tx, id, blockNumber, PtBytes.head(bytesToStore, length));
+                metrics.bytesWritten().mark(length);
                 break;
             } else {
                 // Store a full block.
                 storeBlockWithNonNullTransaction(tx, id, blockNumber, bytesToStore);
+                metrics.bytesWritten().mark(length);
             }
             blockNumber++;
             if (!streamOperationIsTransactional(tx)) {
@@ -221,6 +247,49 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    /**
+     * Reads blocks from the stream on the calling thread, and stores each block in its own transaction, with up to
+     * writeParallelism blocks being stored at once. Backoff applies to the blocks read, and so bounds the rate at
+     * which blocks start being stored. If storing any block fails, the failure is thrown, and blocks that have not yet
+     * started being stored are not stored.
+     */
+    private void storeBlocksFromStreamInParallel(long id, InputStream stream, int writeParallelism)
+            throws IOException {
+        Deque<Future<?>> writesInFlight = new ArrayDeque<>(writeParallelism);
+        try {
+            long blockNumber = 0;
+            while (true) {
+                byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
+                int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
+                if (length == 0) {
+                    break;
+                }
+                if (writesInFlight.size() >= writeParallelism) {
+                    AtlasFutures.getUnchecked(writesInFlight.removeFirst());
+                }
+
+                long currentBlockNumber = blockNumber;
+                byte[] block = length < BLOCK_SIZE_IN_BYTES ? PtBytes.head(bytesToStore, length) : bytesToStore;
+                writesInFlight.addLast(WRITE_EXECUTOR.submit(() -> {
+                    storeBlockWithNonNullTransaction(null, id, currentBlockNumber, block);
+                    metrics.bytesWritten().mark(length);
+                }));
+                if (length < BLOCK_SIZE_IN_BYTES) {
+                    // This is the last block.
+                    break;
+                }
+                blockNumber++;
+                backoffStrategy.accept(blockNumber);
+            }
+
+            while (!writesInFlight.isEmpty()) {
+                AtlasFutures.getUnchecked(writesInFlight.removeFirst());
+            }
+        } finally {
+            writesInFlight.forEach(write -> write.cancel(false));
+        }
+    }
+
     private boolean streamOperationIsTransactional(@Nullable Transaction tx) {
         // TODO (jkong): I'm using tx == null as a proxy for whether the entire operation should be done
         // transactionally or not (null implies nontransactional).
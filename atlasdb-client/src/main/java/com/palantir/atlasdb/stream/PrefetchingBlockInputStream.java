@@ -0,0 +1,293 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An input stream over blocks that, like {@link BlockConsumingInputStream}, loads a batch of blocks at a time, but
+ * which keeps a number of the following batches loading on an executor while the current batch is being consumed.
+ * Reading a large stream therefore waits on the round trips to the key value service only when the consumer is faster
+ * than the executor, rather than once per batch.
+ *
+ * Batches are loaded into buffers that are reused once the consumer has moved past them, so there are never more
+ * than one more buffer than batches in flight, and at most that many batches of blocks are held in memory.
+ *
+ * Whether batches may be loaded on the executor is decided each time a batch is needed. While they may not, for
+ * instance because blocks are being read through a transaction that is still open, each batch is loaded on the
+ * reading thread when it is reached, as by {@link BlockConsumingInputStream}.
+ */
+public final class PrefetchingBlockInputStream extends InputStream {
+    private final BlockGetter blockGetter;
+    private final long numBlocks;
+    private final int blocksPerBatch;
+    private final int batchesToPrefetch;
+    private final Executor executor;
+    private final BooleanSupplier canLoadOnExecutor;
+    private final StreamStoreMetrics metrics;
+
+    private final Deque<ListenableFuture<LoadedBatch>> batchesInFlight = new ArrayDeque<>();
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+
+    private long nextBlockToLoad = 0L;
+    private LoadedBatch currentBatch = LoadedBatch.EMPTY;
+    private int positionInBatch = 0;
+    private boolean closed = false;
+
+    private PrefetchingBlockInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksPerBatch,
+            int batchesToPrefetch,
+            Executor executor,
+            BooleanSupplier canLoadOnExecutor,
+            StreamStoreMetrics metrics) {
+        this.blockGetter = blockGetter;
+        this.numBlocks = numBlocks;
+        this.blocksPerBatch = blocksPerBatch;
+        this.batchesToPrefetch = batchesToPrefetch;
+        this.executor = executor;
+        this.canLoadOnExecutor = canLoadOnExecutor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a stream that loads {@code blocksPerBatch} blocks at a time, and that keeps up to
+     * {@code batchesToPrefetch} batches loading on the given executor.
+     */
+    public static PrefetchingBlockInputStream create(
+            BlockGetter blockGetter, long numBlocks, int blocksPerBatch, int batchesToPrefetch, Executor executor) {
+        return create(blockGetter, numBlocks, blocksPerBatch, batchesToPrefetch, executor, () -> true);
+    }
+
+    /**
+     * As {@link #create(BlockGetter, long, int, int, Executor)}, but batches are only loaded ahead of the reader, on
+     * the executor, once {@code canLoadOnExecutor} returns true.
+     */
+    public static PrefetchingBlockInputStream create(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksPerBatch,
+            int batchesToPrefetch,
+            Executor executor,
+            BooleanSupplier canLoadOnExecutor) {
+        return create(
+                blockGetter,
+                numBlocks,
+                blocksPerBatch,
+                batchesToPrefetch,
+                executor,
+                canLoadOnExecutor,
+                StreamStoreMetrics.shared());
+    }
+
+    static PrefetchingBlockInputStream create(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksPerBatch,
+            int batchesToPrefetch,
+            Executor executor,
+            BooleanSupplier canLoadOnExecutor,
+            StreamStoreMetrics metrics) {
+        BlockConsumingInputStream.ensureExpectedArraySizeDoesNotOverflow(blockGetter, blocksPerBatch);
+        Preconditions.checkArgument(
+                batchesToPrefetch > 0,
+                "Number of batches to prefetch must be positive",
+                SafeArg.of("batchesToPrefetch", batchesToPrefetch));
+        return new PrefetchingBlockInputStream(
+                blockGetter, numBlocks, blocksPerBatch, batchesToPrefetch, executor, canLoadOnExecutor, metrics);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBytesInBatch()) {
+            return -1;
+        }
+        return currentBatch.buffer[positionInBatch++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        Preconditions.checkNotNull(bytes, "Cannot read into a null array!");
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        int bytesRead = 0;
+        while (bytesRead < len && ensureBytesInBatch()) {
+            int bytesToCopy = Math.min(currentBatch.length - positionInBatch, len - bytesRead);
+            System.arraycopy(currentBatch.buffer, positionInBatch, bytes, off + bytesRead, bytesToCopy);
+            positionInBatch += bytesToCopy;
+            bytesRead += bytesToCopy;
+        }
+        return bytesRead == 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public int available() {
+        return currentBatch.length - positionInBatch;
+    }
+
+    /**
+     * Cancels the batches that have not started loading. Buffers of batches in flight are not reused, as they may
+     * still be written to.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        batchesInFlight.forEach(batch -> batch.cancel(false));
+        batchesInFlight.clear();
+        freeBuffers.clear();
+        currentBatch = LoadedBatch.EMPTY;
+        positionInBatch = 0;
+    }
+
+    private boolean ensureBytesInBatch() throws IOException {
+        if (positionInBatch < currentBatch.length) {
+            return true;
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (currentBatch.buffer.length > 0) {
+            freeBuffers.push(currentBatch.buffer);
+        }
+        currentBatch = LoadedBatch.EMPTY;
+        positionInBatch = 0;
+
+        if (canLoadOnExecutor.getAsBoolean()) {
+            while (batchesInFlight.size() < batchesToPrefetch && nextBlockToLoad < numBlocks) {
+                batchesInFlight.addLast(Futures.submit(nextBatchLoad(), executor));
+            }
+        } else if (batchesInFlight.isEmpty() && nextBlockToLoad < numBlocks) {
+            batchesInFlight.addLast(loadNow(nextBatchLoad()));
+        }
+        ListenableFuture<LoadedBatch> nextBatch = batchesInFlight.pollFirst();
+        if (nextBatch == null) {
+            return false;
+        }
+        if (!nextBatch.isDone()) {
+            metrics.prefetchMisses().inc();
+        }
+        currentBatch = getBatch(nextBatch);
+        metrics.bytesRead().mark(currentBatch.length);
+        // An empty batch is only possible if the getter loads fewer blocks than it was asked to
+        return currentBatch.length > 0 || ensureBytesInBatch();
+    }
+
+    private Callable<LoadedBatch> nextBatchLoad() {
+        // since blocksPerBatch is an int, the min is guaranteed to fit in an int
+        int numBlocksToLoad = (int) Math.min(numBlocks - nextBlockToLoad, blocksPerBatch);
+        long firstBlock = nextBlockToLoad;
+        nextBlockToLoad += numBlocksToLoad;
+
+        byte[] buffer = freeBuffers.isEmpty()
+                ? new byte[blockGetter.expectedBlockLength() * blocksPerBatch]
+                : freeBuffers.pop();
+        return () -> {
+            try (Timer.Context ignored = metrics.batchLoadTime().time()) {
+                BufferOutputStream destination = new BufferOutputStream(buffer);
+                blockGetter.get(firstBlock, numBlocksToLoad, destination);
+                return new LoadedBatch(destination.buffer, destination.length);
+            }
+        };
+    }
+
+    private static ListenableFuture<LoadedBatch> loadNow(Callable<LoadedBatch> load) {
+        try {
+            return Futures.immediateFuture(load.call());
+        } catch (Exception e) {
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    private static LoadedBatch getBatch(ListenableFuture<LoadedBatch> batch) throws IOException {
+        try {
+            return Uninterruptibles.getUninterruptibly(batch);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failed to load blocks", cause);
+        }
+    }
+
+    private static final class LoadedBatch {
+        private static final LoadedBatch EMPTY = new LoadedBatch(new byte[0], 0);
+
+        private final byte[] buffer;
+        private final int length;
+
+        private LoadedBatch(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Writes into the given buffer, growing it only if a getter writes more than its expected block length.
+     */
+    private static final class BufferOutputStream extends OutputStream {
+        private byte[] buffer;
+        private int length = 0;
+
+        private BufferOutputStream(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(bytes, off, buffer, length, len);
+            length += len;
+        }
+
+        private void ensureCapacity(int bytesToWrite) {
+            if (length + bytesToWrite > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(length + bytesToWrite, 2 * buffer.length));
+            }
+        }
+    }
+}
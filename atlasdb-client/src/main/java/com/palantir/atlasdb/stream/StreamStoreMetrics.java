@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+
+/**
+ * Throughput metrics of stream store reads and writes, shared by all stream stores.
+ */
+final class StreamStoreMetrics {
+    private static final StreamStoreMetrics SHARED =
+            new StreamStoreMetrics(SharedTaggedMetricRegistries.getSingleton());
+
+    private final Meter bytesRead;
+    private final Meter bytesWritten;
+    private final Timer batchLoadTime;
+    private final Counter prefetchMisses;
+
+    StreamStoreMetrics(TaggedMetricRegistry registry) {
+        this.bytesRead = registry.meter(metricName("bytesRead"));
+        this.bytesWritten = registry.meter(metricName("bytesWritten"));
+        this.batchLoadTime = registry.timer(metricName("batchLoadTime"));
+        this.prefetchMisses = registry.counter(metricName("prefetchMisses"));
+    }
+
+    static StreamStoreMetrics shared() {
+        return SHARED;
+    }
+
+    Meter bytesRead() {
+        return bytesRead;
+    }
+
+    Meter bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Time taken to load a batch of blocks by a prefetching stream.
+     */
+    Timer batchLoadTime() {
+        return batchLoadTime;
+    }
+
+    /**
+     * Number of batches that a prefetching stream had to wait for, because they had not been loaded by the time the
+     * reader reached them.
+     */
+    Counter prefetchMisses() {
+        return prefetchMisses;
+    }
+
+    private static MetricName metricName(String metricSuffix) {
+        return MetricName.builder()
+                .safeName(MetricRegistry.name(StreamStoreMetrics.class, metricSuffix))
+                .build();
+    }
+}
@@ -56,11 +56,36 @@ public interface StreamStorePersistenceConfiguration {
         return 0;
     }
 
+    /**
+     * The number of batches of blocks that a stream returned by loadStream() will load ahead of the reader, on a
+     * shared executor. Each batch holds as many blocks as fit in memory, so a stream holds up to this many batches
+     * in addition to the one being read. If zero, batches are loaded on the reading thread only when they are reached.
+     *
+     * Batches are only read ahead once the transaction in which the stream was loaded has committed, as they are then
+     * read in their own transactions; while it is open, they are read through it on the reading thread, as
+     * transactions are not thread safe.
+     */
+    @Value.Default
+    default int readAheadBatches() {
+        return 0;
+    }
+
+    /**
+     * The number of blocks that a nontransactional storeStream() will write concurrently. The stream is still read on
+     * the calling thread, so up to this many blocks in addition to the one being read are held in memory.
+     */
+    @Value.Default
+    default int writeParallelism() {
+        return 1;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(
                 numBlocksToWriteBeforePause() > 0, "Number of blocks to write before pausing must be positive");
         Preconditions.checkState(
                 writePauseDurationMillis() >= 0, "Pause duration between batches of writes must be non-negative");
+        Preconditions.checkState(readAheadBatches() >= 0, "Number of batches to read ahead must be non-negative");
+        Preconditions.checkState(writeParallelism() > 0, "Write parallelism must be positive");
     }
 }
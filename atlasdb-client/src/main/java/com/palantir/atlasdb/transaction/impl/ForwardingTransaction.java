@@ -31,6 +31,7 @@ import com.palantir.atlasdb.transaction.api.TransactionFailedException;
 import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.common.base.BatchingVisitable;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -185,4 +186,16 @@ public abstract class ForwardingTransaction extends ForwardingObject implements
     public ListenableFuture<Map<Cell, byte[]>> getAsync(TableReference tableRef, Set<Cell> cells) {
         return delegate().getAsync(tableRef, cells);
     }
+
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection) {
+        return delegate().getRowsAsync(tableRef, rows, columnSelection);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]>> getRangePageAsync(
+            TableReference tableRef, RangeRequest rangeRequest) {
+        return delegate().getRangePageAsync(tableRef, rangeRequest);
+    }
 }
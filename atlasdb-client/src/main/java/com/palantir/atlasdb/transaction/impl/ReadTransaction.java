@@ -30,6 +30,7 @@ import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.common.base.BatchingVisitable;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -153,4 +154,18 @@ public class ReadTransaction extends ForwardingTransaction {
         checkTableName(tableRef);
         return delegate().getAsync(tableRef, cells);
     }
+
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection) {
+        checkTableName(tableRef);
+        return delegate().getRowsAsync(tableRef, rows, columnSelection);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]>> getRangePageAsync(
+            TableReference tableRef, RangeRequest rangeRequest) {
+        checkTableName(tableRef);
+        return delegate().getRangePageAsync(tableRef, rangeRequest);
+    }
 }
@@ -28,15 +28,25 @@ import com.github.rholder.retry.WaitStrategies;
 import com.github.rholder.retry.WaitStrategy;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.atlasdb.transaction.api.TransactionFailedException;
 import com.palantir.common.base.Throwables;
 import com.palantir.exception.NotInitializedException;
+import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,6 +102,20 @@ public final class TransactionRetryStrategy {
         }
     }
 
+    /**
+     * Runs the given asynchronous task as {@link #runWithRetry(IntPredicate, Retryable)} runs a task, but without
+     * blocking: once an attempt fails with a retriable exception, the next attempt is scheduled on the given executor
+     * after the wait of this strategy has passed. Retrying stops if the returned future is cancelled.
+     */
+    public <T> ListenableFuture<T> runWithRetryAsync(
+            IntPredicate shouldStopRetrying,
+            Supplier<ListenableFuture<T>> task,
+            ScheduledExecutorService scheduler) {
+        SettableFuture<T> result = SettableFuture.create();
+        new AsyncRun<>(UUID.randomUUID(), shouldStopRetrying, task, scheduler, result).runAttempt(1);
+        return result;
+    }
+
     private void logAttempt(UUID runId, Attempt<?> attempt, IntPredicate shouldStopRetrying) {
         int failureCount = Ints.checkedCast(attempt.getAttemptNumber()) - 1;
         if (attempt.hasResult()) {
@@ -144,6 +168,140 @@ public final class TransactionRetryStrategy {
         }
     }
 
+    private final class AsyncRun<T> {
+        private final UUID runId;
+        private final IntPredicate shouldStopRetrying;
+        private final Supplier<ListenableFuture<T>> task;
+        private final ScheduledExecutorService scheduler;
+        private final SettableFuture<T> result;
+        private final long startNanos = System.nanoTime();
+
+        private AsyncRun(
+                UUID runId,
+                IntPredicate shouldStopRetrying,
+                Supplier<ListenableFuture<T>> task,
+                ScheduledExecutorService scheduler,
+                SettableFuture<T> result) {
+            this.runId = runId;
+            this.shouldStopRetrying = shouldStopRetrying;
+            this.task = task;
+            this.scheduler = scheduler;
+            this.result = result;
+        }
+
+        private void runAttempt(int attemptNumber) {
+            if (result.isCancelled()) {
+                return;
+            }
+            ListenableFuture<T> attempt;
+            try {
+                attempt = task.get();
+            } catch (RuntimeException | Error e) {
+                attempt = Futures.immediateFailedFuture(e);
+            }
+            Futures.addCallback(
+                    attempt,
+                    new FutureCallback<T>() {
+                        @Override
+                        public void onSuccess(T value) {
+                            logAttempt(
+                                    runId,
+                                    new CompletedAttempt<>(attemptNumber, value, null, sinceStart()),
+                                    shouldStopRetrying);
+                            result.set(value);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable thrown) {
+                            onFailedAttempt(new CompletedAttempt<>(attemptNumber, null, thrown, sinceStart()));
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+        }
+
+        private void onFailedAttempt(CompletedAttempt<T> attempt) {
+            logAttempt(runId, attempt, shouldStopRetrying);
+            Throwable thrown = attempt.getExceptionCause();
+            int attemptNumber = Ints.checkedCast(attempt.getAttemptNumber());
+            if (!shouldRetry(thrown)) {
+                result.setException(thrown);
+                return;
+            }
+            if (shouldStopRetrying.test(attemptNumber)) {
+                result.setException(
+                        Throwables.rewrap(String.format("Failing after %d tries.", attemptNumber), thrown));
+                return;
+            }
+            try {
+                scheduler.schedule(
+                        () -> runAttempt(attemptNumber + 1),
+                        waitStrategy.computeSleepTime(attempt),
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.setException(thrown);
+            }
+        }
+
+        private long sinceStart() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static final class CompletedAttempt<V> implements Attempt<V> {
+        private final long attemptNumber;
+        private final V result;
+        private final Throwable exception;
+        private final long delaySinceFirstAttempt;
+
+        private CompletedAttempt(
+                long attemptNumber, @Nullable V result, @Nullable Throwable exception, long delaySinceFirstAttempt) {
+            this.attemptNumber = attemptNumber;
+            this.result = result;
+            this.exception = exception;
+            this.delaySinceFirstAttempt = delaySinceFirstAttempt;
+        }
+
+        @Override
+        public V get() throws ExecutionException {
+            if (hasException()) {
+                throw new ExecutionException(exception);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean hasResult() {
+            return !hasException();
+        }
+
+        @Override
+        public boolean hasException() {
+            return exception != null;
+        }
+
+        @Override
+        public V getResult() {
+            Preconditions.checkState(hasResult(), "The attempt resulted in an exception, not in a result");
+            return result;
+        }
+
+        @Override
+        public Throwable getExceptionCause() {
+            Preconditions.checkState(hasException(), "The attempt resulted in a result, not in an exception");
+            return exception;
+        }
+
+        @Override
+        public long getAttemptNumber() {
+            return attemptNumber;
+        }
+
+        @Override
+        public long getDelaySinceFirstAttempt() {
+            return delaySinceFirstAttempt;
+        }
+    }
+
     @FunctionalInterface
     public interface Retryable<T, E extends Exception> {
         T run() throws E;
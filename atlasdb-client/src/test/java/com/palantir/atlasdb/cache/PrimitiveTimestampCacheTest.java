@@ -0,0 +1,169 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.Test;
+
+public class PrimitiveTimestampCacheTest {
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    private final AtomicLong maximumSize = new AtomicLong(100);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final PrimitiveTimestampCache cache = new PrimitiveTimestampCache(metricRegistry, maximumSize::get, 1);
+
+    @Test
+    public void cachedEntry() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isEqualTo(3L);
+    }
+
+    @Test
+    public void nonCachedEntry() {
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+        cache.putAlreadyCommittedTransaction(2L, 4L);
+        cache.clear();
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+        assertThat(cache.getCommitTimestampIfPresent(2L)).isNull();
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    public void emptyMarkerIsNeverCached() {
+        cache.putAlreadyCommittedTransaction(Long.MIN_VALUE, 3L);
+
+        assertThat(cache.getCommitTimestampIfPresent(Long.MIN_VALUE)).isNull();
+    }
+
+    @Test
+    public void sizeIsBoundedByMaximumSize() {
+        putRange(1, 10_000);
+
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(maximumSize.get());
+        assertThat(countPresent(9_901, 10_000)).isGreaterThan(0);
+        assertThat(metricRegistry.getGauges().get(metricName("eviction", "count")).getValue())
+                .isEqualTo(10_000L - cache.estimatedSize());
+    }
+
+    @Test
+    public void recentlyReadEntriesSurviveEviction() {
+        putRange(1, 100);
+        for (long startTimestamp = 1; startTimestamp <= 100; startTimestamp += 2) {
+            cache.getCommitTimestampIfPresent(startTimestamp);
+        }
+        putRange(1_001, 1_025);
+
+        long presentReadEntries = LongStream.rangeClosed(1, 100)
+                .filter(startTimestamp -> startTimestamp % 2 == 1)
+                .filter(startTimestamp -> cache.getCommitTimestampIfPresent(startTimestamp) != null)
+                .count();
+        assertThat(presentReadEntries).isEqualTo(50);
+    }
+
+    @Test
+    public void shrinksAndGrowsWithMaximumSize() {
+        putRange(1, 100);
+        maximumSize.set(10);
+        cache.getCommitTimestampIfPresent(1L);
+
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(10);
+
+        maximumSize.set(1_000);
+        putRange(1_001, 1_500);
+
+        assertThat(cache.estimatedSize()).isGreaterThan(100);
+        assertThat(countPresent(1_001, 1_500)).isEqualTo(500);
+    }
+
+    @Test
+    public void registersHitAndMissMetrics() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+        cache.getCommitTimestampIfPresent(1L);
+        cache.getCommitTimestampIfPresent(2L);
+
+        assertThat(metricRegistry.getGauges().get(metricName("hit", "count")).getValue())
+                .isEqualTo(1L);
+        assertThat(metricRegistry.getGauges().get(metricName("miss", "count")).getValue())
+                .isEqualTo(1L);
+        assertThat(metricRegistry.getGauges().get(metricName("hit", "ratio")).getValue())
+                .isEqualTo(0.5);
+    }
+
+    @Test
+    public void concurrentReadsNeverObserveIncorrectValues() throws Exception {
+        PrimitiveTimestampCache concurrentCache =
+                new PrimitiveTimestampCache(new MetricRegistry(), () -> 1_000L, CONCURRENCY_LEVEL);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Boolean> future : IntStream.range(0, 8)
+                    .mapToObj(unused -> executor.submit(() -> readAndWriteRandomly(concurrentCache)))
+                    .collect(Collectors.toList())) {
+                assertThat(future.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(concurrentCache.estimatedSize()).isLessThanOrEqualTo(1_000);
+    }
+
+    private static boolean readAndWriteRandomly(TimestampCache concurrentCache) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 100_000; i++) {
+            long startTimestamp = random.nextLong(1, 5_000);
+            if (random.nextInt(4) == 0) {
+                concurrentCache.putAlreadyCommittedTransaction(startTimestamp, startTimestamp + 1);
+            } else {
+                Long commitTimestamp = concurrentCache.getCommitTimestampIfPresent(startTimestamp);
+                if (commitTimestamp != null && commitTimestamp != startTimestamp + 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void putRange(long startInclusive, long endInclusive) {
+        LongStream.rangeClosed(startInclusive, endInclusive)
+                .forEach(startTimestamp -> cache.putAlreadyCommittedTransaction(startTimestamp, startTimestamp + 1));
+    }
+
+    private long countPresent(long startInclusive, long endInclusive) {
+        return LongStream.rangeClosed(startInclusive, endInclusive)
+                .filter(startTimestamp -> cache.getCommitTimestampIfPresent(startTimestamp) != null)
+                .count();
+    }
+
+    private static String metricName(String... names) {
+        return MetricRegistry.name(MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"), names);
+    }
+}
@@ -18,9 +18,12 @@ package com.palantir.atlasdb.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.codahale.metrics.MetricRegistry;
 import com.palantir.atlasdb.persistent.api.PersistentStore;
 import com.palantir.atlasdb.persistent.rocksdb.RocksDbPersistentStore;
 import com.palantir.atlasdb.util.MetricsManagers;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.io.File;
 import java.io.IOException;
 import org.junit.After;
@@ -39,6 +42,7 @@ public final class RocksDbOffHeapTimestampCacheIntegrationTests {
 
     private TimestampCache offHeapTimestampCache;
     private PersistentStore persistentStore;
+    private TaggedMetricRegistry taggedMetricRegistry;
 
     @Before
     public void before() throws RocksDBException, IOException {
@@ -47,8 +51,8 @@ public final class RocksDbOffHeapTimestampCacheIntegrationTests {
 
         persistentStore = new RocksDbPersistentStore(rocksDb, databaseFolder);
 
-        offHeapTimestampCache = OffHeapTimestampCache.create(
-                persistentStore, MetricsManagers.createForTests().getTaggedRegistry(), () -> CACHE_SIZE);
+        taggedMetricRegistry = MetricsManagers.createForTests().getTaggedRegistry();
+        offHeapTimestampCache = OffHeapTimestampCache.create(persistentStore, taggedMetricRegistry, () -> CACHE_SIZE);
     }
 
     @After
@@ -69,14 +73,28 @@ public final class RocksDbOffHeapTimestampCacheIntegrationTests {
     }
 
     @Test
-    public void cacheNukedWhenSizeLimitExceeded() {
+    public void oldestGenerationEvictedWhenSizeLimitExceeded() {
         offHeapTimestampCache.putAlreadyCommittedTransaction(1L, 3L);
         offHeapTimestampCache.putAlreadyCommittedTransaction(2L, 4L);
         offHeapTimestampCache.putAlreadyCommittedTransaction(5L, 6L);
 
         assertThat(offHeapTimestampCache.getCommitTimestampIfPresent(1L)).isNull();
-        assertThat(offHeapTimestampCache.getCommitTimestampIfPresent(2L)).isNull();
+        assertThat(offHeapTimestampCache.getCommitTimestampIfPresent(2L)).isEqualTo(4L);
         assertThat(offHeapTimestampCache.getCommitTimestampIfPresent(5L)).isEqualTo(6L);
+        assertThat(taggedMetricRegistry.counter(cacheMetricName("cacheNuke")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void entriesInOlderGenerationsAreStillServed() {
+        TimestampCache cache = OffHeapTimestampCache.create(
+                persistentStore, MetricsManagers.createForTests().getTaggedRegistry(), () -> 8);
+        for (long timestamp = 1; timestamp <= 8; timestamp++) {
+            cache.putAlreadyCommittedTransaction(timestamp, timestamp + 100);
+        }
+
+        for (long timestamp = 1; timestamp <= 8; timestamp++) {
+            assertThat(cache.getCommitTimestampIfPresent(timestamp)).isEqualTo(timestamp + 100);
+        }
     }
 
     @Test
@@ -87,4 +105,10 @@ public final class RocksDbOffHeapTimestampCacheIntegrationTests {
         offHeapTimestampCache.clear();
         assertThat(offHeapTimestampCache.getCommitTimestampIfPresent(1L)).isNull();
     }
+
+    private static MetricName cacheMetricName(String metricSuffix) {
+        return MetricName.builder()
+                .safeName(MetricRegistry.name(DefaultOffHeapCache.class, metricSuffix))
+                .build();
+    }
 }
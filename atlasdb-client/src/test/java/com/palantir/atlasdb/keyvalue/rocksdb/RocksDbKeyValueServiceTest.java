@@ -0,0 +1,56 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.rocksdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RocksDbKeyValueServiceTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final Cell CELL = Cell.create(PtBytes.toBytes("row"), PtBytes.toBytes("column"));
+    private static final byte[] VALUE = PtBytes.toBytes("value");
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void tablesAndValuesSurviveReopening() throws Exception {
+        File dataDirectory = temporaryFolder.newFolder();
+        try (RocksDbKeyValueService kvs = RocksDbKeyValueService.create(dataDirectory)) {
+            kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+            kvs.put(TABLE, ImmutableMap.of(CELL, VALUE), 5);
+            kvs.putUnlessExists(TABLE, ImmutableMap.of(CELL, VALUE));
+        }
+
+        try (RocksDbKeyValueService kvs = RocksDbKeyValueService.create(dataDirectory)) {
+            assertThat(kvs.getAllTableNames()).containsExactly(TABLE);
+            assertThat(kvs.getMetadataForTable(TABLE)).isEqualTo(AtlasDbConstants.GENERIC_TABLE_METADATA);
+            assertThat(kvs.get(TABLE, ImmutableMap.of(CELL, 6L)).get(CELL).getTimestamp()).isEqualTo(5);
+            assertThat(kvs.get(TABLE, ImmutableMap.of(CELL, 1L)).get(CELL).getTimestamp())
+                    .isEqualTo(AtlasDbConstants.TRANSACTION_TS);
+        }
+    }
+}
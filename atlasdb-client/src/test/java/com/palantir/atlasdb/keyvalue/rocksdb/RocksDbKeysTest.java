@@ -0,0 +1,75 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.rocksdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class RocksDbKeysTest {
+    private static final Comparator<byte[]> COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    @Test
+    public void ordersByRowThenColumnThenTimestampDescending() {
+        List<byte[]> keysInOrder = ImmutableList.of(
+                RocksDbKeys.key(cell(new byte[] {1}, new byte[] {1}), 10),
+                RocksDbKeys.key(cell(new byte[] {1}, new byte[] {1}), 5),
+                RocksDbKeys.key(cell(new byte[] {1}, new byte[] {1}), -1),
+                RocksDbKeys.key(cell(new byte[] {1}, new byte[] {1, 0}), Long.MAX_VALUE),
+                RocksDbKeys.key(cell(new byte[] {1}, new byte[] {2}), 3),
+                RocksDbKeys.key(cell(new byte[] {1, 0}, new byte[] {0}), 3),
+                RocksDbKeys.key(cell(new byte[] {1, 0, 0}, new byte[] {0}), 3),
+                RocksDbKeys.key(cell(new byte[] {1, 1}, new byte[] {0}), 3),
+                RocksDbKeys.key(cell(new byte[] {(byte) 0xFF}, new byte[] {0}), 3));
+
+        assertThat(keysInOrder.stream().sorted(COMPARATOR).collect(Collectors.toList()))
+                .containsExactlyElementsOf(keysInOrder);
+    }
+
+    @Test
+    public void decodesKeys() {
+        Cell cell = cell(new byte[] {0, 1, 0}, new byte[] {(byte) 0xFF, 0});
+        byte[] key = RocksDbKeys.key(cell, 42);
+
+        assertThat(RocksDbKeys.cell(key)).isEqualTo(cell);
+        assertThat(RocksDbKeys.row(key)).isEqualTo(cell.getRowName());
+        assertThat(RocksDbKeys.timestamp(key)).isEqualTo(42);
+        assertThat(RocksDbKeys.cellPrefixOf(key))
+                .isEqualTo(RocksDbKeys.cellPrefix(cell.getRowName(), cell.getColumnName()));
+    }
+
+    @Test
+    public void prefixUpperBoundSortsAfterAllKeysWithThePrefixOnly() {
+        byte[] rowPrefix = RocksDbKeys.rowPrefix(new byte[] {1});
+        byte[] upperBound = RocksDbKeys.prefixUpperBound(rowPrefix);
+
+        assertThat(COMPARATOR.compare(RocksDbKeys.key(cell(new byte[] {1}, new byte[] {(byte) 0xFF}), 0), upperBound))
+                .isNegative();
+        assertThat(COMPARATOR.compare(RocksDbKeys.key(cell(new byte[] {1, 0}, new byte[] {0}), 0), upperBound))
+                .isPositive();
+    }
+
+    private static Cell cell(byte[] row, byte[] column) {
+        return Cell.create(row, column);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Test;
+
+@SuppressWarnings("ResultOfMethodCallIgnored")
+public class PrefetchingBlockInputStreamTest {
+    private static final int BLOCK_LENGTH = 3;
+
+    private final byte[] stored = "divisible".getBytes(StandardCharsets.UTF_8);
+    private final List<Long> requestedBlocks = new ArrayList<>();
+    private final BlockGetter threeByteConsumer = new BlockGetter() {
+        @Override
+        public void get(long offset, long numBlocks, OutputStream os) {
+            synchronized (requestedBlocks) {
+                requestedBlocks.add(offset);
+            }
+            try {
+                os.write(stored, BLOCK_LENGTH * (int) offset, BLOCK_LENGTH * (int) numBlocks);
+            } catch (IOException e) {
+                fail("fail");
+            }
+        }
+
+        @Override
+        public int expectedBlockLength() {
+            return BLOCK_LENGTH;
+        }
+    };
+
+    private final StreamStoreMetrics metrics = new StreamStoreMetrics(new DefaultTaggedMetricRegistry());
+    private final ExecutorService executor = PTExecutors.newCachedThreadPool("prefetching-block-input-stream-test");
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void cantReadToNullArray() throws IOException {
+        createStream(1, 1, executor).read(null, 1, 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void cantReadMoreThanArrayLength() throws IOException {
+        createStream(1, 1, executor).read(new byte[1], 0, 2);
+    }
+
+    @Test
+    public void cannotPrefetchNoBatches() {
+        assertThatThrownBy(() -> createStream(1, 0, executor)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void canReadAllBlocksOneBatchAtATime() throws IOException {
+        assertThat(ByteStreams.toByteArray(createStream(1, 1, executor))).isEqualTo(stored);
+    }
+
+    @Test
+    public void canReadAllBlocksWithMoreBatchesInFlightThanThereAreBatches() throws IOException {
+        assertThat(ByteStreams.toByteArray(createStream(2, 5, executor))).isEqualTo(stored);
+    }
+
+    @Test
+    public void canReadAllBlocksSingleBytesAtATime() throws IOException {
+        PrefetchingBlockInputStream stream = createStream(2, 2, executor);
+        byte[] read = new byte[stored.length];
+        for (int i = 0; i < stored.length; i++) {
+            read[i] = (byte) stream.read();
+        }
+
+        assertThat(read).isEqualTo(stored);
+        assertThat(stream.read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void readsAcrossBatchesIntoOneArray() throws IOException {
+        PrefetchingBlockInputStream stream = createStream(1, 2, executor);
+        byte[] read = new byte[stored.length + 1];
+
+        assertThat(stream.read(read, 1, stored.length)).isEqualTo(stored.length);
+        assertThat(read).endsWith(stored);
+        assertThat(stream.read(read, 0, 1)).isEqualTo(-1);
+    }
+
+    @Test
+    public void loadsBatchesAheadOfTheReader() throws IOException {
+        PrefetchingBlockInputStream stream = createStream(1, 2, MoreExecutors.directExecutor());
+
+        stream.read();
+        assertThat(requestedBlocks).containsExactly(0L, 1L);
+
+        stream.read(new byte[BLOCK_LENGTH], 0, BLOCK_LENGTH);
+        assertThat(requestedBlocks).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    public void loadsBatchesOnTheReadingThreadUntilItMayLoadOnTheExecutor() throws IOException {
+        AtomicBoolean canLoadOnExecutor = new AtomicBoolean(false);
+        AtomicInteger batchesLoadedOnExecutor = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            batchesLoadedOnExecutor.incrementAndGet();
+            task.run();
+        };
+        PrefetchingBlockInputStream stream = createStream(1, 2, countingExecutor, canLoadOnExecutor::get);
+
+        stream.read(new byte[BLOCK_LENGTH], 0, BLOCK_LENGTH);
+        assertThat(requestedBlocks).containsExactly(0L);
+        assertThat(batchesLoadedOnExecutor).hasValue(0);
+
+        canLoadOnExecutor.set(true);
+        stream.read();
+        assertThat(requestedBlocks).containsExactly(0L, 1L, 2L);
+        assertThat(batchesLoadedOnExecutor).hasValue(2);
+    }
+
+    @Test
+    public void doesNotLoadBatchesBeforeTheFirstRead() {
+        createStream(1, 2, MoreExecutors.directExecutor());
+        assertThat(requestedBlocks).isEmpty();
+    }
+
+    @Test
+    public void recordsBytesRead() throws IOException {
+        ByteStreams.toByteArray(createStream(2, 2, executor));
+        assertThat(metrics.bytesRead().getCount()).isEqualTo(stored.length);
+        assertThat(metrics.batchLoadTime().getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rethrowsFailuresToLoadBlocks() {
+        RuntimeException failure = new RuntimeException("failed");
+        BlockGetter failingGetter = new BlockGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                throw failure;
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return BLOCK_LENGTH;
+            }
+        };
+        PrefetchingBlockInputStream stream =
+                PrefetchingBlockInputStream.create(failingGetter, 3, 1, 2, executor, () -> true, metrics);
+
+        assertThatThrownBy(stream::read).isSameAs(failure);
+    }
+
+    @Test
+    public void cannotReadAfterClose() throws IOException {
+        PrefetchingBlockInputStream stream = createStream(1, 2, executor);
+        stream.read();
+        stream.close();
+
+        assertThatThrownBy(() -> stream.read(new byte[stored.length], 0, stored.length))
+                .isInstanceOf(IOException.class);
+    }
+
+    private PrefetchingBlockInputStream createStream(int blocksPerBatch, int batchesToPrefetch, Executor exec) {
+        return createStream(blocksPerBatch, batchesToPrefetch, exec, () -> true);
+    }
+
+    private PrefetchingBlockInputStream createStream(
+            int blocksPerBatch, int batchesToPrefetch, Executor exec, BooleanSupplier canLoadOnExecutor) {
+        return PrefetchingBlockInputStream.create(
+                threeByteConsumer,
+                stored.length / BLOCK_LENGTH,
+                blocksPerBatch,
+                batchesToPrefetch,
+                exec,
+                canLoadOnExecutor,
+                metrics);
+    }
+}
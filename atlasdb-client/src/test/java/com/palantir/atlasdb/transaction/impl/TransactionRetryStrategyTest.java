@@ -19,18 +19,28 @@ package com.palantir.atlasdb.transaction.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.github.rholder.retry.BlockStrategy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.transaction.api.TransactionFailedNonRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.impl.TransactionRetryStrategy.Retryable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -50,6 +60,11 @@ public class TransactionRetryStrategyTest {
     @Mock
     private IntPredicate shouldStopRetrying;
 
+    @Mock
+    private Supplier<ListenableFuture<String>> asyncTask;
+
+    private final List<Long> scheduledDelays = new ArrayList<>();
+
     private TransactionRetryStrategy legacy;
     private TransactionRetryStrategy exponential;
 
@@ -150,6 +165,65 @@ public class TransactionRetryStrategyTest {
         assertThat(blockStrategy.totalBlockedTime).isEqualTo(expectedBlockDuration);
     }
 
+    @Test
+    public void asyncRetriesIfFailsWithRetriableException() throws Exception {
+        when(asyncTask.get())
+                .thenReturn(Futures.immediateFailedFuture(new TransactionFailedRetriableException("")))
+                .thenReturn(Futures.immediateFuture("success"));
+        assertThat(exponential
+                        .runWithRetryAsync(shouldStopRetrying, asyncTask, immediateScheduler())
+                        .get())
+                .isEqualTo("success");
+        assertThat(scheduledDelays).containsExactly(199L);
+    }
+
+    @Test
+    public void asyncStopsIfShouldStopRetrying() {
+        TransactionFailedRetriableException second = new TransactionFailedRetriableException("second");
+        when(asyncTask.get())
+                .thenReturn(Futures.immediateFailedFuture(new TransactionFailedRetriableException("first")))
+                .thenReturn(Futures.immediateFailedFuture(second));
+        assertThatThrownBy(() -> exponential
+                        .runWithRetryAsync(shouldStopRetrying, asyncTask, immediateScheduler())
+                        .get())
+                .hasCauseInstanceOf(TransactionFailedRetriableException.class)
+                .satisfies(e -> assertThat(e.getCause())
+                        .hasMessage("Failing after 2 tries.")
+                        .hasCause(second));
+        assertThat(scheduledDelays).hasSize(1);
+    }
+
+    @Test
+    public void asyncDoesNotRetryOnNonRetriableTransactionFailedException() {
+        TransactionFailedNonRetriableException failure = new TransactionFailedNonRetriableException("");
+        when(asyncTask.get()).thenReturn(Futures.immediateFailedFuture(failure));
+        assertThatThrownBy(() -> exponential
+                        .runWithRetryAsync(shouldStopRetrying, asyncTask, mock(ScheduledExecutorService.class))
+                        .get())
+                .hasCause(failure);
+    }
+
+    @Test
+    public void asyncFailsIfTaskThrows() {
+        RuntimeException failure = new RuntimeException("thrown");
+        when(asyncTask.get()).thenThrow(failure);
+        assertThatThrownBy(() -> exponential
+                        .runWithRetryAsync(shouldStopRetrying, asyncTask, mock(ScheduledExecutorService.class))
+                        .get())
+                .hasCause(failure);
+    }
+
+    private ScheduledExecutorService immediateScheduler() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .thenAnswer(inv -> {
+                    scheduledDelays.add(inv.getArgument(1));
+                    inv.<Runnable>getArgument(0).run();
+                    return null;
+                });
+        return scheduler;
+    }
+
     private void mockRetries(int numRetries) {
         when(shouldStopRetrying.test(anyInt())).thenAnswer(inv -> ((int) inv.getArgument(0)) > numRetries);
     }
@@ -58,6 +58,14 @@ public abstract class NanoTime implements Comparable<NanoTime> {
         return second.time() - first.time();
     }
 
+    /**
+     * Returns the number of nanoseconds from {@code earlier} to this time, which is negative if {@code earlier} is in
+     * fact later than this time.
+     */
+    public long nanosSince(NanoTime earlier) {
+        return nanosBetween(earlier, this);
+    }
+
     public NanoTime plus(Duration duration) {
         return create(time() + duration.toNanos());
     }
@@ -270,6 +270,16 @@ public abstract class AtlasDbConfig {
      */
     public abstract Optional<TimestampCache> timestampCache();
 
+    /**
+     * If true, concurrent lookups of commit timestamps that miss the timestamp cache are coalesced into batched reads
+     * of the transactions table, and lookups of a start timestamp that is already waiting to be read share that read.
+     * If false, each lookup reads the transactions table directly.
+     */
+    @Value.Default
+    public boolean coalesceTransactionTableReads() {
+        return false;
+    }
+
     /**
      * If set, allows the timelock and key-value-service namespaces to be different.
      *
@@ -88,6 +88,15 @@ public abstract class AtlasDbRuntimeConfig {
         return AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE;
     }
 
+    /**
+     * The number of values of lock watched tables to cache client-side, shared between all transactions. The least
+     * recently used values are evicted once the cache holds more than this many values.
+     */
+    @Value.Default
+    public long getLockWatchValueCacheSize() {
+        return AtlasDbConstants.DEFAULT_LOCK_WATCH_VALUE_CACHE_SIZE;
+    }
+
     public abstract Optional<KeyValueServiceRuntimeConfig> keyValueService();
 
     /**
@@ -125,6 +125,7 @@ import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.atlasdb.transaction.impl.consistency.ImmutableTimestampCorroborationConsistencyCheck;
 import com.palantir.atlasdb.transaction.impl.metrics.DefaultMetricsFilterEvaluationContext;
 import com.palantir.atlasdb.transaction.impl.metrics.MetricsFilterEvaluationContext;
+import com.palantir.atlasdb.transaction.service.ReadCoalescingTransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionServices;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
@@ -196,6 +197,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
@@ -465,8 +467,12 @@ public abstract class TransactionManagers {
         PersistentLockService persistentLockService =
                 createAndRegisterPersistentLockService(keyValueService, registrar(), config().initializeAsync());
 
+        TimestampCache timestampCache = config().timestampCache()
+                .orElseGet(() -> new DefaultTimestampCache(
+                        metricsManager.getRegistry(), () -> runtime.get().getTimestampCacheSize()));
+
         TransactionComponents components = createTransactionComponents(
-                closeables, metricsManager, lockAndTimestampServices, keyValueService, runtime);
+                closeables, metricsManager, lockAndTimestampServices, keyValueService, timestampCache, runtime);
         TransactionService transactionService = components.transactionService();
         ConflictDetectionManager conflictManager = ConflictDetectionManagers.create(keyValueService);
         SweepStrategyManager sweepStrategyManager = SweepStrategyManagers.createDefault(keyValueService);
@@ -507,10 +513,6 @@ public abstract class TransactionManagers {
         Supplier<TransactionConfig> transactionConfigSupplier =
                 runtime.map(AtlasDbRuntimeConfig::transaction).map(this::withConsolidatedGrabImmutableTsLockFlag);
 
-        TimestampCache timestampCache = config().timestampCache()
-                .orElseGet(() -> new DefaultTimestampCache(
-                        metricsManager.getRegistry(), () -> runtime.get().getTimestampCacheSize()));
-
         ConflictTracer conflictTracer = lockDiagnosticComponents()
                 .map(LockDiagnosticComponents::clientLockDiagnosticCollector)
                 .<ConflictTracer>map(Function.identity())
@@ -716,6 +718,7 @@ public abstract class TransactionManagers {
             MetricsManager metricsManager,
             LockAndTimestampServices lockAndTimestampServices,
             KeyValueService keyValueService,
+            TimestampCache timestampCache,
             Supplier<AtlasDbRuntimeConfig> runtimeConfigSupplier) {
         CoordinationService<InternalSchemaMetadata> coordinationService =
                 getSchemaMetadataCoordinationService(metricsManager, lockAndTimestampServices, keyValueService);
@@ -725,7 +728,7 @@ public abstract class TransactionManagers {
                 () -> AtlasDbMetrics.instrumentTimed(
                         metricsManager.getRegistry(),
                         TransactionService.class,
-                        TransactionServices.createTransactionService(keyValueService, transactionSchemaManager)),
+                        createTransactionService(keyValueService, transactionSchemaManager, timestampCache)),
                 closeables);
         Optional<TransactionSchemaInstaller> schemaInstaller = getTransactionSchemaInstallerIfSupported(
                 closeables, keyValueService, runtimeConfigSupplier, transactionSchemaManager);
@@ -735,6 +738,18 @@ public abstract class TransactionManagers {
                 .build();
     }
 
+    private TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            TimestampCache timestampCache) {
+        TransactionService transactionService =
+                TransactionServices.createTransactionService(keyValueService, transactionSchemaManager);
+        if (!config().coalesceTransactionTableReads()) {
+            return transactionService;
+        }
+        return ReadCoalescingTransactionService.create(transactionService, timestampCache);
+    }
+
     private static Optional<TransactionSchemaInstaller> getTransactionSchemaInstallerIfSupported(
             @Output List<AutoCloseable> closeables,
             KeyValueService keyValueService,
@@ -1143,7 +1158,8 @@ public abstract class TransactionManagers {
                 lockDiagnosticComponents,
                 reloadingFactory,
                 timeLockFeedbackBackgroundTask,
-                timelockRequestBatcherProviders);
+                timelockRequestBatcherProviders,
+                () -> runtimeConfig.get().getLockWatchValueCacheSize());
 
         TimeLockMigrator migrator = TimeLockMigrator.create(
                 lockAndTimestampServices.managedTimestampService(), invalidator, config.initializeAsync());
@@ -1172,7 +1188,8 @@ public abstract class TransactionManagers {
             Optional<LockDiagnosticComponents> lockDiagnosticComponents,
             ReloadingFactory reloadingFactory,
             Optional<TimeLockFeedbackBackgroundTask> timeLockFeedbackBackgroundTask,
-            Optional<TimeLockRequestBatcherProviders> timelockRequestBatcherProviders) {
+            Optional<TimeLockRequestBatcherProviders> timelockRequestBatcherProviders,
+            LongSupplier lockWatchValueCacheSize) {
         AtlasDbDialogueServiceProvider serviceProvider = AtlasDbDialogueServiceProvider.create(
                 timelockServerListConfig, reloadingFactory, userAgent, metricsManager.getTaggedRegistry());
 
@@ -1204,7 +1221,8 @@ public abstract class TransactionManagers {
         LockWatchEventCache lockWatchEventCache = LockWatchEventCacheImpl.create(metricsManager);
         NamespacedConjureLockWatchingService lockWatchingService = new NamespacedConjureLockWatchingService(
                 serviceProvider.getConjureLockWatchingService(), timelockNamespace);
-        LockWatchManagerImpl lockWatchManager = new LockWatchManagerImpl(lockWatchEventCache, lockWatchingService);
+        LockWatchManagerImpl lockWatchManager = new LockWatchManagerImpl(
+                metricsManager, lockWatchEventCache, lockWatchingService, lockWatchValueCacheSize);
 
         LeaderTimeGetter leaderTimeGetter = getLeaderTimeGetter(
                 timelockNamespace, timelockRequestBatcherProviders, serviceProvider, namespacedConjureTimelockService);
@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionManagerAwareDbKvs;
+import com.palantir.atlasdb.keyvalue.impl.TestResourceManager;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class DbkvsPostgresBulkCopyWriteTest {
+    @ClassRule
+    public static final TestResourceManager TRM =
+            new TestResourceManager(DbkvsPostgresBulkCopyWriteTest::createKvsWithBulkCopy);
+
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.bulk_copy");
+    private static final long TIMESTAMP = 100L;
+    private static final int NUM_CELLS = 50;
+
+    private final KeyValueService kvs = TRM.getDefaultKvs();
+
+    @Before
+    public void setUp() {
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+    }
+
+    @After
+    public void tearDown() {
+        kvs.dropTable(TABLE);
+    }
+
+    @Test
+    public void copiedCellsCanBeReadBack() {
+        Map<Cell, byte[]> values = createValues(0, NUM_CELLS);
+        kvs.put(TABLE, values, TIMESTAMP);
+
+        Map<Cell, Value> result = kvs.get(TABLE, Maps.transformValues(values, ignored -> TIMESTAMP + 1));
+
+        assertThat(result).hasSize(NUM_CELLS);
+        values.forEach((cell, value) -> assertThat(result.get(cell)).isEqualTo(Value.create(value, TIMESTAMP)));
+    }
+
+    @Test
+    public void copiedCellsWithTimestampsCanBeReadBack() {
+        Map<Cell, byte[]> values = createValues(0, NUM_CELLS);
+        ImmutableMultimap.Builder<Cell, Value> cellsWithTimestamps = ImmutableMultimap.builder();
+        values.forEach((cell, value) -> {
+            cellsWithTimestamps.put(cell, Value.create(value, TIMESTAMP));
+            cellsWithTimestamps.put(cell, Value.create(PtBytes.EMPTY_BYTE_ARRAY, TIMESTAMP + 1));
+        });
+        kvs.putWithTimestamps(TABLE, cellsWithTimestamps.build());
+
+        Map<Cell, Value> latest = kvs.get(TABLE, Maps.transformValues(values, ignored -> TIMESTAMP + 2));
+        Map<Cell, Value> earlier = kvs.get(TABLE, Maps.transformValues(values, ignored -> TIMESTAMP + 1));
+
+        values.forEach((cell, value) -> {
+            assertThat(latest.get(cell)).isEqualTo(Value.create(PtBytes.EMPTY_BYTE_ARRAY, TIMESTAMP + 1));
+            assertThat(earlier.get(cell)).isEqualTo(Value.create(value, TIMESTAMP));
+        });
+    }
+
+    @Test
+    public void copyingExistingCellsThrowsAndWritesNothing() {
+        kvs.put(TABLE, createValues(0, NUM_CELLS), TIMESTAMP);
+        Map<Cell, byte[]> overlappingValues = createValues(NUM_CELLS / 2, NUM_CELLS * 2);
+
+        assertThatThrownBy(() -> kvs.put(TABLE, overlappingValues, TIMESTAMP))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+
+        Map<Cell, Value> result = kvs.get(TABLE, Maps.transformValues(overlappingValues, ignored -> TIMESTAMP + 1));
+        assertThat(result).hasSize(NUM_CELLS / 2);
+    }
+
+    @Test
+    public void failedCopyDoesNotAffectLaterCopies() {
+        kvs.put(TABLE, createValues(0, NUM_CELLS), TIMESTAMP);
+        assertThatThrownBy(() -> kvs.put(TABLE, createValues(0, NUM_CELLS), TIMESTAMP))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+
+        kvs.put(TABLE, createValues(NUM_CELLS, NUM_CELLS * 2), TIMESTAMP);
+
+        Map<Cell, byte[]> allValues = createValues(0, NUM_CELLS * 2);
+        assertThat(kvs.get(TABLE, Maps.transformValues(allValues, ignored -> TIMESTAMP + 1)))
+                .hasSize(NUM_CELLS * 2);
+    }
+
+    private static Map<Cell, byte[]> createValues(int startInclusive, int endExclusive) {
+        return IntStream.range(startInclusive, endExclusive)
+                .boxed()
+                .collect(Collectors.toMap(
+                        index -> Cell.create(PtBytes.toBytes("row" + index), PtBytes.toBytes("col")),
+                        index -> PtBytes.toBytes("value" + index)));
+    }
+
+    private static ConnectionManagerAwareDbKvs createKvsWithBulkCopy() {
+        DbKeyValueServiceConfig config = DbkvsPostgresTestSuite.getKvsConfig();
+        return ConnectionManagerAwareDbKvs.create(ImmutableDbKeyValueServiceConfig.builder()
+                .from(config)
+                .ddl(ImmutablePostgresDdlConfig.builder()
+                        .from((PostgresDdlConfig) config.ddl())
+                        .bulkCopyThreshold(1)
+                        .build())
+                .build());
+    }
+}
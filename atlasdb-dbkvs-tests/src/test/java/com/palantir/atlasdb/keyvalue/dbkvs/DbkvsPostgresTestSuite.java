@@ -40,6 +40,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
     DbkvsPostgresTargetedSweepIntegrationTest.class,
     DbkvsPostgresKeyValueServiceTest.class,
+    DbkvsPostgresBulkCopyWriteTest.class,
     DbkvsPostgresSerializableTransactionTest.class,
     DbkvsPostgresSweepTaskRunnerTest.class,
     DbkvsBackgroundSweeperIntegrationTest.class,
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.conjure.java.api.config.service.HumanReadableDuration;
+import com.palantir.logsafe.Preconditions;
 import org.immutables.value.Value;
 
 @JsonDeserialize(as = ImmutablePostgresDdlConfig.class)
@@ -50,4 +51,27 @@ public abstract class PostgresDdlConfig extends DdlConfig {
     public HumanReadableDuration compactInterval() {
         return HumanReadableDuration.seconds(0);
     }
+
+    /**
+     * Puts of at least this many cells are streamed to Postgres with {@code COPY}, rather than being sent as a batch
+     * of single row inserts.
+     */
+    @Value.Default
+    public int bulkCopyThreshold() {
+        return 100;
+    }
+
+    /**
+     * If true, reads of many rows or cells pass the row names, column names and timestamps as array parameters, so
+     * that the text of each query is the same for every batch size. Otherwise, they are passed as one parameter each.
+     */
+    @Value.Default
+    public boolean useArrayParameters() {
+        return false;
+    }
+
+    @Value.Check
+    protected final void checkBulkCopyThreshold() {
+        Preconditions.checkState(bulkCopyThreshold() > 0, "'bulkCopyThreshold' should be positive");
+    }
 }
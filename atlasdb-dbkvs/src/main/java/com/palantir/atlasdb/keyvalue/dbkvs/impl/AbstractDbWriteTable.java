@@ -37,7 +37,7 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
     protected final DdlConfig config;
     protected final ConnectionSupplier conns;
     protected final TableReference tableRef;
-    private final PrefixedTableNames prefixedTableNames;
+    protected final PrefixedTableNames prefixedTableNames;
 
     protected AbstractDbWriteTable(
             DdlConfig config,
@@ -72,7 +72,11 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
         put(args);
     }
 
-    private void put(List<Object[]> args) {
+    /**
+     * Inserts the given rows, each of which is the {@code row_name}, {@code col_name}, {@code ts} and {@code val} of
+     * a cell, throwing {@link KeyAlreadyExistsException} if any of them already exist.
+     */
+    protected void put(List<Object[]> args) {
         try {
             String prefixedTableName = prefixedTableNames.get(tableRef, conns);
             conns.get()
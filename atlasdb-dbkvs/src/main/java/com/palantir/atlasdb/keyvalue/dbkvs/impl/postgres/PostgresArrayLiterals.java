@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Encodes values as the text of Postgres array literals, which are passed as a single string parameter and cast to
+ * the array type in the query. This avoids relying on the array support of the JDBC driver, and so works for every
+ * driver version and connection pool.
+ */
+final class PostgresArrayLiterals {
+    private static final BaseEncoding HEX = BaseEncoding.base16().lowerCase();
+
+    private PostgresArrayLiterals() {
+        // Utility class
+    }
+
+    /**
+     * Returns a literal to be cast to {@code bytea[]}, in which every element is quoted and hex encoded.
+     */
+    static String byteaArray(Iterable<byte[]> values) {
+        StringBuilder builder = new StringBuilder().append('{');
+        for (byte[] value : values) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            // Within a quoted array element, a backslash escapes the next character, so the hex prefix needs two
+            builder.append("\"\\\\x").append(HEX.encode(value)).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Returns a literal to be cast to {@code int8[]}.
+     */
+    static String int8Array(Iterable<Long> values) {
+        StringBuilder builder = new StringBuilder().append('{');
+        for (Long value : values) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append(value.longValue());
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -26,9 +27,11 @@ import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbQueryFactory;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class PostgresQueryFactory extends AbstractDbQueryFactory {
     private final String tableName;
@@ -48,11 +51,11 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "    AND m.ts < ? "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())))
                 + " GROUP BY m.row_name, m.col_name";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
         FullQuery fullQuery = new FullQuery(query).withArgs(row, ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -60,15 +63,15 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_ROWS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name" + inParams(Iterables.size(rows))
                 + "    AND m.ts < ? "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())))
                 + " GROUP BY m.row_name, m.col_name ";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        FullQuery fullQuery = addByteaArgs(new FullQuery(query), rows).withArg(ts);
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -77,16 +80,16 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_ROWS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, rows.size()) + ") t(row_name, ts) "
+                + "     " + valuesTable(rows.size(), "t(row_name, ts)", "bytea", "int8")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.ts < t.ts "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())))
                 + " GROUP BY m.row_name, m.col_name ";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
         FullQuery fullQuery = addRowTsArgs(new FullQuery(query), rows);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -98,9 +101,9 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "    AND m.ts < ? "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())));
         FullQuery fullQuery = new FullQuery(query).withArgs(row, ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -108,13 +111,13 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_ROWS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name" + inParams(Iterables.size(rows))
                 + "    AND m.ts < ? "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())));
+        FullQuery fullQuery = addByteaArgs(new FullQuery(query), rows).withArg(ts);
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -123,14 +126,14 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_ROWS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, rows.size()) + ") t(row_name, ts) "
+                + "     " + valuesTable(rows.size(), "t(row_name, ts)", "bytea", "int8")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.ts < t.ts "
                 + (columns.allColumnsSelected()
                         ? ""
-                        : "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
+                        : "    AND m.col_name" + inParams(Iterables.size(columns.getSelectedColumns())));
         FullQuery fullQuery = addRowTsArgs(new FullQuery(query), rows);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return columns.allColumnsSelected() ? fullQuery : addByteaArgs(fullQuery, columns.getSelectedColumns());
     }
 
     @Override
@@ -152,7 +155,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_CELLS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "    (VALUES " + groupOfNumParams(2, Iterables.size(cells)) + ") t(row_name, col_name) "
+                + "    " + valuesTable(Iterables.size(cells), "t(row_name, col_name)", "bytea", "bytea")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < ? "
@@ -166,7 +169,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_CELLS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(3, Iterables.size(cells)) + ") t(row_name, col_name, ts) "
+                + "     " + valuesTable(cells.size(), "t(row_name, col_name, ts)", "bytea", "bytea", "int8")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < t.ts "
@@ -191,7 +194,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_CELLS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, Iterables.size(cells)) + ") t(row_name, col_name) "
+                + "     " + valuesTable(Iterables.size(cells), "t(row_name, col_name)", "bytea", "bytea")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < ? ";
@@ -203,7 +206,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_CELLS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(3, Iterables.size(cells)) + ") t(row_name, col_name, ts) "
+                + "     " + valuesTable(cells.size(), "t(row_name, col_name, ts)", "bytea", "bytea", "int8")
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < t.ts ";
@@ -249,6 +252,28 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         return Joiner.on(',').join(Iterables.limit(Iterables.cycle(params), numEntries));
     }
 
+    /**
+     * Returns a condition that the preceding {@code bytea} column is one of the given number of values, which are
+     * added to the query by {@link #addByteaArgs(FullQuery, Iterable)}.
+     */
+    private String inParams(int numValues) {
+        return config.useArrayParameters() ? " = ANY (CAST(? AS bytea[])) " : " IN " + numParams(numValues);
+    }
+
+    /**
+     * Returns a table of the given number of entries, which has a column of each of the given types, and which is
+     * named as given.
+     */
+    private String valuesTable(int numEntries, String tableName, String... columnTypes) {
+        if (config.useArrayParameters()) {
+            return Arrays.stream(columnTypes)
+                            .map(columnType -> "CAST(? AS " + columnType + "[])")
+                            .collect(Collectors.joining(", ", "unnest(", ") "))
+                    + tableName + " ";
+        }
+        return "(VALUES " + groupOfNumParams(columnTypes.length, numEntries) + ") " + tableName + " ";
+    }
+
     private String wrapQueryWithIncludeValue(String wrappedName, String query, boolean includeValue) {
         if (!includeValue) {
             return query;
@@ -261,7 +286,19 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "   AND wrap.ts = i.ts ";
     }
 
-    private FullQuery addRowTsArgs(FullQuery fullQuery, Iterable<Map.Entry<byte[], Long>> rows) {
+    private FullQuery addByteaArgs(FullQuery fullQuery, Iterable<byte[]> values) {
+        if (config.useArrayParameters()) {
+            return fullQuery.withArg(PostgresArrayLiterals.byteaArray(values));
+        }
+        return fullQuery.withArgs(values);
+    }
+
+    private FullQuery addRowTsArgs(FullQuery fullQuery, Collection<Map.Entry<byte[], Long>> rows) {
+        if (config.useArrayParameters()) {
+            return fullQuery
+                    .withArg(PostgresArrayLiterals.byteaArray(Collections2.transform(rows, Map.Entry::getKey)))
+                    .withArg(PostgresArrayLiterals.int8Array(Collections2.transform(rows, Map.Entry::getValue)));
+        }
         for (Map.Entry<byte[], Long> entry : rows) {
             fullQuery.withArgs(entry.getKey(), entry.getValue());
         }
@@ -269,6 +306,11 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
     }
 
     private FullQuery addCellArgs(FullQuery fullQuery, Iterable<Cell> cells) {
+        if (config.useArrayParameters()) {
+            return fullQuery
+                    .withArg(PostgresArrayLiterals.byteaArray(Iterables.transform(cells, Cell::getRowName)))
+                    .withArg(PostgresArrayLiterals.byteaArray(Iterables.transform(cells, Cell::getColumnName)));
+        }
         for (Cell cell : cells) {
             fullQuery.withArgs(cell.getRowName(), cell.getColumnName());
         }
@@ -276,6 +318,14 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
     }
 
     private FullQuery addCellTsArgs(FullQuery fullQuery, Collection<Map.Entry<Cell, Long>> cells) {
+        if (config.useArrayParameters()) {
+            return fullQuery
+                    .withArg(PostgresArrayLiterals.byteaArray(
+                            Collections2.transform(cells, entry -> entry.getKey().getRowName())))
+                    .withArg(PostgresArrayLiterals.byteaArray(
+                            Collections2.transform(cells, entry -> entry.getKey().getColumnName())))
+                    .withArg(PostgresArrayLiterals.int8Array(Collections2.transform(cells, Map.Entry::getValue)));
+        }
         for (Map.Entry<Cell, Long> entry : cells) {
             Cell cell = entry.getKey();
             fullQuery.withArgs(cell.getRowName(), cell.getColumnName(), entry.getValue());
@@ -293,12 +343,12 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ROWS_COLUMN_RANGE_COUNT(" + tableName + ") */"
                 + " SELECT m.row_name, COUNT(m.col_name) AS column_count "
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name" + inParams(Iterables.size(rows))
                 + "    AND m.ts < ? "
                 + (columnRangeSelection.getStartCol().length > 0 ? " AND m.col_name >= ?" : "")
                 + (columnRangeSelection.getEndCol().length > 0 ? " AND m.col_name < ?" : "")
                 + " GROUP BY m.row_name";
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
+        FullQuery fullQuery = addByteaArgs(new FullQuery(query), rows).withArg(ts);
         if (columnRangeSelection.getStartCol().length > 0) {
             fullQuery = fullQuery.withArg(columnRangeSelection.getStartCol());
         }
@@ -338,14 +388,14 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ROWS_COLUMN_RANGE_FULLY_LOADED_ROW (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts"
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name" + inParams(Iterables.size(rows))
                 + "    AND m.ts < ? "
                 + (columnRangeSelection.getStartCol().length > 0 ? " AND m.col_name >= ?" : "")
                 + (columnRangeSelection.getEndCol().length > 0 ? " AND m.col_name < ?" : "")
                 + " GROUP BY m.row_name, m.col_name"
                 + " ORDER BY m.row_name ASC, m.col_name ASC";
         String wrappedQuery = wrapQueryWithIncludeValue("GET_ROWS_COLUMN_RANGE_FULLY_LOADED_ROW", query, true);
-        FullQuery fullQuery = new FullQuery(wrappedQuery).withArgs(rows).withArg(ts);
+        FullQuery fullQuery = addByteaArgs(new FullQuery(wrappedQuery), rows).withArg(ts);
         if (columnRangeSelection.getStartCol().length > 0) {
             fullQuery = fullQuery.withArg(columnRangeSelection.getStartCol());
         }
@@ -15,18 +15,137 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    private static final String STAGING_TABLE = "atlasdb_copy_staging";
+    private static final byte[] BINARY_COPY_SIGNATURE = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+    };
+    private static final int COPY_BUFFER_SIZE_BYTES = 64 * 1024;
+
+    private final PostgresDdlConfig postgresConfig;
+
     public PostgresWriteTable(
-            DdlConfig config,
+            PostgresDdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.postgresConfig = config;
+    }
+
+    @Override
+    protected void put(List<Object[]> args) {
+        if (args.size() < postgresConfig.bulkCopyThreshold()) {
+            super.put(args);
+            return;
+        }
+        try {
+            copyPut(args);
+        } catch (SQLException e) {
+            if (ExceptionCheck.isUniqueConstraintViolation(e)) {
+                throw new KeyAlreadyExistsException("primary key violation", e);
+            }
+            throw PalantirSqlException.create(e);
+        }
+    }
+
+    /**
+     * Streams the rows into a temporary staging table with a binary {@code COPY}, and then inserts them into the table
+     * in a single statement, which fails on the primary key as the batched inserts would if any of the cells already
+     * exist. The staging table is created and dropped within the write, so that a failed write leaves nothing behind.
+     *
+     * The write is done in its own transaction if the connection is in auto-commit mode, and otherwise in a savepoint
+     * of the transaction of the connection, so that a conflict does not also abort that transaction.
+     */
+    private void copyPut(List<Object[]> args) throws SQLException {
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        Connection connection = conns.get().getUnderlyingConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        Savepoint savepoint = autoCommit ? null : connection.setSavepoint();
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("/* CREATE_COPY_STAGING (" + prefixedTableName + ") */"
+                        + " CREATE TEMPORARY TABLE " + STAGING_TABLE
+                        + " (LIKE " + prefixedTableName + " INCLUDING DEFAULTS)");
+            }
+            copyIntoStagingTable(connection, args);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("/* INSERT_FROM_COPY_STAGING (" + prefixedTableName + ") */"
+                        + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val)"
+                        + " SELECT row_name, col_name, ts, val FROM " + STAGING_TABLE);
+                statement.execute("DROP TABLE " + STAGING_TABLE);
+            }
+            if (autoCommit) {
+                connection.commit();
+            } else {
+                connection.releaseSavepoint(savepoint);
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (autoCommit) {
+                connection.rollback();
+            } else {
+                connection.rollback(savepoint);
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void copyIntoStagingTable(Connection connection, List<Object[]> args) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        String copySql = "COPY " + STAGING_TABLE + " (row_name, col_name, ts, val) FROM STDIN (FORMAT binary)";
+        try (DataOutputStream out =
+                new DataOutputStream(new PGCopyOutputStream(pgConnection, copySql, COPY_BUFFER_SIZE_BYTES))) {
+            out.write(BINARY_COPY_SIGNATURE);
+            out.writeInt(0); // Flags
+            out.writeInt(0); // Header extension length
+            for (Object[] row : args) {
+                out.writeShort(row.length);
+                writeBytes(out, (byte[]) row[0]);
+                writeBytes(out, (byte[]) row[1]);
+                out.writeInt(Long.BYTES);
+                out.writeLong((Long) row[2]);
+                writeBytes(out, (byte[]) row[3]);
+            }
+            out.writeShort(-1); // Trailer
+        } catch (IOException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Failed to copy rows into the staging table", e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.dbkvs.ImmutablePostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class PostgresQueryFactoryTest {
+    private static final String TABLE_NAME = "ns__test";
+    private static final long TIMESTAMP = 100L;
+
+    private final PostgresQueryFactory valuesFactory =
+            new PostgresQueryFactory(TABLE_NAME, ImmutablePostgresDdlConfig.builder().build());
+    private final PostgresQueryFactory arrayFactory = new PostgresQueryFactory(
+            TABLE_NAME, ImmutablePostgresDdlConfig.builder().useArrayParameters(true).build());
+
+    @Test
+    public void valuesQueriesHaveParametersForEachCell() {
+        FullQuery query = valuesFactory.getLatestCellsQuery(cellsWithTimestamps(10), true);
+
+        assertThat(query.getQuery()).contains("VALUES");
+        assertThat(query.getArgs()).hasSize(30);
+    }
+
+    @Test
+    public void arrayQueriesAreTheSameForEveryBatchSize() {
+        FullQuery singleCell = arrayFactory.getLatestCellsQuery(cellsWithTimestamps(1), true);
+        FullQuery manyCells = arrayFactory.getLatestCellsQuery(cellsWithTimestamps(10_000), true);
+
+        assertThat(singleCell.getQuery()).isEqualTo(manyCells.getQuery()).contains("unnest");
+        assertThat(singleCell.getArgs()).hasSize(3);
+        assertThat(manyCells.getArgs()).hasSize(3);
+    }
+
+    @Test
+    public void arrayQueriesPassCellsAsArrayLiterals() {
+        List<Cell> cells = ImmutableList.of(
+                Cell.create(new byte[] {1, 2}, new byte[] {(byte) 0xff}), Cell.create(new byte[] {3}, new byte[] {4}));
+
+        FullQuery query = arrayFactory.getAllCellsQuery(cells, TIMESTAMP, false);
+
+        assertThat(query.getArgs())
+                .containsExactly("{\"\\\\x0102\",\"\\\\x03\"}", "{\"\\\\xff\",\"\\\\x04\"}", TIMESTAMP);
+    }
+
+    @Test
+    public void arrayQueriesPassRowsAndSelectedColumnsAsArrayLiterals() {
+        List<byte[]> rows = ImmutableList.of(new byte[] {1}, new byte[] {2}, new byte[] {3});
+        ColumnSelection columns = ColumnSelection.create(ImmutableList.of(new byte[] {4}));
+
+        FullQuery query = arrayFactory.getLatestRowsQuery(rows, TIMESTAMP, columns, true);
+
+        assertThat(query.getQuery()).doesNotContain(" IN ");
+        assertThat(query.getArgs())
+                .containsExactly("{\"\\\\x01\",\"\\\\x02\",\"\\\\x03\"}", TIMESTAMP, "{\"\\\\x04\"}");
+    }
+
+    @Test
+    public void emptyValuesAreEncodedAsEmptyByteArrays() {
+        assertThat(PostgresArrayLiterals.byteaArray(ImmutableList.of(new byte[0]))).isEqualTo("{\"\\\\x\"}");
+        assertThat(PostgresArrayLiterals.byteaArray(ImmutableList.of())).isEqualTo("{}");
+        assertThat(PostgresArrayLiterals.int8Array(ImmutableList.of(-1L, 0L, Long.MAX_VALUE)))
+                .isEqualTo("{-1,0,9223372036854775807}");
+    }
+
+    private static List<Map.Entry<Cell, Long>> cellsWithTimestamps(int numCells) {
+        return IntStream.range(0, numCells)
+                .mapToObj(index -> Maps.immutableEntry(
+                        Cell.create(new byte[] {(byte) index}, new byte[] {(byte) (index >> 8)}), TIMESTAMP))
+                .collect(Collectors.toList());
+    }
+}
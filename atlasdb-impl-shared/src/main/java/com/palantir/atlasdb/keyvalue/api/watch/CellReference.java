@@ -0,0 +1,52 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import org.immutables.value.Value;
+
+@Value.Immutable
+interface CellReference {
+    @Value.Parameter
+    TableReference tableRef();
+
+    @Value.Parameter
+    Cell cell();
+
+    /**
+     * The descriptors under which a write to this cell may be locked; any lock watch event on one of these descriptors
+     * invalidates a cached value for this cell.
+     */
+    @Value.Lazy
+    default LockDescriptor cellDescriptor() {
+        return AtlasCellLockDescriptor.of(
+                tableRef().getQualifiedName(), cell().getRowName(), cell().getColumnName());
+    }
+
+    @Value.Lazy
+    default LockDescriptor rowDescriptor() {
+        return AtlasRowLockDescriptor.of(tableRef().getQualifiedName(), cell().getRowName());
+    }
+
+    static CellReference of(TableReference tableRef, Cell cell) {
+        return ImmutableCellReference.of(tableRef, cell);
+    }
+}
@@ -66,6 +66,11 @@ public final class LockWatchEventCacheImpl implements LockWatchEventCache {
         return eventLog.getLatestKnownVersion();
     }
 
+    @Override
+    public Optional<LockWatchVersion> getStartTransactionVersion(long startTimestamp) {
+        return timestampStateStore.getStartVersion(startTimestamp);
+    }
+
     @Override
     public void processStartTransactionsUpdate(Set<Long> startTimestamps, LockWatchStateUpdate update) {
         Optional<LockWatchVersion> updateVersion = processEventLogUpdate(update);
@@ -17,6 +17,7 @@
 package com.palantir.atlasdb.keyvalue.api.watch;
 
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
+import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.client.NamespacedConjureLockWatchingService;
 import com.palantir.lock.watch.CommitUpdate;
@@ -31,6 +32,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,13 +42,20 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
 
     private final Set<LockWatchReferences.LockWatchReference> lockWatchReferences = ConcurrentHashMap.newKeySet();
     private final LockWatchEventCache lockWatchEventCache;
+    private final LockWatchValueCache valueCache;
+    private final MetricsManager metricsManager;
     private final NamespacedConjureLockWatchingService lockWatchingService;
     private final ScheduledExecutorService executorService = PTExecutors.newSingleThreadScheduledExecutor();
     private final ScheduledFuture<?> refreshTask;
 
     public LockWatchManagerImpl(
-            LockWatchEventCache lockWatchEventCache, NamespacedConjureLockWatchingService lockWatchingService) {
+            MetricsManager metricsManager,
+            LockWatchEventCache lockWatchEventCache,
+            NamespacedConjureLockWatchingService lockWatchingService,
+            LongSupplier valueCacheSize) {
+        this.metricsManager = metricsManager;
         this.lockWatchEventCache = lockWatchEventCache;
+        this.valueCache = new LockWatchValueCache(lockWatchEventCache, metricsManager, valueCacheSize);
         this.lockWatchingService = lockWatchingService;
         refreshTask = executorService.scheduleWithFixedDelay(this::registerWatchesWithTimelock, 0, 5, TimeUnit.SECONDS);
     }
@@ -62,6 +71,18 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
         return lockWatchEventCache.getUpdateForTransactions(startTimestamps, version);
     }
 
+    @Override
+    public TransactionScopedCache getTransactionScopedCache(long startTs) {
+        if (lockWatchReferences.isEmpty()) {
+            return NoOpTransactionScopedCache.create();
+        }
+        return valueCache
+                .updateToTransactionVersion(startTs)
+                .<TransactionScopedCache>map(
+                        version -> new TransactionScopedCacheImpl(valueCache, version, metricsManager))
+                .orElseGet(NoOpTransactionScopedCache::create);
+    }
+
     @Override
     public void close() {
         refreshTask.cancel(false);
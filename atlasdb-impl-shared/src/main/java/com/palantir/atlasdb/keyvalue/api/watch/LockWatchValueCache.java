@@ -0,0 +1,324 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.codahale.metrics.Counter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.SetMultimap;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchFailedException;
+import com.palantir.atlasdb.util.MetricsManager;
+import com.palantir.lock.AtlasLockDescriptorRanges;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.LockWatchVersion;
+import com.palantir.lock.watch.TransactionsLockWatchUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+import com.palantir.logsafe.SafeArg;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A versioned cache of committed values for tables that are watched in their entirety.
+ * <p>
+ * The cache follows the lock watch event log of the {@link LockWatchEventCache}: every lock or unlock event on a cell
+ * or row descriptor evicts the cached values below it. A value read by a transaction is only admitted if no lock
+ * event for the cell has occurred since the lock watch version of that transaction and the cell is not currently
+ * locked, and it is only served to transactions whose version is at least the version it was admitted at. As every
+ * transaction first brings the cache up to its own version, this guarantees that a value served from the cache is the
+ * latest value committed before the start timestamp of the reading transaction.
+ */
+final class LockWatchValueCache {
+    private static final Logger log = LoggerFactory.getLogger(LockWatchValueCache.class);
+
+    // This value should be the same as in LockWatchEventCacheImpl.
+    private static final int MAX_RETAINED_EVENTS = 1000;
+
+    private final LockWatchEventCache eventCache;
+    private final MetricsManager metricsManager;
+    private final LongSupplier maxCacheSize;
+
+    @GuardedBy("this")
+    private Optional<LockWatchVersion> currentVersion = Optional.empty();
+
+    @GuardedBy("this")
+    private final Map<Range<LockDescriptor>, Long> watchedRanges = new HashMap<>();
+
+    @GuardedBy("this")
+    private final Set<LockDescriptor> lockedDescriptors = new HashSet<>();
+
+    @GuardedBy("this")
+    private final NavigableMap<Long, Set<LockDescriptor>> recentEvents = new TreeMap<>();
+
+    @GuardedBy("this")
+    private long earliestRetainedVersion = Long.MIN_VALUE;
+
+    @GuardedBy("this")
+    private final LinkedHashMap<CellReference, CacheEntry> values = new LinkedHashMap<>(16, 0.75f, true);
+
+    @GuardedBy("this")
+    private final SetMultimap<LockDescriptor, CellReference> cellsByDescriptor = HashMultimap.create();
+
+    private final EventVisitor eventVisitor = new EventVisitor();
+
+    LockWatchValueCache(LockWatchEventCache eventCache, MetricsManager metricsManager, LongSupplier maxCacheSize) {
+        this.eventCache = eventCache;
+        this.metricsManager = metricsManager;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Brings the cache up to date with the lock watch version of the given start timestamp, and returns that version.
+     * Returns an empty optional if the timestamp is unknown to the event cache, in which case the transaction must not
+     * use the value cache.
+     */
+    synchronized Optional<LockWatchVersion> updateToTransactionVersion(long startTs) {
+        Optional<LockWatchVersion> transactionVersion = eventCache.getStartTransactionVersion(startTs);
+        if (!transactionVersion.isPresent()) {
+            return Optional.empty();
+        }
+
+        LockWatchVersion version = transactionVersion.get();
+        if (isAtLeast(currentVersion, version)) {
+            return transactionVersion;
+        }
+
+        Optional<LockWatchVersion> lastKnownVersion =
+                currentVersion.filter(current -> current.id().equals(version.id()));
+        try {
+            processUpdate(eventCache.getUpdateForTransactions(ImmutableSet.of(startTs), lastKnownVersion), version);
+            return transactionVersion;
+        } catch (TransactionLockWatchFailedException e) {
+            log.info(
+                    "Failed to update the lock watch value cache; values will not be cached for this transaction",
+                    SafeArg.of("startTs", startTs),
+                    e);
+            clear();
+            return Optional.empty();
+        }
+    }
+
+    synchronized boolean isCacheable(TableReference tableRef, LockWatchVersion version) {
+        if (!isSameLog(version)) {
+            return false;
+        }
+        Range<LockDescriptor> tableRange = AtlasLockDescriptorRanges.fullTable(tableRef.getQualifiedName());
+        return watchedRanges.entrySet().stream()
+                .anyMatch(entry -> entry.getValue() <= version.version() && entry.getKey().encloses(tableRange));
+    }
+
+    synchronized Map<Cell, byte[]> get(TableReference tableRef, Set<Cell> cells, LockWatchVersion version) {
+        if (!isSameLog(version)) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<Cell, byte[]> hits = ImmutableMap.builder();
+        for (Cell cell : cells) {
+            CacheEntry entry = values.get(CellReference.of(tableRef, cell));
+            if (entry != null && entry.version <= version.version()) {
+                hits.put(cell, entry.value);
+            }
+        }
+        return hits.build();
+    }
+
+    /**
+     * Admits values read by a transaction at the given version. Values for cells that were locked at that version, or
+     * that have been locked or unlocked since, are discarded.
+     */
+    synchronized void putAll(TableReference tableRef, Map<Cell, byte[]> reads, LockWatchVersion version) {
+        if (!isSameLog(version) || version.version() < earliestRetainedVersion) {
+            return;
+        }
+        Set<LockDescriptor> changedSinceRead = new HashSet<>();
+        recentEvents.tailMap(version.version(), false).values().forEach(changedSinceRead::addAll);
+
+        reads.forEach((cell, value) -> {
+            CellReference cellReference = CellReference.of(tableRef, cell);
+            if (isLockedOrChanged(cellReference, changedSinceRead)) {
+                return;
+            }
+            CacheEntry existing = values.get(cellReference);
+            if (existing == null || existing.version > version.version()) {
+                values.put(cellReference, new CacheEntry(value, version.version()));
+                cellsByDescriptor.put(cellReference.cellDescriptor(), cellReference);
+                cellsByDescriptor.put(cellReference.rowDescriptor(), cellReference);
+            }
+        });
+        evictIfNecessary();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return values.size();
+    }
+
+    @GuardedBy("this")
+    private void processUpdate(TransactionsLockWatchUpdate update, LockWatchVersion targetVersion) {
+        if (update.clearCache() || !isSameLog(targetVersion)) {
+            clear();
+        }
+        long lastProcessedVersion = currentVersion.map(LockWatchVersion::version).orElse(Long.MIN_VALUE);
+        update.events().stream()
+                .filter(event -> event.sequence() > lastProcessedVersion)
+                .forEach(event -> event.accept(eventVisitor));
+        currentVersion = Optional.of(targetVersion);
+        retainRecentEvents();
+    }
+
+    @GuardedBy("this")
+    private boolean isLockedOrChanged(CellReference cellReference, Set<LockDescriptor> changedSinceRead) {
+        return lockedDescriptors.contains(cellReference.cellDescriptor())
+                || lockedDescriptors.contains(cellReference.rowDescriptor())
+                || changedSinceRead.contains(cellReference.cellDescriptor())
+                || changedSinceRead.contains(cellReference.rowDescriptor());
+    }
+
+    @GuardedBy("this")
+    private boolean isSameLog(LockWatchVersion version) {
+        return currentVersion.filter(current -> current.id().equals(version.id())).isPresent();
+    }
+
+    @GuardedBy("this")
+    private void invalidate(Set<LockDescriptor> descriptors) {
+        Map<TableReference, Long> invalidatedByTable = new HashMap<>();
+        for (LockDescriptor descriptor : descriptors) {
+            for (CellReference cellReference : cellsByDescriptor.removeAll(descriptor)) {
+                if (removeEntry(cellReference)) {
+                    invalidatedByTable.merge(cellReference.tableRef(), 1L, Long::sum);
+                }
+            }
+        }
+        invalidatedByTable.forEach((tableRef, count) -> getCounter("invalidations", tableRef).inc(count));
+    }
+
+    @GuardedBy("this")
+    private boolean removeEntry(CellReference cellReference) {
+        cellsByDescriptor.remove(cellReference.cellDescriptor(), cellReference);
+        cellsByDescriptor.remove(cellReference.rowDescriptor(), cellReference);
+        return values.remove(cellReference) != null;
+    }
+
+    @GuardedBy("this")
+    private void evictIfNecessary() {
+        long maxSize = maxCacheSize.getAsLong();
+        Iterator<CellReference> leastRecentlyUsed = values.keySet().iterator();
+        while (values.size() > maxSize && leastRecentlyUsed.hasNext()) {
+            CellReference cellReference = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            cellsByDescriptor.remove(cellReference.cellDescriptor(), cellReference);
+            cellsByDescriptor.remove(cellReference.rowDescriptor(), cellReference);
+            getCounter("evictions", cellReference.tableRef()).inc();
+        }
+    }
+
+    @GuardedBy("this")
+    private void recordEvent(long sequence, Set<LockDescriptor> descriptors) {
+        recentEvents.put(sequence, descriptors);
+        invalidate(descriptors);
+    }
+
+    @GuardedBy("this")
+    private void retainRecentEvents() {
+        while (recentEvents.size() > MAX_RETAINED_EVENTS) {
+            earliestRetainedVersion = recentEvents.pollFirstEntry().getKey();
+        }
+    }
+
+    @GuardedBy("this")
+    private void clear() {
+        currentVersion = Optional.empty();
+        watchedRanges.clear();
+        lockedDescriptors.clear();
+        recentEvents.clear();
+        earliestRetainedVersion = Long.MIN_VALUE;
+        values.clear();
+        cellsByDescriptor.clear();
+    }
+
+    private Counter getCounter(String name, TableReference tableRef) {
+        return metricsManager.registerOrGetTaggedCounter(
+                LockWatchValueCache.class, name, metricsManager.getTableNameTagFor(tableRef));
+    }
+
+    private static boolean isAtLeast(Optional<LockWatchVersion> current, LockWatchVersion target) {
+        return current.filter(version -> version.id().equals(target.id()))
+                .filter(version -> version.version() >= target.version())
+                .isPresent();
+    }
+
+    private static final class CacheEntry {
+        private final byte[] value;
+        private final long version;
+
+        private CacheEntry(byte[] value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private final class EventVisitor implements LockWatchEvent.Visitor<Void> {
+        @Override
+        public Void visit(LockEvent lockEvent) {
+            synchronized (LockWatchValueCache.this) {
+                lockedDescriptors.addAll(lockEvent.lockDescriptors());
+                recordEvent(lockEvent.sequence(), lockEvent.lockDescriptors());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(UnlockEvent unlockEvent) {
+            synchronized (LockWatchValueCache.this) {
+                lockedDescriptors.removeAll(unlockEvent.lockDescriptors());
+                recordEvent(unlockEvent.sequence(), unlockEvent.lockDescriptors());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LockWatchCreatedEvent lockWatchCreatedEvent) {
+            synchronized (LockWatchValueCache.this) {
+                lockWatchCreatedEvent.references().stream()
+                        .map(reference -> reference.accept(LockWatchReferences.TO_RANGES_VISITOR))
+                        .forEach(range -> watchedRanges.putIfAbsent(range, lockWatchCreatedEvent.sequence()));
+                lockedDescriptors.addAll(lockWatchCreatedEvent.lockDescriptors());
+                recordEvent(lockWatchCreatedEvent.sequence(), lockWatchCreatedEvent.lockDescriptors());
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.util.MetricsManager;
+import com.palantir.lock.watch.LockWatchVersion;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+final class TransactionScopedCacheImpl implements TransactionScopedCache {
+    private final LockWatchValueCache valueCache;
+    private final LockWatchVersion version;
+    private final MetricsManager metricsManager;
+    private final ConcurrentMap<TableReference, Boolean> cacheableTables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TableReference, Map<Cell, byte[]>> remoteReads = new ConcurrentHashMap<>();
+
+    TransactionScopedCacheImpl(
+            LockWatchValueCache valueCache, LockWatchVersion version, MetricsManager metricsManager) {
+        this.valueCache = valueCache;
+        this.version = version;
+        this.metricsManager = metricsManager;
+    }
+
+    @Override
+    public boolean isCacheable(TableReference tableRef) {
+        return cacheableTables.computeIfAbsent(tableRef, table -> valueCache.isCacheable(table, version));
+    }
+
+    @Override
+    public Map<Cell, byte[]> get(TableReference tableRef, Set<Cell> cells) {
+        if (cells.isEmpty() || !isCacheable(tableRef)) {
+            return ImmutableMap.of();
+        }
+        Map<Cell, byte[]> hits = valueCache.get(tableRef, cells, version);
+        markHitsAndMisses(tableRef, hits.size(), cells.size() - hits.size());
+        return hits;
+    }
+
+    @Override
+    public void cacheRemoteReads(TableReference tableRef, Set<Cell> cells, Map<Cell, byte[]> values) {
+        if (cells.isEmpty() || !isCacheable(tableRef)) {
+            return;
+        }
+        Map<Cell, byte[]> readsForTable = remoteReads.computeIfAbsent(tableRef, _table -> new ConcurrentHashMap<>());
+        for (Cell cell : cells) {
+            readsForTable.put(cell, values.getOrDefault(cell, PtBytes.EMPTY_BYTE_ARRAY));
+        }
+    }
+
+    @Override
+    public void onCommit(Map<TableReference, Set<Cell>> writtenCells) {
+        remoteReads.forEach((tableRef, reads) -> {
+            Set<Cell> writtenToTable = writtenCells.getOrDefault(tableRef, ImmutableSet.of());
+            valueCache.putAll(tableRef, Maps.filterKeys(reads, cell -> !writtenToTable.contains(cell)), version);
+        });
+        remoteReads.clear();
+    }
+
+    private void markHitsAndMisses(TableReference tableRef, long hits, long misses) {
+        Map<String, String> tags = metricsManager.getTableNameTagFor(tableRef);
+        metricsManager
+                .registerOrGetTaggedCounter(LockWatchValueCache.class, "hits", tags)
+                .inc(hits);
+        metricsManager
+                .registerOrGetTaggedCounter(LockWatchValueCache.class, "misses", tags)
+                .inc(misses);
+    }
+}
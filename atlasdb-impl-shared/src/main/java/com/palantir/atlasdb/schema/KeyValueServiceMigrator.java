@@ -16,17 +16,13 @@
 package com.palantir.atlasdb.schema;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.table.description.RowNamePartitioner;
-import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.concurrent.PTExecutors;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -195,7 +191,7 @@ public class KeyValueServiceMigrator {
             TableMigratorBuilder builder = new TableMigratorBuilder()
                     .srcTable(table)
                     .partitions(PARTITIONS)
-                    .partitioners(getPartitioners(fromKvs, table))
+                    .partitioners(KeyValueServiceMigratorUtils.getPartitioners(fromKvs, table, messageProcessor))
                     .readBatchSize(getBatchSize(table))
                     .executor(executor)
                     .checkpointer(checkpointer)
@@ -206,22 +202,6 @@ public class KeyValueServiceMigrator {
         }
     }
 
-    private List<RowNamePartitioner> getPartitioners(KeyValueService kvs, TableReference table) {
-        try {
-            byte[] metadata = kvs.getMetadataForTable(table);
-            TableMetadata tableMeta = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata);
-            return tableMeta.getRowMetadata().getPartitionersForRow();
-        } catch (RuntimeException e) {
-            processMessage(
-                    "Could not resolve partitioners from table metadata for "
-                            + table
-                            + " this may result in a small decrease in performance migrating this table.",
-                    e,
-                    KvsMigrationMessageLevel.WARN);
-            return ImmutableList.of();
-        }
-    }
-
     private int getBatchSize(TableReference table) {
         Integer batchSize = readBatchSizeOverrides.get(table);
         return batchSize != null ? batchSize : defaultBatchSize;
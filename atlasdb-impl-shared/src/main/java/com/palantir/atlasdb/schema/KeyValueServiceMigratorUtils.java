@@ -15,20 +15,25 @@
  */
 package com.palantir.atlasdb.schema;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.schema.KeyValueServiceMigrator.KvsMigrationMessageLevel;
 import com.palantir.atlasdb.schema.KeyValueServiceMigrator.KvsMigrationMessageProcessor;
+import com.palantir.atlasdb.table.description.RowNamePartitioner;
+import com.palantir.atlasdb.table.description.TableMetadata;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public final class KeyValueServiceMigratorUtils {
 
     public static final String CHECKPOINT_TABLE_NAME = "tmp_migrate_progress";
+    public static final String VALIDATION_CHECKPOINT_TABLE_NAME = "tmp_validate_progress";
 
     private KeyValueServiceMigratorUtils() {
         // Utility class
@@ -64,6 +69,28 @@ public final class KeyValueServiceMigratorUtils {
         return tableNames;
     }
 
+    /**
+     * Returns the row name partitioners of the given table, which are used to split it into ranges that can be
+     * migrated or validated in parallel, or no partitioners if they cannot be resolved from the table metadata.
+     */
+    public static List<RowNamePartitioner> getPartitioners(
+            KeyValueService kvs, TableReference table, KvsMigrationMessageProcessor messageProcessor) {
+        try {
+            byte[] metadata = kvs.getMetadataForTable(table);
+            TableMetadata tableMeta = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata);
+            return tableMeta.getRowMetadata().getPartitionersForRow();
+        } catch (RuntimeException e) {
+            processMessage(
+                    messageProcessor,
+                    "Could not resolve partitioners from table metadata for "
+                            + table
+                            + " this may result in a small decrease in performance migrating this table.",
+                    e,
+                    KvsMigrationMessageLevel.WARN);
+            return ImmutableList.of();
+        }
+    }
+
     public static void processMessage(
             KvsMigrationMessageProcessor messageProcessor, String string, KvsMigrationMessageLevel level) {
         messageProcessor.processMessage(string, level);
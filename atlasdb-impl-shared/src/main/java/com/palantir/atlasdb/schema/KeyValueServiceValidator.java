@@ -16,9 +16,14 @@
 package com.palantir.atlasdb.schema;
 
 import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -33,6 +38,7 @@ import com.palantir.common.base.Throwables;
 import com.palantir.common.concurrent.PTExecutors;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +46,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 public class KeyValueServiceValidator {
+    private static final int PARTITIONS = 256;
+
     private final TransactionManager validationFromTransactionManager;
     private final TransactionManager validationToTransactionManager;
     private final KeyValueService validationFromKvs;
@@ -93,6 +101,135 @@ public class KeyValueServiceValidator {
         }
     }
 
+    /**
+     * Validates that every table has the same contents on both sides, without reading both sides of a table in full
+     * unless they differ.
+     *
+     * Each table is split into the same row ranges that {@link KeyValueServiceMigrator} migrates, and the ranges are
+     * validated in parallel. For each range, the rows on each side are read page by page and hashed into a digest, and
+     * only if the digests differ are the two sides of that range compared cell by cell, which reports the differing
+     * cells. Ranges that have been validated are checkpointed in the given namespace, so that a validation that fails
+     * or is interrupted can be rerun without revalidating them. The checkpoints are deleted once every table has been
+     * validated.
+     */
+    public void validateByPartitionDigests(boolean logOnly, Namespace checkpointNamespace) {
+        Set<TableReference> tables =
+                KeyValueServiceValidators.getValidatableTableNames(validationFromKvs, unmigratableTables);
+        AbstractTaskCheckpointer checkpointer = new GeneralTaskCheckpointer(
+                TableReference.create(
+                        checkpointNamespace, KeyValueServiceMigratorUtils.VALIDATION_CHECKPOINT_TABLE_NAME),
+                validationToTransactionManager.getKeyValueService(),
+                validationToTransactionManager);
+        ExecutorService executor = PTExecutors.newFixedThreadPool(threads);
+        try {
+            for (TableReference table : tables) {
+                validateTableByPartitionDigests(table, checkpointer, executor);
+            }
+            checkpointer.deleteCheckpoints();
+        } catch (Throwable t) {
+            KeyValueServiceMigratorUtils.processMessage(
+                    messageProcessor, "Validation failed.", t, KvsMigrationMessageLevel.ERROR);
+            if (!logOnly) {
+                throw Throwables.throwUncheckedException(t);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void validateTableByPartitionDigests(
+            TableReference table, AbstractTaskCheckpointer checkpointer, ExecutorService executor) {
+        List<byte[]> rangeBoundaries = TableMigrator.getRangeBoundaries(
+                KeyValueServiceMigratorUtils.getPartitioners(validationFromKvs, table, messageProcessor), PARTITIONS);
+        Map<Long, byte[]> boundaryById = new HashMap<>();
+        for (long rangeId = 0; rangeId < rangeBoundaries.size() - 1; rangeId++) {
+            boundaryById.put(rangeId, rangeBoundaries.get((int) rangeId));
+        }
+        checkpointer.createCheckpoints(table.getQualifiedName(), boundaryById);
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (long rangeId = 0; rangeId < rangeBoundaries.size() - 1; rangeId++) {
+            long id = rangeId;
+            RangeRequest range = RangeRequest.builder()
+                    .startRowInclusive(rangeBoundaries.get((int) rangeId))
+                    .endRowExclusive(rangeBoundaries.get((int) rangeId + 1))
+                    .batchHint(getBatchSize(table))
+                    .build();
+            futures.add(executor.submit(() -> {
+                try {
+                    validateRange(table, range, id, checkpointer);
+                } catch (RuntimeException e) {
+                    throw Throwables.rewrapAndThrowUncheckedException(
+                            "Exception while validating range " + id + " of " + table, e);
+                }
+                return null;
+            }));
+        }
+
+        futures.forEach(Futures::getUnchecked);
+        KeyValueServiceMigratorUtils.processMessage(
+                messageProcessor, "Validated " + table, KvsMigrationMessageLevel.INFO);
+    }
+
+    private void validateRange(
+            TableReference table, RangeRequest range, long rangeId, AbstractTaskCheckpointer checkpointer) {
+        String checkpointId = table.getQualifiedName();
+        boolean alreadyValidated = validationToTransactionManager.runTaskWithRetry(
+                t -> checkpointer.getCheckpoint(checkpointId, rangeId, t) == null);
+        if (alreadyValidated) {
+            return;
+        }
+
+        HashCode fromDigest = digestRange(validationFromTransactionManager, table, range);
+        HashCode toDigest = digestRange(validationToTransactionManager, table, range);
+        if (!fromDigest.equals(toDigest)) {
+            KeyValueServiceMigratorUtils.processMessage(
+                    messageProcessor,
+                    "Digests of range " + rangeId + " of " + table + " differ, comparing the range in full.",
+                    KvsMigrationMessageLevel.WARN);
+            byte[] nextRowName = range.getStartInclusive();
+            while (nextRowName != null) {
+                nextRowName = validateNextBatchOfRows(table, range, nextRowName);
+            }
+        }
+
+        validationToTransactionManager.runTaskWithRetry(t -> {
+            checkpointer.checkpoint(checkpointId, rangeId, PtBytes.EMPTY_BYTE_ARRAY, t);
+            return null;
+        });
+    }
+
+    /**
+     * Rows are hashed outside of the transactions reading them, so that a retried read is not hashed twice.
+     */
+    private static HashCode digestRange(TransactionManager txManager, TableReference table, RangeRequest range) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        byte[] nextRowName = range.getStartInclusive();
+        while (nextRowName != null) {
+            RangeRequest.Builder builder = range.getBuilder().startRowInclusive(nextRowName);
+            if (builder.isInvalidRange()) {
+                break;
+            }
+            RangeRequest page = builder.build();
+            // read only, but need to use a write tx in case the source table has SweepStrategy.THOROUGH
+            List<RowResult<byte[]>> rows = txManager.runTaskWithRetry(t ->
+                    BatchingVisitableView.of(t.getRange(table, page)).limit(page.getBatchHint()).immutableCopy());
+            for (RowResult<byte[]> row : rows) {
+                for (Map.Entry<Cell, byte[]> cell : row.getCells()) {
+                    putLengthPrefixed(hasher, cell.getKey().getRowName());
+                    putLengthPrefixed(hasher, cell.getKey().getColumnName());
+                    putLengthPrefixed(hasher, cell.getValue());
+                }
+            }
+            nextRowName = getNextRowName(rows);
+        }
+        return hasher.hash();
+    }
+
+    private static void putLengthPrefixed(Hasher hasher, byte[] bytes) {
+        hasher.putInt(bytes.length).putBytes(bytes);
+    }
+
     private void validateTables(Set<TableReference> tables) {
         ExecutorService executor = PTExecutors.newFixedThreadPool(threads);
         List<Future<Void>> futures = new ArrayList<>();
@@ -116,23 +253,24 @@ public class KeyValueServiceValidator {
         // read only, but need to use a write tx in case the source table has SweepStrategy.THOROUGH
         byte[] nextRowName = new byte[0];
         while (nextRowName != null) {
-            nextRowName = validateNextBatchOfRows(table, limit, nextRowName);
+            nextRowName = validateNextBatchOfRows(
+                    table, RangeRequest.builder().batchHint(limit).build(), nextRowName);
         }
         KeyValueServiceMigratorUtils.processMessage(
                 messageProcessor, "Validated " + table, KvsMigrationMessageLevel.INFO);
     }
 
-    private byte[] validateNextBatchOfRows(TableReference table, int limit, byte[] nextRowName) {
+    private byte[] validateNextBatchOfRows(TableReference table, RangeRequest range, byte[] nextRowName) {
+        RangeRequest.Builder builder = range.getBuilder().startRowInclusive(nextRowName);
+        if (builder.isInvalidRange()) {
+            return null;
+        }
+        RangeRequest page = builder.build();
         try {
             // read only, but need to use a write tx in case the source table has SweepStrategy.THOROUGH
             return validationFromTransactionManager.runTaskWithRetry(
-                    t1 -> validationToTransactionManager.runTaskWithRetry(t2 -> {
-                        RangeRequest range = RangeRequest.builder()
-                                .batchHint(limit)
-                                .startRowInclusive(nextRowName)
-                                .build();
-                        return validateAndGetNextRowName(table, limit, t1, t2, range);
-                    }));
+                    t1 -> validationToTransactionManager.runTaskWithRetry(
+                            t2 -> validateAndGetNextRowName(table, page.getBatchHint(), t1, t2, page)));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -150,11 +288,15 @@ public class KeyValueServiceValidator {
 
         validateEquality(cells1, cells2);
 
-        if (rrs1.isEmpty()) {
+        return getNextRowName(rrs1);
+    }
+
+    private static byte[] getNextRowName(List<RowResult<byte[]>> rows) {
+        if (rows.isEmpty()) {
             return null;
         }
 
-        byte[] lastRow = rrs1.get(rrs1.size() - 1).getRowName();
+        byte[] lastRow = rows.get(rows.size() - 1).getRowName();
         if (RangeRequests.isLastRowName(lastRow)) {
             return null;
         }
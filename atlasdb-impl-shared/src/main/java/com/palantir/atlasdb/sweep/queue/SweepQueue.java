@@ -29,6 +29,7 @@ import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
 import com.palantir.atlasdb.transaction.impl.TimelockTimestampServiceAdapter;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionServices;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.logsafe.SafeArg;
 import java.util.List;
@@ -174,6 +175,15 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
         return numShards.get();
     }
 
+    /**
+     * Stops the threads used to read partitions of the queue concurrently. The queue cannot be swept after it is
+     * closed, though it can still be written to.
+     */
+    @Override
+    public void close() {
+        reader.close();
+    }
+
     private static final class SweepQueueFactory {
         private final ShardProgress progress;
         private final Supplier<Integer> numShards;
@@ -246,11 +256,15 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
         }
 
         private SweepQueueWriter createWriter() {
-            return new SweepQueueWriter(timestamps, cells, partitioner);
+            return new SweepQueueWriter(kvs, timestamps, cells, partitioner);
         }
 
         private SweepQueueReader createReader() {
-            return new SweepQueueReader(timestamps, cells, readBatchingRuntimeContext);
+            return new SweepQueueReader(
+                    timestamps,
+                    cells,
+                    readBatchingRuntimeContext,
+                    () -> PTExecutors.newCachedThreadPool("targeted-sweep-partition-reader"));
         }
 
         private SweepQueueDeleter createDeleter(TargetedSweepFollower follower) {
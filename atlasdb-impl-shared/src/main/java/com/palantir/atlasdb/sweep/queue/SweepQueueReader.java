@@ -15,44 +15,125 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
-import java.util.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.GuardedBy;
+import org.immutables.value.Value;
 import org.immutables.value.Value.Immutable;
 
+/**
+ * Reads batches of writes to sweep from the sweep queue, accumulating fine partitions in timestamp order until the
+ * limits of the {@link ReadBatchingRuntimeContext} are reached.
+ *
+ * Fine partitions are read in rounds: each round finds the next few sweepable partitions with one read of the
+ * Sweepable Timestamps table, and then reads their entries in the Sweepable Cells table concurrently. The batches
+ * are accumulated in partition order, stopping at the first that leaves the accumulator unable to accept another, so
+ * the result is the same as reading the partitions one at a time. Each batch is read with the progress at the start
+ * of its round as its lower bound, which is equivalent to the progress after the previous partition, as none of the
+ * entries of a partition come before the end of the previous one.
+ */
 public class SweepQueueReader {
     private final SweepableTimestamps sweepableTimestamps;
     private final SweepableCells sweepableCells;
     private final ReadBatchingRuntimeContext runtime;
+    private final Supplier<ExecutorService> partitionReadExecutorFactory;
+
+    @GuardedBy("this")
+    private ExecutorService partitionReadExecutor;
+
+    @GuardedBy("this")
+    private boolean closed = false;
 
     SweepQueueReader(
             SweepableTimestamps sweepableTimestamps,
             SweepableCells sweepableCells,
-            ReadBatchingRuntimeContext runtime) {
+            ReadBatchingRuntimeContext runtime,
+            Supplier<ExecutorService> partitionReadExecutorFactory) {
         this.sweepableTimestamps = sweepableTimestamps;
         this.sweepableCells = sweepableCells;
         this.runtime = runtime;
+        this.partitionReadExecutorFactory = partitionReadExecutorFactory;
     }
 
     SweepBatchWithPartitionInfo getNextBatchToSweep(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs) {
         SweepBatchAccumulator accumulator =
                 new SweepBatchAccumulator(sweepTs, runtime.cellsThreshold().getAsInt(), lastSweptTs);
         long previousProgress = lastSweptTs;
-        for (int currentBatch = 0;
-                currentBatch < runtime.maximumPartitions().getAsInt() && accumulator.shouldAcceptAdditionalBatch();
-                currentBatch++) {
-            Optional<Long> nextFinePartition =
-                    sweepableTimestamps.nextSweepableTimestampPartition(shardStrategy, previousProgress, sweepTs);
-            if (!nextFinePartition.isPresent()) {
+        int remainingPartitions = runtime.maximumPartitions().getAsInt();
+        while (remainingPartitions > 0 && accumulator.shouldAcceptAdditionalBatch()) {
+            int partitionsToRead = Math.min(
+                    remainingPartitions, Math.max(1, runtime.maximumPartitionsToReadInParallel().getAsInt()));
+            List<Long> nextFinePartitions = sweepableTimestamps.nextSweepableTimestampPartitions(
+                    shardStrategy, previousProgress, sweepTs, partitionsToRead);
+            if (nextFinePartitions.isEmpty()) {
                 return accumulator.toSweepBatch();
             }
-            SweepBatch batch = sweepableCells.getBatchForPartition(
-                    shardStrategy, nextFinePartition.get(), previousProgress, sweepTs);
-            accumulator.accumulateBatch(batch);
+            List<Future<SweepBatch>> batches =
+                    readBatchesForPartitions(shardStrategy, nextFinePartitions, previousProgress, sweepTs);
+            for (Future<SweepBatch> batch : batches) {
+                if (accumulator.shouldAcceptAdditionalBatch()) {
+                    accumulator.accumulateBatch(AtlasFutures.getUnchecked(batch));
+                    remainingPartitions--;
+                } else {
+                    batch.cancel(false);
+                }
+            }
             previousProgress = accumulator.getProgressTimestamp();
         }
         return accumulator.toSweepBatch();
     }
 
+    /**
+     * The first partition is read on the calling thread, as its batch is always needed, and the others are read
+     * concurrently on the executor.
+     */
+    private List<Future<SweepBatch>> readBatchesForPartitions(
+            ShardAndStrategy shardStrategy, List<Long> finePartitions, long previousProgress, long sweepTs) {
+        List<Future<SweepBatch>> batches = new ArrayList<>(finePartitions.size());
+        if (finePartitions.size() > 1) {
+            ExecutorService executor = getPartitionReadExecutor();
+            for (Long finePartition : finePartitions.subList(1, finePartitions.size())) {
+                batches.add(executor.submit(() ->
+                        sweepableCells.getBatchForPartition(shardStrategy, finePartition, previousProgress, sweepTs)));
+            }
+        }
+        try {
+            SweepBatch firstBatch = sweepableCells.getBatchForPartition(
+                    shardStrategy, finePartitions.get(0), previousProgress, sweepTs);
+            batches.add(0, Futures.immediateFuture(firstBatch));
+        } catch (RuntimeException e) {
+            batches.forEach(batch -> batch.cancel(false));
+            throw e;
+        }
+        return batches;
+    }
+
+    /**
+     * The executor is created when partitions are first read concurrently, so that no threads are created while
+     * partitions are read one at a time.
+     */
+    private synchronized ExecutorService getPartitionReadExecutor() {
+        Preconditions.checkState(!closed, "The sweep queue reader has been closed");
+        if (partitionReadExecutor == null) {
+            partitionReadExecutor = partitionReadExecutorFactory.get();
+        }
+        return partitionReadExecutor;
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (partitionReadExecutor != null) {
+            partitionReadExecutor.shutdownNow();
+        }
+    }
+
     public static final ReadBatchingRuntimeContext DEFAULT_READ_BATCHING_RUNTIME_CONTEXT =
             ReadBatchingRuntimeContext.builder()
                     .maximumPartitions(() -> 1)
@@ -66,6 +147,11 @@ public class SweepQueueReader {
 
         IntSupplier cellsThreshold();
 
+        @Value.Default
+        default IntSupplier maximumPartitionsToReadInParallel() {
+            return () -> 1;
+        }
+
         static ImmutableReadBatchingRuntimeContext.Builder builder() {
             return ImmutableReadBatchingRuntimeContext.builder();
         }
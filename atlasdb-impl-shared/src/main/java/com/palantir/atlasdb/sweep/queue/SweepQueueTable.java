@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Streams;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
@@ -50,34 +51,56 @@ public abstract class SweepQueueTable {
         this.maybeMetrics = Optional.ofNullable(metrics);
     }
 
+    /**
+     * Writes the given writes to this table of the queue alone. The queue is written through {@link SweepQueueWriter},
+     * which writes all of its tables in one call; this remains so that tests can populate a single table.
+     */
+    @VisibleForTesting
     public void enqueue(List<WriteInfo> allWrites) {
-        Map<Cell, byte[]> referencesToDedicatedCells = new HashMap<>();
-        Map<Cell, byte[]> cellsToWrite = new HashMap<>();
         Map<PartitionInfo, List<WriteInfo>> partitionedWrites = partitioner.filterAndPartition(allWrites);
 
         SweepQueueUtils.validateNumberOfCellsWritten(partitionedWrites.values());
 
-        partitionedWrites.forEach((partitionInfo, writes) -> {
-            referencesToDedicatedCells.putAll(populateReferences(partitionInfo, writes));
-            cellsToWrite.putAll(populateCells(partitionInfo, writes));
+        SweepQueueUtils.maxTimestamp(partitionedWrites).ifPresent(timestamp -> {
+            write(allReferences(partitionedWrites), timestamp);
+            write(allCells(partitionedWrites), timestamp);
+            updateWriteMetrics(partitionedWrites);
         });
+    }
 
-        partitionedWrites.keySet().stream()
-                .map(PartitionInfo::timestamp)
-                .mapToLong(x -> x)
-                .max()
-                .ifPresent(timestamp -> {
-                    write(referencesToDedicatedCells, timestamp);
-                    write(cellsToWrite, timestamp);
-                    updateWriteMetrics(partitionedWrites);
-                });
+    /**
+     * Adds the cells persisting the given writes to cellsByTable, under the table of this queue, so that they can be
+     * written in the same call to the kvs as the cells of the other tables of the queue. Both the references and the
+     * cells they refer to are added; they never share a cell, so they can be written together.
+     */
+    void addCellsToWrite(
+            Map<PartitionInfo, List<WriteInfo>> partitionedWrites,
+            Map<TableReference, Map<Cell, byte[]>> cellsByTable) {
+        Map<Cell, byte[]> cellsToWrite = allReferences(partitionedWrites);
+        cellsToWrite.putAll(allCells(partitionedWrites));
+        if (!cellsToWrite.isEmpty()) {
+            cellsByTable.put(tableRef, cellsToWrite);
+        }
     }
 
-    private void updateWriteMetrics(Map<PartitionInfo, List<WriteInfo>> partitionedWrites) {
+    void updateWriteMetrics(Map<PartitionInfo, List<WriteInfo>> partitionedWrites) {
         maybeMetrics.ifPresent(metrics -> partitionedWrites.forEach(
                 (info, writes) -> metrics.updateEnqueuedWrites(ShardAndStrategy.fromInfo(info), writes.size())));
     }
 
+    private Map<Cell, byte[]> allReferences(Map<PartitionInfo, List<WriteInfo>> partitionedWrites) {
+        Map<Cell, byte[]> referencesToDedicatedCells = new HashMap<>();
+        partitionedWrites.forEach((partitionInfo, writes) ->
+                referencesToDedicatedCells.putAll(populateReferences(partitionInfo, writes)));
+        return referencesToDedicatedCells;
+    }
+
+    private Map<Cell, byte[]> allCells(Map<PartitionInfo, List<WriteInfo>> partitionedWrites) {
+        Map<Cell, byte[]> cellsToWrite = new HashMap<>();
+        partitionedWrites.forEach((partitionInfo, writes) -> cellsToWrite.putAll(populateCells(partitionInfo, writes)));
+        return cellsToWrite;
+    }
+
     /**
      * Returns a map representing all the map entries that act as references to entries returned by
      * {@link #populateCells(PartitionInfo, List)}. Necessary to allow batched writes.
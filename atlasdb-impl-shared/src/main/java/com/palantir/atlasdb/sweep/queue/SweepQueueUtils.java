@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
 
 public final class SweepQueueUtils {
@@ -103,6 +104,16 @@ public final class SweepQueueUtils {
         });
     }
 
+    /**
+     * Returns the timestamp at which the sweep queue entries for the given writes are written to the kvs, if there are
+     * any writes.
+     */
+    public static OptionalLong maxTimestamp(Map<PartitionInfo, List<WriteInfo>> partitionedWrites) {
+        return partitionedWrites.keySet().stream()
+                .mapToLong(PartitionInfo::timestamp)
+                .max();
+    }
+
     private static ColumnRangeSelection allPossibleColumns() {
         byte[] startCol = SweepableCellsTable.SweepableCellsColumn.of(0L, MINIMUM_WRITE_INDEX)
                 .persistToBytes();
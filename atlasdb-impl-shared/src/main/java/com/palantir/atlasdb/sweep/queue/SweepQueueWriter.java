@@ -15,23 +15,42 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
 import com.palantir.logsafe.SafeArg;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Writes the entries of the sweep queue for a batch of writes to both {@link SweepableTimestamps} and
+ * {@link SweepableCells} in a single call to the kvs, so that enqueueing costs a transaction one round trip before it
+ * writes its values, rather than one per table of the queue.
+ *
+ * The entries of the two tables are not written atomically, but this does not matter: sweep only reads the entries of
+ * a transaction once its start timestamp is below the sweep timestamp, and so once it has finished committing, by
+ * which point enqueueing has completed.
+ */
 class SweepQueueWriter implements MultiTableSweepQueueWriter {
     private static final Logger log = LoggerFactory.getLogger(SweepQueueWriter.class);
 
+    private final KeyValueService kvs;
     private final SweepableTimestamps sweepableTimestamps;
     private final SweepableCells sweepableCells;
     private final WriteInfoPartitioner partitioner;
 
     SweepQueueWriter(
-            SweepableTimestamps sweepableTimestamps, SweepableCells sweepableCells, WriteInfoPartitioner partitioner) {
+            KeyValueService kvs,
+            SweepableTimestamps sweepableTimestamps,
+            SweepableCells sweepableCells,
+            WriteInfoPartitioner partitioner) {
+        this.kvs = kvs;
         this.sweepableTimestamps = sweepableTimestamps;
         this.sweepableCells = sweepableCells;
         this.partitioner = partitioner;
@@ -39,8 +58,18 @@ class SweepQueueWriter implements MultiTableSweepQueueWriter {
 
     @Override
     public void enqueue(List<WriteInfo> writes) {
-        sweepableTimestamps.enqueue(writes);
-        sweepableCells.enqueue(writes);
+        Map<PartitionInfo, List<WriteInfo>> partitionedWrites = partitioner.filterAndPartition(writes);
+        SweepQueueUtils.validateNumberOfCellsWritten(partitionedWrites.values());
+
+        OptionalLong timestamp = SweepQueueUtils.maxTimestamp(partitionedWrites);
+        if (timestamp.isPresent()) {
+            Map<TableReference, Map<Cell, byte[]>> cellsByTable = new HashMap<>();
+            sweepableTimestamps.addCellsToWrite(partitionedWrites, cellsByTable);
+            sweepableCells.addCellsToWrite(partitionedWrites, cellsByTable);
+            kvs.multiPut(cellsByTable, timestamp.getAsLong());
+            sweepableTimestamps.updateWriteMetrics(partitionedWrites);
+            sweepableCells.updateWriteMetrics(partitionedWrites);
+        }
         log.debug("Enqueued {} writes into the sweep queue.", SafeArg.of("writes", writes.size()));
     }
 
@@ -25,6 +25,7 @@ import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.schema.generated.SweepableTimestampsTable;
 import com.palantir.atlasdb.schema.generated.TargetedSweepTableFactory;
 import com.palantir.util.PersistableBoolean;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -79,39 +80,54 @@ public class SweepableTimestamps extends SweepQueueTable {
      * sweepTs
      */
     Optional<Long> nextSweepableTimestampPartition(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs) {
+        return nextSweepableTimestampPartitions(shardStrategy, lastSweptTs, sweepTs, 1).stream().findFirst();
+    }
+
+    /**
+     * Returns up to the given number of fine partitions that should have unprocessed entries in the Sweepable Cells
+     * table, in increasing order. This is equivalent to repeatedly calling
+     * {@link #nextSweepableTimestampPartition(ShardAndStrategy, long, long)}, with lastSweptTs set to the end of the
+     * previously returned partition, but reads each coarse partition at most once.
+     *
+     * @param shardStrategy desired shard and strategy
+     * @param lastSweptTs exclusive minimum timestamp to check for
+     * @param sweepTs exclusive maximum timestamp to check for
+     * @param limit maximum number of fine partitions to return
+     * @return list of the fine partitions, which is empty if there are no more candidates before sweepTs
+     */
+    List<Long> nextSweepableTimestampPartitions(
+            ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs, int limit) {
         long minFineInclusive = SweepQueueUtils.tsPartitionFine(lastSweptTs + 1);
         long maxFineInclusive = SweepQueueUtils.tsPartitionFine(sweepTs - 1);
-        return nextSweepablePartition(shardStrategy, minFineInclusive, maxFineInclusive);
+        return nextSweepablePartitions(shardStrategy, minFineInclusive, maxFineInclusive, limit);
     }
 
-    private Optional<Long> nextSweepablePartition(
-            ShardAndStrategy shardAndStrategy, long minFineInclusive, long maxFineInclusive) {
+    private List<Long> nextSweepablePartitions(
+            ShardAndStrategy shardAndStrategy, long minFineInclusive, long maxFineInclusive, int limit) {
         ColumnRangeSelection range = getColRangeSelection(minFineInclusive, maxFineInclusive + 1);
 
         long current = SweepQueueUtils.partitionFineToCoarse(minFineInclusive);
         long maxCoarseInclusive = SweepQueueUtils.partitionFineToCoarse(maxFineInclusive);
 
-        while (current <= maxCoarseInclusive) {
-            Optional<Long> candidateFine = getCandidatesInCoarsePartition(shardAndStrategy, current, range);
-            if (candidateFine.isPresent()) {
-                return candidateFine;
-            }
+        List<Long> candidatesFine = new ArrayList<>();
+        while (current <= maxCoarseInclusive && candidatesFine.size() < limit) {
+            candidatesFine.addAll(
+                    getCandidatesInCoarsePartition(shardAndStrategy, current, range, limit - candidatesFine.size()));
             current++;
         }
-        return Optional.empty();
+        return candidatesFine;
     }
 
-    private Optional<Long> getCandidatesInCoarsePartition(
-            ShardAndStrategy shardStrategy, long partitionCoarse, ColumnRangeSelection colRange) {
+    private List<Long> getCandidatesInCoarsePartition(
+            ShardAndStrategy shardStrategy, long partitionCoarse, ColumnRangeSelection colRange, int limit) {
         byte[] rowBytes = computeRowBytes(shardStrategy, partitionCoarse);
 
-        RowColumnRangeIterator colIterator = getRowsColumnRange(ImmutableList.of(rowBytes), colRange, 1);
-        if (!colIterator.hasNext()) {
-            return Optional.empty();
+        RowColumnRangeIterator colIterator = getRowsColumnRange(ImmutableList.of(rowBytes), colRange, limit);
+        List<Long> candidatesFine = new ArrayList<>();
+        while (colIterator.hasNext() && candidatesFine.size() < limit) {
+            candidatesFine.add(getFinePartitionFromEntry(colIterator.next()));
         }
-        Map.Entry<Cell, Value> firstColumnEntry = colIterator.next();
-
-        return Optional.of(getFinePartitionFromEntry(firstColumnEntry));
+        return candidatesFine;
     }
 
     private ColumnRangeSelection getColRangeSelection(long minFineInclusive, long maxFineExclusive) {
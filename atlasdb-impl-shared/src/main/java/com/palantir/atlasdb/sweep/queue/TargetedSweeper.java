@@ -161,6 +161,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                 ReadBatchingRuntimeContext.builder()
                         .maximumPartitions(this::getPartitionBatchLimit)
                         .cellsThreshold(() -> runtime.get().batchCellThreshold())
+                        .maximumPartitionsToReadInParallel(() -> runtime.get().maximumPartitionsToReadInParallel())
                         .build());
         timestampsSupplier = timestamps;
         timeLock = timelockService;
@@ -204,6 +205,9 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     public void close() {
         conservativeScheduler.close();
         thoroughScheduler.close();
+        if (queue != null) {
+            queue.close();
+        }
     }
 
     @Override
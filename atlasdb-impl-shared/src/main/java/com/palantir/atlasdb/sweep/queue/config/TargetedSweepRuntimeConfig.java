@@ -72,6 +72,27 @@ public abstract class TargetedSweepRuntimeConfig {
                 SafeArg.of("partitions to batch", maximumPartitionsToBatchInSingleRead()));
     }
 
+    /**
+     * Specifies the maximum number of (fine) partitions whose sweep queue information targeted sweep reads
+     * concurrently, within the limit of {@link #maximumPartitionsToBatchInSingleRead()} (or of the batch cell
+     * threshold, if {@link #enableAutoTuning()} is set). Partitions are still accumulated into a batch in timestamp
+     * order, so this does not change what is swept, but a partition that is read may be discarded if the batch fills
+     * up before it is reached. Legacy behaviour prior to the introduction of this feature is consistent with a value
+     * of 1, where partitions are read one at a time.
+     */
+    @Value.Default
+    public int maximumPartitionsToReadInParallel() {
+        return 1;
+    }
+
+    @Value.Check
+    void checkPartitionsToReadInParallel() {
+        Preconditions.checkArgument(
+                maximumPartitionsToReadInParallel() > 0,
+                "Number of partitions to read in parallel must be positive.",
+                SafeArg.of("partitions to read in parallel", maximumPartitionsToReadInParallel()));
+    }
+
     @Value.Check
     void checkShardSize() {
         Preconditions.checkArgument(
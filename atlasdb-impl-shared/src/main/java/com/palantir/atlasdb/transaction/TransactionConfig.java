@@ -20,6 +20,9 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.transaction.impl.TransactionRetryStrategy;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.Optional;
 import org.immutables.value.Value;
 
 @JsonDeserialize(as = ImmutableTransactionConfig.class)
@@ -51,6 +54,48 @@ public abstract class TransactionConfig {
         return false;
     }
 
+    /**
+     * If true, serializable transactions retain a SHA-256 hash and the length of each large value they read, rather
+     * than the value itself, and compare hashes when checking for read-write conflicts at commit time.
+     */
+    @Value.Default
+    public boolean compactSerializableReadSet() {
+        return false;
+    }
+
+    /**
+     * The maximum number of re-reads that a serializable transaction runs concurrently when checking for read-write
+     * conflicts at commit time. Re-reads are run serially on the committing thread if this is 1.
+     */
+    @Value.Default
+    public int serializableVerificationParallelism() {
+        return 1;
+    }
+
+    /**
+     * If present, once the values written by a transaction and held in memory add up to more than this many bytes,
+     * they are spilled to a temporary local file, and are written to the key value service in chunks of about this
+     * many bytes at commit time. Cells written are always held in memory.
+     */
+    public abstract Optional<Long> localWriteSpillThresholdBytes();
+
+    /**
+     * The maximum number of pages of a range scan that are read and post-filtered ahead of the consumer, on the
+     * executor used for reading ranges in parallel. Pages are read when they are reached if this is 0.
+     */
+    @Value.Default
+    public int rangeScanPrefetchPages() {
+        return 0;
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkState(
+                serializableVerificationParallelism() >= 1,
+                "serializableVerificationParallelism must be at least 1",
+                SafeArg.of("serializableVerificationParallelism", serializableVerificationParallelism()));
+    }
+
     /**
      * TODO(fdesouza): Remove this once PDS-95791 is resolved.
      * @deprecated Remove this once PDS-95791 is resolved.
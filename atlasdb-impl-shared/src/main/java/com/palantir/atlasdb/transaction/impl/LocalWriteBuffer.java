@@ -0,0 +1,458 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Creates the maps in which a transaction buffers its local writes. If a spill threshold is configured, once the
+ * values held in memory exceed it, they are appended to a temporary file and replaced in memory by their position in
+ * the file, which is read back whenever the value is. The cells written, and so the order in which local writes are
+ * merged into reads, are always held in memory; only values are spilled, as it is values that make up most of the
+ * writes of a transaction that writes a lot of data.
+ *
+ * Values shorter than {@link #MIN_SPILLED_VALUE_LENGTH} are never spilled, as their position takes up about as much
+ * memory as they do. The file is deleted when the buffer is closed.
+ */
+final class LocalWriteBuffer implements AutoCloseable {
+    private static final int MIN_SPILLED_VALUE_LENGTH = 64;
+
+    @Nullable
+    private final Long spillThresholdBytes;
+
+    private final List<ConcurrentNavigableMap<Cell, Object>> tables = new CopyOnWriteArrayList<>();
+    private final AtomicLong bytesInMemory = new AtomicLong();
+    private final AtomicLong nextSpillAtBytes = new AtomicLong();
+
+    private volatile FileChannel spillFile;
+
+    @GuardedBy("this")
+    private long spillFileLength = 0;
+
+    private volatile boolean hasSpilled = false;
+
+    private LocalWriteBuffer(@Nullable Long spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.nextSpillAtBytes.set(spillThresholdBytes == null ? Long.MAX_VALUE : spillThresholdBytes);
+    }
+
+    static LocalWriteBuffer create(Optional<Long> spillThresholdBytes) {
+        spillThresholdBytes.ifPresent(threshold -> Preconditions.checkArgument(
+                threshold > 0, "Spill threshold must be positive", SafeArg.of("threshold", threshold)));
+        return new LocalWriteBuffer(spillThresholdBytes.orElse(null));
+    }
+
+    ConcurrentNavigableMap<Cell, byte[]> newTableWrites() {
+        if (spillThresholdBytes == null) {
+            return new ConcurrentSkipListMap<>();
+        }
+        ConcurrentNavigableMap<Cell, Object> entries = new ConcurrentSkipListMap<>();
+        tables.add(entries);
+        return new TableWrites(entries);
+    }
+
+    /**
+     * Passes the given writes to the consumer in chunks, each holding values adding up to about the spill threshold,
+     * so that no more than a chunk of spilled values is read back into memory at once. Writes are passed as a single
+     * chunk if no values have been spilled.
+     */
+    void forEachChunk(
+            Map<TableReference, ? extends Map<Cell, byte[]>> writes,
+            Consumer<Map<TableReference, ? extends Map<Cell, byte[]>>> consumer) {
+        if (!hasSpilled) {
+            consumer.accept(writes);
+            return;
+        }
+        Map<TableReference, Map<Cell, byte[]>> chunk = new HashMap<>();
+        long chunkBytes = 0;
+        for (Map.Entry<TableReference, ? extends Map<Cell, byte[]>> tableWrites : writes.entrySet()) {
+            for (Map.Entry<Cell, byte[]> write : tableWrites.getValue().entrySet()) {
+                chunk.computeIfAbsent(tableWrites.getKey(), unused -> new HashMap<>())
+                        .put(write.getKey(), write.getValue());
+                chunkBytes += write.getValue().length + Cells.getApproxSizeOfCell(write.getKey());
+                if (chunkBytes >= spillThresholdBytes) {
+                    consumer.accept(chunk);
+                    chunk = new HashMap<>();
+                    chunkBytes = 0;
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            consumer.accept(chunk);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                throw new SafeRuntimeException("Failed to delete the spilled local writes of a transaction", e);
+            }
+        }
+    }
+
+    /**
+     * Records that a cell was written with the given value, replacing the given previous value, if any. A previous
+     * value that has been spilled takes up no memory, so only the length of one held in memory is given back.
+     */
+    private void recordWrite(@Nullable Object previous, byte[] value) {
+        if (bytesInMemory.addAndGet(value.length - lengthInMemory(previous)) >= nextSpillAtBytes.get()) {
+            spill();
+        }
+    }
+
+    private static int lengthInMemory(@Nullable Object value) {
+        return value instanceof byte[] ? ((byte[]) value).length : 0;
+    }
+
+    private synchronized void spill() {
+        if (bytesInMemory.get() < nextSpillAtBytes.get()) {
+            return;
+        }
+        long bytesLeftInMemory = 0;
+        try {
+            for (ConcurrentNavigableMap<Cell, Object> entries : tables) {
+                for (Map.Entry<Cell, Object> entry : entries.entrySet()) {
+                    if (!(entry.getValue() instanceof byte[])) {
+                        continue;
+                    }
+                    byte[] value = (byte[]) entry.getValue();
+                    if (value.length < MIN_SPILLED_VALUE_LENGTH
+                            || !entries.replace(entry.getKey(), value, append(value))) {
+                        bytesLeftInMemory += value.length;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new SafeRuntimeException("Failed to spill the local writes of a transaction", e);
+        }
+        bytesInMemory.set(bytesLeftInMemory);
+        nextSpillAtBytes.set(bytesLeftInMemory + spillThresholdBytes);
+        hasSpilled = true;
+    }
+
+    @GuardedBy("this")
+    private SpilledValue append(byte[] value) throws IOException {
+        if (spillFile == null) {
+            spillFile = FileChannel.open(
+                    Files.createTempFile("atlasdb-local-writes", ".tmp"),
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        SpilledValue spilled = new SpilledValue(spillFileLength, value.length);
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        while (buffer.hasRemaining()) {
+            spillFileLength += spillFile.write(buffer, spillFileLength);
+        }
+        return spilled;
+    }
+
+    private byte[] read(SpilledValue spilled) {
+        ByteBuffer buffer = ByteBuffer.allocate(spilled.length);
+        try {
+            FileChannel file = spillFile;
+            while (buffer.hasRemaining()) {
+                int read = file.read(buffer, spilled.position + buffer.position());
+                if (read < 0) {
+                    throw new SafeRuntimeException(
+                            "Spilled local write was truncated", SafeArg.of("length", spilled.length));
+                }
+            }
+        } catch (IOException e) {
+            throw new SafeRuntimeException("Failed to read a spilled local write", e);
+        }
+        return buffer.array();
+    }
+
+    @Nullable
+    private byte[] load(@Nullable Object value) {
+        if (value instanceof SpilledValue) {
+            return read((SpilledValue) value);
+        }
+        return (byte[]) value;
+    }
+
+    @Nullable
+    private Map.Entry<Cell, byte[]> loadEntry(@Nullable Map.Entry<Cell, Object> entry) {
+        return entry == null ? null : Maps.immutableEntry(entry.getKey(), load(entry.getValue()));
+    }
+
+    private static final class SpilledValue {
+        private final long position;
+        private final int length;
+
+        private SpilledValue(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The local writes of a table, and views of them. Values are byte arrays if they are held in memory and
+     * {@link SpilledValue}s otherwise. As with a {@link ConcurrentSkipListMap} of byte arrays, conditional updates
+     * compare values by identity, so never match a value that has since been spilled.
+     */
+    private final class TableWrites extends AbstractMap<Cell, byte[]> implements ConcurrentNavigableMap<Cell, byte[]> {
+        private final ConcurrentNavigableMap<Cell, Object> entries;
+
+        private TableWrites(ConcurrentNavigableMap<Cell, Object> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public byte[] get(Object key) {
+            return load(entries.get(key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public byte[] put(Cell key, byte[] value) {
+            Object previous = entries.put(key, value);
+            recordWrite(previous, value);
+            return load(previous);
+        }
+
+        @Override
+        public byte[] putIfAbsent(Cell key, byte[] value) {
+            byte[] previous = load(entries.putIfAbsent(key, value));
+            if (previous == null) {
+                recordWrite(null, value);
+            }
+            return previous;
+        }
+
+        @Override
+        public byte[] replace(Cell key, byte[] value) {
+            Object previous = entries.replace(key, value);
+            if (previous != null) {
+                recordWrite(previous, value);
+            }
+            return load(previous);
+        }
+
+        @Override
+        public boolean replace(Cell key, byte[] oldValue, byte[] newValue) {
+            if (entries.replace(key, oldValue, newValue)) {
+                recordWrite(oldValue, newValue);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public byte[] remove(Object key) {
+            return load(entries.remove(key));
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return entries.remove(key, value);
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+        }
+
+        @Override
+        public Set<Entry<Cell, byte[]>> entrySet() {
+            return new AbstractSet<Entry<Cell, byte[]>>() {
+                @Override
+                public Iterator<Entry<Cell, byte[]>> iterator() {
+                    return Iterators.transform(entries.entrySet().iterator(), LocalWriteBuffer.this::loadEntry);
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super Cell> comparator() {
+            return entries.comparator();
+        }
+
+        @Override
+        public Cell firstKey() {
+            return entries.firstKey();
+        }
+
+        @Override
+        public Cell lastKey() {
+            return entries.lastKey();
+        }
+
+        @Override
+        public Entry<Cell, byte[]> lowerEntry(Cell key) {
+            return loadEntry(entries.lowerEntry(key));
+        }
+
+        @Override
+        public Cell lowerKey(Cell key) {
+            return entries.lowerKey(key);
+        }
+
+        @Override
+        public Entry<Cell, byte[]> floorEntry(Cell key) {
+            return loadEntry(entries.floorEntry(key));
+        }
+
+        @Override
+        public Cell floorKey(Cell key) {
+            return entries.floorKey(key);
+        }
+
+        @Override
+        public Entry<Cell, byte[]> ceilingEntry(Cell key) {
+            return loadEntry(entries.ceilingEntry(key));
+        }
+
+        @Override
+        public Cell ceilingKey(Cell key) {
+            return entries.ceilingKey(key);
+        }
+
+        @Override
+        public Entry<Cell, byte[]> higherEntry(Cell key) {
+            return loadEntry(entries.higherEntry(key));
+        }
+
+        @Override
+        public Cell higherKey(Cell key) {
+            return entries.higherKey(key);
+        }
+
+        @Override
+        public Entry<Cell, byte[]> firstEntry() {
+            return loadEntry(entries.firstEntry());
+        }
+
+        @Override
+        public Entry<Cell, byte[]> lastEntry() {
+            return loadEntry(entries.lastEntry());
+        }
+
+        @Override
+        public Entry<Cell, byte[]> pollFirstEntry() {
+            return loadEntry(entries.pollFirstEntry());
+        }
+
+        @Override
+        public Entry<Cell, byte[]> pollLastEntry() {
+            return loadEntry(entries.pollLastEntry());
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> subMap(
+                Cell fromKey, boolean fromInclusive, Cell toKey, boolean toInclusive) {
+            return new TableWrites(entries.subMap(fromKey, fromInclusive, toKey, toInclusive));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> headMap(Cell toKey, boolean inclusive) {
+            return new TableWrites(entries.headMap(toKey, inclusive));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> tailMap(Cell fromKey, boolean inclusive) {
+            return new TableWrites(entries.tailMap(fromKey, inclusive));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> subMap(Cell fromKey, Cell toKey) {
+            return new TableWrites(entries.subMap(fromKey, toKey));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> headMap(Cell toKey) {
+            return new TableWrites(entries.headMap(toKey));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> tailMap(Cell fromKey) {
+            return new TableWrites(entries.tailMap(fromKey));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<Cell, byte[]> descendingMap() {
+            return new TableWrites(entries.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<Cell> navigableKeySet() {
+            return entries.navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Cell> keySet() {
+            return entries.keySet();
+        }
+
+        @Override
+        public NavigableSet<Cell> descendingKeySet() {
+            return entries.descendingKeySet();
+        }
+    }
+}
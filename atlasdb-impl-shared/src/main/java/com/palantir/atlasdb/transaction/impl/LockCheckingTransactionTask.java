@@ -16,12 +16,16 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.transaction.api.AsyncTransactionTask;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionFailedNonRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionLockTimeoutException;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.TimelockService;
+import java.util.concurrent.Executor;
 
 /**
  *  Best effort attempt to keep backwards compatibility while making immutableTs lock validation optional on reads.
@@ -52,21 +56,55 @@ public class LockCheckingTransactionTask<T, E extends Exception> implements Tran
         try {
             return delegate.execute(transaction);
         } catch (Exception ex) {
-            if (shouldRethrowWithoutLockValidation(ex) || immutableTsLockIsValid()) {
+            if (shouldRethrowWithoutLockValidation(ex) || immutableTsLockIsValid(timelockService, immutableTsLock)) {
                 throw ex;
             }
-            throw new TransactionLockTimeoutException(
-                    "The following immutable timestamp lock is no longer valid: " + immutableTsLock);
+            throw lockTimeoutException(immutableTsLock);
         }
     }
 
-    private boolean shouldRethrowWithoutLockValidation(Exception ex) {
+    /**
+     * Wraps an asynchronous task in the same way, converting the failure of the future returned by the task. The lock
+     * is checked on the given executor.
+     */
+    static <T> AsyncTransactionTask<T> wrapAsync(
+            AsyncTransactionTask<T> delegate,
+            TimelockService timelockService,
+            LockToken immutableTsLock,
+            Executor executor) {
+        return transaction -> {
+            ListenableFuture<T> result;
+            try {
+                result = delegate.execute(transaction);
+            } catch (RuntimeException e) {
+                result = Futures.immediateFailedFuture(e);
+            }
+            return Futures.catchingAsync(
+                    result,
+                    Exception.class,
+                    ex -> {
+                        if (shouldRethrowWithoutLockValidation(ex)
+                                || immutableTsLockIsValid(timelockService, immutableTsLock)) {
+                            return Futures.immediateFailedFuture(ex);
+                        }
+                        return Futures.immediateFailedFuture(lockTimeoutException(immutableTsLock));
+                    },
+                    executor);
+        };
+    }
+
+    private static boolean shouldRethrowWithoutLockValidation(Exception ex) {
         return ex instanceof InterruptedException || ex instanceof TransactionFailedNonRetriableException;
     }
 
-    private boolean immutableTsLockIsValid() {
+    private static boolean immutableTsLockIsValid(TimelockService timelockService, LockToken immutableTsLock) {
         return !timelockService
                 .refreshLockLeases(ImmutableSet.of(immutableTsLock))
                 .isEmpty();
     }
+
+    private static TransactionLockTimeoutException lockTimeoutException(LockToken immutableTsLock) {
+        return new TransactionLockTimeoutException(
+                "The following immutable timestamp lock is no longer valid: " + immutableTsLock);
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Reads the pages of an iterator ahead of the consumer on an executor, keeping up to a bounded number of pages read or
+ * being read at any time. The underlying iterator is only used by one thread at a time, in order, so pages are
+ * returned in the order of the underlying iterator.
+ *
+ * Each read is a task that reads the next page, if there is one. A consumer that finds no page ready runs the oldest
+ * task that has not started itself, rather than waiting for the executor to get to it, so the consumer never waits
+ * on a task that is queued behind it, even if it is running on the same bounded executor. The time consumers spend
+ * waiting for pages is recorded by the given timer.
+ *
+ * Closing the iterator stops pages from being read, and closes the underlying iterator once no page is being read.
+ */
+final class PrefetchingPageIterator<T> extends AbstractIterator<T> implements ClosableIterator<T> {
+    private final Iterator<T> pages;
+    private final Executor executor;
+    private final int maxPrefetchedPages;
+    private final Timer stallTimer;
+    private final Runnable closeDelegate;
+    private final Queue<Fetched<T>> fetchedPages = new ConcurrentLinkedQueue<>();
+    private final Deque<FutureTask<Void>> pendingFetches = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private boolean closed = false;
+
+    @GuardedBy("this")
+    private boolean exhausted = false;
+
+    private boolean allPagesRequested = false;
+
+    PrefetchingPageIterator(
+            Iterator<T> pages, Executor executor, int maxPrefetchedPages, Timer stallTimer, Runnable closeDelegate) {
+        Preconditions.checkArgument(
+                maxPrefetchedPages > 0,
+                "The number of pages to prefetch must be positive",
+                SafeArg.of("maxPrefetchedPages", maxPrefetchedPages));
+        this.pages = pages;
+        this.executor = executor;
+        this.maxPrefetchedPages = maxPrefetchedPages;
+        this.stallTimer = stallTimer;
+        this.closeDelegate = closeDelegate;
+    }
+
+    @Override
+    protected T computeNext() {
+        removeCompletedFetches();
+        requestPages();
+        Fetched<T> fetched = fetchedPages.poll();
+        if (fetched == null) {
+            try (Timer.Context ignored = stallTimer.time()) {
+                fetched = awaitPage();
+            }
+        }
+        if (fetched.failure != null) {
+            allPagesRequested = true;
+            throw Throwables.throwUncheckedException(fetched.failure);
+        }
+        if (fetched.page == null) {
+            allPagesRequested = true;
+            return endOfData();
+        }
+        return fetched.page;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            pendingFetches.forEach(fetch -> fetch.cancel(false));
+            closeDelegate.run();
+        }
+    }
+
+    private void removeCompletedFetches() {
+        while (!pendingFetches.isEmpty() && pendingFetches.peekFirst().isDone()) {
+            pendingFetches.removeFirst();
+        }
+    }
+
+    private void requestPages() {
+        while (!allPagesRequested && pendingFetches.size() + fetchedPages.size() < maxPrefetchedPages) {
+            FutureTask<Void> fetch = new FutureTask<>(this::fetchPage, null);
+            pendingFetches.addLast(fetch);
+            executor.execute(fetch);
+        }
+    }
+
+    /**
+     * Every fetch that completes adds a page, the end of the pages or a failure, unless one has already been added for
+     * the end of the pages, so waiting for the oldest pending fetch to complete is enough for there to be a result.
+     */
+    private Fetched<T> awaitPage() {
+        while (true) {
+            FutureTask<Void> fetch = pendingFetches.pollFirst();
+            if (fetch == null) {
+                return Fetched.endOfPages();
+            }
+            fetch.run();
+            getUninterruptibly(fetch);
+            Fetched<T> fetched = fetchedPages.poll();
+            if (fetched != null) {
+                return fetched;
+            }
+        }
+    }
+
+    private synchronized void fetchPage() {
+        if (closed || exhausted) {
+            return;
+        }
+        try {
+            if (pages.hasNext()) {
+                fetchedPages.add(Fetched.page(pages.next()));
+            } else {
+                exhausted = true;
+                fetchedPages.add(Fetched.endOfPages());
+            }
+        } catch (RuntimeException | Error e) {
+            exhausted = true;
+            fetchedPages.add(Fetched.failure(e));
+        }
+    }
+
+    private static void getUninterruptibly(FutureTask<Void> fetch) {
+        try {
+            Uninterruptibles.getUninterruptibly(fetch);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
+    }
+
+    private static final class Fetched<T> {
+        @Nullable
+        private final T page;
+
+        @Nullable
+        private final Throwable failure;
+
+        private Fetched(@Nullable T page, @Nullable Throwable failure) {
+            this.page = page;
+            this.failure = failure;
+        }
+
+        static <T> Fetched<T> page(T page) {
+            return new Fetched<>(page, null);
+        }
+
+        static <T> Fetched<T> endOfPages() {
+            return new Fetched<>(null, null);
+        }
+
+        static <T> Fetched<T> failure(Throwable failure) {
+            return new Fetched<>(null, failure);
+        }
+    }
+}
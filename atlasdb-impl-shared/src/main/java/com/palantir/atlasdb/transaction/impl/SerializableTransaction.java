@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.transaction.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Functions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -29,10 +30,14 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.AtlasDbMetricNames;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.cleaner.api.Cleaner;
@@ -74,6 +79,7 @@ import com.palantir.common.streams.KeyedStream;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.logsafe.Preconditions;
+import com.palantir.tracing.Tracers;
 import com.palantir.util.Pair;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -86,16 +92,20 @@ import java.util.NavigableMap;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.immutables.value.Value;
@@ -117,6 +127,12 @@ public class SerializableTransaction extends SnapshotTransaction {
 
     private static final int BATCH_SIZE = 1000;
 
+    /**
+     * Values at least this long are replaced in the read set by their SHA-256 hash followed by their length, which
+     * together are exactly this long. Values that are retained are shorter, so cannot be mistaken for a hash.
+     */
+    private static final int COMPACT_VALUE_LENGTH = 32 + Long.BYTES;
+
     final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> readsByTable = new ConcurrentHashMap<>();
     final ConcurrentMap<TableReference, ConcurrentMap<RangeRequest, byte[]>> rangeEndByTable =
             new ConcurrentHashMap<>();
@@ -125,6 +141,10 @@ public class SerializableTransaction extends SnapshotTransaction {
     final ConcurrentMap<TableReference, Set<Cell>> cellsRead = new ConcurrentHashMap<>();
     final ConcurrentMap<TableReference, Set<RowRead>> rowsRead = new ConcurrentHashMap<>();
 
+    private final ExecutorService verificationExecutor;
+    private final boolean compactReadSet;
+    private final AtomicLong readSetBytes = new AtomicLong();
+
     public SerializableTransaction(
             MetricsManager metricsManager,
             KeyValueService keyValueService,
@@ -147,6 +167,7 @@ public class SerializableTransaction extends SnapshotTransaction {
             int defaultGetRangesConcurrency,
             MultiTableSweepQueueWriter sweepQueue,
             ExecutorService deleteExecutor,
+            ExecutorService verificationExecutor,
             boolean validateLocksOnReads,
             Supplier<TransactionConfig> transactionConfig,
             ConflictTracer conflictTracer,
@@ -177,6 +198,8 @@ public class SerializableTransaction extends SnapshotTransaction {
                 transactionConfig,
                 conflictTracer,
                 tableLevelMetricsController);
+        this.verificationExecutor = verificationExecutor;
+        this.compactReadSet = transactionConfig.get().compactSerializableReadSet();
     }
 
     @Override
@@ -356,7 +379,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         if (!isSerializableTable(table)) {
             return;
         }
-        getReadsForTable(table).putAll(transformGetsForTesting(result));
+        recordReads(getReadsForTable(table), transformGetsForTesting(result));
         Set<Cell> cellsForTable = cellsRead.computeIfAbsent(table, unused -> ConcurrentHashMap.newKeySet());
         cellsForTable.addAll(searched);
     }
@@ -368,8 +391,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            map = transformGetsForTesting(map);
-            reads.putAll(map);
+            recordReads(reads, transformGetsForTesting(map));
         }
         setRangeEnd(table, range, Iterables.getLast(result).getRowName());
     }
@@ -381,10 +403,31 @@ public class SerializableTransaction extends SnapshotTransaction {
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         Map<Cell, byte[]> map = Maps2.fromEntries(result);
-        reads.putAll(transformGetsForTesting(map));
+        recordReads(reads, transformGetsForTesting(map));
         setColumnRangeEnd(table, row, range, Iterables.getLast(result).getKey().getColumnName());
     }
 
+    private void recordReads(ConcurrentNavigableMap<Cell, byte[]> reads, Map<Cell, byte[]> values) {
+        values.forEach((cell, value) -> {
+            byte[] recorded = readSetValue(value);
+            byte[] previous = reads.put(cell, recorded);
+            long cellSize = cell.getRowName().length + cell.getColumnName().length;
+            readSetBytes.addAndGet(
+                    previous == null ? cellSize + recorded.length : recorded.length - previous.length);
+        });
+    }
+
+    /**
+     * Returns the form in which a value is kept in the read set, and so the form to which values read at commit time
+     * must be converted before they are compared with it.
+     */
+    private byte[] readSetValue(byte[] value) {
+        if (!compactReadSet || value.length < COMPACT_VALUE_LENGTH) {
+            return value;
+        }
+        return Bytes.concat(Hashing.sha256().hashBytes(value).asBytes(), Longs.toByteArray(value.length));
+    }
+
     private static class RowRead {
         final ImmutableList<byte[]> rows;
         final ColumnSelection cols;
@@ -403,7 +446,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            reads.putAll(transformGetsForTesting(map));
+            recordReads(reads, transformGetsForTesting(map));
         }
 
         Set<RowRead> rowReads = rowsRead.computeIfAbsent(table, unused -> ConcurrentHashMap.newKeySet());
@@ -433,14 +476,58 @@ public class SerializableTransaction extends SnapshotTransaction {
 
     @Override
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
+        metricsManager
+                .registerOrGetHistogram(
+                        SerializableTransaction.class, AtlasDbMetricNames.SERIALIZABLE_TRANSACTION_READ_SET_BYTES)
+                .update(readSetBytes.get());
         Transaction ro = getReadOnlyTransaction(commitTimestamp);
-        verifyRanges(ro);
-        verifyColumnRanges(ro);
-        verifyCells(ro);
-        verifyRows(ro);
+        List<Runnable> verifications = new ArrayList<>();
+        verifyRanges(ro, verifications);
+        verifyColumnRanges(ro, verifications);
+        verifyCells(ro, verifications);
+        verifyRows(ro, verifications);
+        try (Timer.Context timer = metricsManager
+                .registerOrGetTimer(
+                        SerializableTransaction.class, AtlasDbMetricNames.SERIALIZABLE_TRANSACTION_VERIFICATION)
+                .time()) {
+            runVerifications(verifications);
+        }
+    }
+
+    /**
+     * Runs the given re-reads, up to the configured parallelism at a time. The committing thread takes part, so a
+     * parallelism of 1 runs them serially, in order. Once any re-read fails, no further re-reads are started. Re-reads
+     * run on the executor of the transaction manager are traced as part of the committing thread's trace.
+     */
+    private void runVerifications(List<Runnable> verifications) {
+        int parallelism = Math.min(transactionConfig.get().serializableVerificationParallelism(), verifications.size());
+        if (parallelism <= 1) {
+            verifications.forEach(Runnable::run);
+            return;
+        }
+        Queue<Runnable> remaining = new ConcurrentLinkedQueue<>(verifications);
+        AtomicBoolean failed = new AtomicBoolean();
+        Runnable worker = () -> {
+            Runnable verification;
+            while (!failed.get() && (verification = remaining.poll()) != null) {
+                try {
+                    verification.run();
+                } catch (RuntimeException | Error e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }
+        };
+        List<ListenableFuture<?>> workers = new ArrayList<>(parallelism - 1);
+        for (int i = 1; i < parallelism; i++) {
+            workers.add(Futures.submit(
+                    Tracers.wrap("serializable-transaction-verification", worker), verificationExecutor));
+        }
+        worker.run();
+        AtlasFutures.getUnchecked(Futures.allAsList(workers));
     }
 
-    private void verifyRows(Transaction ro) {
+    private void verifyRows(Transaction ro, List<Runnable> verifications) {
         for (Map.Entry<TableReference, Set<RowRead>> tableAndRowsEntry : rowsRead.entrySet()) {
             TableReference table = tableAndRowsEntry.getKey();
             Set<RowRead> rows = tableAndRowsEntry.getValue();
@@ -452,7 +539,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                 rowsReadByColumns.putAll(r.cols, r.rows);
             }
             for (ColumnSelection cols : rowsReadByColumns.keySet()) {
-                verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
+                verifications.add(() -> verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols));
             }
         }
     }
@@ -493,7 +580,8 @@ public class SerializableTransaction extends SnapshotTransaction {
                     handleTransactionConflict(table);
                 }
 
-                Map<Cell, byte[]> currentCells = Maps2.fromEntries(currentRow.getCells());
+                Map<Cell, byte[]> currentCells =
+                        Maps.transformValues(Maps2.fromEntries(currentRow.getCells()), this::readSetValue);
                 if (writesByTable.get(table) != null) {
                     // We don't want to verify any reads that we wrote to cause
                     // we will just read our own values.
@@ -526,13 +614,13 @@ public class SerializableTransaction extends SnapshotTransaction {
         return true;
     }
 
-    private void verifyCells(Transaction readOnlyTransaction) {
+    private void verifyCells(Transaction readOnlyTransaction, List<Runnable> verifications) {
         for (Map.Entry<TableReference, Set<Cell>> tableAndCellsEntry : cellsRead.entrySet()) {
             TableReference table = tableAndCellsEntry.getKey();
             Set<Cell> cells = tableAndCellsEntry.getValue();
 
             final ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
-            for (Iterable<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
+            for (List<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
                 // We don't want to verify any reads that we wrote to cause we will just read our own values.
                 // NB: If the value has changed between read and write, our normal SI checking handles this case
                 Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
@@ -542,18 +630,21 @@ public class SerializableTransaction extends SnapshotTransaction {
                                         Predicates.in(writesByTable.get(table).keySet())))
                         : batch;
                 ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
-                Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, batchWithoutWritesSet);
-                ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
-                        Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
-                        Functions.forMap(readsForTable));
-                if (!areMapsEqual(currentBatch, originalReads)) {
-                    handleTransactionConflict(table);
-                }
+                verifications.add(() -> {
+                    Map<Cell, byte[]> currentBatch = Maps.transformValues(
+                            readOnlyTransaction.get(table, batchWithoutWritesSet), this::readSetValue);
+                    ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
+                            Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
+                            Functions.forMap(readsForTable));
+                    if (!areMapsEqual(currentBatch, originalReads)) {
+                        handleTransactionConflict(table);
+                    }
+                });
             }
         }
     }
 
-    private void verifyRanges(Transaction readOnlyTransaction) {
+    private void verifyRanges(Transaction readOnlyTransaction, List<Runnable> verifications) {
         // verify each set of reads to ensure they are the same.
         for (Map.Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> tableAndRange :
                 rangeEndByTable.entrySet()) {
@@ -570,15 +661,18 @@ public class SerializableTransaction extends SnapshotTransaction {
                             .build();
                 }
 
-                ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
-                BatchingVisitableView<RowResult<byte[]>> bv =
-                        BatchingVisitableView.of(readOnlyTransaction.getRange(table, range));
-                NavigableMap<Cell, ByteBuffer> readsInRange =
-                        Maps.transformValues(getReadsInRange(table, range), ByteBuffer::wrap);
-                if (!bv.transformBatch(input -> filterWritesFromRows(input, writes))
-                        .isEqual(readsInRange.entrySet())) {
-                    handleTransactionConflict(table);
-                }
+                RangeRequest rangeToVerify = range;
+                verifications.add(() -> {
+                    ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
+                    BatchingVisitableView<RowResult<byte[]>> bv =
+                            BatchingVisitableView.of(readOnlyTransaction.getRange(table, rangeToVerify));
+                    NavigableMap<Cell, ByteBuffer> readsInRange =
+                            Maps.transformValues(getReadsInRange(table, rangeToVerify), ByteBuffer::wrap);
+                    if (!bv.transformBatch(input -> filterWritesFromRows(input, writes))
+                            .isEqual(readsInRange.entrySet())) {
+                        handleTransactionConflict(table);
+                    }
+                });
             }
         }
     }
@@ -605,7 +699,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         return reads;
     }
 
-    private void verifyColumnRanges(Transaction readOnlyTransaction) {
+    private void verifyColumnRanges(Transaction readOnlyTransaction, List<Runnable> verifications) {
         // verify each set of reads to ensure they are the same.
         for (Map.Entry<TableReference, ConcurrentMap<ByteBuffer, ConcurrentMap<BatchColumnRangeSelection, byte[]>>>
                 tableAndColumnRangeEnds : columnRangeEndsByTable.entrySet()) {
@@ -626,7 +720,7 @@ public class SerializableTransaction extends SnapshotTransaction {
             }
 
             TableReference table = tableAndColumnRangeEnds.getKey();
-            rangesToRows.asMap().forEach((columnRange, rows) -> {
+            rangesToRows.asMap().forEach((columnRange, rows) -> verifications.add(() -> {
                 Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
                         readOnlyTransaction.getRowsColumnRange(table, rows, columnRange);
 
@@ -644,7 +738,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                         handleTransactionConflict(table);
                     }
                 }
-            });
+            }));
         }
     }
 
@@ -665,20 +759,21 @@ public class SerializableTransaction extends SnapshotTransaction {
         return filterWritesFromCells(cells, writesByTable.get(table));
     }
 
-    private static List<Map.Entry<Cell, ByteBuffer>> filterWritesFromCells(
+    private List<Map.Entry<Cell, ByteBuffer>> filterWritesFromCells(
             Iterable<Map.Entry<Cell, byte[]>> cells, @Nullable Map<Cell, byte[]> writes) {
         List<Map.Entry<Cell, ByteBuffer>> cellsWithoutWrites = new ArrayList<>();
         for (Map.Entry<Cell, byte[]> cell : cells) {
             // NB: We filter our write set out here because our normal SI
             // checking handles this case to ensure the value hasn't changed.
             if (writes == null || !writes.containsKey(cell.getKey())) {
-                cellsWithoutWrites.add(Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(cell.getValue())));
+                cellsWithoutWrites.add(
+                        Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(readSetValue(cell.getValue()))));
             }
         }
         return cellsWithoutWrites;
     }
 
-    private static List<Map.Entry<Cell, ByteBuffer>> filterWritesFromRows(
+    private List<Map.Entry<Cell, ByteBuffer>> filterWritesFromRows(
             Iterable<RowResult<byte[]>> rows, @Nullable Map<Cell, byte[]> writes) {
         List<Map.Entry<Cell, ByteBuffer>> rowsWithoutWrites = new ArrayList<>();
         for (RowResult<byte[]> row : rows) {
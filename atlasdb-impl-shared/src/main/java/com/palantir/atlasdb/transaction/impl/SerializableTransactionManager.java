@@ -571,6 +571,7 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 defaultGetRangesConcurrency,
                 sweepQueueWriter,
                 deleteExecutor,
+                serializableVerificationExecutor,
                 validateLocksOnReads,
                 transactionConfig,
                 conflictTracer,
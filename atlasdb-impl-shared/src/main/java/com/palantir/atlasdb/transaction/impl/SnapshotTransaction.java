@@ -66,12 +66,15 @@ import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.api.watch.LockWatchManager;
+import com.palantir.atlasdb.keyvalue.api.watch.NoOpTransactionScopedCache;
+import com.palantir.atlasdb.keyvalue.api.watch.TransactionScopedCache;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
 import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.atlasdb.logging.LoggingArgs;
 import com.palantir.atlasdb.sweep.queue.MultiTableSweepQueueWriter;
+import com.palantir.atlasdb.sweep.queue.WriteInfo;
 import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
 import com.palantir.atlasdb.table.description.exceptions.AtlasDbConstraintException;
 import com.palantir.atlasdb.transaction.TransactionConfig;
@@ -102,6 +105,7 @@ import com.palantir.common.base.AbortingVisitor;
 import com.palantir.common.base.AbstractBatchingVisitable;
 import com.palantir.common.base.BatchingVisitable;
 import com.palantir.common.base.BatchingVisitableFromIterable;
+import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.base.BatchingVisitables;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
@@ -128,6 +132,7 @@ import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.tracing.CloseableTracer;
 import com.palantir.util.AssertUtils;
+import com.palantir.util.paging.SimpleTokenBackedResultsPage;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -150,7 +155,7 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -185,6 +190,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     private static final Logger constraintLogger = LoggerFactory.getLogger("dualschema.constraints");
 
     private static final int BATCH_SIZE_GET_FIRST_PAGE = 1000;
+    private static final int DEFAULT_RANGE_PAGE_SIZE = 100;
 
     private enum State {
         UNCOMMITTED,
@@ -219,6 +225,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             new ConcurrentHashMap<>();
     protected final TransactionConflictDetectionManager conflictDetectionManager;
     private final AtomicLong byteCount = new AtomicLong();
+    private final LocalWriteBuffer localWriteBuffer;
 
     private final AtlasDbConstraintCheckingMode constraintCheckingMode;
 
@@ -235,6 +242,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final ExecutorService getRangesExecutor;
     protected final int defaultGetRangesConcurrency;
     private final Set<TableReference> involvedTables = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<TransactionScopedCache> transactionScopedCache = new AtomicReference<>();
     protected final ExecutorService deleteExecutor;
     private final Timer.Context transactionTimerContext;
     protected final TransactionOutcomeMetrics transactionOutcomeMetrics;
@@ -304,6 +312,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.transactionOutcomeMetrics = TransactionOutcomeMetrics.create(metricsManager);
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
+        this.localWriteBuffer = LocalWriteBuffer.create(transactionConfig.get().localWriteSpillThresholdBytes());
         this.tableLevelMetricsController = tableLevelMetricsController;
     }
 
@@ -354,20 +363,26 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             return AbstractTransaction.EMPTY_SORTED_ROWS;
         }
         hasReads = true;
-        ImmutableSortedMap.Builder<Cell, byte[]> result = ImmutableSortedMap.naturalOrder();
-        Map<Cell, Value> rawResults =
-                new HashMap<>(keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
-        NavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
-        if (writes != null) {
-            for (byte[] row : rows) {
-                extractLocalWritesForRow(result, writes, row, columnSelection);
+        NavigableMap<byte[], RowResult<byte[]>> results;
+        if (!columnSelection.allColumnsSelected() && getCacheForTable(tableRef).isCacheable(tableRef)) {
+            // The requested cells are known up front, so they can be served through the value cache.
+            results = getRowsFromCells(tableRef, rows, columnSelection);
+        } else {
+            ImmutableSortedMap.Builder<Cell, byte[]> result = ImmutableSortedMap.naturalOrder();
+            Map<Cell, Value> rawResults =
+                    new HashMap<>(keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
+            NavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+            if (writes != null) {
+                for (byte[] row : rows) {
+                    extractLocalWritesForRow(result, writes, row, columnSelection);
+                }
             }
-        }
 
-        // We don't need to do work postFiltering if we have a write locally.
-        rawResults.keySet().removeAll(result.build().keySet());
+            // We don't need to do work postFiltering if we have a write locally.
+            rawResults.keySet().removeAll(result.build().keySet());
 
-        NavigableMap<byte[], RowResult<byte[]>> results = filterRowResults(tableRef, rawResults, result);
+            results = filterRowResults(tableRef, rawResults, result);
+        }
         long getRowsMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
         if (perfLogger.isDebugEnabled()) {
             perfLogger.debug(
@@ -381,6 +396,19 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return results;
     }
 
+    private NavigableMap<byte[], RowResult<byte[]>> getRowsFromCells(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection) {
+        Set<Cell> cells = new HashSet<>();
+        for (byte[] row : rows) {
+            for (byte[] column : columnSelection.getSelectedColumns()) {
+                cells.add(Cell.create(row, column));
+            }
+        }
+        Map<Cell, byte[]> values = AtlasFutures.getUnchecked(
+                getInternal("getRows", tableRef, cells, immediateKeyValueService, immediateTransactionService));
+        return RowResults.viewOfSortedMap(Cells.breakCellsUpByRow(values));
+    }
+
     @Override
     public Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> getRowsColumnRange(
             TableReference tableRef, Iterable<byte[]> rows, BatchColumnRangeSelection columnRangeSelection) {
@@ -661,6 +689,38 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return getInternal("getAsync", tableRef, cells, keyValueService, defaultTransactionService);
     }
 
+    /**
+     * As reads of rows and ranges from the key value service are blocking, they are run on the executor used for
+     * concurrent range reads.
+     */
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection) {
+        return Futures.submit(() -> getRows(tableRef, rows, columnSelection), getRangesExecutor);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]>> getRangePageAsync(
+            TableReference tableRef, RangeRequest rangeRequest) {
+        return Futures.submit(() -> getRangePage(tableRef, rangeRequest), getRangesExecutor);
+    }
+
+    private TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]> getRangePage(
+            TableReference tableRef, RangeRequest rangeRequest) {
+        int pageSize = Math.min(
+                rangeRequest.getBatchHint() != null ? rangeRequest.getBatchHint() : DEFAULT_RANGE_PAGE_SIZE,
+                AtlasDbPerformanceConstants.MAX_BATCH_SIZE);
+        // Read one row past the page, which is where the next page starts
+        List<RowResult<byte[]>> rows = BatchingVisitableView.of(
+                        getRange(tableRef, rangeRequest.withBatchHint(pageSize + 1)))
+                .limit(pageSize + 1)
+                .immutableCopy();
+        if (rows.size() <= pageSize) {
+            return SimpleTokenBackedResultsPage.create(rangeRequest.getEndExclusive(), rows, false);
+        }
+        return SimpleTokenBackedResultsPage.create(rows.get(pageSize).getRowName(), rows.subList(0, pageSize), true);
+    }
+
     private ListenableFuture<Map<Cell, byte[]>> getInternal(
             String operationName,
             TableReference tableRef,
@@ -684,14 +744,15 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
         }
 
-        // We don't need to read any cells that were written locally.
+        // We don't need to read any cells that were written locally, or whose values are cached.
+        TransactionScopedCache cache = getCacheForTable(tableRef);
+        result.putAll(cache.get(tableRef, Sets.difference(cells, result.keySet())));
+        Set<Cell> remoteCells = ImmutableSet.copyOf(Sets.difference(cells, result.keySet()));
+
         return Futures.transform(
-                getFromKeyValueService(
-                        tableRef,
-                        Sets.difference(cells, result.keySet()),
-                        asyncKeyValueService,
-                        asyncTransactionService),
+                getFromKeyValueService(tableRef, remoteCells, asyncKeyValueService, asyncTransactionService),
                 fromKeyValueService -> {
+                    cache.cacheRemoteReads(tableRef, remoteCells, fromKeyValueService);
                     result.putAll(fromKeyValueService);
 
                     long getMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
@@ -1069,7 +1130,22 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
         };
 
-        final Iterator<RowResult<T>> rows = Iterators.concat(batchedPostFiltered);
+        Iterator<Iterator<RowResult<T>>> pages = batchedPostFiltered;
+        Runnable closePages = results::close;
+        int prefetchPages = transactionConfig.get().rangeScanPrefetchPages();
+        if (prefetchPages > 0) {
+            PrefetchingPageIterator<Iterator<RowResult<T>>> prefetchingPages = new PrefetchingPageIterator<>(
+                    batchedPostFiltered,
+                    getRangesExecutor,
+                    prefetchPages,
+                    getTimer(AtlasDbMetricNames.SNAPSHOT_TRANSACTION_PREFETCH_STALL),
+                    results::close);
+            pages = prefetchingPages;
+            closePages = prefetchingPages::close;
+        }
+
+        final Iterator<RowResult<T>> rows = Iterators.concat(pages);
+        final Runnable closeRows = closePages;
         return new ForwardingClosableIterator<RowResult<T>>() {
             @Override
             protected ClosableIterator<RowResult<T>> delegate() {
@@ -1078,13 +1154,13 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
             @Override
             public void close() {
-                results.close();
+                closeRows.run();
             }
         };
     }
 
     private ConcurrentNavigableMap<Cell, byte[]> getLocalWrites(TableReference tableRef) {
-        return writesByTable.computeIfAbsent(tableRef, unused -> new ConcurrentSkipListMap<>());
+        return writesByTable.computeIfAbsent(tableRef, unused -> localWriteBuffer.newTableWrites());
     }
 
     /**
@@ -1522,6 +1598,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         while (true) {
             ensureUncommitted();
             if (state.compareAndSet(State.UNCOMMITTED, State.ABORTED)) {
+                localWriteBuffer.close();
                 if (hasWrites()) {
                     throwIfPreCommitRequirementsNotMet(null, getStartTimestamp());
                 }
@@ -1558,9 +1635,69 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     @Override
     public void commit(TransactionService transactionService) {
-        if (state.get() == State.COMMITTED) {
+        if (!startCommitting()) {
             return;
         }
+
+        boolean success = false;
+        try {
+            checkCanCommit();
+            commitWrites(transactionService);
+            logCommitTime();
+            success = true;
+        } finally {
+            // Once we are in state committing, we need to try/finally to set the state to a terminal state.
+            finishCommitting(success);
+        }
+        publishReadsToValueCache();
+    }
+
+    /**
+     * Commits as {@link #commit()} does, but runs each stage of the commit on the given executor once the previous
+     * stage has completed, so that no thread waits for the commit as a whole.
+     */
+    ListenableFuture<Void> commitAsync(Executor executor) {
+        try {
+            if (!startCommitting()) {
+                return Futures.immediateVoidFuture();
+            }
+        } catch (RuntimeException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        ListenableFuture<Void> committed;
+        try {
+            checkCanCommit();
+            committed = commitWritesAsync(defaultTransactionService, executor);
+        } catch (RuntimeException e) {
+            committed = Futures.immediateFailedFuture(e);
+        }
+        ListenableFuture<Void> failureRecorded = Futures.catchingAsync(
+                committed,
+                Throwable.class,
+                thrown -> {
+                    finishCommitting(false);
+                    return Futures.immediateFailedFuture(thrown);
+                },
+                MoreExecutors.directExecutor());
+        return Futures.transform(
+                failureRecorded,
+                ignored -> {
+                    logCommitTime();
+                    finishCommitting(true);
+                    publishReadsToValueCache();
+                    return null;
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Moves this transaction to the committing state, returning false if it has already been committed.
+     */
+    private boolean startCommitting() {
+        if (state.get() == State.COMMITTED) {
+            return false;
+        }
         if (state.get() == State.FAILED) {
             throw new SafeIllegalStateException("this transaction has already failed");
         }
@@ -1578,33 +1715,59 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 || getTransactionType() == TransactionType.HARD_DELETE) {
             cleaner.queueCellsForScrubbing(getCellsToQueueForScrubbing(), getStartTimestamp());
         }
+        return true;
+    }
 
-        boolean success = false;
-        try {
-            if (numWriters.get() > 0) {
-                // After we set state to committing we need to make sure no one is still writing.
-                throw new SafeIllegalStateException("Cannot commit while other threads are still calling put.");
-            }
+    private void checkCanCommit() {
+        if (numWriters.get() > 0) {
+            // After we set state to committing we need to make sure no one is still writing.
+            throw new SafeIllegalStateException("Cannot commit while other threads are still calling put.");
+        }
 
-            checkConstraints();
-            commitWrites(transactionService);
-            if (perfLogger.isDebugEnabled()) {
-                long transactionMillis = TimeUnit.NANOSECONDS.toMillis(transactionTimerContext.stop());
-                perfLogger.debug("Committed transaction {} in {}ms", getStartTimestamp(), transactionMillis);
-            }
-            success = true;
-        } finally {
-            // Once we are in state committing, we need to try/finally to set the state to a terminal state.
-            if (success) {
-                state.set(State.COMMITTED);
-                transactionOutcomeMetrics.markSuccessfulCommit();
-            } else {
-                state.set(State.FAILED);
-                transactionOutcomeMetrics.markFailedCommit();
-            }
+        checkConstraints();
+    }
+
+    private void logCommitTime() {
+        if (perfLogger.isDebugEnabled()) {
+            long transactionMillis = TimeUnit.NANOSECONDS.toMillis(transactionTimerContext.stop());
+            perfLogger.debug("Committed transaction {} in {}ms", getStartTimestamp(), transactionMillis);
+        }
+    }
+
+    private void finishCommitting(boolean success) {
+        localWriteBuffer.close();
+        if (success) {
+            state.set(State.COMMITTED);
+            transactionOutcomeMetrics.markSuccessfulCommit();
+        } else {
+            state.set(State.FAILED);
+            transactionOutcomeMetrics.markFailedCommit();
         }
     }
 
+    private void publishReadsToValueCache() {
+        TransactionScopedCache cache = transactionScopedCache.get();
+        if (cache != null) {
+            cache.onCommit(KeyedStream.stream(writesByTable)
+                    .<Set<Cell>>map(ConcurrentNavigableMap::keySet)
+                    .collectToMap());
+        }
+    }
+
+    /**
+     * Values of a table may only be cached if writers to the table take out locks, as otherwise writes are invisible
+     * to lock watches.
+     */
+    private TransactionScopedCache getCacheForTable(TableReference tableRef) {
+        ConflictHandler conflictHandler = conflictDetectionManager.get(tableRef);
+        if (conflictHandler == null
+                || !(conflictHandler.lockCellsForConflicts() || conflictHandler.lockRowsForConflicts())) {
+            return NoOpTransactionScopedCache.create();
+        }
+        return transactionScopedCache.updateAndGet(existing ->
+                existing != null ? existing : lockWatchManager.getTransactionScopedCache(getStartTimestamp()));
+    }
+
     private void checkConstraints() {
         List<String> violations = new ArrayList<>();
         for (Map.Entry<TableReference, ConstraintCheckable> entry : constraintsByTableName.entrySet()) {
@@ -1624,17 +1787,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     private void commitWrites(TransactionService transactionService) {
         if (!hasWrites()) {
-            if (hasReads() || hasAnyInvolvedTables()) {
-                // verify any pre-commit conditions on the transaction
-                preCommitCondition.throwIfConditionInvalid(getStartTimestamp());
-
-                // if there are no writes, we must still make sure the immutable timestamp lock is still valid,
-                // to ensure that sweep hasn't thoroughly deleted cells we tried to read
-                if (validationNecessaryForInvolvedTablesOnCommit()) {
-                    throwIfImmutableTsOrCommitLocksExpired(null);
-                }
-                return;
-            }
+            validateCommitWithoutWrites();
             return;
         }
 
@@ -1653,11 +1806,11 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
                 // Write to the targeted sweep queue. We must do this before writing to the key value service -
                 // otherwise we may have hanging values that targeted sweep won't know about.
-                timedAndTraced("writingToSweepQueue", () -> sweepQueue.enqueue(writesByTable, getStartTimestamp()));
+                timedAndTraced("writingToSweepQueue", this::writeToSweepQueue);
 
                 // Write to the key value service. We must do this before getting the commit timestamp - otherwise
                 // we risk another transaction starting at a timestamp after our commit timestamp not seeing our writes.
-                timedAndTraced("commitWrite", () -> keyValueService.multiPut(writesByTable, getStartTimestamp()));
+                timedAndTraced("commitWrite", this::writeToKeyValueService);
 
                 // Now that all writes are done, get the commit timestamp
                 // We must do this before we check that our locks are still valid to ensure that other transactions that
@@ -1666,42 +1819,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 long commitTimestamp = timedAndTraced(
                         "getCommitTimestamp",
                         () -> timelockService.getCommitTimestamp(getStartTimestamp(), commitLocksToken));
-                commitTsForScrubbing = commitTimestamp;
-
-                // Punch on commit so that if hard delete is the only thing happening on a system,
-                // we won't block forever waiting for the unreadable timestamp to advance past the
-                // scrub timestamp (same as the hard delete transaction's start timestamp).
-                // May not need to be here specifically, but this is a very cheap operation - scheduling another thread
-                // might well cost more.
-                // Not timed as this is generally an asynchronous operation.
-                traced("microsForPunch", () -> cleaner.punch(commitTimestamp));
-
-                // Serializable transactions need to check their reads haven't changed, by reading again at
-                // commitTs + 1. This must happen before the lock check for thorough tables, because the lock check
-                // verifies the immutable timestamp hasn't moved forward - thorough sweep might sweep a conflict out
-                // from underneath us.
-                timedAndTraced(
-                        "readWriteConflictCheck", () -> throwIfReadWriteConflictForSerializable(commitTimestamp));
-
-                // Verify that our locks and pre-commit conditions are still valid before we actually commit;
-                // this throwIfPreCommitRequirementsNotMet is required by the transaction protocol for correctness.
-                // We check the pre-commit conditions first since they may operate similarly to read write conflict
-                // handling - we should check lock validity last to ensure that sweep hasn't affected the checks.
-                timedAndTraced("userPreCommitCondition", () -> throwIfPreCommitConditionInvalid(commitTimestamp));
-
-                // Not timed, because this just calls ConjureTimelockServiceBlocking.refreshLockLeases, and that is
-                // timed.
-                traced("preCommitLockCheck", () -> throwIfImmutableTsOrCommitLocksExpired(commitLocksToken));
-
-                // Not timed, because this just calls TransactionService.putUnlessExists, and that is timed.
-                traced(
-                        "commitPutCommitTs",
-                        () -> putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService));
-
-                long microsSinceCreation = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis() - timeCreated);
-                getTimer("commitTotalTimeSinceTxCreation").update(microsSinceCreation, TimeUnit.MICROSECONDS);
-                getHistogram(AtlasDbMetricNames.SNAPSHOT_TRANSACTION_BYTES_WRITTEN)
-                        .update(byteCount.get());
+                checkCommitIsValidAt(commitTimestamp, commitLocksToken);
+                putCommitTimestampAndRecordMetrics(commitTimestamp, commitLocksToken, transactionService);
             } finally {
                 // Not timed because tryUnlock() is an asynchronous operation.
                 traced("postCommitUnlock", () -> timelockService.tryUnlock(ImmutableSet.of(commitLocksToken)));
@@ -1709,6 +1828,153 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         });
     }
 
+    private void validateCommitWithoutWrites() {
+        if (hasReads() || hasAnyInvolvedTables()) {
+            // verify any pre-commit conditions on the transaction
+            preCommitCondition.throwIfConditionInvalid(getStartTimestamp());
+
+            // if there are no writes, we must still make sure the immutable timestamp lock is still valid,
+            // to ensure that sweep hasn't thoroughly deleted cells we tried to read
+            if (validationNecessaryForInvolvedTablesOnCommit()) {
+                throwIfImmutableTsOrCommitLocksExpired(null);
+            }
+        }
+    }
+
+    /**
+     * The stages of committing writes, as in {@link #commitWrites(TransactionService)}, with each stage run on the
+     * given executor once the previous stage has completed. The order of the stages, and the reasons for it, are as
+     * in commitWrites.
+     */
+    private ListenableFuture<Void> commitWritesAsync(TransactionService transactionService, Executor executor) {
+        if (!hasWrites()) {
+            return Futures.submit(this::validateCommitWithoutWrites, executor);
+        }
+
+        Timer.Context commitStageTimer = getTimer("commitStage").time();
+        ListenableFuture<LockToken> commitLocks =
+                Futures.submit(() -> timedAndTraced("commitAcquireLocks", this::acquireLocksForCommit), executor);
+        ListenableFuture<Void> committed = Futures.transformAsync(
+                commitLocks,
+                commitLocksToken -> {
+                    ListenableFuture<Void> written =
+                            commitWritesHoldingLocksAsync(commitLocksToken, transactionService, executor);
+                    written.addListener(
+                            () -> traced(
+                                    "postCommitUnlock",
+                                    () -> timelockService.tryUnlock(ImmutableSet.of(commitLocksToken))),
+                            MoreExecutors.directExecutor());
+                    return written;
+                },
+                MoreExecutors.directExecutor());
+        committed.addListener(commitStageTimer::stop, MoreExecutors.directExecutor());
+        return committed;
+    }
+
+    /**
+     * Building the entries of the sweep queue is timed separately from writing them, so that the round trips to the
+     * key value service made by the sweep queue can be told apart from the cost of large transactions.
+     */
+    private void writeToSweepQueue() {
+        localWriteBuffer.forEachChunk(writesByTable, chunk -> {
+            List<WriteInfo> writeInfos = timedAndTraced(
+                    "writingToSweepQueueBuildWriteInfos", () -> sweepQueue.toWriteInfos(chunk, getStartTimestamp()));
+            timedAndTraced("writingToSweepQueueEnqueue", () -> sweepQueue.enqueue(writeInfos));
+        });
+    }
+
+    private void writeToKeyValueService() {
+        localWriteBuffer.forEachChunk(writesByTable, chunk -> keyValueService.multiPut(chunk, getStartTimestamp()));
+    }
+
+    private ListenableFuture<Void> commitWritesHoldingLocksAsync(
+            LockToken commitLocksToken, TransactionService transactionService, Executor executor) {
+        ListenableFuture<Void> conflictsChecked = Futures.submit(
+                () -> timedAndTraced(
+                        "commitCheckingForConflicts",
+                        () -> throwIfConflictOnCommit(commitLocksToken, transactionService)),
+                executor);
+        ListenableFuture<Void> enqueued = thenRun(
+                conflictsChecked,
+                () -> timedAndTraced("writingToSweepQueue", this::writeToSweepQueue),
+                executor);
+        ListenableFuture<Void> written = thenRun(
+                enqueued,
+                () -> timedAndTraced("commitWrite", this::writeToKeyValueService),
+                executor);
+        ListenableFuture<Long> commitTimestamp = Futures.transform(
+                written,
+                ignored -> timedAndTraced(
+                        "getCommitTimestamp",
+                        () -> timelockService.getCommitTimestamp(getStartTimestamp(), commitLocksToken)),
+                executor);
+        ListenableFuture<Long> validated = Futures.transform(
+                commitTimestamp,
+                commitTs -> {
+                    checkCommitIsValidAt(commitTs, commitLocksToken);
+                    return commitTs;
+                },
+                executor);
+        return Futures.transform(
+                validated,
+                commitTs -> {
+                    putCommitTimestampAndRecordMetrics(commitTs, commitLocksToken, transactionService);
+                    return null;
+                },
+                executor);
+    }
+
+    private static ListenableFuture<Void> thenRun(ListenableFuture<?> previous, Runnable stage, Executor executor) {
+        return Futures.transform(
+                previous,
+                ignored -> {
+                    stage.run();
+                    return null;
+                },
+                executor);
+    }
+
+    /**
+     * Checks that the transaction can still commit at the given commit timestamp, once its writes are done.
+     */
+    private void checkCommitIsValidAt(long commitTimestamp, LockToken commitLocksToken) {
+        commitTsForScrubbing = commitTimestamp;
+
+        // Punch on commit so that if hard delete is the only thing happening on a system,
+        // we won't block forever waiting for the unreadable timestamp to advance past the
+        // scrub timestamp (same as the hard delete transaction's start timestamp).
+        // May not need to be here specifically, but this is a very cheap operation - scheduling another thread
+        // might well cost more.
+        // Not timed as this is generally an asynchronous operation.
+        traced("microsForPunch", () -> cleaner.punch(commitTimestamp));
+
+        // Serializable transactions need to check their reads haven't changed, by reading again at
+        // commitTs + 1. This must happen before the lock check for thorough tables, because the lock check
+        // verifies the immutable timestamp hasn't moved forward - thorough sweep might sweep a conflict out
+        // from underneath us.
+        timedAndTraced("readWriteConflictCheck", () -> throwIfReadWriteConflictForSerializable(commitTimestamp));
+
+        // Verify that our locks and pre-commit conditions are still valid before we actually commit;
+        // this throwIfPreCommitRequirementsNotMet is required by the transaction protocol for correctness.
+        // We check the pre-commit conditions first since they may operate similarly to read write conflict
+        // handling - we should check lock validity last to ensure that sweep hasn't affected the checks.
+        timedAndTraced("userPreCommitCondition", () -> throwIfPreCommitConditionInvalid(commitTimestamp));
+
+        // Not timed, because this just calls ConjureTimelockServiceBlocking.refreshLockLeases, and that is
+        // timed.
+        traced("preCommitLockCheck", () -> throwIfImmutableTsOrCommitLocksExpired(commitLocksToken));
+    }
+
+    private void putCommitTimestampAndRecordMetrics(
+            long commitTimestamp, LockToken commitLocksToken, TransactionService transactionService) {
+        // Not timed, because this just calls TransactionService.putUnlessExists, and that is timed.
+        traced("commitPutCommitTs", () -> putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService));
+
+        long microsSinceCreation = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis() - timeCreated);
+        getTimer("commitTotalTimeSinceTxCreation").update(microsSinceCreation, TimeUnit.MICROSECONDS);
+        getHistogram(AtlasDbMetricNames.SNAPSHOT_TRANSACTION_BYTES_WRITTEN).update(byteCount.get());
+    }
+
     private void traced(String spanName, Runnable runnable) {
         try (CloseableTracer tracer = CloseableTracer.startSpan(spanName)) {
             runnable.run();
@@ -22,6 +22,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.cleaner.api.Cleaner;
@@ -32,6 +35,7 @@ import com.palantir.atlasdb.keyvalue.api.watch.LockWatchManager;
 import com.palantir.atlasdb.monitoring.TimestampTracker;
 import com.palantir.atlasdb.sweep.queue.MultiTableSweepQueueWriter;
 import com.palantir.atlasdb.transaction.TransactionConfig;
+import com.palantir.atlasdb.transaction.api.AsyncTransactionTask;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConditionAwareTransactionTask;
 import com.palantir.atlasdb.transaction.api.KeyValueServiceStatus;
@@ -49,6 +53,8 @@ import com.palantir.atlasdb.transaction.impl.metrics.ToplistDeltaFilteringTableL
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.LockService;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
@@ -64,6 +70,7 @@ import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -94,6 +101,7 @@ import org.slf4j.LoggerFactory;
     final boolean allowHiddenTableAccess;
     final ExecutorService getRangesExecutor;
     final ExecutorService deleteExecutor;
+    final ExecutorService serializableVerificationExecutor;
     final int defaultGetRangesConcurrency;
     final MultiTableSweepQueueWriter sweepQueueWriter;
     final boolean validateLocksOnReads;
@@ -103,6 +111,8 @@ import org.slf4j.LoggerFactory;
     final TableLevelMetricsController tableLevelMetricsController;
 
     private final ConflictTracer conflictTracer;
+    private final ExecutorService asyncTransactionExecutor;
+    private final ScheduledExecutorService asyncRetryExecutor;
 
     protected SnapshotTransactionManager(
             MetricsManager metricsManager,
@@ -148,9 +158,14 @@ import org.slf4j.LoggerFactory;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
         this.sweepQueueWriter = sweepQueueWriter;
         this.deleteExecutor = deleteExecutor;
+        this.serializableVerificationExecutor =
+                PTExecutors.newCachedThreadPool("serializable-transaction-verification");
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
         this.conflictTracer = conflictTracer;
+        this.asyncTransactionExecutor = PTExecutors.newCachedThreadPool("async-transactions");
+        this.asyncRetryExecutor = PTExecutors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("async-transaction-retries", true /* daemon */));
         this.tableLevelMetricsController =
                 new MemoizingTableLevelMetricsController(ToplistDeltaFilteringTableLevelMetricsController.create(
                         metricsManager, metricsFilterEvaluationContext));
@@ -174,6 +189,30 @@ import org.slf4j.LoggerFactory;
         }
     }
 
+    /**
+     * Starts each attempt, and runs each stage of its commit, on a shared executor, so that no thread waits for the
+     * transaction as a whole. Reads of cells are only asynchronous if the key value service is.
+     */
+    @Override
+    public <T> ListenableFuture<T> runTaskWithRetryAsync(AsyncTransactionTask<T> task) {
+        return transactionConfig
+                .get()
+                .retryStrategy()
+                .runWithRetryAsync(
+                        this::shouldStopRetrying, () -> runTaskThrowOnConflictAsync(task), asyncRetryExecutor);
+    }
+
+    private <T> ListenableFuture<T> runTaskThrowOnConflictAsync(AsyncTransactionTask<T> task) {
+        return Futures.submitAsync(
+                () -> {
+                    checkOpen();
+                    OpenTransactionImpl openTransaction =
+                            runTimed(() -> startTransaction(PreCommitConditions.NO_OP), "setupTask");
+                    return openTransaction.finishAsync(task);
+                },
+                asyncTransactionExecutor);
+    }
+
     @Override
     public List<OpenTransaction> startTransactions(List<? extends PreCommitCondition> conditions) {
         if (conditions.isEmpty()) {
@@ -212,6 +251,10 @@ import org.slf4j.LoggerFactory;
         }
     }
 
+    private OpenTransactionImpl startTransaction(PreCommitCondition condition) {
+        return (OpenTransactionImpl) Iterables.getOnlyElement(startTransactions(ImmutableList.of(condition)));
+    }
+
     private final class OpenTransactionImpl extends ForwardingTransaction implements OpenTransaction {
 
         private final Transaction delegate;
@@ -227,6 +270,31 @@ import org.slf4j.LoggerFactory;
             return delegate;
         }
 
+        /**
+         * Runs the task as {@link #finish(TransactionTask)} does, committing the transaction once the future returned
+         * by the task has completed.
+         */
+        private <T> ListenableFuture<T> finishAsync(AsyncTransactionTask<T> task) {
+            Transaction tx = delegate;
+            ListenableFuture<T> result =
+                    runTaskThrowOnConflictAsync(wrapAsyncTaskIfNecessary(task, immutableTsLock), tx);
+            ListenableFuture<T> cleanedUp = Futures.whenAllComplete(result)
+                    .callAsync(
+                            () -> {
+                                lockWatchEventCache.removeTransactionStateFromCache(getTimestamp());
+                                timelockService.tryUnlock(ImmutableSet.of(immutableTsLock));
+                                return result;
+                            },
+                            asyncTransactionExecutor);
+            return Futures.transform(
+                    cleanedUp,
+                    value -> {
+                        scrubForAggressiveHardDelete(extractSnapshotTransaction(tx));
+                        return value;
+                    },
+                    asyncTransactionExecutor);
+        }
+
         @Override
         public <T, E extends Exception> T finish(TransactionTask<T, E> task)
                 throws E, TransactionFailedRetriableException {
@@ -265,6 +333,49 @@ import org.slf4j.LoggerFactory;
         return task;
     }
 
+    private <T> AsyncTransactionTask<T> wrapAsyncTaskIfNecessary(
+            AsyncTransactionTask<T> task, LockToken immutableTsLock) {
+        if (taskWrappingIsNecessary()) {
+            return LockCheckingTransactionTask.wrapAsync(
+                    task, timelockService, immutableTsLock, asyncTransactionExecutor);
+        }
+        return task;
+    }
+
+    /**
+     * Runs the task as {@link #runTaskThrowOnConflict(TransactionTask, Transaction)} does, committing the transaction
+     * once the future returned by the task has completed. The commit is run by the underlying snapshot transaction.
+     */
+    private <T> ListenableFuture<T> runTaskThrowOnConflictAsync(AsyncTransactionTask<T> task, Transaction txn) {
+        ListenableFuture<T> result;
+        try {
+            result = task.execute(txn);
+        } catch (RuntimeException e) {
+            result = Futures.immediateFailedFuture(e);
+        }
+        ListenableFuture<T> committed = Futures.transformAsync(
+                result,
+                value -> {
+                    if (!txn.isUncommitted()) {
+                        return Futures.immediateFuture(value);
+                    }
+                    return Futures.transform(
+                            extractSnapshotTransaction(txn).commitAsync(asyncTransactionExecutor),
+                            ignored -> value,
+                            MoreExecutors.directExecutor());
+                },
+                MoreExecutors.directExecutor());
+        // Make sure that anyone trying to retain a reference to this transaction will not be able to use it.
+        committed.addListener(
+                () -> {
+                    if (txn.isUncommitted()) {
+                        txn.abort();
+                    }
+                },
+                MoreExecutors.directExecutor());
+        return committed;
+    }
+
     private boolean taskWrappingIsNecessary() {
         return !validateLocksOnReads;
     }
@@ -312,11 +423,35 @@ import org.slf4j.LoggerFactory;
         }
     }
 
+    @Override
+    public <T> ListenableFuture<T> runTaskReadOnlyAsync(AsyncTransactionTask<T> task) {
+        if (transactionConfig.get().lockImmutableTsOnReadOnlyTransactions()) {
+            return runTaskThrowOnConflictAsync(task);
+        }
+        return Futures.submitAsync(
+                () -> {
+                    checkOpen();
+                    SnapshotTransaction transaction = createReadOnlyTransaction(PreCommitConditions.NO_OP);
+                    return runTaskThrowOnConflictAsync(task, new ReadTransaction(transaction, sweepStrategyManager));
+                },
+                asyncTransactionExecutor);
+    }
+
     private <T, C extends PreCommitCondition, E extends Exception> T runTaskWithConditionReadOnlyInternal(
             C condition, ConditionAwareTransactionTask<T, C, E> task) throws E {
         checkOpen();
+        SnapshotTransaction transaction = createReadOnlyTransaction(condition);
+        try {
+            return runTaskThrowOnConflict(
+                    txn -> task.execute(txn, condition), new ReadTransaction(transaction, sweepStrategyManager));
+        } finally {
+            condition.cleanup();
+        }
+    }
+
+    private SnapshotTransaction createReadOnlyTransaction(PreCommitCondition condition) {
         long immutableTs = getApproximateImmutableTimestamp();
-        SnapshotTransaction transaction = new SnapshotTransaction(
+        return new SnapshotTransaction(
                 metricsManager,
                 keyValueService,
                 timelockService,
@@ -342,12 +477,6 @@ import org.slf4j.LoggerFactory;
                 transactionConfig,
                 conflictTracer,
                 tableLevelMetricsController);
-        try {
-            return runTaskThrowOnConflict(
-                    txn -> task.execute(txn, condition), new ReadTransaction(transaction, sweepStrategyManager));
-        } finally {
-            condition.cleanup();
-        }
     }
 
     @Override
@@ -379,6 +508,9 @@ import org.slf4j.LoggerFactory;
             shutdownRunner.shutdownSafely(keyValueService::close);
             shutdownRunner.shutdownSafely(() -> shutdownExecutor(deleteExecutor));
             shutdownRunner.shutdownSafely(() -> shutdownExecutor(getRangesExecutor));
+            shutdownRunner.shutdownSafely(() -> shutdownExecutor(serializableVerificationExecutor));
+            shutdownRunner.shutdownSafely(() -> shutdownExecutor(asyncTransactionExecutor));
+            shutdownRunner.shutdownSafely(() -> shutdownExecutor(asyncRetryExecutor));
             shutdownRunner.shutdownSafely(this::closeLockServiceIfPossible);
 
             for (Runnable callback : Lists.reverse(closingCallbacks)) {
@@ -0,0 +1,189 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.cache.TimestampCache;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.CheckForNull;
+
+/**
+ * This class coalesces read (that is, get) requests to an underlying {@link TransactionService}, so that concurrent
+ * lookups from many transactions are served by one batched read of the transactions table. Writes are passed
+ * straight through to the delegate.
+ *
+ * Lookups are single-flight: a caller asking for a start timestamp that is already waiting to be looked up shares
+ * the future of that lookup, rather than queueing another read for it. Committed timestamps that are read are
+ * put into the {@link TimestampCache} once per batch, and lookups that hit the cache do not enter a batch at all.
+ * As with the cache itself, uncommitted (null) results are never cached.
+ */
+public final class ReadCoalescingTransactionService implements TransactionService {
+    private final TransactionService delegate;
+    private final TimestampCache timestampCache;
+    private final DisruptorAutobatcher<Long, Long> autobatcher;
+    private final ConcurrentMap<Long, ListenableFuture<Long>> queuedLookups;
+
+    private ReadCoalescingTransactionService(
+            TransactionService delegate,
+            TimestampCache timestampCache,
+            DisruptorAutobatcher<Long, Long> autobatcher,
+            ConcurrentMap<Long, ListenableFuture<Long>> queuedLookups) {
+        this.delegate = delegate;
+        this.timestampCache = timestampCache;
+        this.autobatcher = autobatcher;
+        this.queuedLookups = queuedLookups;
+    }
+
+    public static TransactionService create(TransactionService delegate, TimestampCache timestampCache) {
+        ConcurrentMap<Long, ListenableFuture<Long>> queuedLookups = new ConcurrentHashMap<>();
+        DisruptorAutobatcher<Long, Long> autobatcher = Autobatchers.<Long, Long>coalescing(startTimestamps -> {
+                    startTimestamps.forEach(queuedLookups::remove);
+                    return processBatch(delegate, timestampCache, startTimestamps);
+                })
+                .safeLoggablePurpose("read-coalescing-transaction-service")
+                .build();
+        return new ReadCoalescingTransactionService(delegate, timestampCache, autobatcher, queuedLookups);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return AtlasFutures.getUnchecked(getAsync(startTimestamp));
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        return AtlasFutures.getUnchecked(getAsync(startTimestamps));
+    }
+
+    @Override
+    public ListenableFuture<Long> getAsync(long startTimestamp) {
+        Long cached = timestampCache.getCommitTimestampIfPresent(startTimestamp);
+        if (cached != null) {
+            return Futures.immediateFuture(cached);
+        }
+        return lookup(startTimestamp);
+    }
+
+    @Override
+    public ListenableFuture<Map<Long, Long>> getAsync(Iterable<Long> startTimestamps) {
+        Map<Long, Long> result = new HashMap<>();
+        Map<Long, ListenableFuture<Long>> pendingLookups = new HashMap<>();
+        for (Long startTimestamp : startTimestamps) {
+            Long cached = timestampCache.getCommitTimestampIfPresent(startTimestamp);
+            if (cached != null) {
+                result.put(startTimestamp, cached);
+            } else {
+                pendingLookups.computeIfAbsent(startTimestamp, this::lookup);
+            }
+        }
+
+        if (pendingLookups.isEmpty()) {
+            return Futures.immediateFuture(result);
+        }
+
+        List<Long> requested = ImmutableList.copyOf(pendingLookups.keySet());
+        return Futures.transform(
+                Futures.allAsList(pendingLookups.values()),
+                commitTimestamps -> {
+                    for (int index = 0; index < requested.size(); index++) {
+                        Long commitTimestamp = commitTimestamps.get(index);
+                        if (commitTimestamp != null) {
+                            result.put(requested.get(index), commitTimestamp);
+                        }
+                    }
+                    return result;
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        delegate.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void putUnlessExistsMultiple(Map<Long, Long> startTimestampToCommitTimestamp) {
+        delegate.putUnlessExistsMultiple(startTimestampToCommitTimestamp);
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+        delegate.close();
+    }
+
+    /**
+     * Lookups are only shared while they are queued, and stop being shared once their batch starts reading. A caller
+     * that has just waited for a transaction to finish committing therefore never gets the result of a read that
+     * began before the commit, which could spuriously report the transaction as uncommitted.
+     */
+    private ListenableFuture<Long> lookup(long startTimestamp) {
+        // Not computeIfAbsent, as publishing to a full autobatcher blocks, and must not do so while holding a lock
+        // that the batch needs to make progress.
+        SettableFuture<Long> lookup = SettableFuture.create();
+        ListenableFuture<Long> queuedLookup = queuedLookups.putIfAbsent(startTimestamp, lookup);
+        if (queuedLookup != null) {
+            return queuedLookup;
+        }
+        // Catches lookups that fail without their batch being processed.
+        lookup.addListener(() -> queuedLookups.remove(startTimestamp, lookup), MoreExecutors.directExecutor());
+        try {
+            lookup.setFuture(autobatcher.apply(startTimestamp));
+        } catch (RuntimeException e) {
+            lookup.setException(e);
+        }
+        return lookup;
+    }
+
+    /**
+     * Reads the commit timestamps of a deduplicated batch of start timestamps in one request to the delegate.
+     * The result has an entry for every requested start timestamp, with a null value if it has not committed, since
+     * the autobatcher fails requests that are missing from it.
+     */
+    @VisibleForTesting
+    static Map<Long, Long> processBatch(
+            TransactionService delegate, TimestampCache timestampCache, Set<Long> startTimestamps) {
+        // The autobatcher reuses the set it passes in once the batch completes.
+        Map<Long, Long> commitTimestamps = delegate.get(ImmutableSet.copyOf(startTimestamps));
+        Map<Long, Long> result = Maps.newHashMapWithExpectedSize(startTimestamps.size());
+        for (Long startTimestamp : startTimestamps) {
+            Long commitTimestamp = commitTimestamps.get(startTimestamp);
+            if (commitTimestamp != null) {
+                timestampCache.putAlreadyCommittedTransaction(startTimestamp, commitTimestamp);
+            }
+            result.put(startTimestamp, commitTimestamp);
+        }
+        return result;
+    }
+}
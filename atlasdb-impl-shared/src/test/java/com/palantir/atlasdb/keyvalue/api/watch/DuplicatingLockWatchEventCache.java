@@ -47,6 +47,11 @@ class DuplicatingLockWatchEventCache implements LockWatchEventCache {
         return mainCache.lastKnownVersion();
     }
 
+    @Override
+    public Optional<LockWatchVersion> getStartTransactionVersion(long startTimestamp) {
+        return mainCache.getStartTransactionVersion(startTimestamp);
+    }
+
     @Override
     public void processStartTransactionsUpdate(Set<Long> startTimestamps, LockWatchStateUpdate update) {
         mainCache.processStartTransactionsUpdate(startTimestamps, update);
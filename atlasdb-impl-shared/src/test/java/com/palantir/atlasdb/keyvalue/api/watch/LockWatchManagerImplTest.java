@@ -22,7 +22,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
+import com.palantir.atlasdb.util.MetricsManagers;
 import com.palantir.lock.client.NamespacedConjureLockWatchingService;
 import com.palantir.lock.watch.LockWatchEventCache;
 import com.palantir.lock.watch.LockWatchReferences.LockWatchReference;
@@ -52,7 +54,11 @@ public final class LockWatchManagerImplTest {
 
     @Before
     public void before() {
-        manager = new LockWatchManagerImpl(lockWatchEventCache, lockWatchingService);
+        manager = new LockWatchManagerImpl(
+                MetricsManagers.createForTests(),
+                lockWatchEventCache,
+                lockWatchingService,
+                () -> AtlasDbConstants.DEFAULT_LOCK_WATCH_VALUE_CACHE_SIZE);
     }
 
     @Test
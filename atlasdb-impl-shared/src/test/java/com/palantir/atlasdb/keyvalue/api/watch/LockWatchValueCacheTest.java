@@ -0,0 +1,178 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.util.MetricsManagers;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.watch.ImmutableTransactionsLockWatchUpdate;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.LockWatchVersion;
+import com.palantir.lock.watch.UnlockEvent;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class LockWatchValueCacheTest {
+    private static final UUID LEADER = UUID.randomUUID();
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL = Cell.create(PtBytes.toBytes("row"), PtBytes.toBytes("col"));
+    private static final Cell OTHER_CELL = Cell.create(PtBytes.toBytes("row2"), PtBytes.toBytes("col"));
+    private static final byte[] VALUE = PtBytes.toBytes("value");
+    private static final LockDescriptor CELL_DESCRIPTOR =
+            AtlasCellLockDescriptor.of(TABLE.getQualifiedName(), CELL.getRowName(), CELL.getColumnName());
+    private static final LockDescriptor ROW_DESCRIPTOR =
+            AtlasRowLockDescriptor.of(TABLE.getQualifiedName(), CELL.getRowName());
+    private static final LockDescriptor OTHER_CELL_DESCRIPTOR = AtlasCellLockDescriptor.of(
+            TABLE.getQualifiedName(), OTHER_CELL.getRowName(), OTHER_CELL.getColumnName());
+    private static final LockWatchEvent WATCH_CREATED = LockWatchCreatedEvent.builder(
+                    ImmutableSet.of(LockWatchReferences.entireTable(TABLE.getQualifiedName())), ImmutableSet.of())
+            .build(1L);
+
+    private final LockWatchEventCache eventCache = mock(LockWatchEventCache.class);
+    private final AtomicLong maxCacheSize = new AtomicLong(100);
+    private LockWatchValueCache valueCache;
+
+    @Before
+    public void before() {
+        valueCache = new LockWatchValueCache(eventCache, MetricsManagers.createForTests(), maxCacheSize::get);
+    }
+
+    @Test
+    public void onlyWatchedTablesAreCacheable() {
+        LockWatchVersion version = startTransaction(1L, 1L, true, WATCH_CREATED);
+
+        assertThat(valueCache.isCacheable(TABLE, version)).isTrue();
+        assertThat(valueCache.isCacheable(OTHER_TABLE, version)).isFalse();
+    }
+
+    @Test
+    public void cachedValuesAreServedToLaterTransactions() {
+        LockWatchVersion first = startTransaction(1L, 1L, true, WATCH_CREATED);
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), first);
+
+        LockWatchVersion second = startTransaction(2L, 1L, false);
+        assertThat(valueCache.get(TABLE, ImmutableSet.of(CELL, OTHER_CELL), second))
+                .containsOnlyKeys(CELL)
+                .containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void lockEventsInvalidateCachedValues() {
+        LockWatchVersion first = startTransaction(1L, 1L, true, WATCH_CREATED);
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), first);
+
+        LockWatchVersion second = startTransaction(2L, 2L, false, lock(2L, ROW_DESCRIPTOR));
+        assertThat(valueCache.get(TABLE, ImmutableSet.of(CELL), second)).isEmpty();
+        assertThat(valueCache.size()).isZero();
+    }
+
+    @Test
+    public void valuesOfLockedCellsAreNotCached() {
+        startTransaction(1L, 1L, true, WATCH_CREATED);
+        LockWatchVersion version = startTransaction(2L, 2L, false, lock(2L, CELL_DESCRIPTOR));
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), version);
+        assertThat(valueCache.size()).isZero();
+
+        LockWatchVersion afterUnlock = startTransaction(3L, 3L, false, unlock(3L, CELL_DESCRIPTOR));
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), afterUnlock);
+        assertThat(valueCache.size()).isOne();
+    }
+
+    @Test
+    public void valuesReadBeforeLaterEventsAreNotCached() {
+        LockWatchVersion first = startTransaction(1L, 1L, true, WATCH_CREATED);
+        startTransaction(2L, 3L, false, lock(2L, CELL_DESCRIPTOR), unlock(3L, CELL_DESCRIPTOR));
+
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), first);
+        assertThat(valueCache.size()).isZero();
+    }
+
+    @Test
+    public void valuesAreNotServedToTransactionsOlderThanTheCachedVersion() {
+        LockWatchVersion first = startTransaction(1L, 1L, true, WATCH_CREATED);
+        LockWatchVersion second = startTransaction(2L, 2L, false, lock(2L, OTHER_CELL_DESCRIPTOR));
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), second);
+
+        assertThat(valueCache.get(TABLE, ImmutableSet.of(CELL), first)).isEmpty();
+        assertThat(valueCache.get(TABLE, ImmutableSet.of(CELL), second)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void leastRecentlyUsedValuesAreEvictedOnceTheCacheIsFull() {
+        maxCacheSize.set(1);
+        LockWatchVersion version = startTransaction(1L, 1L, true, WATCH_CREATED);
+        valueCache.putAll(TABLE, ImmutableMap.of(CELL, VALUE), version);
+        valueCache.putAll(TABLE, ImmutableMap.of(OTHER_CELL, VALUE), version);
+
+        assertThat(valueCache.size()).isOne();
+        assertThat(valueCache.get(TABLE, ImmutableSet.of(CELL, OTHER_CELL), version))
+                .containsOnlyKeys(OTHER_CELL);
+    }
+
+    @Test
+    public void unknownTransactionsDoNotUseTheCache() {
+        when(eventCache.getStartTransactionVersion(5L)).thenReturn(Optional.empty());
+        assertThat(valueCache.updateToTransactionVersion(5L)).isEmpty();
+    }
+
+    private LockWatchVersion startTransaction(
+            long startTs, long version, boolean clearCache, LockWatchEvent... events) {
+        LockWatchVersion lockWatchVersion = LockWatchVersion.of(LEADER, version);
+        List<LockWatchEvent> eventList = ImmutableList.copyOf(events);
+        when(eventCache.getStartTransactionVersion(startTs)).thenReturn(Optional.of(lockWatchVersion));
+        when(eventCache.getUpdateForTransactions(anySet(), any()))
+                .thenReturn(ImmutableTransactionsLockWatchUpdate.builder()
+                        .events(eventList)
+                        .clearCache(clearCache)
+                        .putStartTsToSequence(startTs, lockWatchVersion)
+                        .build());
+        assertThat(valueCache.updateToTransactionVersion(startTs)).contains(lockWatchVersion);
+        return lockWatchVersion;
+    }
+
+    private static LockWatchEvent lock(long sequence, LockDescriptor descriptor) {
+        return LockEvent.builder(ImmutableSet.of(descriptor), LockToken.of(UUID.randomUUID()))
+                .build(sequence);
+    }
+
+    private static LockWatchEvent unlock(long sequence, LockDescriptor descriptor) {
+        return UnlockEvent.builder(ImmutableSet.of(descriptor)).build(sequence);
+    }
+}
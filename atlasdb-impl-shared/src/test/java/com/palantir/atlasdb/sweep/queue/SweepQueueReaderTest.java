@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.sweep.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SweepQueueReaderTest {
+    private static final ShardAndStrategy SHARD = ShardAndStrategy.conservative(0);
+    private static final long SWEEP_TIMESTAMP = 1_000L;
+    private static final List<Long> FINE_PARTITIONS = ImmutableList.of(1L, 2L);
+
+    private final SweepableTimestamps sweepableTimestamps = mock(SweepableTimestamps.class);
+    private final SweepableCells sweepableCells = mock(SweepableCells.class);
+    private final List<ExecutorService> createdExecutors = new ArrayList<>();
+
+    private int partitionsToReadInParallel = 1;
+    private SweepQueueReader reader;
+
+    @Before
+    public void setUp() {
+        when(sweepableTimestamps.nextSweepableTimestampPartitions(eq(SHARD), eq(0L), eq(SWEEP_TIMESTAMP), anyInt()))
+                .thenAnswer(invocation -> FINE_PARTITIONS.subList(0, invocation.getArgument(3)));
+        when(sweepableCells.getBatchForPartition(eq(SHARD), anyLong(), anyLong(), eq(SWEEP_TIMESTAMP)))
+                .thenAnswer(invocation -> SweepBatch.of(
+                        ImmutableList.of(), DedicatedRows.of(ImmutableList.of()), invocation.getArgument(1)));
+
+        SweepQueueReader.ReadBatchingRuntimeContext runtime = SweepQueueReader.ReadBatchingRuntimeContext.builder()
+                .maximumPartitions(FINE_PARTITIONS::size)
+                .cellsThreshold(() -> SweepQueueUtils.SWEEP_BATCH_SIZE)
+                .maximumPartitionsToReadInParallel(() -> partitionsToReadInParallel)
+                .build();
+        reader = new SweepQueueReader(sweepableTimestamps, sweepableCells, runtime, this::createExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        createdExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    public void doesNotCreateExecutorWhenReadingOnePartitionAtATime() {
+        reader.getNextBatchToSweep(SHARD, 0L, SWEEP_TIMESTAMP);
+
+        verify(sweepableCells).getBatchForPartition(SHARD, 1L, 0L, SWEEP_TIMESTAMP);
+        assertThat(createdExecutors).isEmpty();
+    }
+
+    @Test
+    public void createsExecutorOnceWhenReadingPartitionsInParallel() {
+        partitionsToReadInParallel = 2;
+
+        reader.getNextBatchToSweep(SHARD, 0L, SWEEP_TIMESTAMP);
+        reader.getNextBatchToSweep(SHARD, 0L, SWEEP_TIMESTAMP);
+
+        verify(sweepableCells, times(2)).getBatchForPartition(SHARD, 2L, 0L, SWEEP_TIMESTAMP);
+        assertThat(createdExecutors).hasSize(1);
+    }
+
+    @Test
+    public void closeShutsDownExecutor() {
+        partitionsToReadInParallel = 2;
+        reader.getNextBatchToSweep(SHARD, 0L, SWEEP_TIMESTAMP);
+
+        reader.close();
+
+        assertThat(createdExecutors).hasSize(1);
+        assertThat(createdExecutors.get(0).isShutdown()).isTrue();
+    }
+
+    @Test
+    public void cannotReadPartitionsInParallelAfterClose() {
+        partitionsToReadInParallel = 2;
+        reader.close();
+
+        assertThatThrownBy(() -> reader.getNextBatchToSweep(SHARD, 0L, SWEEP_TIMESTAMP))
+                .isInstanceOf(SafeIllegalStateException.class);
+        verify(sweepableCells, never()).getBatchForPartition(eq(SHARD), anyLong(), anyLong(), anyLong());
+        assertThat(createdExecutors).isEmpty();
+    }
+
+    private ExecutorService createExecutor() {
+        ExecutorService executor = PTExecutors.newCachedThreadPool("sweep-queue-reader-test");
+        createdExecutors.add(executor);
+        return executor;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.sweep.queue;
+
+import static com.palantir.atlasdb.sweep.queue.ShardAndStrategy.conservative;
+import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.MAX_CELLS_GENERIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.schema.generated.TargetedSweepTableFactory;
+import com.palantir.atlasdb.sweep.metrics.SweepMetricsAssert;
+import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
+import com.palantir.lock.v2.TimelockService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class SweepQueueWriterTest extends AbstractSweepQueueTest {
+    private static final TableReference SWEEPABLE_CELLS =
+            TargetedSweepTableFactory.of().getSweepableCellsTable(null).getTableRef();
+    private static final TableReference SWEEPABLE_TIMESTAMPS =
+            TargetedSweepTableFactory.of().getSweepableTimestampsTable(null).getTableRef();
+    private static final int NUM_WRITES = MAX_CELLS_GENERIC * 2 + 1;
+
+    private SweepableCells sweepableCells;
+    private SweepableTimestamps sweepableTimestamps;
+    private SweepQueueWriter writer;
+
+    @Before
+    @Override
+    public void setup() {
+        super.setup();
+        TargetedSweepMetrics metrics = TargetedSweepMetrics.create(
+                metricsManager,
+                mock(TimelockService.class),
+                spiedKvs,
+                TargetedSweepMetrics.MetricsConfiguration.builder()
+                        .millisBetweenRecomputingMetrics(1)
+                        .build());
+        sweepableCells = new SweepableCells(spiedKvs, partitioner, metrics, txnService);
+        sweepableTimestamps = new SweepableTimestamps(spiedKvs, partitioner);
+        writer = new SweepQueueWriter(spiedKvs, sweepableTimestamps, sweepableCells, partitioner);
+    }
+
+    @Test
+    public void enqueueWritesBothTablesOfTheQueueInOneCall() {
+        putTimestampIntoTransactionTable(TS, TS);
+        writer.enqueue(writesInFixedShard(TS, NUM_WRITES));
+
+        ArgumentCaptor<Map<TableReference, Map<Cell, byte[]>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(spiedKvs, times(1)).multiPut(captor.capture(), eq(TS));
+        assertThat(captor.getValue()).containsOnlyKeys(SWEEPABLE_CELLS, SWEEPABLE_TIMESTAMPS);
+    }
+
+    @Test
+    public void enqueuedWritesCanBeReadFromBothTables() {
+        putTimestampIntoTransactionTable(TS, TS);
+        List<WriteInfo> writes = writesInFixedShard(TS, NUM_WRITES);
+        writer.enqueue(writes);
+
+        assertThat(sweepableTimestamps.nextSweepableTimestampPartition(
+                        conservative(FIXED_SHARD), SweepQueueUtils.INITIAL_TIMESTAMP, TS + 1))
+                .contains(TS_FINE_PARTITION);
+        assertThat(sweepableCells
+                        .getBatchForPartition(conservative(FIXED_SHARD), TS_FINE_PARTITION, TS - 1, TS + 1)
+                        .writes())
+                .containsExactlyInAnyOrderElementsOf(writes);
+        SweepMetricsAssert.assertThat(metricsManager).hasEnqueuedWritesConservativeEqualTo(NUM_WRITES);
+    }
+
+    @Test
+    public void enqueueDoesNotWriteIfNoWritesAreSwept() {
+        writer.enqueue(ImmutableList.of(WriteInfo.write(TABLE_NOTH, DEFAULT_CELL, TS)));
+
+        verify(spiedKvs, never()).multiPut(anyMap(), anyLong());
+    }
+
+    private static List<WriteInfo> writesInFixedShard(long timestamp, int number) {
+        List<WriteInfo> writes = new ArrayList<>();
+        for (long i = 0; i < number; i++) {
+            writes.add(WriteInfo.write(TABLE_CONS, getCellWithFixedHash(i), timestamp));
+        }
+        return writes;
+    }
+}
@@ -19,11 +19,14 @@ import static com.palantir.atlasdb.sweep.queue.ShardAndStrategy.conservative;
 import static com.palantir.atlasdb.sweep.queue.ShardAndStrategy.thorough;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.TS_FINE_GRANULARITY;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.maxTsForFinePartition;
+import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.minTsForCoarsePartition;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.minTsForFinePartition;
+import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.tsPartitionCoarse;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.tsPartitionFine;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.palantir.atlasdb.sweep.Sweeper;
+import java.util.List;
 import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
@@ -189,6 +192,31 @@ public class SweepableTimestampsTest extends AbstractSweepQueueTest {
         assertThat(readConservative(shardCons)).contains(tsPartitionFine(2L * TS_FINE_GRANULARITY + 1000L));
     }
 
+    @Test
+    public void getNextTimestampsInOrderUpToLimit() {
+        for (long timestamp = 1000L; tsPartitionFine(timestamp) < 10L; timestamp += TS_FINE_GRANULARITY / 5) {
+            writeToDefaultCellCommitted(sweepableTimestamps, timestamp, TABLE_CONS);
+        }
+        assertThat(readConservative(shardCons, 3)).containsExactly(0L, 1L, 2L);
+
+        progress.updateLastSweptTimestamp(conservative(shardCons), 2L * TS_FINE_GRANULARITY);
+        assertThat(readConservative(shardCons, 2)).containsExactly(2L, 3L);
+
+        setSweepTimestampAndGet(4 * TS_FINE_GRANULARITY);
+        assertThat(readConservative(shardCons, 5)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void getNextTimestampsAcrossCoarsePartitions() {
+        long nextCoarseTs = minTsForCoarsePartition(tsPartitionCoarse(TS) + 1);
+        writeToDefaultCellCommitted(sweepableTimestamps, nextCoarseTs, TABLE_CONS);
+        writeToDefaultCellCommitted(sweepableTimestamps, nextCoarseTs + TS_FINE_GRANULARITY, TABLE_CONS);
+
+        assertThat(readConservative(shardCons, 2)).containsExactly(TS_FINE_PARTITION, tsPartitionFine(nextCoarseTs));
+        assertThat(readConservative(shardCons, 5))
+                .containsExactly(TS_FINE_PARTITION, tsPartitionFine(nextCoarseTs), tsPartitionFine(nextCoarseTs) + 1);
+    }
+
     private Optional<Long> readConservative(int shardNumber) {
         return sweepableTimestamps.nextSweepableTimestampPartition(
                 conservative(shardNumber),
@@ -196,6 +224,14 @@ public class SweepableTimestampsTest extends AbstractSweepQueueTest {
                 Sweeper.CONSERVATIVE.getSweepTimestamp(timestampsSupplier));
     }
 
+    private List<Long> readConservative(int shardNumber, int limit) {
+        return sweepableTimestamps.nextSweepableTimestampPartitions(
+                conservative(shardNumber),
+                progress.getLastSweptTimestamp(ShardAndStrategy.conservative(shardNumber)),
+                Sweeper.CONSERVATIVE.getSweepTimestamp(timestampsSupplier),
+                limit);
+    }
+
     private Optional<Long> readThorough(int shardNumber) {
         return sweepableTimestamps.nextSweepableTimestampPartition(
                 thorough(shardNumber),
@@ -117,6 +117,7 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
     private PuncherStore puncherStore;
     private boolean enabled = true;
     private boolean enableAutoTuning = false;
+    private int partitionsToReadInParallel = 1;
 
     public TargetedSweeperTest(int readBatchSize) {
         this.readBatchSize = readBatchSize;
@@ -130,6 +131,7 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
                 .enabled(enabled)
                 .enableAutoTuning(enableAutoTuning)
                 .maximumPartitionsToBatchInSingleRead(readBatchSize)
+                .maximumPartitionsToReadInParallel(partitionsToReadInParallel)
                 .shards(DEFAULT_SHARDS)
                 .build();
         sweepQueue = TargetedSweeper.createUninitializedForTest(metricsManager, runtime);
@@ -1101,6 +1103,39 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
         assertReadAtTimestampReturnsSentinel(TABLE_CONS, maxTsForFinePartition(0) + 1);
     }
 
+    @Test
+    public void sweepReadsPartitionsInParallelAndProgressesInOrder() {
+        partitionsToReadInParallel = 4;
+        setSweepTimestamp(Long.MAX_VALUE);
+        for (int index = 0; index <= readBatchSize; index++) {
+            enqueueWriteCommitted(TABLE_CONS, minTsForFinePartition(2 * index) + LOW_TS);
+        }
+
+        sweepNextBatch(ShardAndStrategy.conservative(CONS_SHARD));
+        long timestampEndOfBatch = minTsForFinePartition(2 * (readBatchSize - 1)) + LOW_TS;
+        assertReadAtTimestampReturnsSentinel(TABLE_CONS, timestampEndOfBatch);
+        assertTestValueEnqueuedAtGivenTimestampStillPresent(TABLE_CONS, timestampEndOfBatch);
+        assertProgressUpdatedToTimestamp(maxTsForFinePartition(2 * (readBatchSize - 1)));
+        assertThat(metricsManager).hasEntriesReadConservativeEqualTo(readBatchSize);
+    }
+
+    @Test
+    public void sweepDoesNotAccumulatePartitionsReadInParallelAfterOneWithEntryCommittedAfterSweepTs() {
+        partitionsToReadInParallel = 4;
+        enableAutoTuning = true;
+
+        enqueueWriteCommitted(TABLE_CONS, LOW_TS);
+        enqueueWriteCommitedAt(TABLE_CONS, LOW_TS + 2, getSweepTsCons());
+        // write in the next fine partition
+        enqueueWriteCommitted(TABLE_CONS, maxTsForFinePartition(0) + 1);
+        enqueueTombstone(TABLE_CONS, maxTsForFinePartition(0) + 2);
+
+        sweepQueue.processShard(ShardAndStrategy.conservative(CONS_SHARD));
+
+        assertProgressUpdatedToTimestamp(LOW_TS + 1);
+        assertTestValueEnqueuedAtGivenTimestampStillPresent(TABLE_CONS, maxTsForFinePartition(0) + 1);
+    }
+
     private void writeValuesAroundSweepTimestampAndSweepAndCheck(long sweepTimestamp, int sweepIterations) {
         enqueueWriteCommitted(TABLE_CONS, sweepTimestamp - 10);
         enqueueWriteCommitted(TABLE_CONS, sweepTimestamp - 5);
@@ -0,0 +1,148 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.junit.After;
+import org.junit.Test;
+
+public class LocalWriteBufferTest {
+    private static final TableReference TABLE = TableReference.create(Namespace.EMPTY_NAMESPACE, "table");
+    private static final long SPILL_THRESHOLD_BYTES = 1_000;
+    private static final int VALUE_LENGTH = 100;
+    private static final int NUM_CELLS = 50;
+
+    private final LocalWriteBuffer buffer = LocalWriteBuffer.create(Optional.of(SPILL_THRESHOLD_BYTES));
+
+    @After
+    public void after() {
+        buffer.close();
+    }
+
+    @Test
+    public void writesAreHeldInSkipListMapsIfNoThresholdIsConfigured() {
+        assertThat(LocalWriteBuffer.create(Optional.empty()).newTableWrites())
+                .isInstanceOf(ConcurrentSkipListMap.class);
+    }
+
+    @Test
+    public void thresholdMustBePositive() {
+        assertThatThrownBy(() -> LocalWriteBuffer.create(Optional.of(0L)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void spilledValuesAreReadBackInOrder() {
+        ConcurrentNavigableMap<Cell, byte[]> writes = buffer.newTableWrites();
+        Map<Cell, byte[]> expected = writeCells(writes);
+
+        assertThat(writes).hasSize(NUM_CELLS);
+        expected.forEach((cell, value) -> assertThat(writes.get(cell)).isEqualTo(value));
+        List<Cell> cells = new ArrayList<>();
+        writes.forEach((cell, value) -> {
+            cells.add(cell);
+            assertThat(value).isEqualTo(expected.get(cell));
+        });
+        assertThat(cells).isSortedAccordingTo(Cell::compareTo);
+    }
+
+    @Test
+    public void viewsReadSpilledValues() {
+        ConcurrentNavigableMap<Cell, byte[]> writes = buffer.newTableWrites();
+        writeCells(writes);
+
+        ConcurrentNavigableMap<Cell, byte[]> view = writes.subMap(cell(10), cell(20));
+        assertThat(view).hasSize(10);
+        assertThat(view.firstEntry().getValue()).isEqualTo(value(10));
+        assertThat(view.descendingMap().firstEntry().getValue()).isEqualTo(value(19));
+        assertThat(writes.tailMap(cell(45)).keySet()).containsExactly(cell(45), cell(46), cell(47), cell(48), cell(49));
+    }
+
+    @Test
+    public void overwritingASpilledValueReturnsIt() {
+        ConcurrentNavigableMap<Cell, byte[]> writes = buffer.newTableWrites();
+        writeCells(writes);
+
+        assertThat(writes.put(cell(0), PtBytes.EMPTY_BYTE_ARRAY)).isEqualTo(value(0));
+        assertThat(writes.get(cell(0))).isEmpty();
+    }
+
+    @Test
+    public void overwritingAValueHeldInMemoryDoesNotCountItTwice() {
+        ConcurrentNavigableMap<Cell, byte[]> writes = buffer.newTableWrites();
+        for (int i = 0; i < NUM_CELLS; i++) {
+            writes.put(cell(0), value(i));
+        }
+        List<Map<TableReference, ? extends Map<Cell, byte[]>>> chunks = new ArrayList<>();
+        buffer.forEachChunk(ImmutableMap.of(TABLE, writes), chunks::add);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(writes.get(cell(0))).isEqualTo(value(NUM_CELLS - 1));
+    }
+
+    @Test
+    public void writesAreChunkedOnlyOnceSpilled() {
+        ConcurrentNavigableMap<Cell, byte[]> writes = buffer.newTableWrites();
+        writes.put(cell(0), value(0));
+        List<Map<TableReference, ? extends Map<Cell, byte[]>>> chunks = new ArrayList<>();
+        buffer.forEachChunk(ImmutableMap.of(TABLE, writes), chunks::add);
+        assertThat(chunks).hasSize(1);
+
+        Map<Cell, byte[]> expected = writeCells(writes);
+        chunks.clear();
+        buffer.forEachChunk(ImmutableMap.of(TABLE, writes), chunks::add);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        Map<Cell, byte[]> written = new HashMap<>();
+        chunks.forEach(chunk -> written.putAll(chunk.get(TABLE)));
+        assertThat(written).hasSameSizeAs(expected);
+        expected.forEach((cell, value) -> assertThat(written.get(cell)).isEqualTo(value));
+    }
+
+    private static Map<Cell, byte[]> writeCells(ConcurrentNavigableMap<Cell, byte[]> writes) {
+        Map<Cell, byte[]> expected = new HashMap<>();
+        for (int i = 0; i < NUM_CELLS; i++) {
+            writes.put(cell(i), value(i));
+            expected.put(cell(i), value(i));
+        }
+        return expected;
+    }
+
+    private static Cell cell(int index) {
+        return Cell.create(PtBytes.toBytes(String.format("row%02d", index)), PtBytes.toBytes("col"));
+    }
+
+    private static byte[] value(int index) {
+        byte[] value = new byte[VALUE_LENGTH];
+        value[0] = (byte) index;
+        return value;
+    }
+}
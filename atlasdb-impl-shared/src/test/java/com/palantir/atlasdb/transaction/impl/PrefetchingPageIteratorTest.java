@@ -0,0 +1,145 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.concurrent.PTExecutors;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class PrefetchingPageIteratorTest {
+    private static final int NUM_PAGES = 20;
+    private static final int PREFETCH_PAGES = 3;
+
+    private final ExecutorService executor = PTExecutors.newCachedThreadPool("prefetching-page-iterator-test");
+    private final Queue<Runnable> queuedTasks = new ArrayDeque<>();
+    private final Timer stallTimer = new Timer();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsAllPagesInOrder() {
+        PrefetchingPageIterator<Integer> pages = prefetching(new CountingPages(NUM_PAGES), executor);
+
+        assertThat(ImmutableList.copyOf(pages)).containsExactlyElementsOf(allPages());
+    }
+
+    @Test
+    public void consumerReadsPagesTheExecutorHasNotStarted() {
+        PrefetchingPageIterator<Integer> pages = prefetching(new CountingPages(NUM_PAGES), task -> {});
+
+        assertThat(ImmutableList.copyOf(pages)).containsExactlyElementsOf(allPages());
+        assertThat(stallTimer.getCount()).isEqualTo(NUM_PAGES + 1);
+    }
+
+    @Test
+    public void readsAtMostTheConfiguredNumberOfPagesAhead() {
+        CountingPages source = new CountingPages(NUM_PAGES);
+        PrefetchingPageIterator<Integer> pages = prefetching(source, queuedTasks::add);
+
+        assertThat(pages.next()).isEqualTo(0);
+        runQueuedTasks();
+        assertThat(source.pagesRead.get()).isEqualTo(PREFETCH_PAGES);
+
+        assertThat(pages.next()).isEqualTo(1);
+        runQueuedTasks();
+        assertThat(source.pagesRead.get()).isEqualTo(PREFETCH_PAGES + 1);
+    }
+
+    @Test
+    public void failuresAreRethrownToTheConsumer() {
+        RuntimeException failure = new RuntimeException("failed to read page");
+        Iterator<Integer> source = new AbstractIterator<Integer>() {
+            private boolean readFirstPage = false;
+
+            @Override
+            protected Integer computeNext() {
+                if (readFirstPage) {
+                    throw failure;
+                }
+                readFirstPage = true;
+                return 0;
+            }
+        };
+        PrefetchingPageIterator<Integer> pages = prefetching(source, executor);
+
+        assertThat(pages.next()).isEqualTo(0);
+        assertThatThrownBy(pages::next).isSameAs(failure);
+    }
+
+    @Test
+    public void closingStopsReadingPagesAndClosesTheUnderlyingPages() {
+        CountingPages source = new CountingPages(NUM_PAGES);
+        PrefetchingPageIterator<Integer> pages = prefetching(source, queuedTasks::add);
+
+        assertThat(pages.next()).isEqualTo(0);
+        pages.close();
+        runQueuedTasks();
+
+        assertThat(source.pagesRead.get()).isEqualTo(1);
+        assertThat(closed).isTrue();
+    }
+
+    private PrefetchingPageIterator<Integer> prefetching(Iterator<Integer> source, Executor pageExecutor) {
+        return new PrefetchingPageIterator<>(source, pageExecutor, PREFETCH_PAGES, stallTimer, () -> closed.set(true));
+    }
+
+    private void runQueuedTasks() {
+        Runnable task;
+        while ((task = queuedTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static ImmutableList<Integer> allPages() {
+        return IntStream.range(0, NUM_PAGES).boxed().collect(ImmutableList.toImmutableList());
+    }
+
+    private static final class CountingPages extends AbstractIterator<Integer> {
+        private final int numPages;
+        private final AtomicInteger pagesRead = new AtomicInteger();
+
+        private CountingPages(int numPages) {
+            this.numPages = numPages;
+        }
+
+        @Override
+        protected Integer computeNext() {
+            if (pagesRead.get() == numPages) {
+                return endOfData();
+            }
+            return pagesRead.getAndIncrement();
+        }
+    }
+}
@@ -130,6 +130,12 @@ public class SnapshotTransactionManagerTest {
         assertThat(deleteExecutor.isTerminated()).isTrue();
     }
 
+    @Test
+    public void closesSerializableVerificationExecutorOnClosingTransactionManager() {
+        snapshotTransactionManager.close();
+        assertThat(snapshotTransactionManager.serializableVerificationExecutor.isTerminated()).isTrue();
+    }
+
     @Test
     public void canCloseTransactionManagerWithNonCloseableLockService() {
         InMemoryTimestampService ts = new InMemoryTimestampService();
@@ -0,0 +1,166 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.cache.DefaultTimestampCache;
+import com.palantir.atlasdb.cache.TimestampCache;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class ReadCoalescingTransactionServiceTest {
+    private final TransactionService mockTransactionService = mock(TransactionService.class);
+    private final TimestampCache timestampCache = DefaultTimestampCache.createForTests();
+    private final TransactionService readCoalescingTransactionService =
+            ReadCoalescingTransactionService.create(mockTransactionService, timestampCache);
+
+    @After
+    public void tearDown() {
+        readCoalescingTransactionService.close();
+    }
+
+    @Test
+    public void getsValuesFromUnderlyingViaBatch() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readCoalescingTransactionService.get(3L)).isEqualTo(5L);
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void returnsNullForUncommittedTransactions() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readCoalescingTransactionService.get(4L)).isNull();
+        assertThat(readCoalescingTransactionService.get(ImmutableList.of(3L, 4L)))
+                .isEqualTo(ImmutableMap.of(3L, 5L));
+    }
+
+    @Test
+    public void servesCommittedTransactionsFromCacheAfterFirstRead() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readCoalescingTransactionService.get(3L)).isEqualTo(5L);
+        assertThat(timestampCache.getCommitTimestampIfPresent(3L)).isEqualTo(5L);
+        assertThat(readCoalescingTransactionService.get(3L)).isEqualTo(5L);
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
+    @Test
+    public void doesNotCacheUncommittedTransactions() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of());
+
+        assertThat(readCoalescingTransactionService.get(3L)).isNull();
+
+        assertThat(timestampCache.getCommitTimestampIfPresent(3L)).isNull();
+    }
+
+    @Test
+    public void sharesQueuedLookupsForTheSameStartTimestamp() throws Exception {
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch releaseBatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+                    batchStarted.countDown();
+                    releaseBatch.await();
+                    return ImmutableMap.of(1L, 10L, 2L, 20L);
+                })
+                .when(mockTransactionService)
+                .get(anyIterable());
+
+        ListenableFuture<Long> blockingLookup = readCoalescingTransactionService.getAsync(1L);
+        assertThat(batchStarted.await(1, TimeUnit.MINUTES)).isTrue();
+
+        ListenableFuture<Long> firstLookup = readCoalescingTransactionService.getAsync(2L);
+        ListenableFuture<Long> secondLookup = readCoalescingTransactionService.getAsync(2L);
+        assertThat(firstLookup).isSameAs(secondLookup);
+
+        releaseBatch.countDown();
+        assertThat(blockingLookup.get(1, TimeUnit.MINUTES)).isEqualTo(10L);
+        assertThat(firstLookup.get(1, TimeUnit.MINUTES)).isEqualTo(20L);
+        verify(mockTransactionService).get(ImmutableSet.of(1L));
+        verify(mockTransactionService).get(ImmutableSet.of(2L));
+    }
+
+    @Test
+    public void doesNotShareLookupsWhoseBatchHasStartedReading() throws Exception {
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch releaseBatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+                    batchStarted.countDown();
+                    releaseBatch.await();
+                    return ImmutableMap.of();
+                })
+                .when(mockTransactionService)
+                .get(anyIterable());
+
+        ListenableFuture<Long> inFlightLookup = readCoalescingTransactionService.getAsync(1L);
+        assertThat(batchStarted.await(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(readCoalescingTransactionService.getAsync(1L)).isNotSameAs(inFlightLookup);
+        releaseBatch.countDown();
+    }
+
+    @Test
+    public void propagatesFailuresToAllCallers() {
+        RuntimeException failure = new RuntimeException("boo");
+        when(mockTransactionService.get(anyIterable())).thenThrow(failure);
+
+        assertThatThrownBy(() -> readCoalescingTransactionService.get(3L)).hasRootCause(failure);
+        assertThatThrownBy(() -> readCoalescingTransactionService.get(ImmutableList.of(3L, 4L)))
+                .hasRootCause(failure);
+    }
+
+    @Test
+    public void processBatchReadsOnceAndCachesCommittedTransactions() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(1L, 10L, 2L, 20L));
+
+        Map<Long, Long> result = ReadCoalescingTransactionService.processBatch(
+                mockTransactionService, timestampCache, ImmutableSet.of(1L, 2L, 3L));
+
+        assertThat(result).containsOnlyKeys(1L, 2L, 3L).containsEntry(1L, 10L).containsEntry(2L, 20L);
+        assertThat(result.get(3L)).isNull();
+        assertThat(timestampCache.getCommitTimestampIfPresent(1L)).isEqualTo(10L);
+        assertThat(timestampCache.getCommitTimestampIfPresent(2L)).isEqualTo(20L);
+        assertThat(timestampCache.getCommitTimestampIfPresent(3L)).isNull();
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L, 3L));
+    }
+
+    @Test
+    public void passesWritesThroughToDelegate() {
+        readCoalescingTransactionService.putUnlessExists(1L, 2L);
+
+        verify(mockTransactionService).putUnlessExists(1L, 2L);
+    }
+}
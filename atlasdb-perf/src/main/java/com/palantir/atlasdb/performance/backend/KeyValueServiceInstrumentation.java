@@ -35,6 +35,7 @@ public abstract class KeyValueServiceInstrumentation {
     static {
         addNewBackendType(new CassandraKeyValueServiceInstrumentation());
         addNewBackendType(new PostgresKeyValueServiceInstrumentation());
+        addNewBackendType(new PostgresArrayParametersKeyValueServiceInstrumentation());
     }
 
     KeyValueServiceInstrumentation(int kvsPort, String dockerComposeFileName) {
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.performance.benchmarks.table.ConsecutiveNarrowTable;
+import java.util.Map;
+import java.util.Set;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads batches of rows and cells of varying sizes. Comparing the POSTGRES and POSTGRES_ARRAY_PARAMETERS backends
+ * compares passing one parameter per key with passing all keys as array parameters.
+ */
+@State(Scope.Benchmark)
+public class KvsGetBatchSizeBenchmarks {
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int batchSize;
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5)
+    @Measurement(time = 20)
+    public Object getCellsInBatch(ConsecutiveNarrowTable.CleanNarrowTable table) {
+        Set<Cell> cells = table.getCellsRequest(batchSize);
+        Map<Cell, Value> result =
+                table.getKvs().get(table.getTableRef(), Maps.asMap(cells, ignored -> Long.MAX_VALUE));
+        Preconditions.checkState(
+                result.size() == batchSize, "Should be %s cells, but were: %s", batchSize, result.size());
+        return result;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5)
+    @Measurement(time = 20)
+    public Object getRowsInBatch(ConsecutiveNarrowTable.CleanNarrowTable table) {
+        Map<Cell, Value> result = table.getKvs()
+                .getRows(
+                        table.getTableRef(),
+                        table.getRowList().subList(0, batchSize),
+                        ColumnSelection.all(),
+                        Long.MAX_VALUE);
+        Preconditions.checkState(
+                result.size() == batchSize, "Should be %s rows, but were: %s", batchSize, result.size());
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LockResponse;
+import com.palantir.lock.LockServerOptions;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.impl.LockServiceImpl;
+import com.palantir.logsafe.SafeArg;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency of a lock request to the legacy {@link LockServiceImpl} while many other requests are waiting on the same
+ * few hot locks. Every background client loops locking and unlocking a random hot lock, so that the given number of
+ * requests is always outstanding. {@code BLOCKING} clients each need a thread of their own, parked while they wait;
+ * {@code ASYNC} clients only need a continuation queued on their lock, and a small pool of threads to unlock with.
+ * Sample times give the latency percentiles, and the peak number of live threads is logged at the end of each trial.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockServiceImplBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(LockServiceImplBenchmark.class);
+
+    private static final int HOT_LOCKS = 16;
+    private static final int ASYNC_CALLBACK_THREADS = 8;
+
+    public enum RequestMode {
+        BLOCKING,
+        ASYNC
+    }
+
+    @Param({"BLOCKING", "ASYNC"})
+    private RequestMode requestMode;
+
+    @Param({"10000"})
+    private int concurrentRequests;
+
+    private volatile boolean running;
+    private LockServiceImpl lockService;
+    private LockDescriptor[] hotLocks;
+    private ExecutorService clientExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        lockService = LockServiceImpl.create(LockServerOptions.builder()
+                .isStandaloneServer(false)
+                .slowLogTriggerMillis(0)
+                .build());
+        hotLocks = new LockDescriptor[HOT_LOCKS];
+        for (int index = 0; index < HOT_LOCKS; index++) {
+            hotLocks[index] = StringLockDescriptor.of("hot-" + index);
+        }
+        running = true;
+        if (requestMode == RequestMode.BLOCKING) {
+            clientExecutor = PTExecutors.newFixedThreadPool(concurrentRequests);
+            for (int index = 0; index < concurrentRequests; index++) {
+                LockClient client = LockClient.of("background-" + index);
+                clientExecutor.execute(() -> {
+                    while (running) {
+                        lockAndUnlockBlocking(client);
+                    }
+                });
+            }
+        } else {
+            clientExecutor = PTExecutors.newFixedThreadPool(ASYNC_CALLBACK_THREADS);
+            for (int index = 0; index < concurrentRequests; index++) {
+                lockAndUnlockAsyncRepeatedly(LockClient.of("background-" + index));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        running = false;
+        lockService.close();
+        clientExecutor.shutdownNow();
+        log.info(
+                "Peak live threads with {} lock requests was {}",
+                SafeArg.of("requestMode", requestMode),
+                SafeArg.of("peakThreadCount", ManagementFactory.getThreadMXBean().getPeakThreadCount()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public LockResponse lockUnderContention() throws InterruptedException {
+        LockClient client = LockClient.of("benchmark-" + Thread.currentThread().getId());
+        if (requestMode == RequestMode.BLOCKING) {
+            return lockAndUnlockBlocking(client);
+        }
+        LockResponse response = AtlasFutures.getUnchecked(lockService.lockWithFullLockResponseAsync(client, request()));
+        lockService.unlock(response.getToken());
+        return response;
+    }
+
+    private LockResponse lockAndUnlockBlocking(LockClient client) {
+        try {
+            LockResponse response = lockService.lockWithFullLockResponse(client, request());
+            lockService.unlock(response.getToken());
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void lockAndUnlockAsyncRepeatedly(LockClient client) {
+        Futures.addCallback(
+                lockService.lockWithFullLockResponseAsync(client, request()),
+                new FutureCallback<LockResponse>() {
+                    @Override
+                    public void onSuccess(LockResponse response) {
+                        lockService.unlock(response.getToken());
+                        if (running) {
+                            lockAndUnlockAsyncRepeatedly(client);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        // The lock service is shut down.
+                    }
+                },
+                clientExecutor);
+    }
+
+    private LockRequest request() {
+        LockDescriptor hotLock = hotLocks[ThreadLocalRandom.current().nextInt(HOT_LOCKS)];
+        return LockRequest.builder(ImmutableSortedMap.of(hotLock, LockMode.WRITE)).build();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.PartitionedAutobatcher;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scales producer threads against the number of partitions of a {@link PartitionedAutobatcher}. The batch function
+ * does a small fixed amount of work per batch and per element, so that a single partition saturates its consumer
+ * thread well before the producers run out of steam. One partition is equivalent to a plain
+ * {@link com.palantir.atlasdb.autobatch.DisruptorAutobatcher}.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PartitionedAutobatcherBenchmarks {
+    private static final long PER_BATCH_TOKENS = 2_000;
+    private static final long PER_ELEMENT_TOKENS = 200;
+    private static final int KEYS = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    private int partitions;
+
+    @Param({"true", "false"})
+    private boolean keyed;
+
+    private PartitionedAutobatcher<Integer, Integer> autobatcher;
+
+    @Setup
+    public void setup() {
+        Autobatchers.AutobatcherBuilder<Integer, Integer> builder = Autobatchers.independent(
+                        PartitionedAutobatcherBenchmarks::processBatch)
+                .safeLoggablePurpose("partitioned-autobatcher-benchmark");
+        autobatcher = keyed ? builder.buildPartitioned(partitions, key -> key) : builder.buildPartitioned(partitions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        autobatcher.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer singleProducer() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer sixteenProducers() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Integer sixtyFourProducers() {
+        return submit();
+    }
+
+    private Integer submit() {
+        return AtlasFutures.getUnchecked(autobatcher.apply(ThreadLocalRandom.current().nextInt(KEYS)));
+    }
+
+    private static void processBatch(List<BatchElement<Integer, Integer>> batch) {
+        Blackhole.consumeCPU(PER_BATCH_TOKENS);
+        for (BatchElement<Integer, Integer> element : batch) {
+            Blackhole.consumeCPU(PER_ELEMENT_TOKENS);
+            element.result().set(element.argument());
+        }
+    }
+}
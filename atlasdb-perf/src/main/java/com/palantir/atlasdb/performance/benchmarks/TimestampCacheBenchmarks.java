@@ -0,0 +1,112 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.atlasdb.cache.DefaultTimestampCache;
+import com.palantir.atlasdb.cache.PrimitiveTimestampCache;
+import com.palantir.atlasdb.cache.TimestampCache;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the Caffeine backed {@link DefaultTimestampCache} with the primitive {@link PrimitiveTimestampCache}.
+ * Lookups are drawn uniformly from a key space larger than the cache, so that the expected hit ratio is roughly
+ * {@code cacheSize / keySpace}; misses are followed by a put, as in {@code SnapshotTransaction}.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xms4g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000;
+
+    @Param({"CAFFEINE", "PRIMITIVE"})
+    private Implementation implementation;
+
+    @Param({"1.0", "0.9", "0.5"})
+    private double expectedHitRatio;
+
+    private TimestampCache cache;
+    private long keySpace;
+
+    @Setup
+    public void setup() {
+        cache = implementation.create(CACHE_SIZE);
+        keySpace = (long) (CACHE_SIZE / expectedHitRatio);
+        for (long startTimestamp = 0; startTimestamp < CACHE_SIZE; startTimestamp++) {
+            cache.putAlreadyCommittedTransaction(startTimestamp, startTimestamp + 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long singleThreadedLookups() {
+        return lookUpOrPut();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Long contendedLookups() {
+        return lookUpOrPut();
+    }
+
+    @Benchmark
+    @Threads(128)
+    public Long heavilyContendedLookups() {
+        return lookUpOrPut();
+    }
+
+    private Long lookUpOrPut() {
+        long startTimestamp = ThreadLocalRandom.current().nextLong(keySpace);
+        Long commitTimestamp = cache.getCommitTimestampIfPresent(startTimestamp);
+        if (commitTimestamp == null) {
+            cache.putAlreadyCommittedTransaction(startTimestamp, startTimestamp + 1);
+        }
+        return commitTimestamp;
+    }
+
+    public enum Implementation {
+        CAFFEINE {
+            @Override
+            TimestampCache create(long size) {
+                return new DefaultTimestampCache(new MetricRegistry(), () -> size);
+            }
+        },
+        PRIMITIVE {
+            @Override
+            TimestampCache create(long size) {
+                return new PrimitiveTimestampCache(new MetricRegistry(), () -> size);
+            }
+        };
+
+        abstract TimestampCache create(long size);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.performance.benchmarks.table.EmptyTables;
+import com.palantir.atlasdb.transaction.api.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of single put transactions run through {@link TransactionManager#runTaskWithRetry} and
+ * {@link TransactionManager#runTaskWithRetryAsync} as the number of calling threads grows. Each invocation runs
+ * {@link #TRANSACTIONS_PER_INVOCATION} transactions; the blocking benchmarks run them one after another, while the
+ * asynchronous benchmarks start all of them before waiting for any.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+@Measurement(time = 15, timeUnit = TimeUnit.SECONDS)
+public class TransactionAsyncPutBenchmarks {
+    private static final int TRANSACTIONS_PER_INVOCATION = 16;
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object blockingPutsOneThread(EmptyTables tables) {
+        return blockingPuts(tables);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object blockingPutsSixteenThreads(EmptyTables tables) {
+        return blockingPuts(tables);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object blockingPutsSixtyFourThreads(EmptyTables tables) {
+        return blockingPuts(tables);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object asyncPutsOneThread(EmptyTables tables) {
+        return asyncPuts(tables);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object asyncPutsSixteenThreads(EmptyTables tables) {
+        return asyncPuts(tables);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+    public Object asyncPutsSixtyFourThreads(EmptyTables tables) {
+        return asyncPuts(tables);
+    }
+
+    private static List<Map<Cell, byte[]>> blockingPuts(EmptyTables tables) {
+        List<Map<Cell, byte[]>> batches = new ArrayList<>(TRANSACTIONS_PER_INVOCATION);
+        for (int i = 0; i < TRANSACTIONS_PER_INVOCATION; i++) {
+            batches.add(tables.getTransactionManager().runTaskWithRetry(txn -> {
+                Map<Cell, byte[]> batch = tables.generateBatchToInsert(1);
+                txn.put(tables.getFirstTableRef(), batch);
+                return batch;
+            }));
+        }
+        return batches;
+    }
+
+    private static List<Map<Cell, byte[]>> asyncPuts(EmptyTables tables) {
+        List<ListenableFuture<Map<Cell, byte[]>>> batches = new ArrayList<>(TRANSACTIONS_PER_INVOCATION);
+        for (int i = 0; i < TRANSACTIONS_PER_INVOCATION; i++) {
+            batches.add(tables.getTransactionManager().runTaskWithRetryAsync(txn -> {
+                Map<Cell, byte[]> batch = tables.generateBatchToInsert(1);
+                txn.put(tables.getFirstTableRef(), batch);
+                return Futures.immediateFuture(batch);
+            }));
+        }
+        return AtlasFutures.getUnchecked(Futures.allAsList(batches));
+    }
+}
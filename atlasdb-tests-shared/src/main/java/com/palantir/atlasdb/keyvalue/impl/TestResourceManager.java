@@ -18,12 +18,16 @@ package com.palantir.atlasdb.keyvalue.impl;
 
 import com.google.common.base.Suppliers;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.rocksdb.RocksDbKeyValueService;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import org.junit.rules.ExternalResource;
+import org.junit.rules.TemporaryFolder;
 
 public class TestResourceManager extends ExternalResource implements KvsManager, TransactionManagerManager {
     private final Supplier<KeyValueService> getKvsSupplier;
@@ -43,6 +47,20 @@ public class TestResourceManager extends ExternalResource implements KvsManager,
         return new TestResourceManager(() -> new InMemoryKeyValueService(false));
     }
 
+    /**
+     * The key value service is created in a new directory of the given folder, which must be created before, and
+     * deleted after, this resource manager.
+     */
+    public static TestResourceManager rocksDb(TemporaryFolder temporaryFolder) {
+        return new TestResourceManager(() -> {
+            try {
+                return RocksDbKeyValueService.create(temporaryFolder.newFolder());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @Override
     public KeyValueService getDefaultKvs() {
         return getKvsSupplier.get();
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -48,6 +49,7 @@ import com.palantir.atlasdb.keyvalue.impl.TransactionManagerManager;
 import com.palantir.atlasdb.sweep.queue.MultiTableSweepQueueWriter;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.ImmutableTransactionConfig;
+import com.palantir.atlasdb.transaction.TransactionConfig;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.PreCommitCondition;
@@ -67,6 +69,7 @@ import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.NoOpLockWatchEventCache;
 import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
@@ -141,8 +144,9 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY,
                 getSweepQueueWriterInitialized(),
                 MoreExecutors.newDirectExecutorService(),
+                AbstractTransactionTest.SERIALIZABLE_VERIFICATION_EXECUTOR,
                 true,
-                () -> ImmutableTransactionConfig.builder().build(),
+                () -> options.transactionConfig,
                 ConflictTracer.NO_OP,
                 new SimpleTableLevelMetricsController(metricsManager)) {
             @Override
@@ -155,6 +159,7 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
     private static final class TransactionOptions {
         private PreCommitCondition condition = PreCommitConditions.NO_OP;
         private Optional<LockToken> immutableLockToken = Optional.empty();
+        private TransactionConfig transactionConfig = ImmutableTransactionConfig.builder().build();
 
         public TransactionOptions withCondition(PreCommitCondition newCondition) {
             this.condition = Preconditions.checkNotNull(newCondition, "newCondition");
@@ -166,6 +171,11 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                     Optional.of(Preconditions.checkNotNull(newImmutableLockToken, "newImmutableLockToken"));
             return this;
         }
+
+        public TransactionOptions withTransactionConfig(TransactionConfig newTransactionConfig) {
+            this.transactionConfig = Preconditions.checkNotNull(newTransactionConfig, "newTransactionConfig");
+            return this;
+        }
     }
 
     protected MultiTableSweepQueueWriter getSweepQueueWriterUninitialized() {
@@ -296,6 +306,84 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 .isInstanceOf(TransactionSerializableConflictException.class);
     }
 
+    @Test
+    public void testCompactReadSetDetectsChangedLargeValue() {
+        TransactionOptions compact = new TransactionOptions()
+                .withTransactionConfig(ImmutableTransactionConfig.builder()
+                        .compactSerializableReadSet(true)
+                        .build());
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", Strings.repeat("a", 100));
+        t0.commit();
+
+        Transaction t1 = startTransactionWithOptions(compact);
+        assertThat(get(t1, "row1", "col1")).isEqualTo(Strings.repeat("a", 100));
+        put(t1, "row2", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row1", "col1", Strings.repeat("b", 100));
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    @Test
+    public void testCompactReadSetAllowsUnchangedLargeValues() {
+        TransactionOptions compact = new TransactionOptions()
+                .withTransactionConfig(ImmutableTransactionConfig.builder()
+                        .compactSerializableReadSet(true)
+                        .build());
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", Strings.repeat("a", 100));
+        put(t0, "row2", "col1", "short");
+        t0.commit();
+
+        Transaction t1 = startTransactionWithOptions(compact);
+        get(t1, "row1", "col1");
+        BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, RangeRequest.all()));
+        put(t1, "row3", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row1", "col1", Strings.repeat("a", 100));
+        t2.commit();
+
+        t1.commit();
+    }
+
+    @Test
+    public void testParallelVerificationDetectsConflict() {
+        TransactionOptions parallel = new TransactionOptions()
+                .withTransactionConfig(ImmutableTransactionConfig.builder()
+                        .serializableVerificationParallelism(4)
+                        .build());
+        Transaction t0 = startTransaction();
+        for (int i = 0; i < 10; i++) {
+            put(t0, "row" + i, "col1", "100");
+        }
+        t0.commit();
+
+        Transaction t1 = startTransactionWithOptions(parallel);
+        for (int i = 0; i < 10; i++) {
+            get(t1, "row" + i, "col1");
+        }
+        BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, RangeRequest.all()));
+        put(t1, "row10", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row7", "col1", "101");
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    @Test
+    public void serializableVerificationParallelismMustBePositive() {
+        assertThatThrownBy(() -> ImmutableTransactionConfig.builder()
+                        .serializableVerificationParallelism(0)
+                        .build())
+                .isInstanceOf(SafeIllegalStateException.class);
+    }
+
     @Test(expected = TransactionFailedRetriableException.class)
     public void testConcurrentWriteSkewCell() throws InterruptedException, BrokenBarrierException {
         Transaction t0 = startTransaction();
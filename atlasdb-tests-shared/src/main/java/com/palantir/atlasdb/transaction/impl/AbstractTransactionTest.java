@@ -127,6 +127,8 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
     protected static final ExecutorService GET_RANGES_EXECUTOR =
             Executors.newFixedThreadPool(GET_RANGES_THREAD_POOL_SIZE);
 
+    protected static final ExecutorService SERIALIZABLE_VERIFICATION_EXECUTOR = Executors.newCachedThreadPool();
+
     protected Transaction startTransaction() {
         long startTimestamp = timestampService.getFreshTimestamp();
         return new SnapshotTransaction(
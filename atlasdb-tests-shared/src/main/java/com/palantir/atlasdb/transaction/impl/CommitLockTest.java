@@ -179,6 +179,7 @@ public class CommitLockTest extends TransactionTestSetup {
                 AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY,
                 MultiTableSweepQueueWriter.NO_OP,
                 MoreExecutors.newDirectExecutorService(),
+                AbstractTransactionTest.SERIALIZABLE_VERIFICATION_EXECUTOR,
                 true,
                 () -> TRANSACTION_CONFIG,
                 ConflictTracer.NO_OP,
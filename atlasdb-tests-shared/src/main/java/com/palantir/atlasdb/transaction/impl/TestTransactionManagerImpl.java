@@ -248,6 +248,7 @@ public class TestTransactionManagerImpl extends SerializableTransactionManager i
                         defaultGetRangesConcurrency,
                         sweepQueueWriter,
                         deleteExecutor,
+                        serializableVerificationExecutor,
                         validateLocksOnReads,
                         transactionConfig,
                         ConflictTracer.NO_OP,
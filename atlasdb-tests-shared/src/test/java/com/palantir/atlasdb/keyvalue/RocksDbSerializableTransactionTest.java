@@ -0,0 +1,35 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue;
+
+import com.palantir.atlasdb.keyvalue.impl.TestResourceManager;
+import com.palantir.atlasdb.transaction.impl.AbstractSerializableTransactionTest;
+import org.junit.ClassRule;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
+
+public class RocksDbSerializableTransactionTest extends AbstractSerializableTransactionTest {
+    private static final TemporaryFolder TEMPORARY_FOLDER = new TemporaryFolder();
+    private static final TestResourceManager TRM = TestResourceManager.rocksDb(TEMPORARY_FOLDER);
+
+    @ClassRule
+    public static final RuleChain RULES = RuleChain.outerRule(TEMPORARY_FOLDER).around(TRM);
+
+    public RocksDbSerializableTransactionTest() {
+        super(TRM, TRM);
+    }
+}
@@ -17,6 +17,11 @@ package com.palantir.atlasdb.schema.stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
@@ -50,11 +55,13 @@ import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMeta
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMetadataTable.TestHashComponentsStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamValueTable.TestHashComponentsStreamValueRow;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionConflictException;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
+import com.palantir.atlasdb.transaction.impl.TestTransactionManager;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.io.ForwardingInputStream;
 import com.palantir.util.Pair;
@@ -70,6 +77,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -373,6 +381,55 @@ public class StreamTest extends AtlasDbTestCase {
         });
     }
 
+    @Test
+    public void readsBatchesAheadOnceTransactionLoadingStreamHasCommitted() throws Exception {
+        TestTransactionManager spiedTxManager = spy(txManager);
+        Set<String> threadsLoadingBlocks = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+                    threadsLoadingBlocks.add(Thread.currentThread().getName());
+                    return invocation.callRealMethod();
+                })
+                .when(spiedTxManager)
+                .runTaskReadOnly(any());
+        PersistentStreamStore store = StreamTestStreamStore.of(
+                spiedTxManager,
+                StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder()
+                        .readAheadBatches(2)
+                        .build());
+        int blocksPerBatch = StreamTestStreamStore.IN_MEMORY_THRESHOLD / StreamTestStreamStore.BLOCK_SIZE_IN_BYTES;
+        byte[] data = getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * blocksPerBatch * 3);
+        long id = storeStream(store, data, PtBytes.toBytes("ref"));
+        threadsLoadingBlocks.clear();
+
+        InputStream stream = spiedTxManager.runTaskThrowOnConflict(t -> store.loadStream(t, id));
+        assertStreamHasBytes(stream, data);
+
+        assertThat(threadsLoadingBlocks).isNotEmpty().allMatch(name -> name.startsWith("stream-store-prefetch"));
+    }
+
+    @Test
+    public void readsBatchesThroughTransactionLoadingStreamWhileItIsOpen() throws Exception {
+        TestTransactionManager spiedTxManager = spy(txManager);
+        PersistentStreamStore store = StreamTestStreamStore.of(
+                spiedTxManager,
+                StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder()
+                        .readAheadBatches(2)
+                        .build());
+        byte[] data = getIncompressibleBytes(StreamTestStreamStore.IN_MEMORY_THRESHOLD * 3);
+        long id = storeStream(store, data, PtBytes.toBytes("ref"));
+
+        spiedTxManager.runTaskThrowOnConflict(t -> {
+            try (InputStream stream = store.loadStream(t, id)) {
+                assertStreamHasBytes(stream, data);
+            }
+            return null;
+        });
+
+        verify(spiedTxManager, never()).runTaskReadOnly(any());
+    }
+
     @Test
     public void testOverwrite() throws IOException {
         Random rand = new Random();
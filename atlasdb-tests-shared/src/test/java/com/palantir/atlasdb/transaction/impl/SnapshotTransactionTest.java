@@ -24,8 +24,10 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -36,6 +38,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
@@ -46,11 +49,13 @@ import com.google.common.collect.Ordering;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbTestCase;
 import com.palantir.atlasdb.cache.DefaultTimestampCache;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
+import com.palantir.atlasdb.cleaner.api.Cleaner;
 import com.palantir.atlasdb.debug.ConflictTracer;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.futures.AtlasFutures;
@@ -109,8 +114,10 @@ import com.palantir.lock.TimeDuration;
 import com.palantir.lock.impl.LegacyTimelockService;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.TimelockService;
+import com.palantir.lock.watch.LockWatchEventCache;
 import com.palantir.lock.watch.NoOpLockWatchEventCache;
 import com.palantir.timestamp.TimestampService;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -126,6 +133,7 @@ import java.util.Random;
 import java.util.SortedMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -133,6 +141,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -1684,6 +1694,161 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 .isNotEmpty();
     }
 
+    @Test
+    public void asyncTransactionCommitsOnceFutureReturnedByTaskCompletes() throws InterruptedException {
+        byte[] value = PtBytes.toBytes("value");
+        CountDownLatch written = new CountDownLatch(1);
+        SettableFuture<Void> taskResult = SettableFuture.create();
+        ListenableFuture<Void> result = txManager.runTaskWithRetryAsync(txn -> {
+            txn.put(TABLE, ImmutableMap.of(TEST_CELL, value));
+            written.countDown();
+            return taskResult;
+        });
+
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(result.isDone()).isFalse();
+        assertThat(readCell(TEST_CELL)).isNull();
+
+        taskResult.set(null);
+        AtlasFutures.getUnchecked(result);
+        assertThat(readCell(TEST_CELL)).isEqualTo(value);
+    }
+
+    @Test
+    public void readOnlyAsyncTransactionReadsCommittedValues() {
+        byte[] value = PtBytes.toBytes("value");
+        writeCells(TABLE, ImmutableMap.of(TEST_CELL, value));
+
+        byte[] read = AtlasFutures.getUnchecked(txManager.runTaskReadOnlyAsync(
+                txn -> Futures.immediateFuture(txn.get(TABLE, ImmutableSet.of(TEST_CELL)).get(TEST_CELL))));
+        assertThat(read).isEqualTo(value);
+    }
+
+    @Test
+    public void asyncTransactionIsRetriedAfterWriteWriteConflict() {
+        overrideConflictHandlerForTable(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE);
+        AtomicInteger attempts = new AtomicInteger();
+        ListenableFuture<Integer> result = txManager.runTaskWithRetryAsync(txn -> {
+            int attempt = attempts.incrementAndGet();
+            txn.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("async")));
+            if (attempt == 1) {
+                writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("concurrent")));
+            }
+            return Futures.immediateFuture(attempt);
+        });
+
+        assertThat(AtlasFutures.getUnchecked(result)).isEqualTo(2);
+        assertThat(readCell(TEST_CELL)).isEqualTo(PtBytes.toBytes("async"));
+    }
+
+    @Test
+    public void asyncWriteWriteConflictFailsFutureOnceRetriesAreExhausted() {
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockWatchEventCache lockWatchEventCache = spy(NoOpLockWatchEventCache.create());
+        try (SnapshotTransactionManager transactionManager =
+                createSnapshotTransactionManager(timelockService, lockWatchEventCache, createMockCleaner())) {
+            AtomicInteger attempts = new AtomicInteger();
+            AtomicLong lastStartTimestamp = new AtomicLong();
+            ListenableFuture<Void> result = transactionManager.runTaskWithRetryAsync(txn -> {
+                attempts.incrementAndGet();
+                lastStartTimestamp.set(txn.getTimestamp());
+                txn.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("async")));
+                writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("concurrent")));
+                return Futures.immediateVoidFuture();
+            });
+
+            assertThatThrownBy(result::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasRootCauseInstanceOf(TransactionConflictException.class);
+            assertThat(attempts.get()).isGreaterThan(1);
+            verify(lockWatchEventCache, times(attempts.get())).removeTransactionStateFromCache(anyLong());
+            assertThat(timelockService.getImmutableTimestamp()).isGreaterThan(lastStartTimestamp.get());
+            assertThat(readCell(TEST_CELL)).isEqualTo(PtBytes.toBytes("concurrent"));
+        }
+    }
+
+    @Test
+    public void asyncTransactionReleasesStateAndScrubsAggressiveHardDeletesOnCommit() {
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockWatchEventCache lockWatchEventCache = spy(NoOpLockWatchEventCache.create());
+        Cleaner cleaner = createMockCleaner();
+        writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+        try (SnapshotTransactionManager transactionManager =
+                createSnapshotTransactionManager(timelockService, lockWatchEventCache, cleaner)) {
+            long startTimestamp = AtlasFutures.getUnchecked(transactionManager.runTaskWithRetryAsync(txn -> {
+                txn.setTransactionType(Transaction.TransactionType.AGGRESSIVE_HARD_DELETE);
+                txn.delete(TABLE, ImmutableSet.of(TEST_CELL));
+                return Futures.immediateFuture(txn.getTimestamp());
+            }));
+            long commitTimestamp = transactionService.get(startTimestamp);
+
+            verify(lockWatchEventCache).removeTransactionStateFromCache(startTimestamp);
+            assertThat(timelockService.getImmutableTimestamp()).isGreaterThan(startTimestamp);
+            verify(cleaner)
+                    .scrubImmediately(
+                            transactionManager,
+                            ImmutableSetMultimap.of(TABLE, TEST_CELL),
+                            startTimestamp,
+                            commitTimestamp);
+            assertThat(readCell(TEST_CELL)).isNull();
+        }
+    }
+
+    @Test
+    public void asyncTransactionReleasesStateWithoutScrubbingWhenTaskFails() {
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockWatchEventCache lockWatchEventCache = spy(NoOpLockWatchEventCache.create());
+        Cleaner cleaner = createMockCleaner();
+        writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+        try (SnapshotTransactionManager transactionManager =
+                createSnapshotTransactionManager(timelockService, lockWatchEventCache, cleaner)) {
+            RuntimeException failure = new RuntimeException("task failed");
+            AtomicLong startTimestamp = new AtomicLong();
+            ListenableFuture<Void> result = transactionManager.runTaskWithRetryAsync(txn -> {
+                startTimestamp.set(txn.getTimestamp());
+                txn.setTransactionType(Transaction.TransactionType.AGGRESSIVE_HARD_DELETE);
+                txn.delete(TABLE, ImmutableSet.of(TEST_CELL));
+                return Futures.immediateFailedFuture(failure);
+            });
+
+            assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+            verify(lockWatchEventCache).removeTransactionStateFromCache(startTimestamp.get());
+            assertThat(timelockService.getImmutableTimestamp()).isGreaterThan(startTimestamp.get());
+            verify(cleaner, never()).scrubImmediately(any(), any(), anyLong(), anyLong());
+            assertThat(readCell(TEST_CELL)).isEqualTo(PtBytes.toBytes("value"));
+        }
+    }
+
+    @Test
+    public void getRangePageAsyncPagesThroughRangeByToken() {
+        writeRows(5);
+
+        List<List<String>> pages = AtlasFutures.getUnchecked(txManager.runTaskReadOnlyAsync(
+                txn -> readPages(txn, RangeRequest.builder().batchHint(2).build(), new ArrayList<>())));
+        assertThat(pages)
+                .containsExactly(
+                        ImmutableList.of("row0", "row1"), ImmutableList.of("row2", "row3"), ImmutableList.of("row4"));
+    }
+
+    @Test
+    public void getRangePageAsyncReturnsFullLastPageWithoutMoreResults() {
+        writeRows(4);
+
+        TokenBackedBasicResultsPage<RowResult<byte[]>, byte[]> lastPage =
+                AtlasFutures.getUnchecked(txManager.runTaskReadOnlyAsync(txn -> txn.getRangePageAsync(
+                        TABLE,
+                        RangeRequest.builder()
+                                .startRowInclusive(PtBytes.toBytes("row2"))
+                                .batchHint(2)
+                                .build())));
+        assertThat(lastPage.moreResultsAvailable()).isFalse();
+        assertThat(lastPage.getResults()).hasSize(2);
+
+        List<List<String>> pages = AtlasFutures.getUnchecked(txManager.runTaskReadOnlyAsync(
+                txn -> readPages(txn, RangeRequest.builder().batchHint(2).build(), new ArrayList<>())));
+        assertThat(pages).containsExactly(ImmutableList.of("row0", "row1"), ImmutableList.of("row2", "row3"));
+    }
+
     private void putUncommittedAtFreshTimestamp(TableReference tableRef, Cell cell) {
         keyValueService.put(
                 tableRef,
@@ -1701,6 +1866,75 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
         txn.commit();
     }
 
+    private byte[] readCell(Cell cell) {
+        Transaction readTransaction = txManager.createNewTransaction();
+        return readTransaction.get(TABLE, ImmutableSet.of(cell)).get(cell);
+    }
+
+    private void writeRows(int numRows) {
+        ImmutableMap.Builder<Cell, byte[]> cells = ImmutableMap.builder();
+        for (int i = 0; i < numRows; i++) {
+            cells.put(Cell.create(PtBytes.toBytes("row" + i), PtBytes.toBytes("column")), PtBytes.toBytes("value"));
+        }
+        writeCells(TABLE, cells.build());
+    }
+
+    /**
+     * Reads the pages of the range one after another, starting each page at the token of the page before it.
+     */
+    private static ListenableFuture<List<List<String>>> readPages(
+            Transaction txn, RangeRequest rangeRequest, List<List<String>> pages) {
+        return Futures.transformAsync(
+                txn.getRangePageAsync(TABLE, rangeRequest),
+                page -> {
+                    pages.add(page.getResults().stream()
+                            .map(row -> PtBytes.toString(row.getRowName()))
+                            .collect(Collectors.toList()));
+                    if (!page.moreResultsAvailable()) {
+                        return Futures.immediateFuture(pages);
+                    }
+                    RangeRequest nextPage = rangeRequest
+                            .getBuilder()
+                            .startRowInclusive(page.getTokenForNextPage())
+                            .build();
+                    return readPages(txn, nextPage, pages);
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    private static Cleaner createMockCleaner() {
+        Cleaner cleaner = mock(Cleaner.class);
+        when(cleaner.getTransactionReadTimeoutMillis()).thenReturn(Long.MAX_VALUE);
+        return cleaner;
+    }
+
+    private SnapshotTransactionManager createSnapshotTransactionManager(
+            TimelockService timelockService, LockWatchEventCache lockWatchEventCache, Cleaner cleaner) {
+        return new SnapshotTransactionManager(
+                metricsManager,
+                keyValueService,
+                timelockService,
+                NoOpLockWatchManager.create(lockWatchEventCache),
+                lockWatchEventCache,
+                timestampService,
+                lockService,
+                transactionService,
+                () -> AtlasDbConstraintCheckingMode.NO_CONSTRAINT_CHECKING,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                cleaner,
+                false,
+                AbstractTransactionTest.GET_RANGES_THREAD_POOL_SIZE,
+                AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY,
+                timestampCache,
+                MultiTableSweepQueueWriter.NO_OP,
+                MoreExecutors.newDirectExecutorService(),
+                true,
+                () -> transactionConfig,
+                ConflictTracer.NO_OP,
+                DefaultMetricsFilterEvaluationContext.createDefault());
+    }
+
     private void setTransactionConfig(TransactionConfig config) {
         transactionConfig = config;
     }
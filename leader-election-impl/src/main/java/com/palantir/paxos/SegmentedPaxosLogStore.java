@@ -0,0 +1,701 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A write ahead log shared by the {@link SegmentedPaxosStateLog}s of many namespaces and use cases.
+ * There should be one instance per timelock.
+ *
+ * Rounds are appended to preallocated segment files by a single writer thread, which appends every pending write
+ * before forcing the log to disk once. Concurrent writes from different namespaces and use cases therefore share one
+ * fsync. Reads look up the segment and offset of a round in an in-memory index, which is rebuilt by replaying the
+ * segments on startup, and a segment is deleted as soon as every round in it has been overwritten or truncated.
+ *
+ * Truncation points are not appended to the log but kept in a small metadata file alongside the segments, so that
+ * segments can be deleted in any order without truncated rounds reappearing on replay.
+ */
+public final class SegmentedPaxosLogStore implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosLogStore.class);
+
+    @VisibleForTesting
+    static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    @VisibleForTesting
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String METADATA_FILE = "namespaces.metadata";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_MAGIC = 0x5058574c;
+    private static final int SEGMENT_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int PREALLOCATION_CHUNK_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<NamespaceAndUseCase, ConcurrentSkipListMap<Long, Location>> index =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<NamespaceAndUseCase, NamespaceMetadata> metadata = new ConcurrentHashMap<>();
+    private final ReadWriteLock segmentDeletionLock = new ReentrantReadWriteLock();
+    private final DisruptorAutobatcher<List<Operation>, Void> writer;
+
+    // Only accessed by the writer thread once the store has been created.
+    @Nullable
+    private Segment activeSegment;
+
+    private long nextSegmentId;
+
+    private SegmentedPaxosLogStore(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.writer = Autobatchers.independent(this::processBatch)
+                .safeLoggablePurpose("segmented-paxos-log")
+                .build();
+    }
+
+    public static SegmentedPaxosLogStore create(Path directory) {
+        return create(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    @VisibleForTesting
+    static SegmentedPaxosLogStore create(Path directory, long segmentSize) {
+        SegmentedPaxosLogStore store = new SegmentedPaxosLogStore(directory, segmentSize);
+        try {
+            Files.createDirectories(directory);
+            store.recover();
+            return store;
+        } catch (IOException e) {
+            store.close();
+            throw new SafeRuntimeException("Could not open segmented paxos log", e, SafeArg.of("path", directory));
+        }
+    }
+
+    /**
+     * Applies the given operations in order, returning once they are durable.
+     */
+    void execute(List<Operation> operations) {
+        if (!operations.isEmpty()) {
+            AtlasFutures.getUnchecked(writer.apply(operations));
+        }
+    }
+
+    @Nullable
+    byte[] read(NamespaceAndUseCase namespaceAndUseCase, long seq) throws IOException {
+        segmentDeletionLock.readLock().lock();
+        try {
+            NavigableMap<Long, Location> rounds = index.get(namespaceAndUseCase);
+            Location location = rounds == null ? null : rounds.get(seq);
+            if (location == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(location.length);
+            readFully(segments.get(location.segmentId).channel, buffer, location.offset);
+            return decodeRecord(buffer.array()).value;
+        } finally {
+            segmentDeletionLock.readLock().unlock();
+        }
+    }
+
+    long getLeastLogEntry(NamespaceAndUseCase namespaceAndUseCase) {
+        ConcurrentSkipListMap<Long, Location> rounds = index.get(namespaceAndUseCase);
+        Map.Entry<Long, Location> entry = rounds == null ? null : rounds.firstEntry();
+        return entry == null ? PaxosAcceptor.NO_LOG_ENTRY : entry.getKey();
+    }
+
+    long getGreatestLogEntry(NamespaceAndUseCase namespaceAndUseCase) {
+        ConcurrentSkipListMap<Long, Location> rounds = index.get(namespaceAndUseCase);
+        Map.Entry<Long, Location> entry = rounds == null ? null : rounds.lastEntry();
+        return entry == null ? PaxosAcceptor.NO_LOG_ENTRY : entry.getKey();
+    }
+
+    boolean isMigrated(NamespaceAndUseCase namespaceAndUseCase) {
+        return metadata.getOrDefault(namespaceAndUseCase, NamespaceMetadata.NONE).migrated;
+    }
+
+    @VisibleForTesting
+    Set<Path> segmentFiles() {
+        return segments.values().stream().map(segment -> segment.path).collect(Collectors.toSet());
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        segments.values().forEach(segment -> IOUtils.closeQuietly(segment.channel));
+    }
+
+    private void recover() throws IOException {
+        deleteTemporaryFiles();
+        metadata.putAll(readMetadata());
+        for (long segmentId : listSegmentIds()) {
+            Segment segment = new Segment(segmentId, segmentPath(segmentId));
+            segments.put(segmentId, segment);
+            replay(segment);
+            nextSegmentId = segmentId + 1;
+        }
+        // A segment written by a previous process may end in a torn write, so we trim it and never append to it.
+        for (Segment segment : segments.values()) {
+            segment.channel.truncate(segment.position);
+        }
+        activeSegment = createSegment();
+        deleteDeadSegments();
+    }
+
+    private void replay(Segment segment) throws IOException {
+        long size = segment.channel.size();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path)))) {
+            if (size < SEGMENT_HEADER_SIZE || in.readInt() != SEGMENT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new SafeIllegalStateException(
+                        "Paxos log segment has an unrecognised header", SafeArg.of("segment", segment.path));
+            }
+            long position = SEGMENT_HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= size) {
+                int bodyLength = in.readInt();
+                int checksum = in.readInt();
+                if (bodyLength == 0) {
+                    break;
+                }
+                if (bodyLength < 0 || position + RECORD_HEADER_SIZE + bodyLength > size) {
+                    logTornWrite(segment, position);
+                    break;
+                }
+                byte[] body = new byte[bodyLength];
+                in.readFully(body);
+                if (checksum(body) != checksum) {
+                    logTornWrite(segment, position);
+                    break;
+                }
+                Record record = decodeBody(body);
+                Location location = new Location(segment.id, position, RECORD_HEADER_SIZE + bodyLength);
+                if (!metadata.getOrDefault(record.namespaceAndUseCase, NamespaceMetadata.NONE)
+                        .truncates(record.seq, location)) {
+                    putInIndex(record.namespaceAndUseCase, record.seq, location);
+                }
+                position += location.length;
+            }
+            segment.position = position;
+        }
+    }
+
+    private static void logTornWrite(Segment segment, long position) {
+        log.warn(
+                "Discarding the tail of a paxos log segment, as it does not contain a valid record. This is "
+                        + "expected if the previous process did not shut down cleanly.",
+                SafeArg.of("segment", segment.path),
+                SafeArg.of("position", position));
+    }
+
+    private void processBatch(List<BatchElement<List<Operation>, Void>> batch) {
+        List<Runnable> indexUpdates = new ArrayList<>();
+        Map<NamespaceAndUseCase, NamespaceMetadata> metadataUpdates = new HashMap<>();
+        try {
+            Set<Segment> written = new LinkedHashSet<>();
+            for (BatchElement<List<Operation>, Void> element : batch) {
+                for (Operation operation : element.argument()) {
+                    NamespaceAndUseCase namespaceAndUseCase = operation.namespaceAndUseCase;
+                    switch (operation.type) {
+                        case WRITE:
+                            Location location = append(encodeRecord(operation), written);
+                            indexUpdates.add(() -> putInIndex(namespaceAndUseCase, operation.seq, location));
+                            break;
+                        case TRUNCATE:
+                            metadataUpdates.put(
+                                    namespaceAndUseCase,
+                                    currentMetadata(namespaceAndUseCase, metadataUpdates)
+                                            .withTruncation(operation.seq, currentPosition()));
+                            indexUpdates.add(() -> removeFromIndex(namespaceAndUseCase, operation.seq));
+                            break;
+                        case MARK_MIGRATED:
+                            metadataUpdates.put(
+                                    namespaceAndUseCase,
+                                    currentMetadata(namespaceAndUseCase, metadataUpdates)
+                                            .withMigrated());
+                            break;
+                        default:
+                            throw new SafeIllegalStateException(
+                                    "Unknown operation type", SafeArg.of("type", operation.type));
+                    }
+                }
+            }
+            for (Segment segment : written) {
+                segment.channel.force(false);
+            }
+            if (!metadataUpdates.isEmpty()) {
+                Map<NamespaceAndUseCase, NamespaceMetadata> updatedMetadata = new HashMap<>(metadata);
+                updatedMetadata.putAll(metadataUpdates);
+                writeMetadata(updatedMetadata);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write to segmented paxos log", e);
+            // The active segment may now end in a partial record, so later writes must go to a fresh segment.
+            activeSegment = null;
+            batch.forEach(element -> element.result().setException(e));
+            return;
+        }
+
+        indexUpdates.forEach(Runnable::run);
+        metadata.putAll(metadataUpdates);
+        deleteDeadSegments();
+        batch.forEach(element -> element.result().set(null));
+    }
+
+    private NamespaceMetadata currentMetadata(
+            NamespaceAndUseCase namespaceAndUseCase, Map<NamespaceAndUseCase, NamespaceMetadata> metadataUpdates) {
+        NamespaceMetadata updated = metadataUpdates.get(namespaceAndUseCase);
+        return updated != null ? updated : metadata.getOrDefault(namespaceAndUseCase, NamespaceMetadata.NONE);
+    }
+
+    private Location currentPosition() {
+        return activeSegment == null
+                ? new Location(nextSegmentId, 0, 0)
+                : new Location(activeSegment.id, activeSegment.position, 0);
+    }
+
+    private Location append(ByteBuffer record, Set<Segment> written) throws IOException {
+        if (activeSegment == null
+                || (activeSegment.position > SEGMENT_HEADER_SIZE
+                        && activeSegment.position + record.remaining() > segmentSize)) {
+            activeSegment = createSegment();
+        }
+        Segment segment = activeSegment;
+        Location location = new Location(segment.id, segment.position, record.remaining());
+        writeFully(segment.channel, record, segment.position);
+        segment.position += location.length;
+        written.add(segment);
+        return location;
+    }
+
+    private void putInIndex(NamespaceAndUseCase namespaceAndUseCase, long seq, Location location) {
+        Location previous = index.computeIfAbsent(namespaceAndUseCase, unused -> new ConcurrentSkipListMap<>())
+                .put(seq, location);
+        if (previous != null) {
+            segments.get(previous.segmentId).liveRounds--;
+        }
+        segments.get(location.segmentId).liveRounds++;
+    }
+
+    private void removeFromIndex(NamespaceAndUseCase namespaceAndUseCase, long toDeleteInclusive) {
+        ConcurrentSkipListMap<Long, Location> rounds = index.get(namespaceAndUseCase);
+        if (rounds == null) {
+            return;
+        }
+        NavigableMap<Long, Location> truncated = rounds.headMap(toDeleteInclusive, true);
+        truncated.values().forEach(location -> segments.get(location.segmentId).liveRounds--);
+        truncated.clear();
+    }
+
+    private void deleteDeadSegments() {
+        List<Segment> deadSegments = segments.values().stream()
+                .filter(segment -> segment != activeSegment && segment.liveRounds == 0)
+                .collect(Collectors.toList());
+        if (deadSegments.isEmpty()) {
+            return;
+        }
+        segmentDeletionLock.writeLock().lock();
+        try {
+            deadSegments.forEach(segment -> segments.remove(segment.id));
+        } finally {
+            segmentDeletionLock.writeLock().unlock();
+        }
+        for (Segment segment : deadSegments) {
+            IOUtils.closeQuietly(segment.channel);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Failed to delete paxos log segment", SafeArg.of("segment", segment.path), e);
+            }
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        long segmentId = nextSegmentId++;
+        Path path = segmentPath(segmentId);
+        Path tmpPath = temporaryPath(path);
+        try (FileChannel channel = FileChannel.open(
+                tmpPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            header.putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(channel, header, 0);
+            // Writing the zeroes out, rather than extending a sparse file, means appends need not allocate blocks.
+            ByteBuffer zeroes = ByteBuffer.allocate(PREALLOCATION_CHUNK_SIZE);
+            for (long position = SEGMENT_HEADER_SIZE; position < segmentSize; position += PREALLOCATION_CHUNK_SIZE) {
+                zeroes.clear().limit((int) Math.min(PREALLOCATION_CHUNK_SIZE, segmentSize - position));
+                writeFully(channel, zeroes, position);
+            }
+            channel.force(true);
+        }
+        Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        Segment segment = new Segment(segmentId, path);
+        segment.position = SEGMENT_HEADER_SIZE;
+        segments.put(segmentId, segment);
+        return segment;
+    }
+
+    private Map<NamespaceAndUseCase, NamespaceMetadata> readMetadata() throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(directory.resolve(METADATA_FILE));
+        } catch (NoSuchFileException e) {
+            return Collections.emptyMap();
+        }
+        int contentLength = bytes.length - Integer.BYTES;
+        if (contentLength < 0
+                || ByteBuffer.wrap(bytes, contentLength, Integer.BYTES).getInt() != checksum(bytes, contentLength)) {
+            throw new SafeIllegalStateException("Paxos log metadata is corrupt", SafeArg.of("path", directory));
+        }
+        Map<NamespaceAndUseCase, NamespaceMetadata> result = new HashMap<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, contentLength));
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            NamespaceAndUseCase namespaceAndUseCase = readNamespaceAndUseCase(in);
+            int numTruncations = in.readInt();
+            List<Truncation> truncations = new ArrayList<>(numTruncations);
+            for (int j = 0; j < numTruncations; j++) {
+                truncations.add(new Truncation(in.readLong(), new Location(in.readLong(), in.readLong(), 0)));
+            }
+            result.put(namespaceAndUseCase, new NamespaceMetadata(truncations, in.readBoolean()));
+        }
+        return result;
+    }
+
+    private void writeMetadata(Map<NamespaceAndUseCase, NamespaceMetadata> updatedMetadata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(updatedMetadata.size());
+        for (Map.Entry<NamespaceAndUseCase, NamespaceMetadata> entry : updatedMetadata.entrySet()) {
+            writeNamespaceAndUseCase(out, entry.getKey());
+            out.writeInt(entry.getValue().truncations.size());
+            for (Truncation truncation : entry.getValue().truncations) {
+                out.writeLong(truncation.toDeleteInclusive);
+                out.writeLong(truncation.position.segmentId);
+                out.writeLong(truncation.position.offset);
+            }
+            out.writeBoolean(entry.getValue().migrated);
+        }
+        out.writeInt(checksum(bytes.toByteArray(), bytes.size()));
+
+        Path path = directory.resolve(METADATA_FILE);
+        Path tmpPath = temporaryPath(path);
+        try (FileChannel channel = FileChannel.open(
+                        tmpPath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+                OutputStream fileOut = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+            bytes.writeTo(fileOut);
+            fileOut.flush();
+            channel.force(true);
+        }
+        Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        List<Long> segmentIds = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segmentIds.add(Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(segmentIds);
+        return segmentIds;
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TMP_FILE_SUFFIX)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform allows a directory to be opened, in which case renames are durable already.
+            log.debug("Could not sync paxos log directory", SafeArg.of("path", directory), e);
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private static Path temporaryPath(Path path) {
+        return path.resolveSibling(path.getFileName() + TMP_FILE_SUFFIX);
+    }
+
+    private static ByteBuffer encodeRecord(Operation operation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        writeNamespaceAndUseCase(out, operation.namespaceAndUseCase);
+        out.writeLong(operation.seq);
+        out.write(operation.value);
+
+        byte[] record = bytes.toByteArray();
+        int bodyLength = record.length - RECORD_HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(Integer.BYTES, checksum(record, RECORD_HEADER_SIZE, bodyLength));
+        return buffer;
+    }
+
+    private static Record decodeRecord(byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int bodyLength = buffer.getInt();
+        int expectedChecksum = buffer.getInt();
+        if (bodyLength != record.length - RECORD_HEADER_SIZE
+                || checksum(record, RECORD_HEADER_SIZE, bodyLength) != expectedChecksum) {
+            throw new PaxosStateLog.CorruptLogFileException();
+        }
+        return decodeBody(Arrays.copyOfRange(record, RECORD_HEADER_SIZE, record.length));
+    }
+
+    private static Record decodeBody(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        NamespaceAndUseCase namespaceAndUseCase = readNamespaceAndUseCase(in);
+        long seq = in.readLong();
+        byte[] value = new byte[in.available()];
+        in.readFully(value);
+        return new Record(namespaceAndUseCase, seq, value);
+    }
+
+    private static void writeNamespaceAndUseCase(DataOutputStream out, NamespaceAndUseCase namespaceAndUseCase)
+            throws IOException {
+        out.writeUTF(namespaceAndUseCase.namespace().value());
+        out.writeUTF(namespaceAndUseCase.useCase());
+    }
+
+    private static NamespaceAndUseCase readNamespaceAndUseCase(DataInputStream in) throws IOException {
+        return ImmutableNamespaceAndUseCase.of(Client.of(in.readUTF()), in.readUTF());
+    }
+
+    private static int checksum(byte[] bytes) {
+        return checksum(bytes, 0, bytes.length);
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        return checksum(bytes, 0, length);
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            currentPosition += channel.write(buffer, currentPosition);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, currentPosition);
+            if (read < 0) {
+                throw new PaxosStateLog.CorruptLogFileException();
+            }
+            currentPosition += read;
+        }
+    }
+
+    static final class Operation {
+        private final OperationType type;
+        private final NamespaceAndUseCase namespaceAndUseCase;
+        private final long seq;
+        private final byte[] value;
+
+        private Operation(OperationType type, NamespaceAndUseCase namespaceAndUseCase, long seq, byte[] value) {
+            this.type = type;
+            this.namespaceAndUseCase = namespaceAndUseCase;
+            this.seq = seq;
+            this.value = value;
+        }
+
+        static Operation write(NamespaceAndUseCase namespaceAndUseCase, long seq, byte[] value) {
+            return new Operation(OperationType.WRITE, namespaceAndUseCase, seq, value);
+        }
+
+        static Operation truncate(NamespaceAndUseCase namespaceAndUseCase, long toDeleteInclusive) {
+            return new Operation(OperationType.TRUNCATE, namespaceAndUseCase, toDeleteInclusive, null);
+        }
+
+        static Operation markMigrated(NamespaceAndUseCase namespaceAndUseCase) {
+            return new Operation(OperationType.MARK_MIGRATED, namespaceAndUseCase, PaxosAcceptor.NO_LOG_ENTRY, null);
+        }
+    }
+
+    private enum OperationType {
+        WRITE,
+        TRUNCATE,
+        MARK_MIGRATED
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+
+        // Only accessed by the writer thread once the store has been created.
+        private long position;
+        private int liveRounds;
+
+        private Segment(long id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    private static final class Location implements Comparable<Location> {
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+
+        private Location(long segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int compareTo(Location other) {
+            int segmentComparison = Long.compare(segmentId, other.segmentId);
+            return segmentComparison != 0 ? segmentComparison : Long.compare(offset, other.offset);
+        }
+    }
+
+    private static final class Record {
+        private final NamespaceAndUseCase namespaceAndUseCase;
+        private final long seq;
+        private final byte[] value;
+
+        private Record(NamespaceAndUseCase namespaceAndUseCase, long seq, byte[] value) {
+            this.namespaceAndUseCase = namespaceAndUseCase;
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A truncation removes the rounds of a namespace and use case at or below {@link #toDeleteInclusive} that were
+     * written before {@link #position} in the log.
+     */
+    private static final class Truncation {
+        private final long toDeleteInclusive;
+        private final Location position;
+
+        private Truncation(long toDeleteInclusive, Location position) {
+            this.toDeleteInclusive = toDeleteInclusive;
+            this.position = position;
+        }
+    }
+
+    /**
+     * The truncations of a namespace and use case that may still apply to rounds in the log. A truncation subsumes
+     * every earlier truncation that deleted no more rounds than it, so these are kept in order of position with
+     * strictly decreasing sequence numbers, and usually there is only one.
+     */
+    private static final class NamespaceMetadata {
+        private static final NamespaceMetadata NONE = new NamespaceMetadata(ImmutableList.of(), false);
+
+        private final List<Truncation> truncations;
+        private final boolean migrated;
+
+        private NamespaceMetadata(List<Truncation> truncations, boolean migrated) {
+            this.truncations = truncations;
+            this.migrated = migrated;
+        }
+
+        private boolean truncates(long seq, Location location) {
+            return truncations.stream()
+                    .anyMatch(truncation ->
+                            seq <= truncation.toDeleteInclusive && location.compareTo(truncation.position) < 0);
+        }
+
+        private NamespaceMetadata withTruncation(long toDeleteInclusive, Location position) {
+            List<Truncation> updatedTruncations = truncations.stream()
+                    .filter(truncation -> truncation.toDeleteInclusive > toDeleteInclusive)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            updatedTruncations.add(new Truncation(toDeleteInclusive, position));
+            return new NamespaceMetadata(updatedTruncations, migrated);
+        }
+
+        private NamespaceMetadata withMigrated() {
+            return new NamespaceMetadata(truncations, true);
+        }
+    }
+}
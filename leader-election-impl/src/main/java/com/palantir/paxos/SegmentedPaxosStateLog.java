@@ -0,0 +1,151 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Streams;
+import com.palantir.common.persist.Persistable;
+import com.palantir.logsafe.SafeArg;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link PaxosStateLog} for a single namespace and use case, backed by a {@link SegmentedPaxosLogStore} that is
+ * shared with other namespaces and use cases.
+ */
+public final class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V> {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+    private static final int MIGRATION_READ_THREADS = 8;
+
+    private final NamespaceAndUseCase namespaceAndUseCase;
+    private final SegmentedPaxosLogStore store;
+
+    private SegmentedPaxosStateLog(NamespaceAndUseCase namespaceAndUseCase, SegmentedPaxosLogStore store) {
+        this.namespaceAndUseCase = namespaceAndUseCase;
+        this.store = store;
+    }
+
+    public static <V extends Persistable & Versionable> PaxosStateLog<V> create(
+            NamespaceAndUseCase namespaceAndUseCase, SegmentedPaxosLogStore store) {
+        return new SegmentedPaxosStateLog<>(namespaceAndUseCase, store);
+    }
+
+    /**
+     * Creates a log that, on first use, is populated from the given legacy log, which may be either file or sqlite
+     * backed. As with {@link PaxosStateLogMigrator}, if migrateFrom is present, rounds more than
+     * {@link PaxosStateLogMigrator#SAFETY_BUFFER} before it are not migrated. The legacy log is left untouched.
+     *
+     * A migration that did not complete, for example because the process was killed part way through, is discarded and
+     * run again from scratch.
+     */
+    public static <V extends Persistable & Versionable> PaxosStateLog<V> createWithMigration(
+            NamespaceAndUseCase namespaceAndUseCase,
+            SegmentedPaxosLogStore store,
+            PaxosStateLog<V> legacyLog,
+            Persistable.Hydrator<V> hydrator,
+            OptionalLong migrateFrom) {
+        SegmentedPaxosStateLog<V> stateLog = new SegmentedPaxosStateLog<>(namespaceAndUseCase, store);
+        if (!store.isMigrated(namespaceAndUseCase)) {
+            stateLog.truncateAllRounds();
+            stateLog.migrateFrom(legacyLog, hydrator, migrateFrom);
+            store.execute(ImmutableList.of(SegmentedPaxosLogStore.Operation.markMigrated(namespaceAndUseCase)));
+        }
+        return stateLog;
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        store.execute(ImmutableList.of(
+                SegmentedPaxosLogStore.Operation.write(namespaceAndUseCase, seq, round.persistToBytes())));
+    }
+
+    @Override
+    public void writeBatchOfRounds(Iterable<PaxosRound<V>> rounds) {
+        store.execute(Streams.stream(rounds)
+                .map(round -> SegmentedPaxosLogStore.Operation.write(
+                        namespaceAndUseCase, round.sequence(), round.valueBytes()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        return store.read(namespaceAndUseCase, seq);
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        return store.getLeastLogEntry(namespaceAndUseCase);
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        return store.getGreatestLogEntry(namespaceAndUseCase);
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        store.execute(ImmutableList.of(
+                SegmentedPaxosLogStore.Operation.truncate(namespaceAndUseCase, toDeleteInclusive)));
+    }
+
+    @Override
+    public void truncateAllRounds() {
+        truncate(Long.MAX_VALUE);
+    }
+
+    private void migrateFrom(PaxosStateLog<V> legacyLog, Persistable.Hydrator<V> hydrator, OptionalLong migrateFrom) {
+        long greatestEntry = legacyLog.getGreatestLogEntry();
+        if (greatestEntry == PaxosAcceptor.NO_LOG_ENTRY) {
+            return;
+        }
+        long leastEntry = Math.max(0, legacyLog.getLeastLogEntry());
+        long lowerBound = migrateFrom.isPresent()
+                ? Math.max(
+                        leastEntry,
+                        Math.min(greatestEntry, migrateFrom.getAsLong() - PaxosStateLogMigrator.SAFETY_BUFFER))
+                : leastEntry;
+
+        log.info(
+                "Migrating paxos state log to segmented log.",
+                SafeArg.of("namespaceAndUseCase", namespaceAndUseCase),
+                SafeArg.of("lowerBound", lowerBound),
+                SafeArg.of("upperBound", greatestEntry));
+        Instant start = Instant.now();
+        int migratedRounds = 0;
+        try (PaxosStateLogBatchReader<V> reader =
+                new PaxosStateLogBatchReader<>(legacyLog, hydrator, MIGRATION_READ_THREADS)) {
+            for (long batchStart = lowerBound;
+                    batchStart <= greatestEntry;
+                    batchStart += PaxosStateLogMigrator.BATCH_SIZE) {
+                int batchSize = (int) Math.min(PaxosStateLogMigrator.BATCH_SIZE, greatestEntry - batchStart + 1);
+                List<PaxosRound<V>> batch = reader.readBatch(batchStart, batchSize);
+                writeBatchOfRounds(batch);
+                migratedRounds += batch.size();
+            }
+        }
+        log.info(
+                "Finished migrating paxos state log to segmented log.",
+                SafeArg.of("namespaceAndUseCase", namespaceAndUseCase),
+                SafeArg.of("numEntries", migratedRounds),
+                SafeArg.of("duration", Duration.between(start, Instant.now())));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import com.codahale.metrics.Timer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.leader.SqlitePaxosStateLogMetrics;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.concurrent.GuardedBy;
+import javax.sql.DataSource;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+
+/**
+ * Writes Paxos rounds for all namespaces and use cases backed by the same Sqlite data source, committing rounds that
+ * are written concurrently in a single transaction, and hence paying for a single sync to disk.
+ *
+ * There is no dedicated writer thread. A writer enqueues its round and then waits to take the commit lock. Whoever
+ * holds the lock commits every round that is queued at that point, so the rounds written while one group is being
+ * committed form the next group, and each writer returns once the group containing its round is durable. The window
+ * over which rounds are grouped therefore tracks the commit latency of the disk, and a writer that finds no commit in
+ * progress does not wait at all.
+ */
+final class SqliteGroupCommitter {
+    private static final Cache<DataSource, SqliteGroupCommitter> COMMITTERS =
+            Caffeine.newBuilder().weakKeys().weakValues().build();
+
+    private final Jdbi jdbi;
+    private final SqlitePaxosStateLogMetrics metrics;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Lock commitLock = new ReentrantLock();
+
+    @VisibleForTesting
+    SqliteGroupCommitter(DataSource dataSource, TaggedMetricRegistry metricRegistry) {
+        this.jdbi = Jdbi.create(dataSource).installPlugin(new SqlObjectPlugin());
+        this.metrics = SqlitePaxosStateLogMetrics.of(metricRegistry);
+    }
+
+    /**
+     * Returns the committer shared by all logs backed by the given data source. Committers are only reachable from
+     * the logs using them, and are discarded once those logs are.
+     */
+    static SqliteGroupCommitter forDataSource(DataSource dataSource) {
+        return COMMITTERS.get(
+                dataSource,
+                source -> new SqliteGroupCommitter(source, SharedTaggedMetricRegistries.getSingleton()));
+    }
+
+    void writeRound(Client namespace, String useCase, long seq, byte[] value) {
+        PendingWrite write = new PendingWrite(namespace, useCase, seq, value);
+        pendingWrites.add(write);
+        commitLock.lock();
+        try {
+            if (!write.committed && write.failure == null) {
+                commitPendingWrites();
+            }
+            if (write.failure != null) {
+                throw write.failure;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    @GuardedBy("commitLock")
+    private void commitPendingWrites() {
+        List<PendingWrite> group = new ArrayList<>();
+        PendingWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            group.add(write);
+        }
+
+        List<String> namespaces = new ArrayList<>(group.size());
+        List<String> useCases = new ArrayList<>(group.size());
+        List<Long> seqs = new ArrayList<>(group.size());
+        List<byte[]> values = new ArrayList<>(group.size());
+        for (PendingWrite pending : group) {
+            namespaces.add(pending.namespace.value());
+            useCases.add(pending.useCase);
+            seqs.add(pending.seq);
+            values.add(pending.value);
+        }
+
+        metrics.groupCommitBatchSize().update(group.size());
+        try (Timer.Context ignored = metrics.groupCommitLatency().time()) {
+            jdbi.useExtension(Queries.class, dao -> dao.writeRounds(namespaces, useCases, seqs, values));
+            group.forEach(committed -> committed.committed = true);
+        } catch (RuntimeException e) {
+            group.forEach(failed -> failed.failure = e);
+        }
+    }
+
+    /**
+     * Fields are only accessed while holding the commit lock.
+     */
+    private static final class PendingWrite {
+        private final Client namespace;
+        private final String useCase;
+        private final long seq;
+        private final byte[] value;
+
+        private boolean committed = false;
+        private RuntimeException failure = null;
+
+        private PendingWrite(Client namespace, String useCase, long seq, byte[] value) {
+            this.namespace = namespace;
+            this.useCase = useCase;
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    public interface Queries {
+        /**
+         * Batches are executed in a single transaction.
+         */
+        @SqlBatch("INSERT OR REPLACE INTO paxosLog (namespace, useCase, seq, val) VALUES ("
+                + ":namespace, :useCase, :seq, :value)")
+        boolean[] writeRounds(
+                @Bind("namespace") List<String> namespaces,
+                @Bind("useCase") List<String> useCases,
+                @Bind("seq") List<Long> seqs,
+                @Bind("value") List<byte[]> values);
+    }
+}
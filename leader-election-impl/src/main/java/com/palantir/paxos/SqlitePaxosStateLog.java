@@ -36,18 +36,22 @@ public class SqlitePaxosStateLog<V extends Persistable & Versionable> implements
     private final Client namespace;
     private final String useCase;
     private final Jdbi jdbi;
+    private final SqliteGroupCommitter groupCommitter;
 
-    private SqlitePaxosStateLog(NamespaceAndUseCase namespaceAndUseCase, Jdbi jdbi) {
+    private SqlitePaxosStateLog(
+            NamespaceAndUseCase namespaceAndUseCase, Jdbi jdbi, SqliteGroupCommitter groupCommitter) {
         this.namespace = namespaceAndUseCase.namespace();
         this.useCase = namespaceAndUseCase.useCase();
         this.jdbi = jdbi;
+        this.groupCommitter = groupCommitter;
     }
 
     public static <V extends Persistable & Versionable> PaxosStateLog<V> create(
             NamespaceAndUseCase namespaceAndUseCase, DataSource dataSource) {
         Jdbi jdbi = Jdbi.create(dataSource).installPlugin(new SqlObjectPlugin());
         jdbi.getConfig(JdbiImmutables.class).registerImmutable(Client.class, PaxosRound.class);
-        SqlitePaxosStateLog<V> log = new SqlitePaxosStateLog<>(namespaceAndUseCase, jdbi);
+        SqlitePaxosStateLog<V> log = new SqlitePaxosStateLog<>(
+                namespaceAndUseCase, jdbi, SqliteGroupCommitter.forDataSource(dataSource));
         log.initialize();
         return log;
     }
@@ -56,9 +60,13 @@ public class SqlitePaxosStateLog<V extends Persistable & Versionable> implements
         execute(Queries::createTable);
     }
 
+    /**
+     * Rounds written concurrently, by any of the logs backed by the same data source, are committed together in a
+     * single transaction; see {@link SqliteGroupCommitter}. This returns once the round is durably committed.
+     */
     @Override
     public void writeRound(long seq, V round) {
-        execute(dao -> dao.writeRound(namespace, useCase, seq, round.persistToBytes()));
+        groupCommitter.writeRound(namespace, useCase, seq, round.persistToBytes());
     }
 
     @Override
@@ -108,14 +116,6 @@ public class SqlitePaxosStateLog<V extends Persistable & Versionable> implements
                 + "PRIMARY KEY(namespace, useCase, seq))")
         boolean createTable();
 
-        @SqlUpdate("INSERT OR REPLACE INTO paxosLog (namespace, useCase, seq, val) VALUES ("
-                + ":namespace.value, :useCase, :seq, :value)")
-        boolean writeRound(
-                @BindPojo("namespace") Client namespace,
-                @Bind("useCase") String useCase,
-                @Bind("seq") long seq,
-                @Bind("value") byte[] value);
-
         @SqlQuery("SELECT val FROM paxosLog WHERE namespace = :namespace.value AND useCase = :useCase AND seq = :seq")
         @SingleValue
         byte[] readRound(
@@ -0,0 +1,292 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static com.palantir.paxos.PaxosStateLogTestUtils.generateRounds;
+import static com.palantir.paxos.PaxosStateLogTestUtils.getPaxosValue;
+import static com.palantir.paxos.PaxosStateLogTestUtils.valueForRound;
+import static com.palantir.paxos.PaxosStateLogTestUtils.wrap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.common.concurrent.PTExecutors;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedPaxosStateLogTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static final Client CLIENT_1 = Client.of("tom");
+    private static final Client CLIENT_2 = Client.of("two");
+
+    private static final String USE_CASE_1 = "useCase1";
+    private static final String USE_CASE_2 = "useCase2";
+
+    private static final long SMALL_SEGMENT_SIZE = 4096;
+
+    private Path logDirectory;
+    private SegmentedPaxosLogStore store;
+    private PaxosStateLog<PaxosValue> stateLog;
+
+    @Before
+    public void setup() throws IOException {
+        logDirectory = tempFolder.newFolder("segmented").toPath();
+        store = SegmentedPaxosLogStore.create(logDirectory, SMALL_SEGMENT_SIZE);
+        stateLog = SegmentedPaxosStateLog.create(wrap(CLIENT_1, USE_CASE_1), store);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void readingNonExistentRoundReturnsNull() throws IOException {
+        assertThat(stateLog.readRound(10L)).isNull();
+    }
+
+    @Test
+    public void canWriteAndRetrieveAValue() {
+        PaxosValue paxosValue = writeValueForRound(12L);
+        assertThat(getPaxosValue(stateLog, 12L)).isEqualTo(paxosValue);
+    }
+
+    @Test
+    public void canWriteAndRetrieveBatch() {
+        List<PaxosRound<PaxosValue>> rounds = generateRounds(LongStream.rangeClosed(5L, 10L));
+        stateLog.writeBatchOfRounds(rounds);
+        rounds.forEach(round -> assertThat(getPaxosValue(stateLog, round.sequence()))
+                .isEqualTo(round.value()));
+    }
+
+    @Test
+    public void canWriteEmptyBatch() {
+        assertThatCode(() -> stateLog.writeBatchOfRounds(ImmutableList.of())).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void canOverwriteSequences() {
+        writeValueForRound(5L);
+        PaxosValue newEntry = new PaxosValue("otherLeader", 5L, null);
+        stateLog.writeRound(5L, newEntry);
+        assertThat(getPaxosValue(stateLog, 5L)).isEqualTo(newEntry);
+    }
+
+    @Test
+    public void valuesAreDistinguishedAcrossNamespacesAndUseCases() throws IOException {
+        PaxosStateLog<PaxosValue> otherNamespace = SegmentedPaxosStateLog.create(wrap(CLIENT_2, USE_CASE_1), store);
+        PaxosStateLog<PaxosValue> otherUseCase = SegmentedPaxosStateLog.create(wrap(CLIENT_1, USE_CASE_2), store);
+        writeValueForRound(1L);
+        otherUseCase.writeRound(2L, valueForRound(2L));
+
+        assertThat(otherNamespace.readRound(1L)).isNull();
+        assertThat(otherUseCase.readRound(1L)).isNull();
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(1L);
+        assertThat(otherNamespace.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(otherUseCase.getLeastLogEntry()).isEqualTo(2L);
+    }
+
+    @Test
+    public void canGetExtremeLogEntries() {
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+
+        writeValueForRound(15L);
+        writeValueForRound(19L);
+        writeValueForRound(17L);
+
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(15L);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(19L);
+    }
+
+    @Test
+    public void canTruncateInclusive() throws IOException {
+        writeValueForRound(5L);
+        writeValueForRound(7L);
+        writeValueForRound(9L);
+
+        stateLog.truncate(7L);
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(9L);
+        assertThat(stateLog.readRound(7L)).isNull();
+    }
+
+    @Test
+    public void canTruncateAll() {
+        writeValueForRound(5L);
+        writeValueForRound(9L);
+
+        stateLog.truncateAllRounds();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+    }
+
+    @Test
+    public void roundsSurviveReopening() {
+        List<PaxosRound<PaxosValue>> rounds = generateRounds(LongStream.rangeClosed(0L, 100L));
+        stateLog.writeBatchOfRounds(rounds);
+
+        reopen();
+
+        assertThat(stateLog.getLeastLogEntry()).isZero();
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(100L);
+        rounds.forEach(round -> assertThat(getPaxosValue(stateLog, round.sequence()))
+                .isEqualTo(round.value()));
+    }
+
+    @Test
+    public void truncationsSurviveReopeningWithoutHidingLaterWrites() throws IOException {
+        writeValueForRound(1L);
+        writeValueForRound(2L);
+        writeValueForRound(3L);
+        stateLog.truncate(2L);
+        PaxosValue rewritten = writeValueForRound(1L);
+        stateLog.truncate(0L);
+
+        reopen();
+
+        assertThat(getPaxosValue(stateLog, 1L)).isEqualTo(rewritten);
+        assertThat(stateLog.readRound(2L)).isNull();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(1L);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(3L);
+    }
+
+    @Test
+    public void segmentsAreDeletedOnceAllTheirRoundsAreOverwritten() {
+        for (int i = 0; i < 1_000; i++) {
+            writeValueForRound(i % 10);
+        }
+
+        assertThat(store.segmentFiles()).hasSizeLessThan(5);
+        assertThat(store.segmentFiles()).allMatch(path -> path.toFile().exists());
+        assertThat(logDirectory.toFile().list((dir, name) -> name.endsWith(SegmentedPaxosLogStore.SEGMENT_SUFFIX)))
+                .hasSameSizeAs(store.segmentFiles());
+    }
+
+    @Test
+    public void truncationDeletesSegments() {
+        stateLog.writeBatchOfRounds(generateRounds(LongStream.range(0L, 500L)));
+        int segmentsBeforeTruncation = store.segmentFiles().size();
+
+        stateLog.truncate(400L);
+
+        assertThat(store.segmentFiles()).hasSizeLessThan(segmentsBeforeTruncation);
+        reopen();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(401L);
+    }
+
+    @Test
+    public void concurrentWritesFromManyNamespacesAreDurable() {
+        int numThreads = 100;
+        ExecutorService executor = PTExecutors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = IntStream.range(0, numThreads)
+                .mapToObj(thread -> executor.submit(() -> {
+                    PaxosStateLog<PaxosValue> log =
+                            SegmentedPaxosStateLog.create(wrap(Client.of("client" + thread), USE_CASE_1), store);
+                    for (int i = 0; i < 50; i++) {
+                        log.writeRound(i, valueForRound(i));
+                    }
+                }))
+                .collect(Collectors.toList());
+        futures.forEach(
+                future -> assertThatCode(() -> Futures.getUnchecked(future)).doesNotThrowAnyException());
+        executor.shutdown();
+
+        reopen();
+
+        for (int thread = 0; thread < numThreads; thread++) {
+            PaxosStateLog<PaxosValue> log =
+                    SegmentedPaxosStateLog.create(wrap(Client.of("client" + thread), USE_CASE_1), store);
+            assertThat(log.getGreatestLogEntry()).isEqualTo(49L);
+            assertThat(getPaxosValue(log, 49L)).isEqualTo(valueForRound(49L));
+        }
+    }
+
+    @Test
+    public void migratesFromFileBackedLog() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog =
+                PaxosStateLogImpl.createFileBacked(tempFolder.newFolder("file").getPath());
+        verifyMigration(legacyLog);
+    }
+
+    @Test
+    public void migratesFromSqliteLog() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog = SqlitePaxosStateLog.create(
+                wrap(CLIENT_1, USE_CASE_1),
+                SqliteConnections.getPooledDataSource(tempFolder.newFolder("sqlite").toPath()));
+        verifyMigration(legacyLog);
+    }
+
+    @Test
+    public void migrationOnlyCopiesRoundsNearMigrateFrom() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog =
+                PaxosStateLogImpl.createFileBacked(tempFolder.newFolder("file").getPath());
+        legacyLog.writeBatchOfRounds(generateRounds(LongStream.rangeClosed(0L, 200L)));
+
+        PaxosStateLog<PaxosValue> migrated = SegmentedPaxosStateLog.createWithMigration(
+                wrap(CLIENT_2, USE_CASE_1), store, legacyLog, PaxosValue.BYTES_HYDRATOR, OptionalLong.of(150L));
+
+        assertThat(migrated.getLeastLogEntry()).isEqualTo(150L - PaxosStateLogMigrator.SAFETY_BUFFER);
+        assertThat(migrated.getGreatestLogEntry()).isEqualTo(200L);
+    }
+
+    private void verifyMigration(PaxosStateLog<PaxosValue> legacyLog) {
+        List<PaxosRound<PaxosValue>> rounds = generateRounds(LongStream.rangeClosed(3L, 120L));
+        legacyLog.writeBatchOfRounds(rounds);
+
+        PaxosStateLog<PaxosValue> migrated = createWithMigration(legacyLog);
+        assertThat(migrated.getLeastLogEntry()).isEqualTo(3L);
+        assertThat(migrated.getGreatestLogEntry()).isEqualTo(120L);
+        rounds.forEach(round -> assertThat(getPaxosValue(migrated, round.sequence()))
+                .isEqualTo(round.value()));
+
+        // Once migrated, the legacy log is no longer consulted.
+        legacyLog.writeRound(121L, valueForRound(121L));
+        reopen();
+        assertThat(createWithMigration(legacyLog).getGreatestLogEntry()).isEqualTo(120L);
+    }
+
+    private PaxosStateLog<PaxosValue> createWithMigration(PaxosStateLog<PaxosValue> legacyLog) {
+        return SegmentedPaxosStateLog.createWithMigration(
+                wrap(CLIENT_2, USE_CASE_1), store, legacyLog, PaxosValue.BYTES_HYDRATOR, OptionalLong.empty());
+    }
+
+    private void reopen() {
+        store.close();
+        store = SegmentedPaxosLogStore.create(logDirectory, SMALL_SEGMENT_SIZE);
+        stateLog = SegmentedPaxosStateLog.create(wrap(CLIENT_1, USE_CASE_1), store);
+    }
+
+    private PaxosValue writeValueForRound(long round) {
+        PaxosValue paxosValue = valueForRound(round);
+        stateLog.writeRound(round, paxosValue);
+        return paxosValue;
+    }
+}
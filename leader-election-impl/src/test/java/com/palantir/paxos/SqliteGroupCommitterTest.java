@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import static com.palantir.paxos.PaxosStateLogTestUtils.valueForRound;
+import static com.palantir.paxos.PaxosStateLogTestUtils.wrap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.util.concurrent.Futures;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.leader.SqlitePaxosStateLogMetrics;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SqliteGroupCommitterTest {
+    private static final String USE_CASE = "useCase";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final TaggedMetricRegistry metricRegistry = new DefaultTaggedMetricRegistry();
+    private final SqlitePaxosStateLogMetrics metrics = SqlitePaxosStateLogMetrics.of(metricRegistry);
+
+    private DataSource dataSource;
+    private SqliteGroupCommitter committer;
+
+    @Before
+    public void setup() {
+        dataSource = SqliteConnections.getPooledDataSource(tempFolder.getRoot().toPath());
+        committer = new SqliteGroupCommitter(dataSource, metricRegistry);
+    }
+
+    @Test
+    public void logsBackedByTheSameDataSourceShareACommitter() {
+        DataSource otherDataSource = mock(DataSource.class);
+
+        assertThat(SqliteGroupCommitter.forDataSource(dataSource))
+                .isSameAs(SqliteGroupCommitter.forDataSource(dataSource))
+                .isNotSameAs(SqliteGroupCommitter.forDataSource(otherDataSource));
+    }
+
+    @Test
+    public void writtenRoundsAreVisibleToLogs() {
+        PaxosStateLog<PaxosValue> log = SqlitePaxosStateLog.create(wrap(Client.of("client"), USE_CASE), dataSource);
+        PaxosValue value = valueForRound(5L);
+
+        committer.writeRound(Client.of("client"), USE_CASE, 5L, value.persistToBytes());
+
+        assertThat(PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(5L))).isEqualTo(value);
+        assertThat(metrics.groupCommitBatchSize().getSnapshot().getValues()).containsExactly(1L);
+        assertThat(metrics.groupCommitLatency().getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void recordsBatchSizeAndLatencyOfEveryGroup() {
+        SqlitePaxosStateLog.create(wrap(Client.of("client"), USE_CASE), dataSource);
+        int numThreads = 20;
+        int roundsPerThread = 5;
+        ExecutorService executor = PTExecutors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = IntStream.range(0, numThreads)
+                .mapToObj(thread -> executor.submit(() -> {
+                    for (int i = 0; i < roundsPerThread; i++) {
+                        committer.writeRound(
+                                Client.of("client" + thread), USE_CASE, i, valueForRound(i).persistToBytes());
+                    }
+                }))
+                .collect(Collectors.toList());
+        futures.forEach(
+                future -> assertThatCode(() -> Futures.getUnchecked(future)).doesNotThrowAnyException());
+
+        long[] batchSizes = metrics.groupCommitBatchSize().getSnapshot().getValues();
+        assertThat(Arrays.stream(batchSizes).sum()).isEqualTo(numThreads * roundsPerThread);
+        assertThat(metrics.groupCommitLatency().getCount()).isEqualTo(batchSizes.length);
+    }
+
+    @Test
+    public void failedCommitsAreRethrownAndDoNotAffectLaterGroups() {
+        byte[] value = valueForRound(1L).persistToBytes();
+        assertThatThrownBy(() -> committer.writeRound(Client.of("client"), USE_CASE, 1L, value))
+                .isInstanceOf(RuntimeException.class);
+
+        PaxosStateLog<PaxosValue> log = SqlitePaxosStateLog.create(wrap(Client.of("client"), USE_CASE), dataSource);
+        committer.writeRound(Client.of("client"), USE_CASE, 1L, value);
+        assertThat(log.readRound(1L)).isEqualTo(value);
+    }
+}
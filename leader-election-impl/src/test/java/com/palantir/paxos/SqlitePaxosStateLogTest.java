@@ -238,6 +238,31 @@ public class SqlitePaxosStateLogTest {
                 future -> assertThatCode(() -> Futures.getUnchecked(future)).doesNotThrowAnyException());
     }
 
+    @Test
+    public void concurrentWritesAcrossNamespacesAreAllPersisted() {
+        int numThreads = 50;
+        int roundsPerThread = 20;
+        ExecutorService executor = PTExecutors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = IntStream.range(0, numThreads)
+                .mapToObj(thread -> executor.submit(() -> {
+                    PaxosStateLog<PaxosValue> log =
+                            SqlitePaxosStateLog.create(wrap(Client.of("client" + thread), USE_CASE_1), dataSource);
+                    for (int i = 0; i < roundsPerThread; i++) {
+                        log.writeRound(i, valueForRound(i));
+                    }
+                }))
+                .collect(Collectors.toList());
+        futures.forEach(
+                future -> assertThatCode(() -> Futures.getUnchecked(future)).doesNotThrowAnyException());
+
+        for (int thread = 0; thread < numThreads; thread++) {
+            PaxosStateLog<PaxosValue> log =
+                    SqlitePaxosStateLog.create(wrap(Client.of("client" + thread), USE_CASE_1), dataSource);
+            assertThat(log.getLeastLogEntry()).isEqualTo(0L);
+            assertThat(log.getGreatestLogEntry()).isEqualTo(roundsPerThread - 1);
+        }
+    }
+
     private PaxosValue writeValueForRound(long round) {
         PaxosValue paxosValue = valueForRound(round);
         stateLog.writeRound(round, paxosValue);
@@ -18,6 +18,7 @@ package com.palantir.lock.v2;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.logsafe.Preconditions;
 import java.util.Optional;
 import java.util.Set;
@@ -37,6 +38,15 @@ public interface LockRequest {
     @Value.Parameter
     Optional<String> getClientDescription();
 
+    /**
+     * Locks requested in {@link LockMode#READ} mode are shared with other readers of the same descriptors, but exclude
+     * (and are excluded by) writers. Defaults to {@link LockMode#WRITE}, which is exclusive.
+     */
+    @Value.Default
+    default LockMode getLockMode() {
+        return LockMode.WRITE;
+    }
+
     static LockRequest of(Set<LockDescriptor> lockDescriptors, long acquireTimeoutMs) {
         return ImmutableLockRequest.of(lockDescriptors, acquireTimeoutMs, Optional.empty());
     }
@@ -45,6 +55,11 @@ public interface LockRequest {
         return ImmutableLockRequest.of(lockDescriptors, acquireTimeoutMs, Optional.of(clientDescription));
     }
 
+    static LockRequest of(Set<LockDescriptor> lockDescriptors, long acquireTimeoutMs, LockMode lockMode) {
+        return ImmutableLockRequest.of(lockDescriptors, acquireTimeoutMs, Optional.empty())
+                .withLockMode(lockMode);
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(getAcquireTimeoutMs() >= 0, "Acquire timeout cannot be negative.");
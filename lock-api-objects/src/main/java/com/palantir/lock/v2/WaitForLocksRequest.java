@@ -18,6 +18,7 @@ package com.palantir.lock.v2;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.logsafe.Preconditions;
 import java.util.Optional;
 import java.util.Set;
@@ -42,6 +43,14 @@ public interface WaitForLocksRequest {
     @Value.Parameter
     Optional<String> getClientDescription();
 
+    /**
+     * In {@link LockMode#READ} mode, only waits for writers to release the locks.
+     */
+    @Value.Default
+    default LockMode getLockMode() {
+        return LockMode.WRITE;
+    }
+
     static WaitForLocksRequest of(Set<LockDescriptor> lockDescriptors, long acquireTimeoutMs) {
         return ImmutableWaitForLocksRequest.of(UUID.randomUUID(), lockDescriptors, acquireTimeoutMs, Optional.empty());
     }
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 import java.util.Set;
 import org.immutables.value.Value;
@@ -35,6 +36,15 @@ public abstract class LockEvent implements LockWatchEvent {
 
     public abstract LockToken lockToken();
 
+    /**
+     * The mode the locks were taken in. Locks taken in {@link LockMode#READ} mode may be held by several requests at
+     * once, and do not by themselves indicate that the locked values are being written.
+     */
+    @Value.Default
+    public LockMode lockMode() {
+        return LockMode.WRITE;
+    }
+
     @Override
     public int size() {
         return lockDescriptors().size();
@@ -46,8 +56,15 @@ public abstract class LockEvent implements LockWatchEvent {
     }
 
     public static LockWatchEvent.Builder builder(Set<LockDescriptor> lockDescriptors, LockToken lockToken) {
-        ImmutableLockEvent.Builder builder =
-                ImmutableLockEvent.builder().lockDescriptors(lockDescriptors).lockToken(lockToken);
+        return builder(lockDescriptors, lockToken, LockMode.WRITE);
+    }
+
+    public static LockWatchEvent.Builder builder(
+            Set<LockDescriptor> lockDescriptors, LockToken lockToken, LockMode lockMode) {
+        ImmutableLockEvent.Builder builder = ImmutableLockEvent.builder()
+                .lockDescriptors(lockDescriptors)
+                .lockToken(lockToken)
+                .lockMode(lockMode);
         return seq -> builder.sequence(seq).build();
     }
 }
@@ -18,14 +18,19 @@ package com.palantir.lock.client;
 
 import com.google.common.primitives.Ints;
 import com.palantir.atlasdb.timelock.api.ConjureLockDescriptor;
+import com.palantir.atlasdb.timelock.api.ConjureLockMode;
 import com.palantir.atlasdb.timelock.api.ConjureLockRequest;
 import com.palantir.atlasdb.timelock.api.ConjureWaitForLocksResponse;
 import com.palantir.conjure.java.lib.Bytes;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.ImmutableWaitForLocksResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.lock.v2.WaitForLocksResponse;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -39,6 +44,7 @@ public final class ConjureLockRequests {
                 .clientDescription(request.getClientDescription())
                 .requestId(UUID.randomUUID())
                 .acquireTimeoutMs(Ints.checkedCast(request.getAcquireTimeoutMs()))
+                .lockMode(toConjure(request.getLockMode()))
                 .build();
     }
 
@@ -48,6 +54,7 @@ public final class ConjureLockRequests {
                 .clientDescription(request.getClientDescription())
                 .requestId(request.getRequestId())
                 .acquireTimeoutMs(Ints.checkedCast(request.getAcquireTimeoutMs()))
+                .lockMode(toConjure(request.getLockMode()))
                 .build();
     }
 
@@ -59,6 +66,27 @@ public final class ConjureLockRequests {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Write mode is the default, so is left unset; this keeps exclusive requests readable by older servers.
+     */
+    private static Optional<ConjureLockMode> toConjure(LockMode lockMode) {
+        return lockMode == LockMode.READ ? Optional.of(ConjureLockMode.READ) : Optional.empty();
+    }
+
+    public static LockMode fromConjure(Optional<ConjureLockMode> lockMode) {
+        if (!lockMode.isPresent()) {
+            return LockMode.WRITE;
+        }
+        switch (lockMode.get().get()) {
+            case READ:
+                return LockMode.READ;
+            case WRITE:
+                return LockMode.WRITE;
+            default:
+                throw new SafeIllegalArgumentException("Unknown lock mode", SafeArg.of("lockMode", lockMode.get()));
+        }
+    }
+
     public static WaitForLocksResponse fromConjure(ConjureWaitForLocksResponse response) {
         return ImmutableWaitForLocksResponse.of(response.getWasSuccessful());
     }
@@ -18,6 +18,7 @@ package com.palantir.lock.client;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockRequest;
 import java.util.Optional;
 import java.util.Set;
@@ -41,6 +42,11 @@ public interface IdentifiedLockRequest {
     @Value.Parameter
     Optional<String> getClientDescription();
 
+    @Value.Default
+    default LockMode getLockMode() {
+        return LockMode.WRITE;
+    }
+
     static IdentifiedLockRequest of(Set<LockDescriptor> lockDescriptors, long acquireTimeoutMs) {
         return ImmutableIdentifiedLockRequest.of(
                 UUID.randomUUID(), lockDescriptors, acquireTimeoutMs, Optional.empty());
@@ -53,12 +59,12 @@ public interface IdentifiedLockRequest {
     }
 
     static IdentifiedLockRequest from(LockRequest lockRequest) {
-        if (lockRequest.getClientDescription().isPresent()) {
-            return of(
-                    lockRequest.getLockDescriptors(),
-                    lockRequest.getAcquireTimeoutMs(),
-                    lockRequest.getClientDescription().get());
-        }
-        return of(lockRequest.getLockDescriptors(), lockRequest.getAcquireTimeoutMs());
+        return ImmutableIdentifiedLockRequest.builder()
+                .requestId(UUID.randomUUID())
+                .lockDescriptors(lockRequest.getLockDescriptors())
+                .acquireTimeoutMs(lockRequest.getAcquireTimeoutMs())
+                .clientDescription(lockRequest.getClientDescription())
+                .lockMode(lockRequest.getLockMode())
+                .build();
     }
 }
@@ -29,6 +29,12 @@ public interface LockWatchEventCache {
      */
     Optional<LockWatchVersion> lastKnownVersion();
 
+    /**
+     * Returns the lock watch version that the given start timestamp was identified with, if the timestamp is still
+     * tracked by the cache.
+     */
+    Optional<LockWatchVersion> getStartTransactionVersion(long startTimestamp);
+
     /**
      * Updates the cache with the update, and identifies the given timestamps with that lock watch state.
      */
@@ -43,6 +43,11 @@ public class NoOpLockWatchEventCache implements LockWatchEventCache {
         return currentVersion;
     }
 
+    @Override
+    public Optional<LockWatchVersion> getStartTransactionVersion(long startTimestamp) {
+        return Optional.empty();
+    }
+
     @Override
     public void processStartTransactionsUpdate(Set<Long> startTimestamps, LockWatchStateUpdate update) {
         updateVersion(extractVersionFromUpdate(update));
@@ -15,6 +15,7 @@
  */
 package com.palantir.lock.impl;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockMode;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +38,15 @@ public interface KnownClientLock {
      */
     void lock();
 
+    /**
+     * Acquires the lock without blocking the current thread. If the lock is not
+     * available, then the request waits behind any other asynchronous requests
+     * for the lock, and the returned future completes once it has been
+     * acquired. Cancelling the future withdraws the request; if cancellation
+     * succeeds, then the lock is not acquired.
+     */
+    ListenableFuture<Void> lockAsync();
+
     /** Acquires the lock unless the current thread is interrupted. */
     void lockInterruptibly() throws InterruptedException;
 
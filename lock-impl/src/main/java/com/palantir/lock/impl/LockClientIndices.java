@@ -21,6 +21,7 @@ import com.palantir.lock.LockClient;
 import com.palantir.logsafe.Preconditions;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.concurrent.ThreadSafe;
 
 @ThreadSafe
@@ -28,6 +29,8 @@ import javax.annotation.concurrent.ThreadSafe;
 public class LockClientIndices {
     private final Map<LockClient, Integer> indexByClient = new ConcurrentHashMap<>();
     private final Map<Integer, LockClient> clientByIndex = new ConcurrentHashMap<>();
+    // Index 0 means that a lock has no write lock holder.
+    private final AtomicInteger nextIndex = new AtomicInteger(1);
 
     public LockClientIndices() {
         indexByClient.put(LockClient.ANONYMOUS, -1);
@@ -39,16 +42,12 @@ public class LockClientIndices {
         if (index != null) {
             return index;
         }
-        synchronized (this) {
-            index = indexByClient.get(client);
-            if (index != null) {
-                return index;
-            }
-            int newIndex = indexByClient.size();
-            indexByClient.put(client, newIndex);
-            clientByIndex.put(newIndex, client);
+        // The index is published to clientByIndex before any caller can see it, so fromIndex never misses it.
+        return indexByClient.computeIfAbsent(client, newClient -> {
+            int newIndex = nextIndex.getAndIncrement();
+            clientByIndex.put(newIndex, newClient);
             return newIndex;
-        }
+        });
     }
 
     LockClient fromIndex(int index) {
@@ -16,6 +16,7 @@
 package com.palantir.lock.impl;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.LockMode;
@@ -97,6 +98,11 @@ public class LockServerLock implements ClientAwareReadWriteLock {
             sync.acquireShared(clientIndex);
         }
 
+        @Override
+        public ListenableFuture<Void> lockAsync() {
+            return sync.acquireSharedAsync(clientIndex);
+        }
+
         @Override
         public void lockInterruptibly() throws InterruptedException {
             sync.acquireSharedInterruptibly(clientIndex);
@@ -138,6 +144,7 @@ public class LockServerLock implements ClientAwareReadWriteLock {
         @Override
         public void unlock() {
             sync.releaseShared(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
@@ -179,6 +186,11 @@ public class LockServerLock implements ClientAwareReadWriteLock {
             sync.acquire(clientIndex);
         }
 
+        @Override
+        public ListenableFuture<Void> lockAsync() {
+            return sync.acquireAsync(clientIndex);
+        }
+
         @Override
         public void lockInterruptibly() throws InterruptedException {
             sync.acquireInterruptibly(clientIndex);
@@ -220,11 +232,13 @@ public class LockServerLock implements ClientAwareReadWriteLock {
         @Override
         public void unlock() {
             sync.release(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
         public void unlockAndFreeze() {
             sync.unlockAndFreeze(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
@@ -18,22 +18,50 @@ package com.palantir.lock.impl;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.lock.LockClient;
 import com.palantir.logsafe.Preconditions;
 import gnu.trove.iterator.TIntIntIterator;
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.LockSupport;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
+/**
+ * The state of a {@link LockServerLock}. Besides the threads queued by {@link AbstractQueuedSynchronizer}, requests
+ * for the lock may wait asynchronously, as continuations that are run by whichever thread makes the lock available
+ * to them. Continuations that make locks available in turn do not recurse; the requests they serve are completed
+ * by the same thread once they have returned. Asynchronous requests are served in the order in which they were made,
+ * and ahead of queued threads.
+ */
 class LockServerSync extends AbstractQueuedSynchronizer {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Completions of asynchronous requests that were granted locks while the current thread was already completing
+     * requests. A continuation that releases locks completes further requests, whose continuations may release locks
+     * in turn; completing them only once the current completion has returned keeps the stack from growing with the
+     * number of requests waiting, across all locks.
+     */
+    private static final ThreadLocal<Deque<Runnable>> pendingCompletions = new ThreadLocal<>();
+
     private final LockClientIndices clients;
     private @GuardedBy("this") boolean frozen;
     private @GuardedBy("this") int writeLockHolder = 0;
     private @GuardedBy("this") TIntIntMap readLockHolders;
+    private @GuardedBy("this") Set<AsyncWaiter> asyncWaiters;
 
     public LockServerSync(LockClientIndices clients) {
         this.clients = Preconditions.checkNotNull(clients);
@@ -54,6 +82,10 @@ class LockServerSync extends AbstractQueuedSynchronizer {
 
     @Override
     protected synchronized boolean tryAcquire(int clientIndex) {
+        return tryAcquire(clientIndex, true);
+    }
+
+    private synchronized boolean tryAcquire(int clientIndex, boolean respectWaitingRequests) {
         if (frozen) {
             return false;
         }
@@ -62,7 +94,7 @@ class LockServerSync extends AbstractQueuedSynchronizer {
             setState(writeCount + 1);
             return true;
         }
-        if (hasBlockedPredecessors()) {
+        if (respectWaitingRequests && hasBlockedPredecessors()) {
             return false;
         }
         if (writeCount == 0 && !isReadLockHeld()) {
@@ -93,11 +125,15 @@ class LockServerSync extends AbstractQueuedSynchronizer {
 
     @Override
     protected synchronized int tryAcquireShared(int clientIndex) {
+        return tryAcquireShared(clientIndex, true);
+    }
+
+    private synchronized int tryAcquireShared(int clientIndex, boolean respectWaitingRequests) {
         if (frozen) {
             return -1;
         }
         int writeCount = getState();
-        if (writeCount == 0 && !holdsReadLock(clientIndex) && hasBlockedPredecessors()) {
+        if (writeCount == 0 && !holdsReadLock(clientIndex) && respectWaitingRequests && hasBlockedPredecessors()) {
             return -1;
         }
         if (writeCount > 0 && !holdsWriteLock(clientIndex)) {
@@ -117,6 +153,160 @@ class LockServerSync extends AbstractQueuedSynchronizer {
         return false;
     }
 
+    ListenableFuture<Void> acquireAsync(int clientIndex) {
+        return acquireAsync(new AsyncWaiter(clientIndex, false));
+    }
+
+    ListenableFuture<Void> acquireSharedAsync(int clientIndex) {
+        return acquireAsync(new AsyncWaiter(clientIndex, true));
+    }
+
+    /**
+     * Acquires the lock immediately if that does not jump the queue, and otherwise queues the request behind earlier
+     * asynchronous requests. Cancelling the returned future withdraws the request; a cancelled request never holds
+     * the lock.
+     */
+    private ListenableFuture<Void> acquireAsync(AsyncWaiter waiter) {
+        synchronized (this) {
+            if (tryAcquire(waiter, true)) {
+                return Futures.immediateFuture(null);
+            }
+            if (asyncWaiters == null) {
+                asyncWaiters = new LinkedHashSet<>();
+            }
+            asyncWaiters.add(waiter);
+        }
+        waiter.result.addListener(
+                () -> {
+                    if (waiter.result.isCancelled()) {
+                        withdraw(waiter);
+                    }
+                },
+                MoreExecutors.directExecutor());
+        // Queued threads defer to asynchronous requests, so the lock may have been free all along.
+        signalAsyncWaiters();
+        return waiter.result;
+    }
+
+    /**
+     * Grants the lock to as many waiting asynchronous requests as can now hold it, in order. This must be called
+     * whenever the lock may have become available. The requests are completed, and so their continuations run,
+     * after the monitor of this lock has been released.
+     */
+    void signalAsyncWaiters() {
+        List<AsyncWaiter> servedWaiters = new ArrayList<>();
+        boolean removedWaiters = false;
+        synchronized (this) {
+            if (!hasAsyncWaiters()) {
+                return;
+            }
+            Iterator<AsyncWaiter> waiters = asyncWaiters.iterator();
+            while (waiters.hasNext()) {
+                AsyncWaiter waiter = waiters.next();
+                if (!waiter.result.isCancelled()) {
+                    try {
+                        if (!tryAcquire(waiter, false)) {
+                            break;
+                        }
+                    } catch (IllegalMonitorStateException e) {
+                        waiter.failure = e;
+                    }
+                    servedWaiters.add(waiter);
+                }
+                waiters.remove();
+                removedWaiters = true;
+            }
+        }
+        if (removedWaiters) {
+            wakeFirstQueuedThread();
+        }
+        if (!servedWaiters.isEmpty()) {
+            runCompletion(() -> complete(servedWaiters));
+        }
+    }
+
+    private void complete(List<AsyncWaiter> servedWaiters) {
+        for (AsyncWaiter waiter : servedWaiters) {
+            if (waiter.failure != null) {
+                waiter.result.setException(waiter.failure);
+            } else if (!waiter.result.set(null)) {
+                // The request was cancelled after it was granted the lock, so it must give it back.
+                release(waiter);
+            }
+        }
+    }
+
+    /**
+     * Runs the given completion, unless the current thread is already running one, in which case it is run once that
+     * has returned. Every completion is run, even if an earlier one throws.
+     */
+    private static void runCompletion(Runnable completion) {
+        Deque<Runnable> pending = pendingCompletions.get();
+        if (pending != null) {
+            pending.add(completion);
+            return;
+        }
+        pending = new ArrayDeque<>();
+        pendingCompletions.set(pending);
+        RuntimeException failure = null;
+        try {
+            for (Runnable next = completion; next != null; next = pending.poll()) {
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            pendingCompletions.remove();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void withdraw(AsyncWaiter waiter) {
+        synchronized (this) {
+            if (asyncWaiters == null || !asyncWaiters.remove(waiter)) {
+                return;
+            }
+        }
+        // Requests behind this one may have been waiting only for it, for instance readers behind a writer.
+        signalAsyncWaiters();
+        wakeFirstQueuedThread();
+    }
+
+    /**
+     * Queued threads defer to asynchronous requests, so a queued thread that was woken while requests were waiting
+     * may have parked again. Once requests stop waiting, whether because they were granted the lock or withdrawn,
+     * the first queued thread must be woken to check whether it can now acquire the lock; otherwise it would wait
+     * until the lock is next released, which may be never if the lock is now free. Waking it when it cannot acquire
+     * the lock is harmless, as it then parks again.
+     */
+    private void wakeFirstQueuedThread() {
+        LockSupport.unpark(getFirstQueuedThread());
+    }
+
+    private boolean tryAcquire(AsyncWaiter waiter, boolean respectWaitingRequests) {
+        if (waiter.shared) {
+            return tryAcquireShared(waiter.clientIndex, respectWaitingRequests) > 0;
+        }
+        return tryAcquire(waiter.clientIndex, respectWaitingRequests);
+    }
+
+    private void release(AsyncWaiter waiter) {
+        if (waiter.shared) {
+            releaseShared(waiter.clientIndex);
+        } else {
+            release(waiter.clientIndex);
+        }
+        signalAsyncWaiters();
+    }
+
     synchronized void unlockAndFreeze(int clientIndex) {
         if (isAnonymous(clientIndex)) {
             throw LockServerLock.throwIllegalMonitorStateException("anonymous clients cannot call unlockAndFreeze()");
@@ -205,12 +395,18 @@ class LockServerSync extends AbstractQueuedSynchronizer {
         return clients.toIndex(client);
     }
 
+    // Asynchronous requests are served ahead of queued threads; see signalAsyncWaiters().
+    //
     // See https://bugs.openjdk.java.net/browse/JDK-8191483
     // AbstractQueuedSynchronizer has a bug where simultaneous cancelAcquire() calls can cause
     // future invocations of hasQueuedThreads() and hasQueuedPredecessors() to return true, when in fact there are no
     // queued threads. This causes us to spin indefinitely in LockServerLock#tryLock.
     // To get around this, we use getFirstQueuedThread(), which is not vulnerable to this bug.
+    @GuardedBy("this")
     private boolean hasBlockedPredecessors() {
+        if (hasAsyncWaiters()) {
+            return true;
+        }
         Thread queuedThread = getFirstQueuedThread();
         return queuedThread != null && queuedThread != Thread.currentThread();
     }
@@ -227,10 +423,15 @@ class LockServerSync extends AbstractQueuedSynchronizer {
                 .add("writeClient", writeLockHolder == 0 ? null : clients.fromIndex(writeLockHolder))
                 .add("readClients", clients.fromIndices(getReadClients()))
                 .add("queuedThreads", getQueueLength())
+                .add("queuedAsyncRequests", hasAsyncWaiters() ? asyncWaiters.size() : 0)
                 .add("isFrozen", frozen)
                 .toString();
     }
 
+    private synchronized boolean hasAsyncWaiters() {
+        return asyncWaiters != null && !asyncWaiters.isEmpty();
+    }
+
     private synchronized boolean isReadLockHeld() {
         return readLockHolders != null && !readLockHolders.isEmpty();
     }
@@ -266,4 +467,18 @@ class LockServerSync extends AbstractQueuedSynchronizer {
         }
         return Ints.asList(readLockHolders.keys()); // (authorized)
     }
+
+    private static final class AsyncWaiter {
+        private final int clientIndex;
+        private final boolean shared;
+        private final SettableFuture<Void> result = SettableFuture.create();
+
+        @Nullable
+        private IllegalMonitorStateException failure;
+
+        private AsyncWaiter(int clientIndex, boolean shared) {
+            this.clientIndex = clientIndex;
+            this.shared = shared;
+        }
+    }
 }
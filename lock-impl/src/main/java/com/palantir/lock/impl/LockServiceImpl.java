@@ -35,11 +35,15 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.MapMaker;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
-import com.google.common.collect.TreeMultiset;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.random.SecureRandomPool;
 import com.palantir.common.remoting.ServiceNotAvailableException;
@@ -87,12 +91,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -209,16 +217,21 @@ public final class LockServiceImpl
             new PriorityBlockingQueue<>(1, ExpiringToken.COMPARATOR);
 
     /** The mapping from lock client to the set of tokens held by that client. */
-    private final SetMultimap<LockClient, HeldLocksToken> lockClientMultimap =
-            Multimaps.synchronizedSetMultimap(HashMultimap.<LockClient, HeldLocksToken>create());
+    private final StripedClientMultimap<HeldLocksToken> lockClientMultimap = StripedClientMultimap.withSetValues();
 
     private final SetMultimap<LockClient, LockRequest> outstandingLockRequestMultimap =
             Multimaps.synchronizedSetMultimap(HashMultimap.<LockClient, LockRequest>create());
 
     private final Set<Thread> blockingThreads = ConcurrentHashMap.newKeySet();
 
-    private final Multimap<LockClient, Long> versionIdMap = Multimaps.synchronizedMultimap(
-            Multimaps.newMultimap(new HashMap<LockClient, Collection<Long>>(), TreeMultiset::create));
+    private final Set<AsyncLockRequest> pendingAsyncRequests = ConcurrentHashMap.newKeySet();
+
+    /** Times out asynchronous lock requests that block until a timeout. */
+    private final ScheduledExecutorService asyncLockTimeoutExecutor = PTExecutors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory(LockServiceImpl.class.getSimpleName() + "-async-lock-timeouts", true));
+
+    /** The version IDs locked by each lock client, in ascending order. */
+    private final StripedClientMultimap<Long> versionIdMap = StripedClientMultimap.withSortedMultisetValues();
 
     private static final AtomicInteger instanceCount = new AtomicInteger();
     private static final int MAX_FAILED_LOCKS_TO_LOG = 20;
@@ -338,21 +351,9 @@ public final class LockServiceImpl
     @Override
     // We're concerned about sanitizing logs at the info level and above. This method just logs at debug and info.
     public LockResponse lockWithFullLockResponse(LockClient client, LockRequest request) throws InterruptedException {
-        com.palantir.logsafe.Preconditions.checkNotNull(client);
-        com.palantir.logsafe.Preconditions.checkArgument(!INTERNAL_LOCK_GRANT_CLIENT.equals(client));
-        Preconditions.checkArgument(
-                request.getLockTimeout().compareTo(maxAllowedLockTimeout) <= 0,
-                "Requested lock timeout (%s) is greater than maximum allowed lock timeout (%s)",
-                request.getLockTimeout(),
-                maxAllowedLockTimeout);
-
+        checkLockRequest(client, request);
         long startTime = System.currentTimeMillis();
-        if (requestLogger.isDebugEnabled()) {
-            requestLogger.debug(
-                    "LockServiceImpl processing lock request {} for requesting thread {}",
-                    UnsafeArg.of("lockRequest", request),
-                    SafeArg.of("requestingThread", request.getCreatingThreadName()));
-        }
+        logLockRequest(request);
         Map<ClientAwareReadWriteLock, LockMode> locks = new LinkedHashMap<>();
         if (isShutDown.get()) {
             throw new ServiceNotAvailableException("This lock server is shut down.");
@@ -364,10 +365,6 @@ public final class LockServiceImpl
             }
             outstandingLockRequestMultimap.put(client, request);
             Map<LockDescriptor, LockClient> failedLocks = new HashMap<>();
-            @Nullable
-            Long deadline = (request.getBlockingDuration() == null)
-                    ? null
-                    : System.nanoTime() + request.getBlockingDuration().toNanos();
             if (request.getBlockingMode() == BLOCK_UNTIL_TIMEOUT) {
                 if (request.getLockGroupBehavior() == LOCK_AS_MANY_AS_POSSIBLE) {
                     tryLocks(client, request, DO_NOT_BLOCK, null, LOCK_AS_MANY_AS_POSSIBLE, locks, failedLocks);
@@ -377,87 +374,173 @@ public final class LockServiceImpl
                     client,
                     request,
                     request.getBlockingMode(),
-                    deadline,
+                    getDeadline(request),
                     request.getLockGroupBehavior(),
                     locks,
                     failedLocks);
 
-            if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE) {
-                if (log.isTraceEnabled()) {
-                    logNullResponse(client, request, null);
-                }
-                if (requestLogger.isDebugEnabled()) {
-                    requestLogger.debug(
-                            "Timed out requesting {} for requesting thread {} after {} ms",
-                            UnsafeArg.of("request", request),
-                            SafeArg.of("threadName", request.getCreatingThreadName()),
-                            SafeArg.of("timeoutMillis", System.currentTimeMillis() - startTime));
-                }
-                return new LockResponse(failedLocks);
+            @Nullable LockResponse failureResponse = getFailureResponse(client, request, locks, failedLocks, startTime);
+            if (failureResponse != null) {
+                return failureResponse;
             }
-
-            if (locks.isEmpty()
-                    || ((request.getLockGroupBehavior() == LOCK_ALL_OR_NONE)
-                            && (locks.size() < request.getLockDescriptors().size()))) {
-                if (log.isTraceEnabled()) {
-                    logNullResponse(client, request, null);
-                }
-                if (requestLogger.isDebugEnabled()) {
-                    requestLogger.debug(
-                            "Failed to acquire all locks for {} for requesting thread {} after {} ms",
-                            UnsafeArg.of("request", request),
-                            SafeArg.of("threadName", request.getCreatingThreadName()),
-                            SafeArg.of("waitMillis", System.currentTimeMillis() - startTime));
-                }
-                if (requestLogger.isTraceEnabled()) {
-                    logLockAcquisitionFailure(failedLocks);
-                }
-                return new LockResponse(null, failedLocks);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while locking.");
             }
+            return getSuccessResponse(client, request, locks, failedLocks, startTime);
+        } finally {
+            outstandingLockRequestMultimap.remove(client, request);
+            blockingThreads.remove(Thread.currentThread());
+            releaseLocks(client, locks);
+        }
+    }
 
-            ImmutableSortedMap.Builder<LockDescriptor, LockMode> lockDescriptorMap = ImmutableSortedMap.naturalOrder();
-            for (Map.Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
-                lockDescriptorMap.put(entry.getKey().getDescriptor(), entry.getValue());
-            }
-            if (request.getVersionId() != null) {
-                versionIdMap.put(client, request.getVersionId());
+    /**
+     * Processes a lock request as {@link #lockWithFullLockResponse(LockClient, LockRequest)} does, but without
+     * blocking the calling thread, or any other thread, while the request waits for locks. A request that has to wait
+     * for a lock is queued on that lock as a continuation, and is resumed by whichever thread makes the lock available
+     * to it. Requests that block until a timeout are timed out by a single timer thread.
+     *
+     * Waiting asynchronous requests are granted locks ahead of threads blocked in
+     * {@link #lockWithFullLockResponse(LockClient, LockRequest)}. Cancelling the returned future withdraws the request
+     * and releases any locks it has acquired.
+     *
+     * This is only available to callers that hold this lock service directly. It is not part of {@link LockService},
+     * so remote clients, including those of TimeLock's v1 lock endpoints, still go through the blocking path (behind a
+     * {@link ThreadPooledLockService} on TimeLock).
+     */
+    public ListenableFuture<LockResponse> lockWithFullLockResponseAsync(LockClient client, LockRequest request) {
+        checkLockRequest(client, request);
+        long startTime = System.currentTimeMillis();
+        logLockRequest(request);
+        if (isShutDown.get()) {
+            throw new ServiceNotAvailableException("This lock server is shut down.");
+        }
+        return new AsyncLockRequest(client, request, startTime).start();
+    }
+
+    private void checkLockRequest(LockClient client, LockRequest request) {
+        com.palantir.logsafe.Preconditions.checkNotNull(client);
+        com.palantir.logsafe.Preconditions.checkArgument(!INTERNAL_LOCK_GRANT_CLIENT.equals(client));
+        Preconditions.checkArgument(
+                request.getLockTimeout().compareTo(maxAllowedLockTimeout) <= 0,
+                "Requested lock timeout (%s) is greater than maximum allowed lock timeout (%s)",
+                request.getLockTimeout(),
+                maxAllowedLockTimeout);
+    }
+
+    private void logLockRequest(LockRequest request) {
+        if (requestLogger.isDebugEnabled()) {
+            requestLogger.debug(
+                    "LockServiceImpl processing lock request {} for requesting thread {}",
+                    UnsafeArg.of("lockRequest", request),
+                    SafeArg.of("requestingThread", request.getCreatingThreadName()));
+        }
+    }
+
+    @Nullable
+    private static Long getDeadline(LockRequest request) {
+        return (request.getBlockingDuration() == null)
+                ? null
+                : System.nanoTime() + request.getBlockingDuration().toNanos();
+    }
+
+    /**
+     * Returns the response to a lock request that has finished trying to acquire its locks, if it has not succeeded.
+     */
+    @Nullable
+    private LockResponse getFailureResponse(
+            LockClient client,
+            LockRequest request,
+            Map<ClientAwareReadWriteLock, LockMode> locks,
+            Map<LockDescriptor, LockClient> failedLocks,
+            long startTime) {
+        if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE) {
+            if (log.isTraceEnabled()) {
+                logNullResponse(client, request, null);
             }
-            if (Thread.interrupted()) {
-                throw new InterruptedException("Interrupted while locking.");
+            if (requestLogger.isDebugEnabled()) {
+                requestLogger.debug(
+                        "Timed out requesting {} for requesting thread {} after {} ms",
+                        UnsafeArg.of("request", request),
+                        SafeArg.of("threadName", request.getCreatingThreadName()),
+                        SafeArg.of("timeoutMillis", System.currentTimeMillis() - startTime));
             }
-            HeldLocksToken token = createHeldLocksToken(
-                    client,
-                    LockCollections.of(lockDescriptorMap.build()),
-                    LockCollections.of(locks),
-                    request.getLockTimeout(),
-                    request.getVersionId(),
-                    request.getCreatingThreadName());
-            locks.clear();
+            return new LockResponse(failedLocks);
+        }
+
+        if (locks.isEmpty()
+                || ((request.getLockGroupBehavior() == LOCK_ALL_OR_NONE)
+                        && (locks.size() < request.getLockDescriptors().size()))) {
             if (log.isTraceEnabled()) {
-                logNullResponse(client, request, token);
+                logNullResponse(client, request, null);
             }
             if (requestLogger.isDebugEnabled()) {
                 requestLogger.debug(
-                        "Successfully acquired locks {} for requesting thread {} after {} ms",
+                        "Failed to acquire all locks for {} for requesting thread {} after {} ms",
                         UnsafeArg.of("request", request),
                         SafeArg.of("threadName", request.getCreatingThreadName()),
                         SafeArg.of("waitMillis", System.currentTimeMillis() - startTime));
             }
-            return new LockResponse(token, failedLocks);
-        } finally {
-            outstandingLockRequestMultimap.remove(client, request);
-            blockingThreads.remove(Thread.currentThread());
-            try {
-                for (Map.Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
-                    entry.getKey().get(client, entry.getValue()).unlock();
-                }
-            } catch (Throwable e) { // (authorized)
-                log.error(
-                        "Internal lock server error: state has been corrupted!!",
-                        UnsafeArg.of("exception", e),
-                        SafeArg.of("stacktrace", e.getStackTrace()));
-                throw Throwables.throwUncheckedException(e);
+            if (requestLogger.isTraceEnabled()) {
+                logLockAcquisitionFailure(failedLocks);
+            }
+            return new LockResponse(null, failedLocks);
+        }
+        return null;
+    }
+
+    /**
+     * Creates a token for the locks that a lock request has acquired, which then belong to the token rather than to
+     * the request.
+     */
+    private LockResponse getSuccessResponse(
+            LockClient client,
+            LockRequest request,
+            Map<ClientAwareReadWriteLock, LockMode> locks,
+            Map<LockDescriptor, LockClient> failedLocks,
+            long startTime) {
+        ImmutableSortedMap.Builder<LockDescriptor, LockMode> lockDescriptorMap = ImmutableSortedMap.naturalOrder();
+        for (Map.Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
+            lockDescriptorMap.put(entry.getKey().getDescriptor(), entry.getValue());
+        }
+        if (request.getVersionId() != null) {
+            versionIdMap.put(client, request.getVersionId());
+        }
+        HeldLocksToken token = createHeldLocksToken(
+                client,
+                LockCollections.of(lockDescriptorMap.build()),
+                LockCollections.of(locks),
+                request.getLockTimeout(),
+                request.getVersionId(),
+                request.getCreatingThreadName());
+        locks.clear();
+        if (log.isTraceEnabled()) {
+            logNullResponse(client, request, token);
+        }
+        if (requestLogger.isDebugEnabled()) {
+            requestLogger.debug(
+                    "Successfully acquired locks {} for requesting thread {} after {} ms",
+                    UnsafeArg.of("request", request),
+                    SafeArg.of("threadName", request.getCreatingThreadName()),
+                    SafeArg.of("waitMillis", System.currentTimeMillis() - startTime));
+        }
+        return new LockResponse(token, failedLocks);
+    }
+
+    /**
+     * Releases the locks that a lock request acquired, but that did not end up belonging to a token.
+     */
+    private static void releaseLocks(LockClient client, Map<ClientAwareReadWriteLock, LockMode> locks) {
+        try {
+            for (Map.Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
+                entry.getKey().get(client, entry.getValue()).unlock();
             }
+        } catch (Throwable e) { // (authorized)
+            log.error(
+                    "Internal lock server error: state has been corrupted!!",
+                    UnsafeArg.of("exception", e),
+                    SafeArg.of("stacktrace", e.getStackTrace()));
+            throw Throwables.throwUncheckedException(e);
         }
     }
 
@@ -521,12 +604,7 @@ public final class LockServiceImpl
                     continue;
                 }
 
-                ClientAwareReadWriteLock lock;
-                try {
-                    lock = descriptorToLockMap.get(entry.getKey());
-                } catch (ExecutionException e) {
-                    throw new RuntimeException(e.getCause());
-                }
+                ClientAwareReadWriteLock lock = getLock(entry.getKey());
                 if (locks.containsKey(lock)) {
                     // This is the 2nd time we are calling tryLocks and we already locked this one.
                     continue;
@@ -554,6 +632,14 @@ public final class LockServiceImpl
         }
     }
 
+    private ClientAwareReadWriteLock getLock(LockDescriptor descriptor) {
+        try {
+            return descriptorToLockMap.get(descriptor);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     @VisibleForTesting
     protected void logSlowLockAcquisition(String lockId, LockClient currentHolder, long durationMillis) {
         final String slowLockLogMessage = "Blocked for {} ms to acquire lock {} {}.";
@@ -706,12 +792,10 @@ public final class LockServiceImpl
             throw new SafeIllegalArgumentException("Illegal client!");
         }
         ImmutableSet.Builder<HeldLocksToken> tokens = ImmutableSet.builder();
-        synchronized (lockClientMultimap) {
-            for (HeldLocksToken token : lockClientMultimap.get(client)) {
-                @Nullable HeldLocks<HeldLocksToken> heldLocks = heldLocksTokenMap.get(token);
-                if ((heldLocks != null) && !isFrozen(heldLocks.locks.getKeys())) {
-                    tokens.add(token);
-                }
+        for (HeldLocksToken token : lockClientMultimap.read(client, ImmutableList::copyOf)) {
+            @Nullable HeldLocks<HeldLocksToken> heldLocks = heldLocksTokenMap.get(token);
+            if ((heldLocks != null) && !isFrozen(heldLocks.locks.getKeys())) {
+                tokens.add(token);
             }
         }
         ImmutableSet<HeldLocksToken> tokenSet = tokens.build();
@@ -1033,13 +1117,7 @@ public final class LockServiceImpl
     @Override
     @Nullable
     public Long getMinLockedInVersionId(LockClient client) {
-        Long versionId = null;
-        synchronized (versionIdMap) {
-            Collection<Long> versionsForClient = versionIdMap.get(client);
-            if (versionsForClient != null && !versionsForClient.isEmpty()) {
-                versionId = versionsForClient.iterator().next();
-            }
-        }
+        Long versionId = versionIdMap.read(client, versionsForClient -> Iterables.getFirst(versionsForClient, null));
         if (log.isTraceEnabled()) {
             log.trace(".getMinLockedInVersionId() returns {}", versionId);
         }
@@ -1195,6 +1273,10 @@ public final class LockServiceImpl
                 .append("lockClientMultimap.size = ")
                 .append(lockClientMultimap.size())
                 .append("\n");
+        logString
+                .append("pendingAsyncRequests.size = ")
+                .append(pendingAsyncRequests.size())
+                .append("\n");
 
         return logString;
     }
@@ -1204,6 +1286,8 @@ public final class LockServiceImpl
         if (isShutDown.compareAndSet(false, true)) {
             lockReapRunner.close();
             blockingThreads.forEach(Thread::interrupt);
+            pendingAsyncRequests.forEach(AsyncLockRequest::abort);
+            asyncLockTimeoutExecutor.shutdownNow();
             callOnClose.run();
         }
     }
@@ -1237,6 +1321,180 @@ public final class LockServiceImpl
         }
     }
 
+    /**
+     * A lock request whose locks are being acquired asynchronously. Locks are acquired one at a time in the order of
+     * the request, as they are by {@link #tryLocks}, so the request waits for at most one lock at once, and its steps
+     * never run concurrently with each other. Once the response is completed from outside, for instance because the
+     * caller cancelled it or the lock server was closed, the wait for the current lock is cancelled, and the request
+     * releases its locks at its next step.
+     */
+    private final class AsyncLockRequest {
+        private final LockClient client;
+        private final LockRequest request;
+        private final long startTime;
+
+        @Nullable
+        private final Long deadline;
+
+        private final Iterator<Map.Entry<LockDescriptor, LockMode>> remainingLocks;
+        private final Map<ClientAwareReadWriteLock, LockMode> locks = new LinkedHashMap<>();
+        private final Map<LockDescriptor, LockClient> failedLocks = new HashMap<>();
+        private final SettableFuture<LockResponse> response = SettableFuture.create();
+        private volatile ListenableFuture<Void> pendingLock = Futures.immediateFuture(null);
+
+        private AsyncLockRequest(LockClient client, LockRequest request, long startTime) {
+            this.client = client;
+            this.request = request;
+            this.startTime = startTime;
+            this.deadline = getDeadline(request);
+            this.remainingLocks = request.getLockDescriptors().entries().iterator();
+        }
+
+        private ListenableFuture<LockResponse> start() {
+            pendingAsyncRequests.add(this);
+            if (isShutDown.get()) {
+                abort();
+            }
+            outstandingLockRequestMultimap.put(client, request);
+            response.addListener(() -> pendingLock.cancel(false), MoreExecutors.directExecutor());
+            run(() -> {
+                if (request.getBlockingMode() == BLOCK_UNTIL_TIMEOUT
+                        && request.getLockGroupBehavior() == LOCK_AS_MANY_AS_POSSIBLE) {
+                    tryLocks(client, request, DO_NOT_BLOCK, null, LOCK_AS_MANY_AS_POSSIBLE, locks, failedLocks);
+                }
+                return acquireRemainingLocks();
+            });
+            return response;
+        }
+
+        private void abort() {
+            response.setException(new ServiceNotAvailableException("This lock server is shut down."));
+        }
+
+        /**
+         * Runs a step of the request, which returns whether the request has finished, or is waiting for a lock.
+         */
+        private void run(Callable<Boolean> step) {
+            try {
+                if (!step.call()) {
+                    return;
+                }
+            } catch (Throwable t) { // (authorized)
+                response.setException(t);
+            }
+            pendingAsyncRequests.remove(this);
+            outstandingLockRequestMultimap.remove(client, request);
+            releaseLocks(client, locks);
+        }
+
+        private boolean acquireRemainingLocks() {
+            while (remainingLocks.hasNext()) {
+                if (response.isDone()) {
+                    return true;
+                }
+                Map.Entry<LockDescriptor, LockMode> entry = remainingLocks.next();
+                if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE
+                        && !descriptorToLockMap.asMap().containsKey(entry.getKey())) {
+                    continue;
+                }
+                ClientAwareReadWriteLock lock = getLock(entry.getKey());
+                if (locks.containsKey(lock)) {
+                    continue;
+                }
+                KnownClientLock knownClientLock = lock.get(client, entry.getValue());
+                @Nullable LockClient currentHolder = knownClientLock.tryLock();
+                if (currentHolder == null) {
+                    locks.put(lock, entry.getValue());
+                } else if (request.getBlockingMode() == DO_NOT_BLOCK || isPastDeadline()) {
+                    failedLocks.put(entry.getKey(), currentHolder);
+                    if (request.getLockGroupBehavior() == LOCK_ALL_OR_NONE) {
+                        break;
+                    }
+                } else {
+                    waitForLock(entry, lock, knownClientLock.lockAsync(), currentHolder);
+                    return false;
+                }
+            }
+            complete();
+            return true;
+        }
+
+        private void waitForLock(
+                Map.Entry<LockDescriptor, LockMode> entry,
+                ClientAwareReadWriteLock lock,
+                ListenableFuture<Void> acquisition,
+                LockClient currentHolder) {
+            long waitStartTime = System.currentTimeMillis();
+            pendingLock = acquisition;
+            if (response.isDone()) {
+                acquisition.cancel(false);
+            }
+            acquisition.addListener(
+                    () -> run(() -> onWaitFinished(entry, lock, acquisition, currentHolder, waitStartTime)),
+                    MoreExecutors.directExecutor());
+            if (deadline != null) {
+                try {
+                    ScheduledFuture<?> timeout = asyncLockTimeoutExecutor.schedule(
+                            () -> acquisition.cancel(false), deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    acquisition.addListener(() -> timeout.cancel(false), MoreExecutors.directExecutor());
+                } catch (RejectedExecutionException e) {
+                    // The lock server is shutting down.
+                    acquisition.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * Continues the request once the wait for a lock has finished. The wait was cancelled, and so the lock was
+         * not acquired, if it timed out or the response was completed from outside.
+         */
+        private boolean onWaitFinished(
+                Map.Entry<LockDescriptor, LockMode> entry,
+                ClientAwareReadWriteLock lock,
+                ListenableFuture<Void> acquisition,
+                LockClient currentHolder,
+                long waitStartTime) {
+            boolean acquired = !acquisition.isCancelled();
+            if (acquired) {
+                AtlasFutures.getDone(acquisition);
+                locks.put(lock, entry.getValue());
+            }
+            if (response.isDone()) {
+                return true;
+            }
+            if (log.isDebugEnabled() || isSlowLogEnabled()) {
+                long responseTimeMillis = System.currentTimeMillis() - waitStartTime;
+                logSlowLockAcquisition(entry.getKey().toString(), acquired ? null : currentHolder, responseTimeMillis);
+            }
+            if (!acquired) {
+                failedLocks.put(entry.getKey(), currentHolder);
+                if (request.getLockGroupBehavior() == LOCK_ALL_OR_NONE) {
+                    complete();
+                    return true;
+                }
+            }
+            return acquireRemainingLocks();
+        }
+
+        private boolean isPastDeadline() {
+            return deadline != null && deadline - System.nanoTime() <= 0;
+        }
+
+        private void complete() {
+            if (response.isDone()) {
+                return;
+            }
+            @Nullable LockResponse lockResponse = getFailureResponse(client, request, locks, failedLocks, startTime);
+            if (lockResponse == null) {
+                lockResponse = getSuccessResponse(client, request, locks, failedLocks, startTime);
+            }
+            if (!response.set(lockResponse) && lockResponse.success()) {
+                // The response was completed from outside while the token was being created.
+                unlock(lockResponse.getToken());
+            }
+        }
+    }
+
     private final class LockReapRunner implements AutoCloseable {
         private final Ownable<ExecutorService> executor;
         private final List<Future<?>> taskFutures;
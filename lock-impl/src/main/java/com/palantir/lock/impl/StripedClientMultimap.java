@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.TreeMultiset;
+import com.google.common.util.concurrent.Striped;
+import com.palantir.lock.LockClient;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A multimap from lock clients to values, for the per-client bookkeeping that the lock server updates on every lock
+ * and unlock. The values of each client are guarded by one of a fixed number of lock stripes, rather than by one lock
+ * for the whole map, so that requests from different clients do not contend with each other.
+ */
+@ThreadSafe
+final class StripedClientMultimap<V> {
+    private static final int STRIPES = 64;
+
+    private final Striped<Lock> stripes = Striped.lock(STRIPES);
+    private final ConcurrentMap<LockClient, Collection<V>> valuesByClient = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Supplier<Collection<V>> valuesFactory;
+
+    private StripedClientMultimap(Supplier<Collection<V>> valuesFactory) {
+        this.valuesFactory = valuesFactory;
+    }
+
+    static <V> StripedClientMultimap<V> withSetValues() {
+        return new StripedClientMultimap<>(HashSet::new);
+    }
+
+    /**
+     * Values are kept in ascending order, and a value may be present more than once for the same client.
+     */
+    static <V extends Comparable<?>> StripedClientMultimap<V> withSortedMultisetValues() {
+        return new StripedClientMultimap<>(TreeMultiset::create);
+    }
+
+    void put(LockClient client, V value) {
+        Lock lock = stripes.get(client);
+        lock.lock();
+        try {
+            if (valuesByClient.computeIfAbsent(client, unused -> valuesFactory.get()).add(value)) {
+                size.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes one occurrence of the given value for the given client, if there is one.
+     */
+    void remove(LockClient client, V value) {
+        Lock lock = stripes.get(client);
+        lock.lock();
+        try {
+            Collection<V> values = valuesByClient.get(client);
+            if (values != null && values.remove(value)) {
+                size.decrementAndGet();
+                if (values.isEmpty()) {
+                    valuesByClient.remove(client);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the given function to the values of the given client while holding their stripe. The function must not
+     * keep a reference to the values it is given.
+     */
+    <T> T read(LockClient client, Function<Collection<V>, T> reader) {
+        Lock lock = stripes.get(client);
+        lock.lock();
+        try {
+            return reader.apply(valuesByClient.getOrDefault(client, ImmutableList.of()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+}
@@ -22,20 +22,27 @@ import static uk.org.lidalia.slf4jtest.LoggingEvent.warn;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.common.remoting.ServiceNotAvailableException;
+import com.palantir.lock.HeldLocksToken;
 import com.palantir.lock.LockClient;
+import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.LockMode;
 import com.palantir.lock.LockRefreshToken;
 import com.palantir.lock.LockRequest;
+import com.palantir.lock.LockResponse;
 import com.palantir.lock.LockServerOptions;
 import com.palantir.lock.SimpleTimeDuration;
 import com.palantir.lock.StringLockDescriptor;
 import com.palantir.lock.client.LockRefreshingLockService;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.assertj.core.api.Assertions;
 import org.junit.After;
@@ -158,6 +165,169 @@ public final class LockServiceImplTest {
                 .isLessThan(45_000);
     }
 
+    @Test
+    public void asyncLockRequestWaitsUntilLockIsReleased() throws Exception {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", writeLock(descriptor).doNotBlock().build());
+
+        ListenableFuture<LockResponse> response = lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                LockClient.of("waiter"), writeLock(descriptor).build());
+        Assertions.assertThat(response).isNotDone();
+
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+        Assertions.assertThat(response).isDone();
+        Assertions.assertThat(response.get().success()).isTrue();
+        lockServiceWithSlowLogDisabled.unlock(response.get().getToken());
+    }
+
+    @Test
+    public void asyncLockRequestsAreGrantedInOrder() throws Exception {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", writeLock(descriptor).doNotBlock().build());
+        ListenableFuture<LockResponse> firstResponse = lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                LockClient.of("first"), writeLock(descriptor).build());
+        ListenableFuture<LockResponse> secondResponse = lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                LockClient.of("second"), writeLock(descriptor).build());
+
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+        Assertions.assertThat(firstResponse).isDone();
+        Assertions.assertThat(secondResponse).isNotDone();
+
+        lockServiceWithSlowLogDisabled.unlock(firstResponse.get().getToken());
+        Assertions.assertThat(secondResponse.get().success()).isTrue();
+        lockServiceWithSlowLogDisabled.unlock(secondResponse.get().getToken());
+    }
+
+    @Test
+    public void manyAsyncLockAndReleaseRequestsAreGrantedWithoutRecursing() throws Exception {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", writeLock(descriptor).doNotBlock().build());
+        List<ListenableFuture<LockResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            responses.add(lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                    LockClient.of("waiter" + i), writeLock(descriptor).lockAndRelease().build()));
+        }
+
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+
+        for (ListenableFuture<LockResponse> response : responses) {
+            Assertions.assertThat(response).isDone();
+            Assertions.assertThat(response.get().success()).isTrue();
+        }
+    }
+
+    @Test
+    public void asyncLockRequestReportsLockHoldersWhenItTimesOut() throws Exception {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", writeLock(descriptor).doNotBlock().build());
+
+        LockResponse response = lockServiceWithSlowLogDisabled
+                .lockWithFullLockResponseAsync(
+                        LockClient.of("waiter"),
+                        writeLock(descriptor)
+                                .blockForAtMost(SimpleTimeDuration.of(10, TimeUnit.MILLISECONDS))
+                                .build())
+                .get(1, TimeUnit.MINUTES);
+
+        Assertions.assertThat(response.success()).isFalse();
+        Assertions.assertThat(response.getLockHolders()).containsEntry(descriptor, LockClient.of("holder"));
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+    }
+
+    @Test
+    public void cancelledAsyncLockRequestNeverAcquiresLock() throws InterruptedException {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", writeLock(descriptor).doNotBlock().build());
+        ListenableFuture<LockResponse> response = lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                LockClient.of("waiter"), writeLock(descriptor).build());
+
+        response.cancel(true);
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+
+        HeldLocksToken otherToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "other", writeLock(descriptor).doNotBlock().build());
+        Assertions.assertThat(otherToken).isNotNull();
+        lockServiceWithSlowLogDisabled.unlock(otherToken);
+    }
+
+    @Test
+    public void blockedLockRequestIsWokenWhenAsyncLockRequestAheadOfItIsCancelled() throws Exception {
+        LockDescriptor descriptor = randomDescriptor();
+        HeldLocksToken holderToken = lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                "holder", readLock(descriptor).doNotBlock().build());
+        ListenableFuture<LockResponse> asyncResponse = lockServiceWithSlowLogDisabled.lockWithFullLockResponseAsync(
+                LockClient.of("writer"), writeLock(descriptor).build());
+
+        AtomicReference<HeldLocksToken> readerToken = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                readerToken.set(lockServiceWithSlowLogDisabled.lockAndGetHeldLocks(
+                        "reader", readLock(descriptor).build()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        reader.start();
+        // The reader queues behind the writer, even though the read lock is compatible with the one held.
+        while (reader.getState() != Thread.State.WAITING && reader.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(10);
+        }
+
+        asyncResponse.cancel(true);
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+
+        Assertions.assertThat(reader.isAlive()).isFalse();
+        Assertions.assertThat(readerToken.get()).isNotNull();
+        lockServiceWithSlowLogDisabled.unlock(readerToken.get());
+        lockServiceWithSlowLogDisabled.unlock(holderToken);
+    }
+
+    @Test
+    public void closingLockServiceFailsPendingAsyncLockRequests() throws InterruptedException {
+        LockServiceImpl lockService = createLockServiceWithSlowLogEnabled(false);
+        LockDescriptor descriptor = randomDescriptor();
+        lockService.lockAndGetHeldLocks("holder", writeLock(descriptor).doNotBlock().build());
+        ListenableFuture<LockResponse> response =
+                lockService.lockWithFullLockResponseAsync(LockClient.of("waiter"), writeLock(descriptor).build());
+
+        lockService.close();
+
+        Assertions.assertThatThrownBy(response::get).hasCauseInstanceOf(ServiceNotAvailableException.class);
+    }
+
+    @Test
+    public void minLockedInVersionIdIsSmallestVersionIdHeldByClient() throws InterruptedException {
+        String client = "versioned-" + UUID.randomUUID();
+        LockRefreshToken laterToken = lockServiceWithSlowLogDisabled.lock(
+                client, writeLock(randomDescriptor()).doNotBlock().withLockedInVersionId(5L).build());
+        LockRefreshToken earlierToken = lockServiceWithSlowLogDisabled.lock(
+                client, writeLock(randomDescriptor()).doNotBlock().withLockedInVersionId(3L).build());
+        Assertions.assertThat(lockServiceWithSlowLogDisabled.getMinLockedInVersionId(client)).isEqualTo(3L);
+
+        lockServiceWithSlowLogDisabled.unlock(earlierToken);
+        Assertions.assertThat(lockServiceWithSlowLogDisabled.getMinLockedInVersionId(client)).isEqualTo(5L);
+
+        lockServiceWithSlowLogDisabled.unlock(laterToken);
+        Assertions.assertThat(lockServiceWithSlowLogDisabled.getMinLockedInVersionId(client)).isNull();
+    }
+
+    private static LockDescriptor randomDescriptor() {
+        return StringLockDescriptor.of(UUID.randomUUID().toString());
+    }
+
+    private static LockRequest.Builder writeLock(LockDescriptor descriptor) {
+        return LockRequest.builder(ImmutableSortedMap.of(descriptor, LockMode.WRITE));
+    }
+
+    private static LockRequest.Builder readLock(LockDescriptor descriptor) {
+        return LockRequest.builder(ImmutableSortedMap.of(descriptor, LockMode.READ));
+    }
+
     private static void assertContainsMatchingLoggingEvent(List<LoggingEvent> actuals, LoggingEvent expected) {
         List<String> expectedParamStrings = extractArgumentsAsStringList(expected);
         assertThat(
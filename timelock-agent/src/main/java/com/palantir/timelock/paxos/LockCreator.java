@@ -43,6 +43,8 @@ public class LockCreator {
                 .slowLogTriggerMillis(runtime.get().slowLockLogTriggerMillis())
                 .build();
 
+        // The v1 endpoints only see this through LockService, so LockServiceImpl's non-blocking lock path is not
+        // reachable from here, and waiting requests still hold one of the shared threads.
         LockServiceImpl rawLockService = LockServiceImpl.create(lockServerOptions, sharedExecutor);
         CloseableLockService lockService = BlockingTimeLimitedLockService.create(rawLockService, blockingTimeoutMs);
 
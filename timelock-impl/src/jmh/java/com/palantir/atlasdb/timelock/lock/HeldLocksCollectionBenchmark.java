@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
+import com.palantir.atlasdb.timelock.lock.watch.LockWatchingServiceImpl;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.v2.LockToken;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the operations on a {@link HeldLocksCollection} that is already holding many locks, none of which
+ * are about to expire, as is the case for a busy TimeLock. Reaping should cost nothing like a scan of the held locks.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HeldLocksCollectionBenchmark {
+    @Param({"100000", "1000000", "10000000"})
+    private int heldLocks;
+
+    private LeaderClock leaderClock;
+    private LockLog lockLog;
+    private HeldLocksCollection heldLocksCollection;
+    private LockWatchingService lockWatchingService;
+    private LockToken[] heldTokens;
+
+    @Setup
+    public void setup() {
+        leaderClock = LeaderClock.create();
+        lockLog = new LockLog(new MetricRegistry(), () -> Long.MAX_VALUE);
+        heldLocksCollection = HeldLocksCollection.create(leaderClock);
+        lockWatchingService = new LockWatchingServiceImpl(heldLocksCollection, leaderClock.id());
+        heldTokens = new LockToken[heldLocks];
+        for (int index = 0; index < heldLocks; index++) {
+            heldTokens[index] = lock();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Set<LockToken> lockAndUnlock() {
+        return heldLocksCollection.unlock(ImmutableSet.of(lock()));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Leased<Set<LockToken>> refresh() {
+        LockToken token = heldTokens[ThreadLocalRandom.current().nextInt(heldTokens.length)];
+        return heldLocksCollection.refresh(ImmutableSet.of(token));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void reap() {
+        heldLocksCollection.removeExpired();
+    }
+
+    private LockToken lock() {
+        UUID requestId = UUID.randomUUID();
+        AsyncResult<HeldLocks> result = new AsyncResult<>();
+        result.complete(HeldLocks.create(
+                lockLog, ImmutableList.of(), requestId, LockMode.WRITE, leaderClock, lockWatchingService));
+        return heldLocksCollection.getExistingOrAcquire(requestId, () -> result).get().value();
+    }
+}
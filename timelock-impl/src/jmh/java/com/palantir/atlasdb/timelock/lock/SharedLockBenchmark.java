@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.v2.LockToken;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Many concurrent clients locking a small number of hot descriptors on an {@link AsyncLockService}, holding them for
+ * a short critical section, and unlocking. {@code WRITE} is the exclusive-only behaviour that every lock request had
+ * before shared locks existed; {@code READ} lets all the clients hold the descriptors at once.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SharedLockBenchmark {
+    private static final TimeLimit ACQUIRE_TIMEOUT = TimeLimit.of(TimeUnit.MINUTES.toMillis(1));
+    private static final long CRITICAL_SECTION_TOKENS = 1_000;
+
+    @Param({"READ", "WRITE"})
+    private LockMode lockMode;
+
+    @Param({"1", "8"})
+    private int hotDescriptors;
+
+    private AsyncLockService lockService;
+    private List<Set<LockDescriptor>> descriptorSets;
+
+    @Setup
+    public void setup() {
+        lockService = AsyncLockService.createDefault(
+                new LockLog(new MetricRegistry(), () -> Long.MAX_VALUE),
+                PTExecutors.newSingleThreadScheduledExecutor(),
+                PTExecutors.newSingleThreadScheduledExecutor());
+        descriptorSets = IntStream.range(0, hotDescriptors)
+                .mapToObj(index -> ImmutableSet.<LockDescriptor>of(StringLockDescriptor.of("hot-" + index)))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        lockService.close();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void lockHotDescriptors() {
+        Set<LockDescriptor> descriptors =
+                descriptorSets.get(ThreadLocalRandom.current().nextInt(descriptorSets.size()));
+        AsyncResult<Leased<LockToken>> result =
+                lockService.lock(UUID.randomUUID(), descriptors, lockMode, ACQUIRE_TIMEOUT);
+        LockToken token = await(result);
+        Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        lockService.unlock(token);
+    }
+
+    private static LockToken await(AsyncResult<Leased<LockToken>> result) {
+        CompletableFuture<LockToken> future = new CompletableFuture<>();
+        result.onComplete(() -> {
+            if (result.isCompletedSuccessfully()) {
+                future.complete(result.get().value());
+            } else {
+                future.completeExceptionally(new IllegalStateException("Lock request did not succeed"));
+            }
+        });
+        return future.join();
+    }
+}
@@ -32,6 +32,7 @@ import com.palantir.atlasdb.timelock.lock.watch.ValueAndLockWatchStateUpdate;
 import com.palantir.atlasdb.timelock.transaction.timestamp.ClientAwareManagedTimestampService;
 import com.palantir.atlasdb.timelock.transaction.timestamp.DelegatingClientAwareManagedTimestampService;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.client.IdentifiedLockRequest;
 import com.palantir.lock.v2.IdentifiedTimeLockRequest;
 import com.palantir.lock.v2.LeaderTime;
@@ -101,7 +102,10 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
     @Override
     public ListenableFuture<LockResponseV2> lock(IdentifiedLockRequest request) {
         AsyncResult<Leased<LockToken>> result = lockService.lock(
-                request.getRequestId(), request.getLockDescriptors(), TimeLimit.of(request.getAcquireTimeoutMs()));
+                request.getRequestId(),
+                request.getLockDescriptors(),
+                request.getLockMode(),
+                TimeLimit.of(request.getAcquireTimeoutMs()));
         lockLog.registerRequest(request, result);
         SettableFuture<LockResponseV2> response = SettableFuture.create();
         result.onComplete(() -> {
@@ -120,7 +124,10 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
     @Override
     public ListenableFuture<WaitForLocksResponse> waitForLocks(WaitForLocksRequest request) {
         AsyncResult<Void> result = lockService.waitForLocks(
-                request.getRequestId(), request.getLockDescriptors(), TimeLimit.of(request.getAcquireTimeoutMs()));
+                request.getRequestId(),
+                request.getLockDescriptors(),
+                request.getLockMode(),
+                TimeLimit.of(request.getAcquireTimeoutMs()));
         lockLog.registerRequest(request, result);
         SettableFuture<WaitForLocksResponse> response = SettableFuture.create();
         result.onComplete(() -> {
@@ -273,8 +280,8 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
     }
 
     @Override
-    public void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token) {
-        lockService.getLockWatchingService().registerLock(locksTakenOut, token);
+    public void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token, LockMode mode) {
+        lockService.getLockWatchingService().registerLock(locksTakenOut, token, mode);
     }
 
     @Override
@@ -46,6 +46,7 @@ import com.palantir.atlasdb.timelock.api.UnsuccessfulLockResponse;
 import com.palantir.conjure.java.undertow.lib.UndertowService;
 import com.palantir.lock.ByteArrayLockDescriptor;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.client.ConjureLockRequests;
 import com.palantir.lock.client.IdentifiedLockRequest;
 import com.palantir.lock.client.ImmutableIdentifiedLockRequest;
 import com.palantir.lock.v2.ImmutableWaitForLocksRequest;
@@ -117,6 +118,7 @@ public final class ConjureTimelockResource implements UndertowConjureTimelockSer
                     .clientDescription(request.getClientDescription())
                     .requestId(request.getRequestId())
                     .acquireTimeoutMs(request.getAcquireTimeoutMs())
+                    .lockMode(ConjureLockRequests.fromConjure(request.getLockMode()))
                     .build();
             ListenableFuture<LockResponseV2> tokenFuture =
                     forNamespace(namespace).lock(lockRequest);
@@ -139,6 +141,7 @@ public final class ConjureTimelockResource implements UndertowConjureTimelockSer
                     .clientDescription(request.getClientDescription())
                     .requestId(request.getRequestId())
                     .acquireTimeoutMs(request.getAcquireTimeoutMs())
+                    .lockMode(ConjureLockRequests.fromConjure(request.getLockMode()))
                     .build();
             ListenableFuture<WaitForLocksResponse> tokenFuture =
                     forNamespace(namespace).waitForLocks(lockRequest);
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingServiceImpl;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LeaderTime;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.RefreshLockResponseV2;
@@ -117,7 +118,13 @@ public class AsyncLockService implements Closeable {
     }
 
     public AsyncResult<Leased<LockToken>> lock(UUID requestId, Set<LockDescriptor> lockDescriptors, TimeLimit timeout) {
-        return heldLocks.getExistingOrAcquire(requestId, () -> acquireLocks(requestId, lockDescriptors, timeout));
+        return lock(requestId, lockDescriptors, LockMode.WRITE, timeout);
+    }
+
+    public AsyncResult<Leased<LockToken>> lock(
+            UUID requestId, Set<LockDescriptor> lockDescriptors, LockMode mode, TimeLimit timeout) {
+        return heldLocks.getExistingOrAcquire(
+                requestId, () -> acquireLocks(requestId, lockDescriptors, mode, timeout));
     }
 
     public AsyncResult<Leased<LockToken>> lockImmutableTimestamp(UUID requestId, long timestamp) {
@@ -129,7 +136,13 @@ public class AsyncLockService implements Closeable {
     }
 
     public AsyncResult<Void> waitForLocks(UUID requestId, Set<LockDescriptor> lockDescriptors, TimeLimit timeout) {
-        return awaitedLocks.getExistingOrAwait(requestId, () -> awaitLocks(requestId, lockDescriptors, timeout));
+        return waitForLocks(requestId, lockDescriptors, LockMode.WRITE, timeout);
+    }
+
+    public AsyncResult<Void> waitForLocks(
+            UUID requestId, Set<LockDescriptor> lockDescriptors, LockMode mode, TimeLimit timeout) {
+        return awaitedLocks.getExistingOrAwait(
+                requestId, () -> awaitLocks(requestId, lockDescriptors, mode, timeout));
     }
 
     public Optional<Long> getImmutableTimestamp() {
@@ -137,13 +150,14 @@ public class AsyncLockService implements Closeable {
     }
 
     private AsyncResult<HeldLocks> acquireLocks(
-            UUID requestId, Set<LockDescriptor> lockDescriptors, TimeLimit timeout) {
-        OrderedLocks orderedLocks = locks.getAll(lockDescriptors);
-        return lockAcquirer.acquireLocks(requestId, orderedLocks, timeout);
+            UUID requestId, Set<LockDescriptor> lockDescriptors, LockMode mode, TimeLimit timeout) {
+        OrderedLocks orderedLocks = locks.getAll(lockDescriptors, mode);
+        return lockAcquirer.acquireLocks(requestId, orderedLocks, mode, timeout);
     }
 
-    private AsyncResult<Void> awaitLocks(UUID requestId, Set<LockDescriptor> lockDescriptors, TimeLimit timeout) {
-        OrderedLocks orderedLocks = locks.getAll(lockDescriptors);
+    private AsyncResult<Void> awaitLocks(
+            UUID requestId, Set<LockDescriptor> lockDescriptors, LockMode mode, TimeLimit timeout) {
+        OrderedLocks orderedLocks = locks.getAll(lockDescriptors, mode);
         return lockAcquirer.waitForLocks(requestId, orderedLocks, timeout);
     }
 
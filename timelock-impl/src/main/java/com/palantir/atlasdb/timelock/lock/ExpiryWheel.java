@@ -0,0 +1,113 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import com.palantir.common.time.NanoTime;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A hashed timing wheel of keys that come due at deadlines. Each slot holds the keys whose deadlines fall in one tick,
+ * so scheduling a key is O(1), and polling only touches the keys in the slots whose ticks have started since the last
+ * poll.
+ * <p>
+ * Keys are returned by {@link #pollDue} once the tick containing their deadline has started, which may be slightly
+ * before the deadline itself. Keys are never moved or removed: a caller whose key should no longer be due at that
+ * deadline (for example, because a lease has been refreshed) checks it when it comes due, and schedules it again.
+ * As a result, keys may come due after they stopped being relevant, and (rarely, when scheduling races with a poll)
+ * more than once. Deadlines further ahead than the span of the wheel come due early, and are likewise rescheduled.
+ */
+final class ExpiryWheel<K> {
+    private final NanoTime origin;
+    private final long tickNanos;
+    private final List<Queue<K>> slots;
+    private final Queue<K> overdue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The latest tick whose slot has been polled. Only written while holding the lock of this wheel.
+     */
+    private volatile long lastPolledTick = 0;
+
+    ExpiryWheel(NanoTime origin, Duration tick, int slotCount) {
+        Preconditions.checkArgument(
+                !tick.isNegative() && !tick.isZero(), "Tick must be positive", SafeArg.of("tick", tick));
+        Preconditions.checkArgument(slotCount > 0, "Slot count must be positive", SafeArg.of("slotCount", slotCount));
+        this.origin = origin;
+        this.tickNanos = tick.toNanos();
+        this.slots = new ArrayList<>(slotCount);
+        for (int index = 0; index < slotCount; index++) {
+            slots.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    void schedule(K key, NanoTime deadline) {
+        long tick = tickOf(deadline);
+        if (tick <= lastPolledTick) {
+            overdue.add(key);
+            return;
+        }
+        slot(tick).add(key);
+        if (tick <= lastPolledTick) {
+            // The slot may have been polled between the check above and adding the key, which would strand the key
+            // for a whole turn of the wheel.
+            overdue.add(key);
+        }
+    }
+
+    /**
+     * Schedules the key to come due on the next poll.
+     */
+    void scheduleImmediately(K key) {
+        overdue.add(key);
+    }
+
+    /**
+     * Returns the keys that have come due by the given time, and forgets them.
+     */
+    synchronized List<K> pollDue(NanoTime now) {
+        List<K> due = new ArrayList<>();
+        drainTo(overdue, due);
+
+        long currentTick = tickOf(now);
+        // Each slot only needs to be polled once, however long it has been since the last poll.
+        long firstTick = Math.max(lastPolledTick + 1, currentTick - slots.size() + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            lastPolledTick = tick;
+            drainTo(slot(tick), due);
+        }
+        return due;
+    }
+
+    private long tickOf(NanoTime time) {
+        return Math.floorDiv(time.nanosSince(origin), tickNanos);
+    }
+
+    private Queue<K> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+
+    private static <K> void drainTo(Queue<K> source, List<K> sink) {
+        for (K key = source.poll(); key != null; key = source.poll()) {
+            sink.add(key);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Suppliers;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
 import com.palantir.common.time.NanoTime;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 import java.util.Collection;
 import java.util.Set;
@@ -33,6 +34,7 @@ public class HeldLocks {
     private final LockLog lockLog;
     private final Collection<AsyncLock> acquiredLocks;
     private final LockToken token;
+    private final LockMode mode;
     private final LeaseExpirationTimer expirationTimer;
     private final LockWatchingService lockWatchingService;
     private final Supplier<Set<LockDescriptor>> descriptors = Suppliers.memoize(this::getLockDescriptors);
@@ -45,11 +47,13 @@ public class HeldLocks {
             LockLog lockLog,
             Collection<AsyncLock> acquiredLocks,
             UUID requestId,
+            LockMode mode,
             LeaseExpirationTimer expirationTimer,
             LockWatchingService lockWatchingService) {
         this.lockLog = lockLog;
         this.acquiredLocks = acquiredLocks;
         this.token = LockToken.of(requestId);
+        this.mode = mode;
         this.expirationTimer = expirationTimer;
         this.lockWatchingService = lockWatchingService;
     }
@@ -58,12 +62,14 @@ public class HeldLocks {
             LockLog lockLog,
             Collection<AsyncLock> acquiredLocks,
             UUID requestId,
+            LockMode mode,
             LeaderClock leaderClock,
             LockWatchingService lockWatchingService) {
         HeldLocks locks = new HeldLocks(
                 lockLog,
                 acquiredLocks,
                 requestId,
+                mode,
                 new LeaseExpirationTimer(() -> leaderClock.time().currentTime()),
                 lockWatchingService);
         locks.registerLock();
@@ -71,7 +77,7 @@ public class HeldLocks {
     }
 
     private void registerLock() {
-        lockWatchingService.registerLock(descriptors.get(), token);
+        lockWatchingService.registerLock(descriptors.get(), token, mode);
     }
 
     /**
@@ -22,6 +22,7 @@ import com.palantir.leader.NotCurrentLeaderException;
 import com.palantir.lock.v2.LeaderTime;
 import com.palantir.lock.v2.Lease;
 import com.palantir.lock.v2.LockToken;
+import java.time.Duration;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,15 +31,28 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Held locks are indexed by when their leases expire, in an {@link ExpiryWheel}, so that reaping expired locks only
+ * touches the locks whose leases are about to expire, rather than every lock that is held. Refreshing a lease does not
+ * touch the index: when a refreshed lock comes due, it is found not to have expired, and is scheduled again for its
+ * new expiry. Each lock is therefore rescheduled at most once per lease, however often it is refreshed.
+ */
 public class HeldLocksCollection {
+    private static final Duration EXPIRY_WHEEL_TICK = Duration.ofSeconds(1);
+    private static final int EXPIRY_WHEEL_SLOTS =
+            2 * Math.toIntExact(LockLeaseContract.SERVER_LEASE_TIMEOUT.getSeconds() / EXPIRY_WHEEL_TICK.getSeconds());
+
     @VisibleForTesting
     final ConcurrentMap<UUID, AsyncResult<HeldLocks>> heldLocksById = new ConcurrentHashMap<>();
 
     private final LeaderClock leaderClock;
+    private final ExpiryWheel<UUID> expiryWheel;
 
     @VisibleForTesting
     HeldLocksCollection(LeaderClock leaderClock) {
         this.leaderClock = leaderClock;
+        this.expiryWheel =
+                new ExpiryWheel<>(leaderClock.time().currentTime(), EXPIRY_WHEEL_TICK, EXPIRY_WHEEL_SLOTS);
     }
 
     public static HeldLocksCollection create(LeaderClock leaderClock) {
@@ -48,7 +62,11 @@ public class HeldLocksCollection {
     public AsyncResult<Leased<LockToken>> getExistingOrAcquire(
             UUID requestId, Supplier<AsyncResult<HeldLocks>> lockAcquirer) {
         return heldLocksById
-                .computeIfAbsent(requestId, ignored -> lockAcquirer.get())
+                .computeIfAbsent(requestId, ignored -> {
+                    AsyncResult<HeldLocks> lockResult = lockAcquirer.get();
+                    lockResult.onComplete(() -> scheduleExpiry(requestId, lockResult));
+                    return lockResult;
+                })
                 .map(this::createLeasableLockToken);
     }
 
@@ -66,7 +84,17 @@ public class HeldLocksCollection {
     }
 
     public void removeExpired() {
-        heldLocksById.values().removeIf(this::shouldRemove);
+        for (UUID requestId : expiryWheel.pollDue(leaderClock.time().currentTime())) {
+            AsyncResult<HeldLocks> lockResult = heldLocksById.get(requestId);
+            if (lockResult == null) {
+                continue;
+            }
+            if (shouldRemove(lockResult)) {
+                heldLocksById.remove(requestId, lockResult);
+            } else if (lockResult.isCompletedSuccessfully()) {
+                expiryWheel.schedule(requestId, expiry(lockResult.get()));
+            }
+        }
     }
 
     public void failAllOutstandingRequestsWithNotCurrentLeaderException() {
@@ -93,6 +121,21 @@ public class HeldLocksCollection {
         return Lease.of(leaderTime, LockLeaseContract.CLIENT_LEASE_TIMEOUT);
     }
 
+    /**
+     * Failed and timed out requests are removed on the next reap, and acquired locks once their leases expire.
+     */
+    private void scheduleExpiry(UUID requestId, AsyncResult<HeldLocks> lockResult) {
+        if (lockResult.isCompletedSuccessfully()) {
+            expiryWheel.schedule(requestId, expiry(lockResult.get()));
+        } else {
+            expiryWheel.scheduleImmediately(requestId);
+        }
+    }
+
+    private static NanoTime expiry(HeldLocks heldLocks) {
+        return heldLocks.lastRefreshTime().plus(LockLeaseContract.SERVER_LEASE_TIMEOUT);
+    }
+
     private boolean shouldRemove(AsyncResult<HeldLocks> lockResult) {
         return lockResult.isFailed() || lockResult.isTimedOut() || lockResult.test(HeldLocks::unlockIfExpired);
     }
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.timelock.lock;
 
 import com.google.common.base.Throwables;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
+import com.palantir.lock.LockMode;
 import com.palantir.logsafe.SafeArg;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
@@ -46,9 +47,18 @@ public class LockAcquirer implements AutoCloseable {
     }
 
     public AsyncResult<HeldLocks> acquireLocks(UUID requestId, OrderedLocks locks, TimeLimit timeout) {
+        return acquireLocks(requestId, locks, LockMode.WRITE, timeout);
+    }
+
+    /**
+     * Acquires the given locks, which must all have been obtained in the given mode. The mode is only used to describe
+     * the held locks to lock watchers; whether the locks are shared is determined by the locks themselves.
+     */
+    public AsyncResult<HeldLocks> acquireLocks(
+            UUID requestId, OrderedLocks locks, LockMode mode, TimeLimit timeout) {
         return new Acquisition(requestId, locks, timeout, lock -> lock.lock(requestId))
                 .execute()
-                .map(ignored -> HeldLocks.create(lockLog, locks.get(), requestId, leaderClock, lockWatcher));
+                .map(ignored -> HeldLocks.create(lockLog, locks.get(), requestId, mode, leaderClock, lockWatcher));
     }
 
     public AsyncResult<Void> waitForLocks(UUID requestId, OrderedLocks locks, TimeLimit timeout) {
@@ -19,6 +19,7 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -26,18 +27,26 @@ import java.util.Set;
 
 public class LockCollection {
 
-    private final LoadingCache<LockDescriptor, AsyncLock> locksById;
+    private final LoadingCache<LockDescriptor, SharedExclusiveLock> locksById;
 
     public LockCollection() {
-        locksById = Caffeine.newBuilder().weakValues().build(ExclusiveLock::new);
+        locksById = Caffeine.newBuilder().weakValues().build(SharedExclusiveLock::new);
     }
 
     public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
+        return getAll(descriptors, LockMode.WRITE);
+    }
+
+    /**
+     * Returns the locks for the given descriptors, in the given mode. Locks taken in {@link LockMode#READ} mode may be
+     * held by any number of requests at once, but exclude locks on the same descriptor in {@link LockMode#WRITE} mode.
+     */
+    public OrderedLocks getAll(Set<LockDescriptor> descriptors, LockMode mode) {
         List<LockDescriptor> orderedDescriptors = sort(descriptors);
 
         List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
         for (LockDescriptor descriptor : orderedDescriptors) {
-            locks.add(getLock(descriptor));
+            locks.add(getLock(descriptor).get(mode));
         }
 
         return OrderedLocks.fromOrderedList(locks);
@@ -49,7 +58,7 @@ public class LockCollection {
         return orderedDescriptors;
     }
 
-    private AsyncLock getLock(LockDescriptor descriptor) {
+    private SharedExclusiveLock getLock(LockDescriptor descriptor) {
         return locksById.get(descriptor);
     }
 }
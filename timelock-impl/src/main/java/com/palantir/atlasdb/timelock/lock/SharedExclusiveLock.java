@@ -0,0 +1,227 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.logsafe.SafeArg;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A lock on a single descriptor that may be held either by any number of readers, or by a single writer. The two
+ * modes are exposed as separate {@link AsyncLock}s by {@link #readLock()} and {@link #writeLock()}.
+ *
+ * Requests are served in the order they were made: a reader that arrives while a writer is queued waits behind that
+ * writer, so a steady stream of readers cannot starve writers. When only writers are involved, this behaves exactly
+ * like an {@link ExclusiveLock}.
+ */
+public class SharedExclusiveLock {
+
+    private final LockDescriptor descriptor;
+    private final AsyncLock readLock = new View(LockMode.READ);
+    private final AsyncLock writeLock = new View(LockMode.WRITE);
+
+    @GuardedBy("this")
+    private final LockRequestQueue queue = new LockRequestQueue();
+
+    @GuardedBy("this")
+    private final Set<UUID> readers = new HashSet<>();
+
+    @GuardedBy("this")
+    private UUID writer = null;
+
+    public SharedExclusiveLock(LockDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    public AsyncLock readLock() {
+        return readLock;
+    }
+
+    public AsyncLock writeLock() {
+        return writeLock;
+    }
+
+    public AsyncLock get(LockMode mode) {
+        return mode == LockMode.READ ? readLock : writeLock;
+    }
+
+    @VisibleForTesting
+    synchronized Set<UUID> getCurrentReaders() {
+        return ImmutableSet.copyOf(readers);
+    }
+
+    @VisibleForTesting
+    synchronized UUID getCurrentWriter() {
+        return writer;
+    }
+
+    private synchronized AsyncResult<Void> submit(LockRequest request) {
+        queue.enqueue(request);
+        processQueue();
+
+        return request.result;
+    }
+
+    private synchronized void unlock(UUID requestId, LockMode mode) {
+        boolean released = mode == LockMode.READ ? readers.remove(requestId) : releaseWriter(requestId);
+        if (released) {
+            processQueue();
+        }
+    }
+
+    private synchronized void timeout(UUID requestId) {
+        if (queue.timeoutAndRemoveIfStillQueued(requestId)) {
+            // a queued writer that times out may have been the only thing holding back the readers behind it
+            processQueue();
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean releaseWriter(UUID requestId) {
+        if (Objects.equals(requestId, writer)) {
+            writer = null;
+            return true;
+        }
+        return false;
+    }
+
+    @GuardedBy("this")
+    private void processQueue() {
+        while (!queue.isEmpty() && canGrant(queue.peek())) {
+            LockRequest head = queue.dequeue();
+
+            if (!head.releaseImmediately) {
+                if (head.mode == LockMode.READ) {
+                    readers.add(head.requestId);
+                } else {
+                    writer = head.requestId;
+                }
+            }
+
+            head.result.complete(null);
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean canGrant(LockRequest request) {
+        if (writer != null) {
+            return false;
+        }
+        return request.mode == LockMode.READ || readers.isEmpty();
+    }
+
+    private final class View implements AsyncLock {
+        private final LockMode mode;
+
+        private View(LockMode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public AsyncResult<Void> lock(UUID requestId) {
+            return submit(new LockRequest(requestId, mode, false));
+        }
+
+        @Override
+        public AsyncResult<Void> waitUntilAvailable(UUID requestId) {
+            return submit(new LockRequest(requestId, mode, true));
+        }
+
+        @Override
+        public void unlock(UUID requestId) {
+            SharedExclusiveLock.this.unlock(requestId, mode);
+        }
+
+        @Override
+        public void timeout(UUID requestId) {
+            SharedExclusiveLock.this.timeout(requestId);
+        }
+
+        @Override
+        public LockDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        @Override
+        public String toString() {
+            return "SharedExclusiveLock{descriptor=" + descriptor + ", mode=" + mode + '}';
+        }
+    }
+
+    private static class LockRequest {
+        private final AsyncResult<Void> result = new AsyncResult<>();
+        private final UUID requestId;
+        private final LockMode mode;
+        private final boolean releaseImmediately;
+
+        LockRequest(UUID requestId, LockMode mode, boolean releaseImmediately) {
+            this.requestId = requestId;
+            this.mode = mode;
+            this.releaseImmediately = releaseImmediately;
+        }
+    }
+
+    @NotThreadSafe
+    private static final class LockRequestQueue {
+
+        @SuppressWarnings("checkstyle:illegaltype")
+        private final LinkedHashMap<UUID, LockRequest> queue = new LinkedHashMap<>();
+
+        public void enqueue(LockRequest request) {
+            LockRequest existingRequest = queue.put(request.requestId, request);
+            if (existingRequest != null) {
+                queue.put(request.requestId, existingRequest);
+                throw new LoggableIllegalStateException(
+                        "Cannot enqueue the same request id twice.", SafeArg.of("requestId", request.requestId));
+            }
+        }
+
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        public LockRequest peek() {
+            return queue.values().iterator().next();
+        }
+
+        public LockRequest dequeue() {
+            Iterator<LockRequest> iterator = queue.values().iterator();
+            LockRequest head = iterator.next();
+            iterator.remove();
+            return head;
+        }
+
+        public boolean timeoutAndRemoveIfStillQueued(UUID requestId) {
+            LockRequest request = queue.remove(requestId);
+            if (request != null) {
+                request.result.timeout();
+                return true;
+            }
+            return false;
+        }
+    }
+}
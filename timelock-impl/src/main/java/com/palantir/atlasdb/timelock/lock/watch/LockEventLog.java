@@ -17,6 +17,7 @@
 package com.palantir.atlasdb.timelock.lock.watch;
 
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockWatchStateUpdate;
 import com.palantir.lock.watch.LockWatchVersion;
@@ -29,7 +30,11 @@ public interface LockEventLog {
 
     <T> ValueAndLockWatchStateUpdate<T> runTask(Optional<LockWatchVersion> lastKnownVersion, Supplier<T> task);
 
-    void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken);
+    default void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken) {
+        logLock(locksTakenOut, lockToken, LockMode.WRITE);
+    }
+
+    void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken, LockMode mode);
 
     void logUnlock(Set<LockDescriptor> locksUnlocked);
 
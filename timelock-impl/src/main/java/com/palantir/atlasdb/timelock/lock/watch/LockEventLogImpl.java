@@ -20,6 +20,7 @@ import com.google.common.collect.RangeSet;
 import com.palantir.atlasdb.timelock.lock.AsyncLock;
 import com.palantir.atlasdb.timelock.lock.HeldLocksCollection;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockEvent;
 import com.palantir.lock.watch.LockWatchCreatedEvent;
@@ -60,8 +61,8 @@ public class LockEventLogImpl implements LockEventLog {
     }
 
     @Override
-    public synchronized void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken) {
-        slidingWindow.add(LockEvent.builder(locksTakenOut, lockToken));
+    public synchronized void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken, LockMode mode) {
+        slidingWindow.add(LockEvent.builder(locksTakenOut, lockToken, mode));
     }
 
     @Override
@@ -18,6 +18,7 @@ package com.palantir.atlasdb.timelock.lock.watch;
 
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockWatchStateUpdate;
 import com.palantir.lock.watch.LockWatchVersion;
@@ -32,7 +33,11 @@ public interface LockWatchingService {
 
     <T> ValueAndLockWatchStateUpdate<T> runTask(Optional<LockWatchVersion> lastKnownVersion, Supplier<T> task);
 
-    void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token);
+    default void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token) {
+        registerLock(locksTakenOut, token, LockMode.WRITE);
+    }
+
+    void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token, LockMode mode);
 
     void registerUnlock(Set<LockDescriptor> locksUnlocked);
 }
@@ -23,6 +23,7 @@ import com.google.common.collect.TreeRangeSet;
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
 import com.palantir.atlasdb.timelock.lock.HeldLocksCollection;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LeadershipId;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockWatchReferences;
@@ -102,8 +103,9 @@ public class LockWatchingServiceImpl implements LockWatchingService {
     }
 
     @Override
-    public void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token) {
-        runIfDescriptorsMatchLockWatches(locksTakenOut, filteredLocks -> lockEventLog.logLock(filteredLocks, token));
+    public void registerLock(Set<LockDescriptor> locksTakenOut, LockToken token, LockMode mode) {
+        runIfDescriptorsMatchLockWatches(
+                locksTakenOut, filteredLocks -> lockEventLog.logLock(filteredLocks, token, mode));
     }
 
     @Override
@@ -29,6 +29,7 @@ import static org.mockito.Mockito.when;
 import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.StringLockDescriptor;
 import java.util.Arrays;
 import java.util.Optional;
@@ -73,8 +74,9 @@ public class AsyncLockServiceTest {
     @Before
     public void before() {
         when(acquirer.acquireLocks(any(), any(), any())).thenReturn(new AsyncResult<>());
+        when(acquirer.acquireLocks(any(), any(), any(), any())).thenReturn(new AsyncResult<>());
         when(acquirer.waitForLocks(any(), any(), any())).thenReturn(new AsyncResult<>());
-        when(locks.getAll(any())).thenReturn(OrderedLocks.fromSingleLock(newLock()));
+        when(locks.getAll(any(), any())).thenReturn(OrderedLocks.fromSingleLock(newLock()));
         when(immutableTimestampTracker.getImmutableTimestamp()).thenReturn(Optional.empty());
         when(immutableTimestampTracker.getLockFor(anyLong())).thenReturn(newLock());
     }
@@ -83,18 +85,29 @@ public class AsyncLockServiceTest {
     public void passesOrderedLocksToAcquirer() {
         OrderedLocks expected = orderedLocks(newLock(), newLock());
         Set<LockDescriptor> descriptors = descriptors(LOCK_A, LOCK_B);
-        when(locks.getAll(descriptors)).thenReturn(expected);
+        when(locks.getAll(descriptors, LockMode.WRITE)).thenReturn(expected);
 
         lockService.lock(REQUEST_ID, descriptors, DEADLINE);
 
-        verify(acquirer).acquireLocks(REQUEST_ID, expected, DEADLINE);
+        verify(acquirer).acquireLocks(REQUEST_ID, expected, LockMode.WRITE, DEADLINE);
+    }
+
+    @Test
+    public void passesLockModeToCollectionAndAcquirer() {
+        OrderedLocks expected = orderedLocks(newLock(), newLock());
+        Set<LockDescriptor> descriptors = descriptors(LOCK_A, LOCK_B);
+        when(locks.getAll(descriptors, LockMode.READ)).thenReturn(expected);
+
+        lockService.lock(REQUEST_ID, descriptors, LockMode.READ, DEADLINE);
+
+        verify(acquirer).acquireLocks(REQUEST_ID, expected, LockMode.READ, DEADLINE);
     }
 
     @Test
     public void passesOrderedLocksToAcquirerWhenWaitingForLocks() {
         OrderedLocks expected = orderedLocks(newLock(), newLock());
         Set<LockDescriptor> descriptors = descriptors(LOCK_A, LOCK_B);
-        when(locks.getAll(descriptors)).thenReturn(expected);
+        when(locks.getAll(descriptors, LockMode.WRITE)).thenReturn(expected);
 
         lockService.waitForLocks(REQUEST_ID, descriptors, DEADLINE);
 
@@ -107,7 +120,7 @@ public class AsyncLockServiceTest {
         lockService.lock(REQUEST_ID, descriptors, DEADLINE);
         lockService.lock(REQUEST_ID, descriptors, DEADLINE);
 
-        verify(acquirer, times(1)).acquireLocks(any(), any(), any());
+        verify(acquirer, times(1)).acquireLocks(any(), any(), any(), any());
         verifyNoMoreInteractions(acquirer);
     }
 
@@ -155,7 +168,7 @@ public class AsyncLockServiceTest {
     public void propagatesTimeoutExceptionIfRequestTimesOut() {
         AsyncResult<HeldLocks> timedOutResult = new AsyncResult<>();
         timedOutResult.timeout();
-        when(acquirer.acquireLocks(any(), any(), any())).thenReturn(timedOutResult);
+        when(acquirer.acquireLocks(any(), any(), any(), any())).thenReturn(timedOutResult);
 
         AsyncResult<?> result = lockService.lock(REQUEST_ID, descriptors(LOCK_A), DEADLINE);
 
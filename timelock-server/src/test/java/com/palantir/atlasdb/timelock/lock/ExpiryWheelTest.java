@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.common.time.NanoTime;
+import java.time.Duration;
+import org.junit.Test;
+
+public class ExpiryWheelTest {
+    private static final NanoTime ORIGIN = NanoTime.createForTests(123);
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private final ExpiryWheel<String> wheel = new ExpiryWheel<>(ORIGIN, TICK, 8);
+
+    @Test
+    public void keysComeDueOnceTheTickOfTheirDeadlineStarts() {
+        wheel.schedule("a", at(Duration.ofMillis(2500)));
+        wheel.schedule("b", at(Duration.ofMillis(3500)));
+
+        assertThat(wheel.pollDue(at(Duration.ofMillis(1999)))).isEmpty();
+        assertThat(wheel.pollDue(at(Duration.ofMillis(2000)))).containsExactly("a");
+        assertThat(wheel.pollDue(at(Duration.ofMillis(2999)))).isEmpty();
+        assertThat(wheel.pollDue(at(Duration.ofMillis(3000)))).containsExactly("b");
+    }
+
+    @Test
+    public void keysComeDueOnlyOnce() {
+        wheel.schedule("a", at(Duration.ofMillis(1500)));
+
+        assertThat(wheel.pollDue(at(Duration.ofSeconds(2)))).containsExactly("a");
+        assertThat(wheel.pollDue(at(Duration.ofSeconds(3)))).isEmpty();
+    }
+
+    @Test
+    public void keysScheduledForPolledTicksComeDueOnTheNextPoll() {
+        wheel.pollDue(at(Duration.ofSeconds(5)));
+
+        wheel.schedule("a", at(Duration.ofSeconds(1)));
+        wheel.scheduleImmediately("b");
+
+        assertThat(wheel.pollDue(at(Duration.ofSeconds(5)))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void pollsEverySlotWhenMoreThanAWholeTurnHasPassed() {
+        wheel.schedule("a", at(Duration.ofSeconds(3)));
+        wheel.schedule("b", at(Duration.ofSeconds(7)));
+
+        assertThat(wheel.pollDue(at(Duration.ofSeconds(100)))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void keysFurtherAheadThanTheWheelComeDueEarly() {
+        wheel.schedule("a", at(Duration.ofSeconds(10)));
+
+        assertThat(wheel.pollDue(at(Duration.ofSeconds(2)))).containsExactly("a");
+    }
+
+    private static NanoTime at(Duration sinceOrigin) {
+        return ORIGIN.plus(sinceOrigin);
+    }
+}
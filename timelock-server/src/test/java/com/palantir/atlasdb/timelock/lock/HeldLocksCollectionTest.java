@@ -17,6 +17,7 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -27,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
 import com.palantir.common.time.NanoTime;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.StringLockDescriptor;
 import com.palantir.lock.v2.LeadershipId;
 import com.palantir.lock.v2.Lease;
@@ -102,6 +104,44 @@ public class HeldLocksCollectionTest {
         assertThat(heldLocksCollection.heldLocksById.size()).isEqualTo(0);
     }
 
+    @Test
+    public void doesNotCheckLocksWhoseLeasesAreNotAboutToExpire() {
+        HeldLocks heldLocks = mock(HeldLocks.class);
+        when(heldLocks.lastRefreshTime()).thenReturn(time.get());
+        AsyncResult<HeldLocks> result = new AsyncResult<>();
+        result.complete(heldLocks);
+        heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> result);
+
+        heldLocksCollection.removeExpired();
+
+        verify(heldLocks, never()).unlockIfExpired();
+        assertThat(heldLocksCollection.heldLocksById).containsKey(REQUEST_ID);
+    }
+
+    @Test
+    public void refreshedLocksAreReapedOnlyOnceTheirRefreshedLeasesExpire() {
+        setTime(123);
+        lockSync(REQUEST_ID);
+
+        advance(LockLeaseContract.SERVER_LEASE_TIMEOUT.minus(Duration.ofSeconds(1)));
+        heldLocksCollection.refresh(ImmutableSet.of(LockToken.of(REQUEST_ID)));
+
+        advance(Duration.ofSeconds(2));
+        assertLocked(REQUEST_ID);
+
+        advance(LockLeaseContract.SERVER_LEASE_TIMEOUT);
+        assertUnlocked(REQUEST_ID);
+    }
+
+    @Test
+    public void reapsLocksThatExpiredLongBeforeTheReaperRan() {
+        setTime(123);
+        lockSync(REQUEST_ID);
+
+        advance(LockLeaseContract.SERVER_LEASE_TIMEOUT.multipliedBy(10));
+        assertUnlocked(REQUEST_ID);
+    }
+
     @Test
     public void refreshReturnsSubsetOfUnlockedLocks() {
         LockToken unlockableRequest = mockRefreshableRequest();
@@ -188,7 +228,7 @@ public class HeldLocksCollectionTest {
         AsyncResult<Leased<LockToken>> asyncResult = heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> result);
         result.complete(heldLocksForId(REQUEST_ID));
         verify(lockWatcher)
-                .registerLock(ImmutableSet.of(LOCK_DESCRIPTOR), result.get().getToken());
+                .registerLock(ImmutableSet.of(LOCK_DESCRIPTOR), result.get().getToken(), LockMode.WRITE);
 
         Lease lease = asyncResult.get().lease();
 
@@ -206,7 +246,7 @@ public class HeldLocksCollectionTest {
         AsyncResult<Leased<LockToken>> asyncResult = heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> result);
         result.complete(heldLocksForId(REQUEST_ID));
         verify(lockWatcher)
-                .registerLock(ImmutableSet.of(LOCK_DESCRIPTOR), result.get().getToken());
+                .registerLock(ImmutableSet.of(LOCK_DESCRIPTOR), result.get().getToken(), LockMode.WRITE);
 
         heldLocksCollection.unlock(ImmutableSet.of(LockToken.of(REQUEST_ID)));
         verify(lockWatcher).registerUnlock(ImmutableSet.of(LOCK_DESCRIPTOR));
@@ -274,6 +314,7 @@ public class HeldLocksCollectionTest {
                 new LockLog(new MetricRegistry(), () -> 2L),
                 ImmutableSet.of(new ExclusiveLock(LOCK_DESCRIPTOR)),
                 id,
+                LockMode.WRITE,
                 leaderClock,
                 lockWatcher);
     }
@@ -288,8 +329,12 @@ public class HeldLocksCollectionTest {
     }
 
     private LockToken mockExpiredRequest() {
-        return mockHeldLocksForNewRequest(
-                heldLocks -> when(heldLocks.unlockIfExpired()).thenReturn(true));
+        NanoTime expiredRefreshTime =
+                time.get().plus(LockLeaseContract.SERVER_LEASE_TIMEOUT.negated().minusNanos(1));
+        return mockHeldLocksForNewRequest(heldLocks -> {
+            when(heldLocks.unlockIfExpired()).thenReturn(true);
+            when(heldLocks.lastRefreshTime()).thenReturn(expiredRefreshTime);
+        });
     }
 
     private LockToken mockNonExpiredRequest() {
@@ -334,8 +379,8 @@ public class HeldLocksCollectionTest {
     private LockToken mockHeldLocksForNewRequest(Consumer<HeldLocks> mockApplier) {
         LockToken request = LockToken.of(UUID.randomUUID());
         HeldLocks heldLocks = mock(HeldLocks.class);
-        mockApplier.accept(heldLocks);
         when(heldLocks.lastRefreshTime()).thenReturn(time.get());
+        mockApplier.accept(heldLocks);
 
         AsyncResult<HeldLocks> completedResult = new AsyncResult<>();
         completedResult.complete(heldLocks);
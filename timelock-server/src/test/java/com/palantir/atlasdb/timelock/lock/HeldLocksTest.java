@@ -26,6 +26,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.timelock.lock.watch.LockWatchingService;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.StringLockDescriptor;
 import java.util.UUID;
 import org.junit.Before;
@@ -53,6 +54,7 @@ public class HeldLocksTest {
                 new LockLog(new MetricRegistry(), () -> 2L),
                 ImmutableList.of(lockA, lockB),
                 REQUEST_ID,
+                LockMode.WRITE,
                 timer,
                 mock(LockWatchingService.class));
     }
@@ -0,0 +1,176 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.StringLockDescriptor;
+import java.util.UUID;
+import org.junit.Test;
+
+public class SharedExclusiveLockTests {
+
+    private static final UUID REQUEST_1 = UUID.randomUUID();
+    private static final UUID REQUEST_2 = UUID.randomUUID();
+    private static final UUID REQUEST_3 = UUID.randomUUID();
+    private static final UUID REQUEST_4 = UUID.randomUUID();
+
+    private static final LockDescriptor LOCK_DESCRIPTOR = StringLockDescriptor.of("foo");
+
+    private final SharedExclusiveLock lock = new SharedExclusiveLock(LOCK_DESCRIPTOR);
+    private final AsyncLock readLock = lock.readLock();
+    private final AsyncLock writeLock = lock.writeLock();
+
+    @Test
+    public void viewsShareDescriptor() {
+        assertThat(readLock.getDescriptor()).isEqualTo(LOCK_DESCRIPTOR);
+        assertThat(writeLock.getDescriptor()).isEqualTo(LOCK_DESCRIPTOR);
+        assertThat(lock.get(LockMode.READ)).isSameAs(readLock);
+        assertThat(lock.get(LockMode.WRITE)).isSameAs(writeLock);
+    }
+
+    @Test
+    public void readersShareLock() {
+        lockSynchronously(readLock, REQUEST_1);
+        lockSynchronously(readLock, REQUEST_2);
+        lockSynchronously(readLock, REQUEST_3);
+
+        assertThat(lock.getCurrentReaders()).containsExactlyInAnyOrder(REQUEST_1, REQUEST_2, REQUEST_3);
+    }
+
+    @Test
+    public void writerWaitsForAllReaders() {
+        lockSynchronously(readLock, REQUEST_1);
+        lockSynchronously(readLock, REQUEST_2);
+        AsyncResult<Void> writer = writeLock.lock(REQUEST_3);
+
+        readLock.unlock(REQUEST_1);
+        assertThat(writer.isComplete()).isFalse();
+
+        readLock.unlock(REQUEST_2);
+        assertThat(writer.isCompletedSuccessfully()).isTrue();
+        assertThat(lock.getCurrentWriter()).isEqualTo(REQUEST_3);
+    }
+
+    @Test
+    public void readersWaitForWriter() {
+        lockSynchronously(writeLock, REQUEST_1);
+        AsyncResult<Void> reader1 = readLock.lock(REQUEST_2);
+        AsyncResult<Void> reader2 = readLock.lock(REQUEST_3);
+
+        assertThat(reader1.isComplete()).isFalse();
+        assertThat(reader2.isComplete()).isFalse();
+
+        writeLock.unlock(REQUEST_1);
+
+        assertThat(reader1.isCompletedSuccessfully()).isTrue();
+        assertThat(reader2.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void readersQueueBehindWaitingWriter() {
+        lockSynchronously(readLock, REQUEST_1);
+        AsyncResult<Void> writer = writeLock.lock(REQUEST_2);
+        AsyncResult<Void> lateReader = readLock.lock(REQUEST_3);
+
+        assertThat(lateReader.isComplete()).isFalse();
+
+        readLock.unlock(REQUEST_1);
+        assertThat(writer.isCompletedSuccessfully()).isTrue();
+        assertThat(lateReader.isComplete()).isFalse();
+
+        writeLock.unlock(REQUEST_2);
+        assertThat(lateReader.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void requestsAreGrantedInOrder() {
+        lockSynchronously(writeLock, REQUEST_1);
+        AsyncResult<Void> reader = readLock.lock(REQUEST_2);
+        AsyncResult<Void> writer = writeLock.lock(REQUEST_3);
+        AsyncResult<Void> lateReader = readLock.lock(REQUEST_4);
+
+        writeLock.unlock(REQUEST_1);
+        assertThat(reader.isCompletedSuccessfully()).isTrue();
+        assertThat(writer.isComplete()).isFalse();
+        assertThat(lateReader.isComplete()).isFalse();
+
+        readLock.unlock(REQUEST_2);
+        assertThat(writer.isCompletedSuccessfully()).isTrue();
+        assertThat(lateReader.isComplete()).isFalse();
+    }
+
+    @Test
+    public void timingOutQueuedWriterUnblocksReadersBehindIt() {
+        lockSynchronously(readLock, REQUEST_1);
+        AsyncResult<Void> writer = writeLock.lock(REQUEST_2);
+        AsyncResult<Void> lateReader = readLock.lock(REQUEST_3);
+
+        writeLock.timeout(REQUEST_2);
+
+        assertThat(writer.isTimedOut()).isTrue();
+        assertThat(lateReader.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void unlockingInWrongModeNoOps() {
+        lockSynchronously(readLock, REQUEST_1);
+        AsyncResult<Void> writer = writeLock.lock(REQUEST_2);
+
+        writeLock.unlock(REQUEST_1);
+
+        assertThat(lock.getCurrentReaders()).containsExactly(REQUEST_1);
+        assertThat(writer.isComplete()).isFalse();
+    }
+
+    @Test
+    public void readWaitUntilAvailableDoesNotWaitForReaders() {
+        lockSynchronously(readLock, REQUEST_1);
+
+        AsyncResult<Void> result = readLock.waitUntilAvailable(REQUEST_2);
+
+        assertThat(result.isCompletedSuccessfully()).isTrue();
+        assertThat(lock.getCurrentReaders()).containsExactly(REQUEST_1);
+    }
+
+    @Test
+    public void writeWaitUntilAvailableWaitsForReaders() {
+        lockSynchronously(readLock, REQUEST_1);
+        AsyncResult<Void> result = writeLock.waitUntilAvailable(REQUEST_2);
+
+        assertThat(result.isComplete()).isFalse();
+
+        readLock.unlock(REQUEST_1);
+
+        assertThat(result.isCompletedSuccessfully()).isTrue();
+        assertThat(lock.getCurrentWriter()).isNull();
+    }
+
+    @Test
+    public void cannotEnqueueSameRequestInBothModes() {
+        lockSynchronously(writeLock, REQUEST_1);
+        readLock.lock(REQUEST_2);
+
+        assertThatThrownBy(() -> writeLock.lock(REQUEST_2)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void lockSynchronously(AsyncLock asyncLock, UUID requestId) {
+        assertThat(asyncLock.lock(requestId).isCompletedSuccessfully()).isTrue();
+    }
+}